@@ -0,0 +1,74 @@
+package sber.bank.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import sber.bank.domain.Account;
+import sber.bank.domain.Card;
+import sber.bank.domain.User;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Время сравнения и вычисления хеш-кода сущностей.
+ * Сравниваются равные, но не идентичные объекты, чтобы проверка не завершалась на сравнении ссылок;
+ * для карты в сравнение входят вложенные счет и владелец.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityEqualityBenchmark {
+    private User user;
+
+    private User userCopy;
+
+    private Account account;
+
+    private Account accountCopy;
+
+    private Card card;
+
+    private Card cardCopy;
+
+    @Setup
+    public void setup() {
+        user = new User(1L, "Иванов Иван Иванович", new Date(0), "ул. Пушкина, д. 10");
+        userCopy = new User(user);
+        account = new Account(4000000000000000L, user, "RUB", 100.0);
+        accountCopy = new Account(4000000000000000L, userCopy, "RUB", 100.0);
+        card = new Card(4111111111111111L, account, new Date(1_700_000_000_000L), 123);
+        cardCopy = new Card(4111111111111111L, accountCopy, new Date(1_700_000_000_000L), 123);
+    }
+
+    @Benchmark
+    public boolean userEquals() {
+        return user.equals(userCopy);
+    }
+
+    @Benchmark
+    public int userHashCode() {
+        return user.hashCode();
+    }
+
+    @Benchmark
+    public boolean accountEquals() {
+        return account.equals(accountCopy);
+    }
+
+    @Benchmark
+    public int accountHashCode() {
+        return account.hashCode();
+    }
+
+    @Benchmark
+    public boolean cardEquals() {
+        return card.equals(cardCopy);
+    }
+
+    @Benchmark
+    public int cardHashCode() {
+        return card.hashCode();
+    }
+}
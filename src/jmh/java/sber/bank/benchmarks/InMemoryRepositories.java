@@ -0,0 +1,114 @@
+package sber.bank.benchmarks;
+
+import sber.bank.domain.Account;
+import sber.bank.repos.AccountRepository;
+import sber.bank.repos.CardRepository;
+import sber.bank.repos.UserRepository;
+import sber.bank.repos.projection.CurrencyBalance;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Репозитории в памяти для измерений без базы данных.
+ * Поддерживаются только методы, которые вызываются в измеряемых сценариях;
+ * остальные методы выбрасывают UnsupportedOperationException.
+ */
+final class InMemoryRepositories {
+    /**
+     * Закрытый конструктор: класс содержит только статические методы.
+     */
+    private InMemoryRepositories() {
+
+    }
+
+    /**
+     * Создает репозиторий счетов с заранее посчитанными суммами балансов по валютам.
+     * Суммы считаются один раз при создании репозитория: агрегирующий запрос выполняет база данных,
+     * поэтому в измерение попадает только обработка его результата сервисом.
+     *
+     * @param accounts Счета.
+     * @return Репозиторий счетов.
+     */
+    static AccountRepository accounts(List<Account> accounts) {
+        Map<Long, List<CurrencyBalance>> balances = sumBalanceByCurrency(accounts);
+
+        return proxy(AccountRepository.class, (proxy, method, args) -> switch (method.getName()) {
+            case "sumBalanceByCurrency" -> balances.getOrDefault((Long) args[0], List.of());
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    /**
+     * Создает репозиторий пользователей, в котором существуют все пользователи.
+     *
+     * @return Репозиторий пользователей.
+     */
+    static UserRepository users() {
+        return proxy(UserRepository.class, (proxy, method, args) -> switch (method.getName()) {
+            case "existsById" -> true;
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    /**
+     * Создает пустой репозиторий карт.
+     *
+     * @return Репозиторий карт.
+     */
+    static CardRepository cards() {
+        return proxy(CardRepository.class, (proxy, method, args) -> {
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    /**
+     * Суммирует балансы счетов каждого пользователя по валютам.
+     *
+     * @param accounts Счета.
+     * @return Суммарный баланс по каждой валюте для каждого пользователя.
+     */
+    private static Map<Long, List<CurrencyBalance>> sumBalanceByCurrency(List<Account> accounts) {
+        Map<Long, Map<String, Long>> totals = new HashMap<>();
+        for (Account account : accounts) {
+            totals.computeIfAbsent(account.getUser().getId(), id -> new LinkedHashMap<>())
+                    .merge(account.getCurrency(), account.getBalanceMinor(), Long::sum);
+        }
+
+        Map<Long, List<CurrencyBalance>> balances = new HashMap<>();
+        totals.forEach((userId, byCurrency) -> {
+            List<CurrencyBalance> userBalances = new ArrayList<>(byCurrency.size());
+            byCurrency.forEach((currency, total) -> userBalances.add(new CurrencyBalance() {
+                @Override
+                public String getCurrency() {
+                    return currency;
+                }
+
+                @Override
+                public Long getTotal() {
+                    return total;
+                }
+            }));
+            balances.put(userId, List.copyOf(userBalances));
+        });
+
+        return balances;
+    }
+
+    /**
+     * Создает реализацию интерфейса репозитория.
+     *
+     * @param type    Интерфейс репозитория.
+     * @param handler Обработчик вызовов.
+     * @param <R>     Тип репозитория.
+     * @return Реализация репозитория.
+     */
+    private static <R> R proxy(Class<R> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+}
@@ -0,0 +1,78 @@
+package sber.bank.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import sber.bank.domain.Account;
+import sber.bank.domain.Card;
+import sber.bank.domain.User;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Время сериализации и десериализации сущностей в JSON.
+ * ObjectMapper настраивается так же, как в приложении (Jackson2ObjectMapperBuilder).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+    private ObjectMapper objectMapper;
+
+    private User user;
+
+    private Account account;
+
+    private Card card;
+
+    private String userJson;
+
+    private String accountJson;
+
+    private String cardJson;
+
+    @Setup
+    public void setup() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        user = new User(1L, "Иванов Иван Иванович", new Date(0), "ул. Пушкина, д. 10");
+        account = new Account(4000000000000000L, user, "RUB", 100.0);
+        card = new Card(4111111111111111L, account, new Date(1_700_000_000_000L), 123);
+        userJson = objectMapper.writeValueAsString(user);
+        accountJson = objectMapper.writeValueAsString(account);
+        cardJson = objectMapper.writeValueAsString(card);
+    }
+
+    @Benchmark
+    public String writeUser() throws Exception {
+        return objectMapper.writeValueAsString(user);
+    }
+
+    @Benchmark
+    public User readUser() throws Exception {
+        return objectMapper.readValue(userJson, User.class);
+    }
+
+    @Benchmark
+    public String writeAccount() throws Exception {
+        return objectMapper.writeValueAsString(account);
+    }
+
+    @Benchmark
+    public Account readAccount() throws Exception {
+        return objectMapper.readValue(accountJson, Account.class);
+    }
+
+    @Benchmark
+    public String writeCard() throws Exception {
+        return objectMapper.writeValueAsString(card);
+    }
+
+    @Benchmark
+    public Card readCard() throws Exception {
+        return objectMapper.readValue(cardJson, Card.class);
+    }
+}
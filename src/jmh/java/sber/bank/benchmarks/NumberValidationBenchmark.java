@@ -0,0 +1,96 @@
+package sber.bank.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import sber.bank.exceptions.BadArgumentException;
+import sber.bank.validation.Validation;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение проверки номеров карт и счетов через строковое представление (прежняя реализация)
+ * с арифметической проверкой {@link Validation}.
+ * Прежняя проверка номера карты отклоняла любой номер из-за цепочки условий через ИЛИ; здесь она воспроизведена
+ * с исправленным условием, чтобы сравнивались реализации с одинаковым результатом на корректных номерах.
+ * Выделение памяти видно при запуске с профилировщиком -prof gc.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumberValidationBenchmark {
+    @Param({"4111111111111111", "123"})
+    private long number;
+
+    private Long boxed;
+
+    @Setup
+    public void setup() {
+        boxed = number;
+    }
+
+    @Benchmark
+    public void legacyCardNumber(Blackhole blackhole) {
+        try {
+            legacyValidateCardNumber(boxed);
+        } catch (BadArgumentException e) {
+            blackhole.consume(e);
+        }
+    }
+
+    @Benchmark
+    public void cardNumber(Blackhole blackhole) {
+        try {
+            Validation.validateCardNumber(boxed);
+        } catch (BadArgumentException e) {
+            blackhole.consume(e);
+        }
+    }
+
+    @Benchmark
+    public void legacyAccountNumber(Blackhole blackhole) {
+        try {
+            legacyValidateAccountNumber(boxed);
+        } catch (BadArgumentException e) {
+            blackhole.consume(e);
+        }
+    }
+
+    @Benchmark
+    public void accountNumber(Blackhole blackhole) {
+        try {
+            Validation.validateAccountNumber(boxed);
+        } catch (BadArgumentException e) {
+            blackhole.consume(e);
+        }
+    }
+
+    /**
+     * Прежняя проверка номера карты с исправленным условием.
+     *
+     * @param number Номер карты.
+     */
+    private static void legacyValidateCardNumber(Long number) {
+        if (number == null
+            || String.valueOf(number).length() != 13
+            && String.valueOf(number).length() != 15
+            && String.valueOf(number).length() != 16
+            && String.valueOf(number).length() != 18
+            && String.valueOf(number).length() != 19) {
+            throw new BadArgumentException("Некорректный номер карты");
+        }
+    }
+
+    /**
+     * Прежняя проверка номера счета.
+     *
+     * @param number Номер счета.
+     */
+    private static void legacyValidateAccountNumber(Long number) {
+        if (number == null || String.valueOf(number).length() < 15) {
+            throw new BadArgumentException("Некорректный номер счета");
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package sber.bank.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import sber.bank.BankApplication;
+import sber.bank.domain.Account;
+import sber.bank.domain.User;
+import sber.bank.exceptions.BadArgumentException;
+import sber.bank.service.implementation.AccountService;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность параллельных встречных переводов между небольшим числом счетов.
+ * Приложение запускается без веб-сервера на встроенной H2 с профилем test, поэтому измеряется
+ * работа сервиса вместе с базой данных: условные UPDATE-запросы, блокировки строк и запись проводок.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Threads(8)
+@Fork(1)
+public class TransferBenchmark {
+    private static final int ACCOUNTS = 10;
+
+    private static final long FIRST_NUMBER = 7000000000000000L;
+
+    private ConfigurableApplicationContext context;
+
+    private AccountService accountService;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(BankApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run();
+        accountService = context.getBean(AccountService.class);
+
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountService.create(new Account(FIRST_NUMBER + i, new User(1L, null, null, null), "USD", 1_000_000.0));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountService.delete(FIRST_NUMBER + i);
+        }
+        context.close();
+    }
+
+    @Benchmark
+    public boolean transfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(ACCOUNTS);
+        int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+
+        try {
+            accountService.transfer(FIRST_NUMBER + from, FIRST_NUMBER + to, 1 + random.nextInt(100_00));
+            return true;
+        } catch (BadArgumentException e) {
+            // Недостаточно средств: перевод отклонен целиком.
+            return false;
+        }
+    }
+}
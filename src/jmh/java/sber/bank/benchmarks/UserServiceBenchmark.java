@@ -0,0 +1,54 @@
+package sber.bank.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import sber.bank.domain.Account;
+import sber.bank.domain.User;
+import sber.bank.service.exchange.ExchangeRateHistory;
+import sber.bank.service.exchange.ExchangeRateTable;
+import sber.bank.service.implementation.UserService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Время расчета общего баланса пользователя в зависимости от количества его счетов.
+ * Репозитории заменены реализациями в памяти, а суммы балансов по валютам посчитаны заранее, как их вернул бы
+ * агрегирующий запрос, поэтому измеряется только работа сервиса: пересчет сумм по курсу и арифметика денежных сумм.
+ * Количество счетов влияет на результат только через количество валют, по которым они открыты.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserServiceBenchmark {
+    private static final Long USER_ID = 1L;
+
+    private static final String[] CURRENCIES = {"RUB", "USD", "EUR", "CNY"};
+
+    @Param({"1", "100", "10000"})
+    private int accounts;
+
+    private UserService userService;
+
+    @Setup
+    public void setup() {
+        User user = new User(USER_ID, "Иванов Иван Иванович", null, "ул. Пушкина, д. 10");
+        List<Account> data = new ArrayList<>(accounts);
+        for (int i = 0; i < accounts; i++) {
+            data.add(new Account(4000000000000000L + i, user, CURRENCIES[i % CURRENCIES.length], 100.0 + i));
+        }
+
+        ExchangeRateTable exchangeRateTable = new ExchangeRateTable(() -> Map.of("RUB", 1.0, "USD", 90.0, "EUR", 100.0, "CNY", 12.5));
+        userService = new UserService(InMemoryRepositories.users(), InMemoryRepositories.accounts(data),
+                InMemoryRepositories.cards(), exchangeRateTable, new ExchangeRateHistory(null, exchangeRateTable), null, null);
+    }
+
+    @Benchmark
+    public double getOverallBalance() {
+        return userService.getOverallBalance(USER_ID);
+    }
+}
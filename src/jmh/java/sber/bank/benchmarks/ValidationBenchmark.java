@@ -0,0 +1,106 @@
+package sber.bank.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import sber.bank.domain.Account;
+import sber.bank.domain.Card;
+import sber.bank.domain.User;
+import sber.bank.exceptions.BadArgumentException;
+import sber.bank.validation.DomainRules;
+import sber.bank.validation.Validation;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Время проверки входных данных для корректных и некорректных значений.
+ * Для некорректных значений измеряется и стоимость создания исключения.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+    private User user;
+
+    private Account account;
+
+    private Card card;
+
+    private User invalidUser;
+
+    private Long accountNumber;
+
+    private Long cardNumber;
+
+    private Long invalidNumber;
+
+    @Setup
+    public void setup() {
+        user = new User(1L, "Иванов Иван Иванович", new Date(0), "ул. Пушкина, д. 10");
+        account = new Account(4000000000000000L, user, "RUB", 100.0);
+        card = new Card(4111111111111111L, account, new Date(), 123);
+        invalidUser = new User(2L, "", null, null);
+        accountNumber = 4000000000000000L;
+        cardNumber = 4111111111111111L;
+        invalidNumber = 12345L;
+    }
+
+    @Benchmark
+    public void validateUser() {
+        DomainRules.USER.validate(user);
+    }
+
+    @Benchmark
+    public void validateUser_Invalid(Blackhole blackhole) {
+        try {
+            DomainRules.USER.validate(invalidUser);
+        } catch (BadArgumentException e) {
+            blackhole.consume(e);
+        }
+    }
+
+    @Benchmark
+    public void validateAccount() {
+        DomainRules.ACCOUNT.validate(account);
+    }
+
+    @Benchmark
+    public void validateCard() {
+        DomainRules.CARD.validate(card);
+    }
+
+    @Benchmark
+    public void validateAccountNumber() {
+        Validation.validateAccountNumber(accountNumber);
+    }
+
+    @Benchmark
+    public void validateAccountNumber_Invalid(Blackhole blackhole) {
+        try {
+            Validation.validateAccountNumber(invalidNumber);
+        } catch (BadArgumentException e) {
+            blackhole.consume(e);
+        }
+    }
+
+    @Benchmark
+    public void validateCardNumber(Blackhole blackhole) {
+        try {
+            Validation.validateCardNumber(cardNumber);
+        } catch (BadArgumentException e) {
+            blackhole.consume(e);
+        }
+    }
+
+    @Benchmark
+    public void validateCardNumber_Invalid(Blackhole blackhole) {
+        try {
+            Validation.validateCardNumber(invalidNumber);
+        } catch (BadArgumentException e) {
+            blackhole.consume(e);
+        }
+    }
+}
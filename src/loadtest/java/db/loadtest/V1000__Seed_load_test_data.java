@@ -0,0 +1,162 @@
+package db.loadtest;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+
+/**
+ * Заполнение базы данных для нагрузочного тестирования.
+ * Применяется после миграций схемы, только если в spring.flyway.locations добавлен каталог db/loadtest.
+ * Объем данных задается подстановками Flyway (spring.flyway.placeholders.*):
+ * users — количество пользователей, accounts-per-user — количество счетов у каждого пользователя;
+ * к каждому счету выпускается одна карта, а начальный баланс, владелец и валюта счета записываются в журнал проводок
+ * и историю версий счетов.
+ * <p>
+ * Номера детерминированы, поэтому нагрузочный тест вычисляет их без обращения к базе данных:
+ * пользователь i (начиная с 0) имеет идентификатор {@link #FIRST_USER_ID} + i,
+ * счет j — номер {@link #FIRST_ACCOUNT_NUMBER} + j, карта счета j — номер {@link #cardNumber(long)}.
+ * Все счета одного пользователя открыты в одной валюте, чтобы между ними можно было выполнять переводы.
+ */
+public class V1000__Seed_load_test_data extends BaseJavaMigration {
+    /**
+     * Идентификатор первого пользователя; меньшие идентификаторы заняты начальными данными.
+     */
+    public static final long FIRST_USER_ID = 1_000_000L;
+
+    /**
+     * Номер первого счета.
+     */
+    public static final long FIRST_ACCOUNT_NUMBER = 5_000_000_000_000_000L;
+
+    /**
+     * Первые 15 цифр номера первой карты; шестнадцатая цифра — контрольная цифра Луна.
+     */
+    private static final long FIRST_CARD_PREFIX = 510_000_000_000_000L;
+
+    /**
+     * Количество строк в одном пакете вставки.
+     */
+    private static final int BATCH_SIZE = 10_000;
+
+    /**
+     * Валюты счетов; валюта пользователя i — CURRENCIES[i % CURRENCIES.length].
+     */
+    public static final String[] CURRENCIES = {"RUB", "USD", "EUR"};
+
+    /**
+     * Выполняет миграцию.
+     *
+     * @param context Контекст миграции.
+     * @throws Exception Если запрос к базе данных завершился ошибкой.
+     */
+    @Override
+    public void migrate(Context context) throws Exception {
+        long users = Long.parseLong(context.getConfiguration().getPlaceholders().getOrDefault("users", "1000000"));
+        int accountsPerUser = Integer.parseInt(
+                context.getConfiguration().getPlaceholders().getOrDefault("accounts-per-user", "2"));
+        Connection connection = context.getConnection();
+        Timestamp birthdate = Timestamp.valueOf("1990-01-01 00:00:00");
+        Timestamp expirationDate = Timestamp.valueOf("2030-12-31 00:00:00");
+
+        try (PreparedStatement user = connection.prepareStatement(
+                "insert into \"user\" (id, birthdate, address, \"name\") values (?, ?, ?, ?)");
+             PreparedStatement account = connection.prepareStatement(
+                     "insert into account (\"number\", balance, \"user_id\", currency) values (?, ?, ?, ?)");
+             PreparedStatement card = connection.prepareStatement(
+                     "insert into card (\"number\", cvv, account_number, expiration_date) values (?, ?, ?, ?)")) {
+            int pending = 0;
+
+            for (long i = 0; i < users; i++) {
+                long userId = FIRST_USER_ID + i;
+                user.setLong(1, userId);
+                user.setTimestamp(2, birthdate);
+                user.setString(3, "ул. Нагрузочная, д. " + i);
+                user.setString(4, "Пользователь " + i);
+                user.addBatch();
+
+                for (int k = 0; k < accountsPerUser; k++) {
+                    long index = i * accountsPerUser + k;
+                    long number = FIRST_ACCOUNT_NUMBER + index;
+                    account.setLong(1, number);
+                    account.setLong(2, 100_000_000L);
+                    account.setLong(3, userId);
+                    account.setString(4, CURRENCIES[(int) (i % CURRENCIES.length)]);
+                    account.addBatch();
+
+                    card.setLong(1, cardNumber(index));
+                    card.setInt(2, (int) (100 + index % 900));
+                    card.setLong(3, number);
+                    card.setTimestamp(4, expirationDate);
+                    card.addBatch();
+                }
+
+                if (++pending >= BATCH_SIZE / Math.max(accountsPerUser, 1)) {
+                    flush(user, account, card);
+                    pending = 0;
+                }
+            }
+
+            flush(user, account, card);
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("alter sequence user_seq restart with " + (FIRST_USER_ID + users));
+            statement.execute("""
+                    insert into ledger_entry (id, debit_account, credit_account, amount, created_at)
+                    select nextval('ledger_entry_seq'), 0, "number", balance, current_timestamp
+                    from account
+                    where "number" >= %d and balance > 0""".formatted(FIRST_ACCOUNT_NUMBER));
+            statement.execute("""
+                    insert into account_revision (id, account_number, valid_from, "user_id", currency, closed)
+                    select nextval('account_revision_seq'), "number", current_timestamp, "user_id", currency, false
+                    from account
+                    where "number" >= %d""".formatted(FIRST_ACCOUNT_NUMBER));
+        }
+    }
+
+    /**
+     * Вычисляет номер карты, привязанной к счету с указанным порядковым номером.
+     *
+     * @param index Порядковый номер счета (начиная с 0).
+     * @return Шестнадцатизначный номер карты с корректной контрольной цифрой Луна.
+     */
+    public static long cardNumber(long index) {
+        long prefix = FIRST_CARD_PREFIX + index;
+        int sum = 0;
+        boolean doubled = true;
+
+        for (long rest = prefix; rest > 0; rest /= 10) {
+            int digit = (int) (rest % 10);
+            if (doubled) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubled = !doubled;
+        }
+
+        return prefix * 10 + (10 - sum % 10) % 10;
+    }
+
+    /**
+     * Выполняет накопленные пакеты вставки в порядке, соблюдающем внешние ключи.
+     *
+     * @param user    Пакет вставки пользователей.
+     * @param account Пакет вставки счетов.
+     * @param card    Пакет вставки карт.
+     * @throws SQLException Если запрос к базе данных завершился ошибкой.
+     */
+    private static void flush(PreparedStatement user, PreparedStatement account, PreparedStatement card)
+            throws SQLException {
+        user.executeBatch();
+        account.executeBatch();
+        card.executeBatch();
+    }
+}
@@ -0,0 +1,99 @@
+package sber.bank.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Накопитель времени ответа одной операции в одном потоке нагрузки.
+ * Значения хранятся полностью, поэтому процентили вычисляются точно, без гистограммных интервалов.
+ */
+final class Latencies {
+    /**
+     * Время ответа в наносекундах.
+     */
+    private long[] values = new long[1024];
+
+    /**
+     * Количество записанных значений.
+     */
+    private int size;
+
+    /**
+     * Количество ответов с кодом, отличным от 2xx, и ошибок ввода-вывода.
+     */
+    private long errors;
+
+    /**
+     * Записывает время ответа.
+     *
+     * @param nanos   Время ответа в наносекундах.
+     * @param success true, если запрос завершился успешно.
+     */
+    void record(long nanos, boolean success) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = nanos;
+
+        if (!success) {
+            errors++;
+        }
+    }
+
+    /**
+     * Получение количества записанных значений.
+     *
+     * @return Количество запросов.
+     */
+    int count() {
+        return size;
+    }
+
+    /**
+     * Получение количества неуспешных запросов.
+     *
+     * @return Количество ошибок.
+     */
+    long errors() {
+        return errors;
+    }
+
+    /**
+     * Объединяет накопители нескольких потоков и упорядочивает значения.
+     *
+     * @param parts Накопители потоков.
+     * @return Объединенный накопитель с упорядоченными значениями.
+     */
+    static Latencies merge(Iterable<Latencies> parts) {
+        Latencies merged = new Latencies();
+        int total = 0;
+        for (Latencies part : parts) {
+            total += part.size;
+        }
+
+        merged.values = new long[Math.max(total, 1)];
+        for (Latencies part : parts) {
+            System.arraycopy(part.values, 0, merged.values, merged.size, part.size);
+            merged.size += part.size;
+            merged.errors += part.errors;
+        }
+        Arrays.sort(merged.values, 0, merged.size);
+
+        return merged;
+    }
+
+    /**
+     * Возвращает процентиль времени ответа упорядоченного накопителя.
+     *
+     * @param percentile Процентиль в диапазоне (0, 100].
+     * @return Время ответа в миллисекундах; 0, если значений нет.
+     */
+    double percentileMs(double percentile) {
+        if (size == 0) {
+            return 0;
+        }
+
+        int index = (int) Math.ceil(percentile / 100.0 * size) - 1;
+
+        return values[Math.max(0, Math.min(index, size - 1))] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,332 @@
+package sber.bank.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import sber.bank.BankApplication;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Нагрузочный тест REST API.
+ * Запускает приложение на встроенной базе данных H2 в режиме совместимости с PostgreSQL,
+ * заполняет ее миграцией db/loadtest, подает смешанную нагрузку из {@link Operation}
+ * и сохраняет отчет в формате JSON: пропускную способность, процентили времени ответа
+ * и количество SQL-запросов на HTTP-запрос (по метрике bank.http.jdbc.statements).
+ * <p>
+ * Параметры задаются системными свойствами:
+ * loadtest.users, loadtest.accounts-per-user, loadtest.threads, loadtest.warmup-seconds,
+ * loadtest.duration-seconds, loadtest.seed, loadtest.report, loadtest.datasource-url.
+ */
+public final class LoadTest {
+    /**
+     * Процентили времени ответа, включаемые в отчет.
+     */
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 100};
+
+    /**
+     * Количество пользователей.
+     */
+    private final long users = Long.getLong("loadtest.users", 1_000_000L);
+
+    /**
+     * Количество счетов у каждого пользователя.
+     */
+    private final int accountsPerUser = Integer.getInteger("loadtest.accounts-per-user", 2);
+
+    /**
+     * Количество потоков нагрузки.
+     */
+    private final int threads = Integer.getInteger("loadtest.threads", 64);
+
+    /**
+     * Длительность прогрева в секундах; результаты прогрева в отчет не входят.
+     */
+    private final int warmupSeconds = Integer.getInteger("loadtest.warmup-seconds", 15);
+
+    /**
+     * Длительность измерения в секундах.
+     */
+    private final int durationSeconds = Integer.getInteger("loadtest.duration-seconds", 60);
+
+    /**
+     * Начальное значение генератора случайных чисел.
+     */
+    private final long seed = Long.getLong("loadtest.seed", 42L);
+
+    /**
+     * Путь к файлу отчета.
+     */
+    private final Path report = Path.of(System.getProperty("loadtest.report", "target/loadtest/report.json"));
+
+    /**
+     * Адрес базы данных.
+     */
+    private final String datasourceUrl = System.getProperty("loadtest.datasource-url",
+            "jdbc:h2:mem:loadtest;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+
+    /**
+     * HTTP-клиент.
+     */
+    private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    /**
+     * Точка входа.
+     *
+     * @param args Аргументы командной строки (не используются).
+     * @throws Exception Если тест завершился ошибкой.
+     */
+    public static void main(String[] args) throws Exception {
+        new LoadTest().run();
+    }
+
+    /**
+     * Выполняет нагрузочный тест.
+     *
+     * @throws Exception Если тест завершился ошибкой.
+     */
+    private void run() throws Exception {
+        if (accountsPerUser < 2) {
+            throw new IllegalArgumentException("Для переводов нужно не менее двух счетов у пользователя");
+        }
+
+        long startupStart = System.nanoTime();
+        try (ConfigurableApplicationContext context = start()) {
+            double startupSeconds = (System.nanoTime() - startupStart) / 1e9;
+            String baseUri = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+            Operation.Dataset dataset = new Operation.Dataset(users, accountsPerUser);
+
+            runPhase(baseUri, dataset, warmupSeconds, seed);
+
+            Map<Operation, double[]> statementsBefore = statements(meterRegistry);
+            double[] poolBefore = poolAcquire(meterRegistry);
+            Map<Operation, Latencies> latencies = runPhase(baseUri, dataset, durationSeconds, seed + threads);
+            Map<Operation, double[]> statementsAfter = statements(meterRegistry);
+            double[] poolAfter = poolAcquire(meterRegistry);
+
+            Map<String, Object> result = report(startupSeconds, latencies, statementsBefore, statementsAfter,
+                    poolBefore, poolAfter);
+            Files.createDirectories(report.toAbsolutePath().getParent());
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(report.toFile(), result);
+            System.out.println(new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValueAsString(result));
+        }
+    }
+
+    /**
+     * Запускает приложение на случайном порту и заполняет базу данных.
+     * Параметры передаются аргументами командной строки, так как они должны иметь приоритет над application.properties.
+     *
+     * @return Контекст приложения.
+     */
+    private ConfigurableApplicationContext start() {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        return new SpringApplicationBuilder(BankApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + datasourceUrl,
+                "--spring.datasource.username=" + System.getProperty("loadtest.datasource-username", "sa"),
+                "--spring.datasource.password=" + System.getProperty("loadtest.datasource-password", ""),
+                "--spring.flyway.locations=classpath:db/migration,classpath:db/loadtest",
+                "--spring.flyway.placeholders.users=" + users,
+                "--spring.flyway.placeholders.accounts-per-user=" + accountsPerUser,
+                "--logging.level.root=WARN");
+    }
+
+    /**
+     * Подает нагрузку в течение указанного времени.
+     *
+     * @param baseUri    Адрес приложения.
+     * @param dataset    Параметры заполненных данных.
+     * @param seconds    Длительность в секундах.
+     * @param phaseSeed  Начальное значение генераторов случайных чисел фазы.
+     * @return Время ответа по операциям.
+     * @throws Exception Если поток нагрузки завершился ошибкой.
+     */
+    private Map<Operation, Latencies> runPhase(String baseUri, Operation.Dataset dataset, int seconds, long phaseSeed)
+            throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Map<Operation, Latencies>>> workers = new ArrayList<>(threads);
+
+        try {
+            for (int i = 0; i < threads; i++) {
+                SplittableRandom random = new SplittableRandom(phaseSeed + i);
+                workers.add(executor.submit(() -> drive(baseUri, dataset, deadline, random)));
+            }
+
+            Map<Operation, List<Latencies>> parts = new EnumMap<>(Operation.class);
+            for (Future<Map<Operation, Latencies>> worker : workers) {
+                worker.get().forEach((operation, part) -> parts.computeIfAbsent(operation, o -> new ArrayList<>()).add(part));
+            }
+
+            Map<Operation, Latencies> merged = new EnumMap<>(Operation.class);
+            parts.forEach((operation, list) -> merged.put(operation, Latencies.merge(list)));
+
+            return merged;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Цикл одного потока нагрузки: выполняет запросы, пока не истечет время.
+     *
+     * @param baseUri  Адрес приложения.
+     * @param dataset  Параметры заполненных данных.
+     * @param deadline Момент окончания (System.nanoTime()).
+     * @param random   Генератор случайных чисел потока.
+     * @return Время ответа по операциям.
+     */
+    private Map<Operation, Latencies> drive(String baseUri, Operation.Dataset dataset, long deadline, SplittableRandom random) {
+        Map<Operation, Latencies> latencies = new EnumMap<>(Operation.class);
+
+        while (System.nanoTime() < deadline) {
+            Operation operation = Operation.next(random);
+            long start = System.nanoTime();
+            boolean success;
+
+            try {
+                int status = httpClient.send(operation.request(baseUri, dataset, random),
+                        HttpResponse.BodyHandlers.discarding()).statusCode();
+                success = status >= 200 && status < 300;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                success = false;
+            }
+
+            latencies.computeIfAbsent(operation, o -> new Latencies()).record(System.nanoTime() - start, success);
+        }
+
+        return latencies;
+    }
+
+    /**
+     * Снимает текущие значения метрики количества SQL-запросов по операциям.
+     *
+     * @param meterRegistry Реестр метрик приложения.
+     * @return Количество HTTP-запросов и суммарное количество SQL-запросов по операциям.
+     */
+    private static Map<Operation, double[]> statements(MeterRegistry meterRegistry) {
+        Map<Operation, double[]> values = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            DistributionSummary summary = meterRegistry.find("bank.http.jdbc.statements")
+                    .tag("method", operation.method)
+                    .tag("uri", operation.uri)
+                    .summary();
+            values.put(operation, summary == null
+                    ? new double[]{0, 0}
+                    : new double[]{summary.count(), summary.totalAmount()});
+        }
+
+        return values;
+    }
+
+    /**
+     * Снимает текущие значения метрики ожидания соединения из пула.
+     *
+     * @param meterRegistry Реестр метрик приложения.
+     * @return Количество выдач соединений и суммарное время ожидания в миллисекундах.
+     */
+    private static double[] poolAcquire(MeterRegistry meterRegistry) {
+        Timer timer = meterRegistry.find("hikaricp.connections.acquire").timer();
+
+        return timer == null
+                ? new double[]{0, 0}
+                : new double[]{timer.count(), timer.totalTime(TimeUnit.MILLISECONDS)};
+    }
+
+    /**
+     * Формирует отчет.
+     *
+     * @param startupSeconds   Время запуска приложения, включая заполнение базы данных, в секундах.
+     * @param latencies        Время ответа по операциям.
+     * @param statementsBefore Значения метрики SQL-запросов до измерения.
+     * @param statementsAfter  Значения метрики SQL-запросов после измерения.
+     * @param poolBefore       Значения метрики ожидания соединения до измерения.
+     * @param poolAfter        Значения метрики ожидания соединения после измерения.
+     * @return Отчет.
+     */
+    private Map<String, Object> report(double startupSeconds, Map<Operation, Latencies> latencies,
+                                       Map<Operation, double[]> statementsBefore, Map<Operation, double[]> statementsAfter,
+                                       double[] poolBefore, double[] poolAfter) {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("users", users);
+        settings.put("accountsPerUser", accountsPerUser);
+        settings.put("threads", threads);
+        settings.put("warmupSeconds", warmupSeconds);
+        settings.put("durationSeconds", durationSeconds);
+        settings.put("seed", seed);
+        settings.put("startupSeconds", startupSeconds);
+
+        List<Map<String, Object>> operations = new ArrayList<>();
+        for (Map.Entry<Operation, Latencies> entry : latencies.entrySet()) {
+            Operation operation = entry.getKey();
+            double requests = statementsAfter.get(operation)[0] - statementsBefore.get(operation)[0];
+            double statements = statementsAfter.get(operation)[1] - statementsBefore.get(operation)[1];
+
+            Map<String, Object> item = summary(entry.getValue());
+            item.put("name", operation.name());
+            item.put("method", operation.method);
+            item.put("uri", operation.uri);
+            item.put("statements", statements);
+            item.put("statementsPerRequest", requests == 0 ? 0 : statements / requests);
+            operations.add(item);
+        }
+
+        double poolAcquisitions = poolAfter[0] - poolBefore[0];
+        Map<String, Object> pool = new LinkedHashMap<>();
+        pool.put("acquisitions", poolAcquisitions);
+        pool.put("acquireMeanMs", poolAcquisitions == 0 ? 0 : (poolAfter[1] - poolBefore[1]) / poolAcquisitions);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("settings", settings);
+        result.put("total", summary(Latencies.merge(latencies.values())));
+        result.put("operations", operations);
+        result.put("pool", pool);
+
+        return result;
+    }
+
+    /**
+     * Формирует сводку по времени ответа.
+     *
+     * @param latencies Упорядоченное время ответа.
+     * @return Количество запросов, ошибок, пропускная способность и процентили времени ответа.
+     */
+    private Map<String, Object> summary(Latencies latencies) {
+        Map<String, Object> percentiles = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            percentiles.put(percentile == 100 ? "max" : "p" + String.valueOf(percentile).replace(".0", ""),
+                    latencies.percentileMs(percentile));
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", latencies.count());
+        summary.put("errors", latencies.errors());
+        summary.put("throughputPerSecond", latencies.count() / (double) durationSeconds);
+        summary.put("latencyMs", percentiles);
+
+        return summary;
+    }
+}
@@ -0,0 +1,164 @@
+package sber.bank.loadtest;
+
+import db.loadtest.V1000__Seed_load_test_data;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.SplittableRandom;
+
+/**
+ * Операции смешанной нагрузки и их доли в общем потоке запросов.
+ * Номера счетов, карт и идентификаторы пользователей выбираются случайно среди заполненных
+ * миграцией {@link V1000__Seed_load_test_data}.
+ */
+enum Operation {
+    GET_ACCOUNT(30, "GET", "/api/account/{number}") {
+        @Override
+        HttpRequest request(String baseUri, Dataset dataset, SplittableRandom random) {
+            return get(baseUri + "/api/account/" + dataset.accountNumber(random.nextLong(dataset.accounts())));
+        }
+    },
+    GET_CARD(25, "GET", "/api/card/{number}") {
+        @Override
+        HttpRequest request(String baseUri, Dataset dataset, SplittableRandom random) {
+            return get(baseUri + "/api/card/" + V1000__Seed_load_test_data.cardNumber(random.nextLong(dataset.accounts())));
+        }
+    },
+    GET_USER_ACCOUNTS(15, "GET", "/api/user/{id}/accounts") {
+        @Override
+        HttpRequest request(String baseUri, Dataset dataset, SplittableRandom random) {
+            return get(baseUri + "/api/user/" + dataset.userId(random.nextLong(dataset.users())) + "/accounts");
+        }
+    },
+    GET_USER_CARDS(10, "GET", "/api/user/{id}/cards") {
+        @Override
+        HttpRequest request(String baseUri, Dataset dataset, SplittableRandom random) {
+            return get(baseUri + "/api/user/" + dataset.userId(random.nextLong(dataset.users())) + "/cards");
+        }
+    },
+    GET_USER_BALANCE(10, "GET", "/api/user/{id}/balance") {
+        @Override
+        HttpRequest request(String baseUri, Dataset dataset, SplittableRandom random) {
+            return get(baseUri + "/api/user/" + dataset.userId(random.nextLong(dataset.users())) + "/balance");
+        }
+    },
+    TRANSFER(10, "POST", "/api/account/transfer") {
+        @Override
+        HttpRequest request(String baseUri, Dataset dataset, SplittableRandom random) {
+            long user = random.nextLong(dataset.users());
+            int from = random.nextInt(dataset.accountsPerUser());
+            int to = (from + 1) % dataset.accountsPerUser();
+            String body = String.format("{\"from\":%d,\"to\":%d,\"amount\":1.00}",
+                    dataset.accountNumber(user * dataset.accountsPerUser() + from),
+                    dataset.accountNumber(user * dataset.accountsPerUser() + to));
+
+            return HttpRequest.newBuilder(URI.create(baseUri + "/api/account/transfer"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+    };
+
+    /**
+     * Доля операции в общем потоке запросов (в процентах).
+     */
+    final int weight;
+
+    /**
+     * HTTP-метод запроса.
+     */
+    final String method;
+
+    /**
+     * Шаблон пути запроса, совпадающий с тегом uri метрик приложения.
+     */
+    final String uri;
+
+    /**
+     * Конструктор с параметрами.
+     *
+     * @param weight Доля операции в общем потоке запросов.
+     * @param method HTTP-метод запроса.
+     * @param uri    Шаблон пути запроса.
+     */
+    Operation(int weight, String method, String uri) {
+        this.weight = weight;
+        this.method = method;
+        this.uri = uri;
+    }
+
+    /**
+     * Формирует очередной запрос операции.
+     *
+     * @param baseUri Адрес приложения.
+     * @param dataset Параметры заполненных данных.
+     * @param random  Генератор случайных чисел потока нагрузки.
+     * @return HTTP-запрос.
+     */
+    abstract HttpRequest request(String baseUri, Dataset dataset, SplittableRandom random);
+
+    /**
+     * Выбирает операцию случайно в соответствии с долями.
+     *
+     * @param random Генератор случайных чисел потока нагрузки.
+     * @return Операция.
+     */
+    static Operation next(SplittableRandom random) {
+        int point = random.nextInt(100);
+        for (Operation operation : values()) {
+            point -= operation.weight;
+            if (point < 0) {
+                return operation;
+            }
+        }
+
+        return GET_ACCOUNT;
+    }
+
+    /**
+     * Формирует GET-запрос.
+     *
+     * @param uri Адрес ресурса.
+     * @return HTTP-запрос.
+     */
+    private static HttpRequest get(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).GET().build();
+    }
+
+    /**
+     * Параметры заполненных данных.
+     *
+     * @param users           Количество пользователей.
+     * @param accountsPerUser Количество счетов у каждого пользователя.
+     */
+    record Dataset(long users, int accountsPerUser) {
+        /**
+         * Получение общего количества счетов.
+         *
+         * @return Количество счетов.
+         */
+        long accounts() {
+            return users * accountsPerUser;
+        }
+
+        /**
+         * Получение идентификатора пользователя по порядковому номеру.
+         *
+         * @param index Порядковый номер пользователя.
+         * @return Идентификатор пользователя.
+         */
+        long userId(long index) {
+            return V1000__Seed_load_test_data.FIRST_USER_ID + index;
+        }
+
+        /**
+         * Получение номера счета по порядковому номеру.
+         *
+         * @param index Порядковый номер счета.
+         * @return Номер счета.
+         */
+        long accountNumber(long index) {
+            return V1000__Seed_load_test_data.FIRST_ACCOUNT_NUMBER + index;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Перевод последовательности идентификаторов пользователей за уже занятые значения.
+ * Генератор pooled-lo выдает идентификаторы начиная с полученного значения последовательности,
+ * поэтому следующее значение должно быть больше максимального существующего идентификатора.
+ * Миграция написана на Java, так как ALTER SEQUENCE ... RESTART WITH принимает только константу,
+ * а функция setval есть не во всех поддерживаемых базах данных.
+ */
+public class V5__Reseed_user_seq extends BaseJavaMigration {
+    /**
+     * Выполняет миграцию.
+     *
+     * @param context Контекст миграции.
+     * @throws Exception Если запрос к базе данных завершился ошибкой.
+     */
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            long next;
+
+            try (ResultSet resultSet = statement.executeQuery("select coalesce(max(id), 0) + 1 from \"user\"")) {
+                resultSet.next();
+                next = resultSet.getLong(1);
+            }
+
+            statement.execute("alter sequence user_seq restart with " + next);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+
+/**
+ * Создание журнала проводок и таблицы снимков балансов.
+ * Каждая проводка списывает сумму с одного счета и зачисляет на другой; пополнения и корректировки проводятся
+ * через внешний счет с номером 0. На PostgreSQL журнал секционируется по месяцам времени проводки
+ * (секции создаются на год вперед, далее их создает приложение); в остальных базах таблица не секционируется.
+ * Для существующих балансов создаются начальные проводки, поэтому баланс любого счета равен сумме его проводок.
+ * Миграция написана на Java, так как синтаксис секционирования есть только в PostgreSQL.
+ */
+public class V7__Create_ledger extends BaseJavaMigration {
+    /**
+     * Количество месяцев вперед, на которые создаются секции журнала.
+     */
+    private static final int MONTHS_AHEAD = 12;
+
+    /**
+     * Выполняет миграцию.
+     *
+     * @param context Контекст миграции.
+     * @throws Exception Если запрос к базе данных завершился ошибкой.
+     */
+    @Override
+    public void migrate(Context context) throws Exception {
+        boolean postgres = "PostgreSQL".equals(context.getConnection().getMetaData().getDatabaseProductName());
+
+        try (Statement statement = context.getConnection().createStatement()) {
+            statement.execute("create sequence ledger_entry_seq start with 1 increment by 50");
+            statement.execute("""
+                    create table ledger_entry
+                    (
+                        id             bigint                   not null,
+                        debit_account  bigint                   not null,
+                        credit_account bigint                   not null,
+                        amount         bigint                   not null,
+                        created_at     timestamp(6) with time zone not null,
+                        primary key (id, created_at),
+                        check (amount > 0),
+                        check (debit_account <> credit_account)
+                    )""" + (postgres ? " partition by range (created_at)" : ""));
+
+            if (postgres) {
+                statement.execute("create table ledger_entry_default partition of ledger_entry default");
+
+                YearMonth month = YearMonth.now(ZoneOffset.UTC);
+                for (int i = 0; i <= MONTHS_AHEAD; i++, month = month.plusMonths(1)) {
+                    statement.execute("create table ledger_entry_y%dm%02d partition of ledger_entry for values from ('%s') to ('%s')"
+                            .formatted(month.getYear(), month.getMonthValue(),
+                                    month.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC),
+                                    month.plusMonths(1).atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC)));
+                }
+            }
+
+            statement.execute("create index idx_ledger_entry_debit on ledger_entry (debit_account, created_at)");
+            statement.execute("create index idx_ledger_entry_credit on ledger_entry (credit_account, created_at)");
+
+            statement.execute("""
+                    create table balance_snapshot
+                    (
+                        account_number bigint                   not null,
+                        balance        bigint                   not null,
+                        taken_at       timestamp(6) with time zone not null,
+                        primary key (account_number)
+                    )""");
+
+            statement.execute("""
+                    insert into ledger_entry (id, debit_account, credit_account, amount, created_at)
+                    select row_number() over (order by "number"),
+                           case when balance > 0 then 0 else "number" end,
+                           case when balance > 0 then "number" else 0 end,
+                           abs(balance),
+                           current_timestamp
+                    from account
+                    where balance <> 0""");
+
+            long next;
+            try (ResultSet resultSet = statement.executeQuery("select coalesce(max(id), 0) + 1 from ledger_entry")) {
+                resultSet.next();
+                next = resultSet.getLong(1);
+            }
+
+            statement.execute("alter sequence ledger_entry_seq restart with " + next);
+        }
+    }
+}
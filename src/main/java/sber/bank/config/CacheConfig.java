@@ -0,0 +1,57 @@
+package sber.bank.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Настройка кеша карт и счетов.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    /**
+     * Кеш банковских счетов по номеру.
+     */
+    public static final String ACCOUNTS = "accounts";
+
+    /**
+     * Кеш банковских карт по номеру.
+     */
+    public static final String CARDS = "cards";
+
+    /**
+     * Менеджер кешей на основе Caffeine с ограничением размера и времени жизни записей.
+     * Сброс записей откладывается до фиксации транзакции, поэтому параллельное чтение не может
+     * вернуть в кеш данные, которые транзакция еще не заменила в базе данных.
+     * Для каждого кеша публикуются метрики попаданий, промахов и вытеснений (cache.gets, cache.evictions).
+     *
+     * @param specification Параметры кешей в формате Caffeine (например, maximumSize=10000,expireAfterWrite=10m).
+     * @param meterRegistry Реестр метрик.
+     * @return Менеджер кешей.
+     */
+    @Bean
+    public CacheManager cacheManager(@Value("${bank.cache.spec}") String specification, MeterRegistry meterRegistry) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.from(specification).recordStats());
+        cacheManager.setCacheNames(List.of(ACCOUNTS, CARDS));
+        cacheManager.setAllowNullValues(false);
+
+        for (String name : cacheManager.getCacheNames()) {
+            Cache<?, ?> cache = (Cache<?, ?>) cacheManager.getCache(name).getNativeCache();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        }
+
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
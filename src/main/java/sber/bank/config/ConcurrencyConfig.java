@@ -0,0 +1,69 @@
+package sber.bank.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import sber.bank.controller.BulkheadFilter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Настройка модели потоков веб-слоя и ограничения числа одновременных запросов.
+ */
+@Configuration
+public class ConcurrencyConfig {
+    /**
+     * Переводит обработку запросов Tomcat на виртуальные потоки (bank.web.virtual-threads=true).
+     * Поток, ожидающий ответа базы данных, не занимает поток платформы, поэтому число одновременных
+     * запросов ограничивается не пулом Tomcat, а пулом соединений и ограничителем {@link BulkheadFilter}.
+     *
+     * @return Настройка обработчика протокола Tomcat.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "bank.web.virtual-threads", havingValue = "true")
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsCustomizer() {
+        ExecutorService executor = newVirtualThreadPerTaskExecutor();
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    /**
+     * Ограничитель числа одновременно обрабатываемых запросов API.
+     * Включается заданием bank.bulkhead.max-concurrent-requests.
+     *
+     * @param maxConcurrentRequests Максимальное число одновременно обрабатываемых запросов.
+     * @param acquireTimeoutMs      Время ожидания разрешения в миллисекундах.
+     * @param meterRegistry         Реестр метрик.
+     * @return Регистрация фильтра.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "bank.bulkhead.max-concurrent-requests")
+    public FilterRegistrationBean<BulkheadFilter> bulkheadFilter(
+            @Value("${bank.bulkhead.max-concurrent-requests}") int maxConcurrentRequests,
+            @Value("${bank.bulkhead.acquire-timeout-ms:500}") long acquireTimeoutMs,
+            MeterRegistry meterRegistry) {
+        FilterRegistrationBean<BulkheadFilter> registration =
+                new FilterRegistrationBean<>(new BulkheadFilter(maxConcurrentRequests, acquireTimeoutMs, meterRegistry));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    /**
+     * Создает исполнитель, запускающий каждую задачу в новом виртуальном потоке.
+     * Метод вызывается через отражение, чтобы проект собирался и на Java 17.
+     *
+     * @return Исполнитель на виртуальных потоках.
+     * @throws IllegalStateException Если виртуальные потоки не поддерживаются средой выполнения.
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Виртуальные потоки требуют Java 21 или новее", e);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package sber.bank.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Настройка чтения с реплик базы данных.
+ * Включается заданием bank.datasource.replica-urls (JDBC URL реплик через запятую); без него
+ * приложение использует единственный пул соединений spring.datasource.
+ */
+@Configuration
+@ConditionalOnProperty(name = "bank.datasource.replica-urls")
+public class DataSourceConfig {
+    /**
+     * Пул соединений основного сервера, настраиваемый параметрами spring.datasource и spring.datasource.hikari.
+     *
+     * @param properties Параметры подключения к основному серверу.
+     * @return Пул соединений основного сервера.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Источник данных, распределяющий соединения между основным сервером и репликами.
+     * Каждая реплика получает собственный пул соединений только для чтения с именем {пул основного сервера}-replica-{номер};
+     * метрики пулов публикуются как hikaricp.* с тегом pool.
+     *
+     * @param primary       Пул соединений основного сервера.
+     * @param urls          JDBC URL реплик.
+     * @param username      Имя пользователя реплик.
+     * @param password      Пароль пользователя реплик.
+     * @param poolSize      Размер пула соединений каждой реплики.
+     * @param maxLagMs      Допустимое отставание реплики в миллисекундах.
+     * @param lagQuery      Запрос, возвращающий отставание реплики в миллисекундах.
+     * @param meterRegistry Реестр метрик.
+     * @return Источник данных с маршрутизацией.
+     */
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            @Value("${bank.datasource.replica-urls}") List<String> urls,
+            @Value("${bank.datasource.replica-username:${spring.datasource.username:}}") String username,
+            @Value("${bank.datasource.replica-password:${spring.datasource.password:}}") String password,
+            @Value("${bank.datasource.replica-pool-size:10}") int poolSize,
+            @Value("${bank.datasource.max-replica-lag-ms:1000}") long maxLagMs,
+            @Value("${bank.datasource.replica-lag-query}") String lagQuery,
+            MeterRegistry meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName(primaryDataSource.getPoolName() + "-replica-" + i);
+            replica.setJdbcUrl(urls.get(i));
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setMaximumPoolSize(poolSize);
+            replica.setConnectionTimeout(primaryDataSource.getConnectionTimeout());
+            replica.setReadOnly(true);
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.put(replica.getPoolName(), replica);
+        }
+
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, maxLagMs, lagQuery, meterRegistry);
+    }
+
+    /**
+     * Источник данных приложения. Соединение запрашивается при выполнении первого запроса,
+     * когда уже известно, выполняется ли транзакция только для чтения.
+     *
+     * @param replicaRoutingDataSource Источник данных с маршрутизацией.
+     * @return Источник данных приложения.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
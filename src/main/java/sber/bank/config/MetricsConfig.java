@@ -0,0 +1,89 @@
+package sber.bank.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Настройка метрик сервисов и SQL-запросов.
+ * Время обработки HTTP-запросов публикуется Spring Boot в метрике http.server.requests,
+ * метрики кешей и пула соединений — в cache.* и hikaricp.*; все метрики доступны по адресу /actuator/prometheus.
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+    /**
+     * Имя таймера методов сервисов (теги class и method).
+     */
+    public static final String SERVICE_TIMER = "bank.service";
+
+    /**
+     * Счетчик SQL-запросов текущего потока.
+     */
+    private final StatementCounter statementCounter = new StatementCounter();
+
+    /**
+     * Реестр метрик.
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Перехватчик, подсчитывающий SQL-запросы HTTP-запроса.
+     */
+    private final StatementCountInterceptor statementCountInterceptor;
+
+    /**
+     * Конструктор с параметрами.
+     *
+     * @param meterRegistry Реестр метрик.
+     */
+    public MetricsConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.statementCountInterceptor = new StatementCountInterceptor(statementCounter, meterRegistry);
+    }
+
+    /**
+     * Аспект, измеряющий время выполнения методов классов, отмеченных аннотацией Timed.
+     *
+     * @return Аспект измерения времени.
+     */
+    @Bean
+    public TimedAspect timedAspect() {
+        return new TimedAspect(meterRegistry);
+    }
+
+    /**
+     * Подключает счетчик SQL-запросов к Hibernate.
+     *
+     * @return Настройка свойств Hibernate.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementCounter);
+    }
+
+    /**
+     * Регистрирует подсчет SQL-запросов для запросов API.
+     *
+     * @param registry Реестр перехватчиков.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(statementCountInterceptor).addPathPatterns("/api/**");
+    }
+
+    /**
+     * Передает счетчик SQL-запросов в поток асинхронной обработки запросов.
+     *
+     * @param configurer Настройка асинхронной обработки.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(statementCountInterceptor);
+    }
+}
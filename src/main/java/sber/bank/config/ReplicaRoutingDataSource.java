@@ -0,0 +1,219 @@
+package sber.bank.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Источник данных, направляющий транзакции только для чтения на реплики, а остальные запросы на основной сервер.
+ * Реплики выбираются по кругу. Отставание каждой реплики периодически измеряется запросом lagQuery;
+ * реплика, отстающая больше допустимого или недоступная, исключается из выбора до следующей проверки.
+ * Если подходящих реплик нет, чтение выполняется на основном сервере.
+ * Чтения, которым нужны актуальные данные (например, заполняющие кеши), выполняются в обычных транзакциях.
+ * <p>
+ * Признак «только для чтения» устанавливается уже после начала транзакции, поэтому источник данных
+ * должен использоваться через {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy},
+ * который запрашивает соединение только при выполнении первого запроса.
+ * <p>
+ * Публикуемые метрики: bank.datasource.route (число выданных соединений по серверу)
+ * и bank.datasource.replica.lag (отставание реплики в миллисекундах).
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+    /**
+     * Ключ основного сервера.
+     */
+    public static final String PRIMARY = "primary";
+
+    /**
+     * Отставание недоступной реплики.
+     */
+    private static final long UNAVAILABLE = Long.MAX_VALUE;
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    /**
+     * Имена реплик.
+     */
+    private final List<String> replicaNames;
+
+    /**
+     * Пулы соединений реплик в порядке имен.
+     */
+    private final List<DataSource> replicas;
+
+    /**
+     * Последнее измеренное отставание каждой реплики в миллисекундах.
+     */
+    private final AtomicLongArray lags;
+
+    /**
+     * Счетчик для выбора реплики по кругу.
+     */
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * Допустимое отставание реплики в миллисекундах.
+     */
+    private final long maxLagMs;
+
+    /**
+     * Запрос, возвращающий отставание реплики в миллисекундах.
+     */
+    private final String lagQuery;
+
+    /**
+     * Счетчики выданных соединений по имени сервера.
+     */
+    private final Map<String, Counter> routed = new HashMap<>();
+
+    /**
+     * Конструктор с параметрами.
+     * До первой проверки реплики считаются не отстающими.
+     *
+     * @param primary       Пул соединений основного сервера.
+     * @param replicas      Пулы соединений реплик по имени.
+     * @param maxLagMs      Допустимое отставание реплики в миллисекундах.
+     * @param lagQuery      Запрос, возвращающий отставание реплики в миллисекундах.
+     * @param meterRegistry Реестр метрик.
+     */
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, long maxLagMs, String lagQuery,
+                                    MeterRegistry meterRegistry) {
+        this.replicaNames = List.copyOf(replicas.keySet());
+        this.replicas = List.copyOf(replicas.values());
+        this.lags = new AtomicLongArray(replicas.size());
+        this.maxLagMs = maxLagMs;
+        this.lagQuery = lagQuery;
+
+        Map<Object, Object> targets = new LinkedHashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+
+        for (Object name : targets.keySet()) {
+            routed.put((String) name, Counter.builder("bank.datasource.route")
+                    .description("Соединения, выданные серверу базы данных")
+                    .tag("target", (String) name)
+                    .register(meterRegistry));
+        }
+        for (int i = 0; i < replicaNames.size(); i++) {
+            int index = i;
+            Gauge.builder("bank.datasource.replica.lag", () -> lagForMetrics(index))
+                    .description("Отставание реплики от основного сервера")
+                    .tag("replica", replicaNames.get(i))
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Выбирает сервер для нового соединения.
+     *
+     * @return Имя реплики для транзакции только для чтения, если есть подходящая реплика, иначе {@link #PRIMARY}.
+     */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String target = TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? nextReplica() : PRIMARY;
+        routed.get(target).increment();
+        return target;
+    }
+
+    /**
+     * Измеряет отставание всех реплик.
+     */
+    @Scheduled(fixedDelayString = "${bank.datasource.replica-check-interval-ms:1000}")
+    public void checkReplicas() {
+        for (int i = 0; i < replicas.size(); i++) {
+            lags.set(i, measureLag(i));
+        }
+    }
+
+    /**
+     * Закрывает пулы соединений реплик. Пул основного сервера закрывается его владельцем.
+     * Ошибка закрытия одного пула записывается в журнал и не мешает закрыть остальные.
+     */
+    @Override
+    public void close() {
+        for (int i = 0; i < replicas.size(); i++) {
+            if (replicas.get(i) instanceof Closeable closeable) {
+                try {
+                    closeable.close();
+                } catch (IOException e) {
+                    log.warn("Не удалось закрыть пул соединений реплики {}", replicaNames.get(i), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Выбирает следующую по кругу реплику с допустимым отставанием.
+     *
+     * @return Имя реплики или {@link #PRIMARY}, если подходящих реплик нет.
+     */
+    private String nextReplica() {
+        int count = replicas.size();
+        if (count == 0) {
+            return PRIMARY;
+        }
+
+        int start = Math.floorMod(next.getAndIncrement(), count);
+
+        for (int i = 0; i < count; i++) {
+            int index = (start + i) % count;
+            if (lags.get(index) <= maxLagMs) {
+                return replicaNames.get(index);
+            }
+        }
+
+        return PRIMARY;
+    }
+
+    /**
+     * Измеряет отставание реплики.
+     *
+     * @param index Номер реплики.
+     * @return Отставание в миллисекундах или {@link #UNAVAILABLE}, если реплика недоступна.
+     */
+    private long measureLag(int index) {
+        try (Connection connection = replicas.get(index).getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(lagQuery)) {
+            return result.next() ? Math.max(0, result.getLong(1)) : 0;
+        } catch (SQLException e) {
+            if (lags.get(index) != UNAVAILABLE) {
+                log.warn("Реплика {} недоступна, чтение выполняется на других серверах", replicaNames.get(index), e);
+            }
+            return UNAVAILABLE;
+        }
+    }
+
+    /**
+     * Возвращает отставание реплики для метрик.
+     *
+     * @param index Номер реплики.
+     * @return Отставание в миллисекундах или NaN, если реплика недоступна.
+     */
+    private double lagForMetrics(int index) {
+        long lag = lags.get(index);
+        return lag == UNAVAILABLE ? Double.NaN : lag;
+    }
+}
@@ -0,0 +1,127 @@
+package sber.bank.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Публикует количество SQL-запросов, выполненных при обработке HTTP-запроса,
+ * в метрике bank.http.jdbc.statements с тегами method и uri (шаблон пути, как в http.server.requests).
+ * Счетчик хранится в атрибуте запроса, поэтому при асинхронной обработке (например, потоковой выгрузке)
+ * учитываются и запросы, выполненные в потоке асинхронной обработки и при повторной диспетчеризации.
+ */
+public class StatementCountInterceptor implements AsyncHandlerInterceptor, CallableProcessingInterceptor {
+    /**
+     * Атрибут запроса со счетчиком SQL-запросов.
+     */
+    private static final String COUNT_ATTRIBUTE = StatementCountInterceptor.class.getName() + ".count";
+
+    /**
+     * Счетчик SQL-запросов.
+     */
+    private final StatementCounter statementCounter;
+
+    /**
+     * Реестр метрик.
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Конструктор с параметрами.
+     *
+     * @param statementCounter Счетчик SQL-запросов.
+     * @param meterRegistry    Реестр метрик.
+     */
+    public StatementCountInterceptor(StatementCounter statementCounter, MeterRegistry meterRegistry) {
+        this.statementCounter = statementCounter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Начинает подсчет запросов; при повторной диспетчеризации асинхронного запроса продолжает начатый подсчет.
+     *
+     * @param request  HTTP-запрос.
+     * @param response HTTP-ответ.
+     * @param handler  Обработчик запроса.
+     * @return Всегда true.
+     */
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(COUNT_ATTRIBUTE) instanceof AtomicInteger count) {
+            statementCounter.resume(count);
+        } else {
+            request.setAttribute(COUNT_ATTRIBUTE, statementCounter.start());
+        }
+        return true;
+    }
+
+    /**
+     * Приостанавливает подсчет в потоке контейнера после запуска асинхронной обработки.
+     *
+     * @param request  HTTP-запрос.
+     * @param response HTTP-ответ.
+     * @param handler  Обработчик запроса.
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        statementCounter.suspend();
+    }
+
+    /**
+     * Продолжает подсчет запроса в потоке асинхронной обработки.
+     *
+     * @param request HTTP-запрос.
+     * @param task    Асинхронная задача.
+     * @param <T>     Тип результата задачи.
+     */
+    @Override
+    public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+        if (request.getAttribute(COUNT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof AtomicInteger count) {
+            statementCounter.resume(count);
+        }
+    }
+
+    /**
+     * Приостанавливает подсчет в потоке асинхронной обработки после выполнения задачи.
+     *
+     * @param request          HTTP-запрос.
+     * @param task             Асинхронная задача.
+     * @param concurrentResult Результат задачи.
+     * @param <T>              Тип результата задачи.
+     */
+    @Override
+    public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+        statementCounter.suspend();
+    }
+
+    /**
+     * Завершает подсчет запросов и записывает результат в метрику.
+     *
+     * @param request  HTTP-запрос.
+     * @param response HTTP-ответ.
+     * @param handler  Обработчик запроса.
+     * @param ex       Исключение, возникшее при обработке, или null.
+     */
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        statementCounter.stop();
+        int statements = request.getAttribute(COUNT_ATTRIBUTE) instanceof AtomicInteger count ? count.get() : 0;
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+
+        DistributionSummary.builder("bank.http.jdbc.statements")
+                .description("Количество SQL-запросов на один HTTP-запрос")
+                .tag("method", request.getMethod())
+                .tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+                .register(meterRegistry)
+                .record(statements);
+    }
+}
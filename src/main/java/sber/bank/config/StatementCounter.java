@@ -0,0 +1,74 @@
+package sber.bank.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Подсчитывает SQL-запросы, подготовленные Hibernate в текущем потоке.
+ * Подсчет ведется только между вызовами {@link #start()} и {@link #stop()}, текст запросов не изменяется.
+ * Счетчик можно передать другому потоку (например, потоку асинхронной обработки запроса) вызовом
+ * {@link #resume(AtomicInteger)}.
+ */
+public class StatementCounter implements StatementInspector {
+    /**
+     * Счетчик запросов текущего потока; null, если подсчет не ведется.
+     */
+    private final ThreadLocal<AtomicInteger> count = new ThreadLocal<>();
+
+    /**
+     * Учитывает подготовленный запрос.
+     *
+     * @param sql Текст запроса.
+     * @return Неизмененный текст запроса.
+     */
+    @Override
+    public String inspect(String sql) {
+        AtomicInteger current = count.get();
+        if (current != null) {
+            current.incrementAndGet();
+        }
+
+        return sql;
+    }
+
+    /**
+     * Начинает подсчет запросов в текущем потоке.
+     *
+     * @return Новый счетчик запросов.
+     */
+    public AtomicInteger start() {
+        AtomicInteger current = new AtomicInteger();
+        count.set(current);
+
+        return current;
+    }
+
+    /**
+     * Продолжает подсчет в текущем потоке с уже начатым счетчиком.
+     *
+     * @param current Счетчик, полученный от {@link #start()}.
+     */
+    public void resume(AtomicInteger current) {
+        count.set(current);
+    }
+
+    /**
+     * Приостанавливает подсчет в текущем потоке, не сбрасывая счетчик.
+     */
+    public void suspend() {
+        count.remove();
+    }
+
+    /**
+     * Завершает подсчет запросов в текущем потоке.
+     *
+     * @return Количество запросов с момента вызова {@link #start()}; 0, если подсчет не велся.
+     */
+    public int stop() {
+        AtomicInteger current = count.get();
+        count.remove();
+
+        return current == null ? 0 : current.get();
+    }
+}
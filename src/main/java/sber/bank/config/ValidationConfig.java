@@ -0,0 +1,23 @@
+package sber.bank.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.Validator;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import sber.bank.validation.PipelineValidator;
+
+/**
+ * Настройка проверки тел запросов: аргументы контроллеров, отмеченные @Validated,
+ * проверяются наборами правил {@link sber.bank.validation.DomainRules}.
+ */
+@Configuration
+public class ValidationConfig implements WebMvcConfigurer {
+    /**
+     * Возвращает валидатор аргументов контроллеров.
+     *
+     * @return Валидатор на основе наборов правил.
+     */
+    @Override
+    public Validator getValidator() {
+        return new PipelineValidator();
+    }
+}
@@ -1,17 +1,32 @@
 package sber.bank.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import sber.bank.domain.Account;
+import sber.bank.domain.Money;
+import sber.bank.dto.AccountResponse;
+import sber.bank.dto.PostingRequest;
+import sber.bank.dto.TransferRequest;
 import sber.bank.exceptions.BadArgumentException;
+import sber.bank.exceptions.ConflictException;
 import sber.bank.exceptions.NotFoundException;
 import sber.bank.service.implementation.AccountService;
+import sber.bank.validation.DomainRules;
 import sber.bank.validation.Validation;
 
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.List;
+
 /**
  * Контроллер, отвечающий за обработку запросов, связанных со счетами пользователей.
  */
@@ -25,6 +40,63 @@ public class AccountController {
     @Autowired
     private AccountService accountService;
 
+    /**
+     * Десериализатор JSON для потоковых запросов.
+     */
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Возвращает счет пользователя по его номеру.
+     *
+     * Версия счета возвращается в заголовке ETag для последующего условного обновления (If-Match).
+     *
+     * @param number Номер счета.
+     * @return Данные счета с указанным номером и его версией в заголовке ETag.
+     * @throws BadArgumentException Если номер счета некорректен.
+     * @throws NotFoundException    Если счет с указанным номером не найден.
+     */
+    @Operation(summary = "Получить счет пользователя", description = "Возвращает счет пользователя по его номеру.")
+    @ApiResponse(responseCode = "200", description = "Счет найден")
+    @ApiResponse(responseCode = "400", description = "Некорректный номер счета")
+    @ApiResponse(responseCode = "404", description = "Счет не найден")
+    @GetMapping("/{number}")
+    public ResponseEntity<AccountResponse> getAccount(@Parameter(description = "Номер счета", example = "1234567890123456")
+                                                      @PathVariable Long number) {
+        // region Проверка входных данных
+        Validation.validateAccountNumber(number);
+        // endregion
+
+        AccountResponse account = accountService.getResponse(number);
+
+        return ResponseEntity.ok().eTag(ETags.of(account.version())).body(account);
+    }
+
+    /**
+     * Возвращает баланс счета на прошедший момент.
+     *
+     * @param number Номер счета.
+     * @param asOf   Момент в формате ISO-8601; учитываются операции, выполненные строго до него.
+     * @return Баланс счета в валюте счета.
+     * @throws BadArgumentException Если номер счета некорректен или момент находится в будущем.
+     * @throws NotFoundException    Если счет с указанным номером не найден.
+     */
+    @Operation(summary = "Получить баланс счета на момент", description = "Возвращает баланс счета на указанный прошедший момент.")
+    @ApiResponse(responseCode = "200", description = "Баланс счета на момент")
+    @ApiResponse(responseCode = "400", description = "Некорректный номер счета или момент в будущем")
+    @ApiResponse(responseCode = "404", description = "Счет не найден")
+    @GetMapping("/{number}/balance")
+    public double getBalance(@Parameter(description = "Номер счета", example = "1234567890123456") @PathVariable Long number,
+                             @Parameter(description = "Момент", example = "2024-01-01T00:00:00Z")
+                             @RequestParam(name = "asOf") Instant asOf) {
+        // region Проверка входных данных
+        Validation.validateAccountNumber(number);
+        Validation.validatePastMoment(asOf);
+        // endregion
+
+        return accountService.getBalance(number, asOf);
+    }
+
     /**
      * Создает новый счет пользователя.
      *
@@ -36,12 +108,47 @@ public class AccountController {
     @ApiResponse(responseCode = "200", description = "Счет успешно создан")
     @ApiResponse(responseCode = "400", description = "Некорректные данные счета")
     @PostMapping("/create")
-    public boolean createAccount(@RequestBody Account account) {
+    public boolean createAccount(@Validated @RequestBody Account account) {
+        return accountService.create(account).equals(account);
+    }
+
+    /**
+     * Создает несколько счетов пользователей за один запрос.
+     * Счета создаются в одной транзакции: при ошибке в данных любого счета не создается ни один.
+     *
+     * @param accounts Данные новых счетов.
+     * @return Количество созданных счетов.
+     * @throws BadArgumentException Если данные одного из счетов некорректны.
+     */
+    @Operation(summary = "Создать несколько счетов", description = "Создает счета из JSON-массива пакетной вставкой в одной транзакции.")
+    @ApiResponse(responseCode = "200", description = "Счета успешно созданы")
+    @ApiResponse(responseCode = "400", description = "Некорректные данные счета")
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public int createAccounts(@Validated @RequestBody List<Account> accounts) {
         // region Проверка входных данных
-        Validation.validateAccount(account);
+        Validation.validateBatch(accounts, "Список счетов");
         // endregion
 
-        return accountService.create(account).equals(account);
+        return accountService.createAll(accounts);
+    }
+
+    /**
+     * Создает счета пользователей из потока NDJSON (один счет на строку).
+     * Счета читаются и сохраняются по мере поступления, тело запроса целиком в память не загружается.
+     * Счета фиксируются частями по {@code bank.create.chunk-size}: при ошибке в строке откатывается только
+     * ее часть, счета из уже зафиксированных частей сохраняются.
+     *
+     * @param body Тело запроса.
+     * @return Количество созданных счетов.
+     * @throws BadArgumentException Если тело запроса или данные одного из счетов некорректны.
+     */
+    @Operation(summary = "Создать счета потоком", description = "Создает счета из потока NDJSON пакетной вставкой; "
+            + "счета фиксируются частями, при ошибке сохраняются уже зафиксированные части.")
+    @ApiResponse(responseCode = "200", description = "Счета успешно созданы")
+    @ApiResponse(responseCode = "400", description = "Некорректные данные счета")
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public int createAccountsStream(InputStream body) {
+        return accountService.createAllStream(Ndjson.read(objectMapper, body, Account.class, DomainRules.ACCOUNT::validate));
     }
 
     /**
@@ -67,24 +174,93 @@ public class AccountController {
 
     /**
      * Обновляет данные счета пользователя по его номеру.
+     * Изменить можно только владельца счета; баланс и валюта, если переданы, должны совпадать с текущими.
+     * Если передан заголовок If-Match, обновление выполняется только при совпадении версии счета.
      *
      * @param number        Номер счета.
+     * @param ifMatch       Ожидаемая версия счета (ETag).
      * @param accountDetail Обновленные данные счета.
-     * @throws BadArgumentException Если номер счета некорректен.
+     * @return Пустой ответ с новой версией счета в заголовке ETag.
+     * @throws BadArgumentException Если номер счета некорректен или переданы другие баланс или валюта.
      * @throws NotFoundException    Если счет с указанным номером не найден.
+     * @throws ConflictException    Если счет был изменен параллельно.
      */
-    @Operation(summary = "Обновить данные счета пользователя", description = "Обновляет данные счета пользователя по его номеру.")
+    @Operation(summary = "Обновить данные счета пользователя", description = "Изменяет владельца счета. Баланс изменяется только переводами, пополнениями и списаниями, валюта не изменяется.")
     @ApiResponse(responseCode = "204", description = "Данные счета успешно обновлены")
     @ApiResponse(responseCode = "400", description = "Некорректные данные счета")
     @ApiResponse(responseCode = "404", description = "Счет не найден")
+    @ApiResponse(responseCode = "409", description = "Счет был изменен параллельно")
     @PutMapping("/update/{number}")
-    public void updateAccount(@Parameter(description = "Номер счета", example = "1234567890") @PathVariable Long number,
-                              @RequestBody Account accountDetail) {
+    public ResponseEntity<Void> updateAccount(@Parameter(description = "Номер счета", example = "1234567890") @PathVariable Long number,
+                                              @Parameter(description = "Ожидаемая версия счета", example = "\"0\"")
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                              @Validated @RequestBody Account accountDetail) {
+        // region Проверка входных данных
+        Validation.validateAccountNumber(number);
+        // endregion
+
+        Account account = accountService.update(number, accountDetail, ETags.parseVersion(ifMatch));
+
+        return ResponseEntity.noContent().eTag(ETags.of(account.getVersion())).build();
+    }
+
+    /**
+     * Переводит денежные средства между счетами.
+     *
+     * @param transfer Данные перевода.
+     * @throws BadArgumentException Если данные перевода некорректны или на счете недостаточно средств.
+     * @throws NotFoundException    Если один из счетов не найден.
+     */
+    @Operation(summary = "Перевести средства между счетами", description = "Атомарно списывает сумму с одного счета и зачисляет на другой.")
+    @ApiResponse(responseCode = "200", description = "Перевод выполнен")
+    @ApiResponse(responseCode = "400", description = "Некорректные данные перевода или недостаточно средств")
+    @ApiResponse(responseCode = "404", description = "Счет не найден")
+    @PostMapping("/transfer")
+    public void transfer(@Validated @RequestBody TransferRequest transfer) {
+        accountService.transfer(transfer.from(), transfer.to(), Money.toMinor(transfer.amount()));
+    }
+
+    /**
+     * Пополняет счет извне банка.
+     *
+     * @param number  Номер счета.
+     * @param posting Сумма пополнения.
+     * @throws BadArgumentException Если номер счета или сумма некорректны.
+     * @throws NotFoundException    Если счет с указанным номером не найден.
+     */
+    @Operation(summary = "Пополнить счет", description = "Зачисляет сумму на счет и записывает пополнение в журнал проводок.")
+    @ApiResponse(responseCode = "200", description = "Счет пополнен")
+    @ApiResponse(responseCode = "400", description = "Некорректные данные пополнения")
+    @ApiResponse(responseCode = "404", description = "Счет не найден")
+    @PostMapping("/{number}/deposit")
+    public void deposit(@Parameter(description = "Номер счета", example = "1001001001001001") @PathVariable Long number,
+                        @Validated @RequestBody PostingRequest posting) {
+        // region Проверка входных данных
+        Validation.validateAccountNumber(number);
+        // endregion
+
+        accountService.deposit(number, Money.toMinor(posting.amount()));
+    }
+
+    /**
+     * Списывает средства со счета за пределы банка.
+     *
+     * @param number  Номер счета.
+     * @param posting Сумма списания.
+     * @throws BadArgumentException Если номер счета или сумма некорректны или на счете недостаточно средств.
+     * @throws NotFoundException    Если счет с указанным номером не найден.
+     */
+    @Operation(summary = "Списать средства со счета", description = "Списывает сумму со счета и записывает списание в журнал проводок.")
+    @ApiResponse(responseCode = "200", description = "Средства списаны")
+    @ApiResponse(responseCode = "400", description = "Некорректные данные списания или недостаточно средств")
+    @ApiResponse(responseCode = "404", description = "Счет не найден")
+    @PostMapping("/{number}/withdrawal")
+    public void withdraw(@Parameter(description = "Номер счета", example = "1001001001001001") @PathVariable Long number,
+                         @Validated @RequestBody PostingRequest posting) {
         // region Проверка входных данных
         Validation.validateAccountNumber(number);
-        Validation.validateAccount(accountDetail);
         // endregion
 
-        accountService.update(number, accountDetail);
+        accountService.withdraw(number, Money.toMinor(posting.amount()));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,145 @@
+package sber.bank.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ограничивает число одновременно обрабатываемых запросов API (bulkhead).
+ * На виртуальных потоках количество параллельных запросов не ограничено пулом потоков Tomcat,
+ * поэтому без ограничения все они встают в очередь пула соединений с базой данных.
+ * Запрос, не получивший разрешение за отведенное время, отклоняется с кодом 503.
+ * Асинхронный запрос (например, потоковая выгрузка) удерживает разрешение до завершения асинхронной обработки,
+ * так как обращения к базе данных выполняются уже после возврата из цепочки фильтров.
+ */
+public class BulkheadFilter extends OncePerRequestFilter {
+    /**
+     * Разрешения на обработку запросов.
+     */
+    private final Semaphore permits;
+
+    /**
+     * Время ожидания разрешения в миллисекундах.
+     */
+    private final long acquireTimeoutMs;
+
+    /**
+     * Счетчик отклоненных запросов.
+     */
+    private final Counter rejected;
+
+    /**
+     * Конструктор с параметрами.
+     * Публикует метрики bank.bulkhead.available (свободные разрешения) и bank.bulkhead.rejected (отклоненные запросы).
+     *
+     * @param maxConcurrentRequests Максимальное число одновременно обрабатываемых запросов.
+     * @param acquireTimeoutMs      Время ожидания разрешения в миллисекундах.
+     * @param meterRegistry         Реестр метрик.
+     */
+    public BulkheadFilter(int maxConcurrentRequests, long acquireTimeoutMs, MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.rejected = Counter.builder("bank.bulkhead.rejected")
+                .description("Запросы, отклоненные из-за превышения числа одновременных запросов")
+                .register(meterRegistry);
+        Gauge.builder("bank.bulkhead.available", permits, Semaphore::availablePermits)
+                .description("Свободные разрешения на обработку запросов")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Пропускает запрос дальше по цепочке фильтров, если удалось получить разрешение.
+     *
+     * @param request     HTTP-запрос.
+     * @param response    HTTP-ответ.
+     * @param filterChain Цепочка фильтров.
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+
+        if (!acquired) {
+            rejected.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Сервис перегружен, повторите запрос позже");
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new PermitRelease());
+            } else {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Освобождает разрешение по завершении асинхронной обработки запроса.
+     * Контейнер может сообщить о завершении несколько раз (ошибка или тайм-аут, затем завершение),
+     * поэтому разрешение освобождается только при первом уведомлении.
+     */
+    private final class PermitRelease implements AsyncListener {
+        /**
+         * true, если разрешение уже освобождено.
+         */
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        /**
+         * Продолжает ожидание при повторном запуске асинхронной обработки.
+         *
+         * @param event Событие запуска асинхронной обработки.
+         */
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        /**
+         * Освобождает разрешение, если оно еще не освобождено.
+         */
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+}
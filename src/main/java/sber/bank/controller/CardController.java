@@ -1,16 +1,27 @@
 package sber.bank.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import sber.bank.domain.Card;
+import sber.bank.dto.CardResponse;
 import sber.bank.exceptions.BadArgumentException;
+import sber.bank.exceptions.ConflictException;
 import sber.bank.exceptions.NotFoundException;
 import sber.bank.service.implementation.CardService;
+import sber.bank.validation.DomainRules;
 import sber.bank.validation.Validation;
 
+import java.io.InputStream;
+import java.util.List;
+
 /**
  * Контроллер, отвечающий за обработку запросов, связанных с банковскими картами.
  */
@@ -23,13 +34,45 @@ public class CardController {
      */
     private final CardService cardService;
 
+    /**
+     * Десериализатор JSON для потоковых запросов.
+     */
+    private final ObjectMapper objectMapper;
+
     /**
      * Конструктор с параметрами.
      *
-     * @param cardService Сервис для работы с банковскими картами.
+     * @param cardService  Сервис для работы с банковскими картами.
+     * @param objectMapper Десериализатор JSON.
      */
-    public CardController(CardService cardService) {
+    public CardController(CardService cardService, ObjectMapper objectMapper) {
         this.cardService = cardService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Получение банковской карты по ее номеру.
+     *
+     * Версия карты возвращается в заголовке ETag для последующего условного обновления (If-Match).
+     *
+     * @param number Номер карты.
+     * @return Данные карты с указанным номером и ее версией в заголовке ETag.
+     * @throws BadArgumentException Если номер карты некорректен.
+     * @throws NotFoundException    Если карта с указанным номером не найдена.
+     */
+    @Operation(summary = "Получить банковскую карту", description = "Возвращает банковскую карту по ее номеру.")
+    @ApiResponse(responseCode = "200", description = "Карта найдена")
+    @ApiResponse(responseCode = "400", description = "Некорректный номер карты")
+    @ApiResponse(responseCode = "404", description = "Карта не найдена")
+    @GetMapping("/{number}")
+    public ResponseEntity<CardResponse> getCard(@Parameter(description = "Номер карты", example = "4111111111111111") @PathVariable Long number) {
+        // region Проверка входных данных
+        Validation.validateCardNumber(number);
+        // endregion
+
+        CardResponse card = cardService.getResponse(number);
+
+        return ResponseEntity.ok().eTag(ETags.of(card.version())).body(card);
     }
 
     /**
@@ -43,12 +86,47 @@ public class CardController {
     @ApiResponse(responseCode = "200", description = "Карта успешно создана")
     @ApiResponse(responseCode = "400", description = "Некорректные данные карты")
     @PostMapping("/create")
-    public boolean createCard(@RequestBody Card card) {
+    public boolean createCard(@Validated @RequestBody Card card) {
+        return cardService.create(card).equals(card);
+    }
+
+    /**
+     * Создание нескольких банковских карт за один запрос.
+     * Карты создаются в одной транзакции: при ошибке в данных любой карты не создается ни одна.
+     *
+     * @param cards Данные новых карт.
+     * @return Количество созданных карт.
+     * @throws BadArgumentException Если данные одной из карт некорректны.
+     */
+    @Operation(summary = "Создать несколько банковских карт", description = "Создает карты из JSON-массива пакетной вставкой в одной транзакции.")
+    @ApiResponse(responseCode = "200", description = "Карты успешно созданы")
+    @ApiResponse(responseCode = "400", description = "Некорректные данные карты")
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public int createCards(@Validated @RequestBody List<Card> cards) {
         // region Проверка входных данных
-        Validation.validateCard(card);
+        Validation.validateBatch(cards, "Список карт");
         // endregion
 
-        return cardService.create(card).equals(card);
+        return cardService.createAll(cards);
+    }
+
+    /**
+     * Создание банковских карт из потока NDJSON (одна карта на строку).
+     * Карты читаются и сохраняются по мере поступления, тело запроса целиком в память не загружается.
+     * Карты фиксируются частями по {@code bank.create.chunk-size}: при ошибке в строке откатывается только
+     * ее часть, карты из уже зафиксированных частей сохраняются.
+     *
+     * @param body Тело запроса.
+     * @return Количество созданных карт.
+     * @throws BadArgumentException Если тело запроса или данные одной из карт некорректны.
+     */
+    @Operation(summary = "Создать банковские карты потоком", description = "Создает карты из потока NDJSON пакетной вставкой; "
+            + "карты фиксируются частями, при ошибке сохраняются уже зафиксированные части.")
+    @ApiResponse(responseCode = "200", description = "Карты успешно созданы")
+    @ApiResponse(responseCode = "400", description = "Некорректные данные карты")
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public int createCardsStream(InputStream body) {
+        return cardService.createAllStream(Ndjson.read(objectMapper, body, Card.class, DomainRules.CARD::validate));
     }
 
     /**
@@ -63,7 +141,7 @@ public class CardController {
     @ApiResponse(responseCode = "400", description = "Некорректный номер карты")
     @ApiResponse(responseCode = "404", description = "Карта не найдена")
     @DeleteMapping("/delete/{number}")
-    public void deleteCard(@Parameter(description = "Номер карты", example = "1234567890123456") @PathVariable Long number) {
+    public void deleteCard(@Parameter(description = "Номер карты", example = "4111111111111111") @PathVariable Long number) {
         // region Проверка входных данных
         Validation.validateCardNumber(number);
         // endregion
@@ -73,24 +151,32 @@ public class CardController {
 
     /**
      * Обновление данных банковской карты по ее номеру.
+     * Если передан заголовок If-Match, обновление выполняется только при совпадении версии карты.
      *
      * @param number     Номер карты.
+     * @param ifMatch    Ожидаемая версия карты (ETag).
      * @param cardDetail Обновленные данные карты.
+     * @return Пустой ответ с новой версией карты в заголовке ETag.
      * @throws BadArgumentException Если данные карты некорректны.
      * @throws NotFoundException    Если карта с указанным номером не найдена.
+     * @throws ConflictException    Если карта была изменена параллельно.
      */
     @Operation(summary = "Обновить данные банковской карты", description = "Обновляет данные банковской карты по ее номеру.")
     @ApiResponse(responseCode = "204", description = "Данные карты успешно обновлены")
     @ApiResponse(responseCode = "400", description = "Некорректные данные карты")
     @ApiResponse(responseCode = "404", description = "Карта не найдена")
+    @ApiResponse(responseCode = "409", description = "Карта была изменена параллельно")
     @PutMapping("/update/{number}")
-    public void updateCard(@Parameter(description = "Номер карты", example = "1234567890123456") @PathVariable Long number,
-                           @RequestBody Card cardDetail) {
+    public ResponseEntity<Void> updateCard(@Parameter(description = "Номер карты", example = "4111111111111111") @PathVariable Long number,
+                                           @Parameter(description = "Ожидаемая версия карты", example = "\"0\"")
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                           @Validated @RequestBody Card cardDetail) {
         // region Проверка входных данных
         Validation.validateCardNumber(number);
-        Validation.validateCard(cardDetail);
         // endregion
 
-        cardService.update(number, cardDetail);
+        Card card = cardService.update(number, cardDetail, ETags.parseVersion(ifMatch));
+
+        return ResponseEntity.noContent().eTag(ETags.of(card.getVersion())).build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package sber.bank.controller;
+
+import sber.bank.exceptions.BadArgumentException;
+
+/**
+ * Преобразование версий записей в заголовки ETag и If-Match и обратно.
+ */
+final class ETags {
+    /**
+     * Закрытый конструктор: класс содержит только статические методы.
+     */
+    private ETags() {
+
+    }
+
+    /**
+     * Формирует значение заголовка ETag по версии записи.
+     *
+     * @param version Версия записи.
+     * @return Значение ETag в кавычках.
+     */
+    static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Извлекает ожидаемую версию записи из заголовка If-Match.
+     *
+     * @param ifMatch Значение заголовка If-Match.
+     * @return Ожидаемая версия; null, если заголовок отсутствует или равен "*".
+     * @throws BadArgumentException Если значение заголовка некорректно.
+     */
+    static Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new BadArgumentException("Некорректное значение заголовка If-Match: " + ifMatch);
+        }
+    }
+}
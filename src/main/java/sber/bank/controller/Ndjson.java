@@ -0,0 +1,71 @@
+package sber.bank.controller;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import sber.bank.exceptions.BadArgumentException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * Чтение тела запроса в формате NDJSON (один JSON-объект на строку).
+ */
+final class Ndjson {
+    /**
+     * Закрытый конструктор: класс содержит только статические методы.
+     */
+    private Ndjson() {
+
+    }
+
+    /**
+     * Возвращает последовательность объектов, которые читаются из потока по одному по мере обхода.
+     * Каждый прочитанный объект сразу проверяется, поэтому тело запроса целиком в память не загружается.
+     * Последовательность можно обойти только один раз.
+     *
+     * @param objectMapper Десериализатор JSON.
+     * @param inputStream  Тело запроса.
+     * @param type         Тип объектов.
+     * @param validator    Проверка каждого объекта.
+     * @param <T>          Тип объектов.
+     * @return Последовательность объектов.
+     * @throws BadArgumentException Если тело запроса не является корректным NDJSON.
+     */
+    static <T> Iterable<T> read(ObjectMapper objectMapper, InputStream inputStream, Class<T> type, Consumer<T> validator) {
+        MappingIterator<T> iterator;
+
+        try {
+            iterator = objectMapper.readerFor(type).readValues(inputStream);
+        } catch (IOException e) {
+            throw new BadArgumentException("Некорректное тело запроса в формате NDJSON");
+        }
+
+        return () -> new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                try {
+                    return iterator.hasNextValue();
+                } catch (IOException e) {
+                    throw new BadArgumentException("Некорректное тело запроса в формате NDJSON");
+                }
+            }
+
+            @Override
+            public T next() {
+                T value;
+
+                try {
+                    value = iterator.nextValue();
+                } catch (IOException e) {
+                    throw new BadArgumentException("Некорректное тело запроса в формате NDJSON");
+                }
+
+                validator.accept(value);
+
+                return value;
+            }
+        };
+    }
+}
@@ -1,5 +1,8 @@
 package sber.bank.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -7,15 +10,25 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
-import sber.bank.domain.Account;
-import sber.bank.domain.Card;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import sber.bank.domain.User;
+import sber.bank.dto.AccountResponse;
+import sber.bank.dto.CardResponse;
+import sber.bank.dto.UserResponse;
 import sber.bank.exceptions.BadArgumentException;
+import sber.bank.exceptions.ConflictException;
 import sber.bank.exceptions.NotFoundException;
 import sber.bank.service.implementation.UserService;
 import sber.bank.validation.Validation;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
 import java.util.List;
 
 /**
@@ -25,31 +38,122 @@ import java.util.List;
 @RequestMapping(value = "api/user")
 @Tag(name = "Пользователи", description = "Методы для работы с пользователями")
 public class UserController {
+    /**
+     * Максимальный размер страницы при постраничной выдаче пользователей.
+     */
+    private static final int MAX_PAGE_LIMIT = 1000;
+
     /**
      * Сервис для работы с пользователями.
      */
     private final UserService userService;
 
+    /**
+     * Сериализатор JSON для потоковой выдачи.
+     */
+    private final ObjectMapper objectMapper;
+
     /**
      * Конструктор с параметрами.
      *
-     * @param userService Сервис для работы с пользователями.
+     * @param userService  Сервис для работы с пользователями.
+     * @param objectMapper Сериализатор JSON.
      */
-    public UserController(UserService userService) {
+    public UserController(UserService userService, ObjectMapper objectMapper) {
         this.userService = userService;
+        this.objectMapper = objectMapper;
     }
 
     /**
      * Получает список всех пользователей.
      *
-     * @return Итерируемый объект с пользователями.
+     * @return Список пользователей.
      */
     @Operation(summary = "Получить список всех пользователей", description = "Возвращает список всех зарегистрированных пользователей.")
     @ApiResponse(responseCode = "200", description = "Список пользователей",
-            content = @Content(array = @ArraySchema(schema = @Schema(implementation = User.class))))
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = UserResponse.class))))
     @GetMapping("all-users")
-    public Iterable<User> getAllUsers() {
-        return userService.getAll();
+    public List<UserResponse> getAllUsers() {
+        return userService.getAllResponses();
+    }
+
+    /**
+     * Получает страницу пользователей, следующих за указанным идентификатором (keyset-пагинация).
+     * Для получения следующей страницы в after_id передается идентификатор последнего пользователя текущей.
+     *
+     * @param afterId Идентификатор последнего пользователя предыдущей страницы.
+     * @param limit   Размер страницы.
+     * @return Список пользователей, упорядоченный по возрастанию идентификатора.
+     * @throws BadArgumentException Если параметры страницы некорректны.
+     */
+    @Operation(summary = "Получить страницу пользователей", description = "Возвращает пользователей с идентификатором больше after_id, не более limit штук.")
+    @ApiResponse(responseCode = "200", description = "Страница пользователей",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = UserResponse.class))))
+    @ApiResponse(responseCode = "400", description = "Некорректные параметры страницы")
+    @GetMapping("all-users/page")
+    public List<UserResponse> getUsersPage(@Parameter(description = "Идентификатор последнего пользователя предыдущей страницы", example = "0")
+                                   @RequestParam(name = "after_id", defaultValue = "0") Long afterId,
+                                   @Parameter(description = "Размер страницы", example = "100")
+                                   @RequestParam(name = "limit", defaultValue = "100") Integer limit) {
+        // region Проверка входных данных
+        Validation.validateUserId(afterId);
+        Validation.validatePageLimit(limit, MAX_PAGE_LIMIT);
+        // endregion
+
+        return userService.getPage(afterId, limit);
+    }
+
+    /**
+     * Выгружает всех пользователей в формате NDJSON (один JSON-объект на строку).
+     * Пользователи читаются из базы данных курсором и сразу пишутся в ответ, не накапливаясь в памяти.
+     *
+     * @return Потоковое тело ответа.
+     */
+    @Operation(summary = "Выгрузить всех пользователей потоком", description = "Возвращает всех пользователей в формате NDJSON без загрузки таблицы в память.")
+    @ApiResponse(responseCode = "200", description = "Поток пользователей")
+    @GetMapping(value = "all-users/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                 SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(generator)) {
+                userService.forEach(user -> {
+                    try {
+                        writer.write(user);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Получает пользователя по его идентификатору.
+     * Версия пользователя возвращается в заголовке ETag для последующего условного обновления (If-Match).
+     *
+     * @param id Идентификатор пользователя.
+     * @return Данные пользователя и его версия в заголовке ETag.
+     * @throws BadArgumentException Если идентификационный номер пользователя некорректен.
+     * @throws NotFoundException    Если пользователь не найден.
+     */
+    @Operation(summary = "Получить пользователя", description = "Возвращает пользователя по его идентификатору.")
+    @ApiResponse(responseCode = "200", description = "Пользователь найден")
+    @ApiResponse(responseCode = "400", description = "Некорректный идентификатор пользователя")
+    @ApiResponse(responseCode = "404", description = "Пользователь не найден")
+    @GetMapping("{id}")
+    public ResponseEntity<UserResponse> getUser(@Parameter(description = "Идентификатор пользователя", example = "1") @PathVariable Long id) {
+        // region Проверка входных данных
+        Validation.validateUserId(id);
+        // endregion
+
+        UserResponse user = userService.getResponse(id);
+
+        return ResponseEntity.ok().eTag(ETags.of(user.version())).body(user);
     }
 
     /**
@@ -62,11 +166,11 @@ public class UserController {
      */
     @Operation(summary = "Получить список счетов пользователя", description = "Возвращает список счетов пользователя по его идентификатору.")
     @ApiResponse(responseCode = "200", description = "Список счетов пользователя",
-            content = @Content(array = @ArraySchema(schema = @Schema(implementation = Account.class))))
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = AccountResponse.class))))
     @ApiResponse(responseCode = "400", description = "Некорректный идентификатор пользователя")
     @ApiResponse(responseCode = "404", description = "Пользователь не найден")
     @GetMapping("{id}/accounts")
-    public List<Account> getUserAccounts(@Parameter(description = "Идентификатор пользователя", example = "1") @PathVariable Long id) {
+    public List<AccountResponse> getUserAccounts(@Parameter(description = "Идентификатор пользователя", example = "1") @PathVariable Long id) {
         // region Проверка входных данных
         Validation.validateUserId(id);
         // endregion
@@ -84,11 +188,11 @@ public class UserController {
      */
     @Operation(summary = "Получить список карт пользователя", description = "Возвращает список карт пользователя по его идентификатору.")
     @ApiResponse(responseCode = "200", description = "Список карт пользователя",
-            content = @Content(array = @ArraySchema(schema = @Schema(implementation = Card.class))))
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = CardResponse.class))))
     @ApiResponse(responseCode = "400", description = "Некорректный идентификатор пользователя")
     @ApiResponse(responseCode = "404", description = "Пользователь не найден")
     @GetMapping("{id}/cards")
-    public List<Card> getUserCards(@Parameter(description = "Идентификатор пользователя", example = "1") @PathVariable Long id) {
+    public List<CardResponse> getUserCards(@Parameter(description = "Идентификатор пользователя", example = "1") @PathVariable Long id) {
         // region Проверка входных данных
         Validation.validateUserId(id);
         // endregion
@@ -97,24 +201,31 @@ public class UserController {
     }
 
     /**
-     * Получает общий баланс пользователя по его идентификатору.
+     * Получает общий баланс пользователя по его идентификатору: текущий или на прошедший момент.
      *
-     * @param id Идентификатор пользователя.
+     * @param id   Идентификатор пользователя.
+     * @param asOf Момент в формате ISO-8601; null для текущего баланса.
      * @return Общий баланс пользователя.
-     * @throws BadArgumentException Если идентификационный номер пользователя некорректен.
+     * @throws BadArgumentException Если идентификационный номер пользователя некорректен или момент находится в будущем.
      * @throws NotFoundException    Если пользователь не найден.
      */
-    @Operation(summary = "Получить общий баланс пользователя", description = "Возвращает общий баланс пользователя по его идентификатору.")
+    @Operation(summary = "Получить общий баланс пользователя", description = "Возвращает общий баланс пользователя по его идентификатору, "
+            + "текущий или на указанный прошедший момент (по курсам валют на дату момента).")
     @ApiResponse(responseCode = "200", description = "Общий баланс пользователя")
-    @ApiResponse(responseCode = "400", description = "Некорректный идентификатор пользователя")
+    @ApiResponse(responseCode = "400", description = "Некорректный идентификатор пользователя или момент в будущем")
     @ApiResponse(responseCode = "404", description = "Пользователь не найден")
     @GetMapping("{id}/balance")
-    public double getOverallBalance(@Parameter(description = "Идентификатор пользователя", example = "1") @PathVariable Long id) {
+    public double getOverallBalance(@Parameter(description = "Идентификатор пользователя", example = "1") @PathVariable Long id,
+                                    @Parameter(description = "Момент", example = "2024-01-01T00:00:00Z")
+                                    @RequestParam(name = "asOf", required = false) Instant asOf) {
         // region Проверка входных данных
         Validation.validateUserId(id);
+        if (asOf != null) {
+            Validation.validatePastMoment(asOf);
+        }
         // endregion
 
-        return userService.getOverallBalance(id);
+        return asOf == null ? userService.getOverallBalance(id) : userService.getOverallBalance(id, asOf);
     }
 
     /**
@@ -128,11 +239,7 @@ public class UserController {
     @ApiResponse(responseCode = "200", description = "Пользователь успешно создан")
     @ApiResponse(responseCode = "400", description = "Некорректные данные пользователя")
     @PostMapping("/create")
-    public boolean createUser(@RequestBody User user) {
-        // region Проверка входных данных
-        Validation.validateUser(user);
-        // endregion
-
+    public boolean createUser(@Validated @RequestBody User user) {
         return userService.create(user).equals(user);
     }
 
@@ -158,24 +265,32 @@ public class UserController {
 
     /**
      * Обновляет данные пользователя по его идентификатору.
+     * Если передан заголовок If-Match, обновление выполняется только при совпадении версии пользователя.
      *
      * @param id         Идентификатор пользователя.
+     * @param ifMatch    Ожидаемая версия пользователя (ETag).
      * @param userDetail Обновленные данные пользователя.
+     * @return Пустой ответ с новой версией пользователя в заголовке ETag.
      * @throws BadArgumentException Если данные пользователя некорректны.
      * @throws NotFoundException    Если пользователь не найден.
+     * @throws ConflictException    Если пользователь был изменен параллельно.
      */
     @Operation(summary = "Обновить данные пользователя", description = "Обновляет данные пользователя по его идентификатору.")
     @ApiResponse(responseCode = "204", description = "Данные пользователя успешно обновлены")
     @ApiResponse(responseCode = "400", description = "Некорректные данные пользователя")
     @ApiResponse(responseCode = "404", description = "Пользователь не найден")
+    @ApiResponse(responseCode = "409", description = "Пользователь был изменен параллельно")
     @PutMapping("/update/{id}")
-    public void updateUser(@Parameter(description = "Идентификатор пользователя", example = "1") @PathVariable Long id,
-                           @RequestBody User userDetail) {
+    public ResponseEntity<Void> updateUser(@Parameter(description = "Идентификатор пользователя", example = "1") @PathVariable Long id,
+                                           @Parameter(description = "Ожидаемая версия пользователя", example = "\"0\"")
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                           @Validated @RequestBody User userDetail) {
         // region Проверка входных данных
         Validation.validateUserId(id);
-        Validation.validateUser(userDetail);
         // endregion
 
-        userService.update(id, userDetail);
+        User user = userService.update(id, userDetail, ETags.parseVersion(ifMatch));
+
+        return ResponseEntity.noContent().eTag(ETags.of(user.getVersion())).build();
     }
 }
\ No newline at end of file
@@ -1,8 +1,11 @@
 package sber.bank.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 
+import java.time.Instant;
 import java.util.Objects;
 
 /**
@@ -33,10 +36,34 @@ public class Account {
     private String currency;
 
     /**
-     * Баланс.
+     * Баланс в минимальных единицах валюты (копейках, центах).
      */
-    @Schema(description = "Баланс", example = "1000.0")
-    private Double balance;
+    @Column(nullable = false)
+    @Schema(description = "Баланс", example = "1000.0", type = "number")
+    private long balance;
+
+    /**
+     * true, если баланс задан явно: передан в теле запроса или конструктору. Позволяет отличить
+     * отсутствующий в запросе баланс от нулевого; не сохраняется.
+     */
+    @Transient
+    @JsonIgnore
+    private boolean balanceSpecified;
+
+    /**
+     * Время создания счета по часам базы данных. Заполняется базой данных при вставке и не изменяется.
+     */
+    @Column(name = "created_at", insertable = false, updatable = false)
+    @JsonIgnore
+    private Instant createdAt;
+
+    /**
+     * Версия записи для оптимистической блокировки.
+     */
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Schema(description = "Версия записи счета", example = "0", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
 
     /**
      * Конструктор по умолчанию.
@@ -52,10 +79,11 @@ public class Account {
      * @param currency Валюта.
      * @param balance  Баланс.
      */
-    public Account(User user, String currency, Double balance) {
+    public Account(User user, String currency, double balance) {
         this.user = user;
         this.currency = currency;
-        this.balance = balance;
+        this.balance = Money.toMinor(balance);
+        this.balanceSpecified = true;
     }
 
     /**
@@ -66,11 +94,12 @@ public class Account {
      * @param currency Валюта.
      * @param balance  Баланс.
      */
-    public Account(Long number, User user, String currency, Double balance) {
+    public Account(Long number, User user, String currency, double balance) {
         this.number = number;
         this.user = user;
         this.currency = currency;
-        this.balance = balance;
+        this.balance = Money.toMinor(balance);
+        this.balanceSpecified = true;
     }
 
     /**
@@ -82,7 +111,8 @@ public class Account {
         this.number = account.getNumber();
         this.user = account.getUser();
         this.currency = account.getCurrency();
-        this.balance = account.getBalance();
+        this.balance = account.getBalanceMinor();
+        this.balanceSpecified = account.isBalanceSpecified();
     }
 
     /**
@@ -142,19 +172,89 @@ public class Account {
     /**
      * Получение баланса счета.
      *
-     * @return Баланс счета.
+     * @return Баланс счета в единицах валюты.
      */
-    public Double getBalance() {
-        return balance;
+    public double getBalance() {
+        return Money.toMajor(balance);
     }
 
     /**
      * Изменение баланса счета.
      *
-     * @param balance Новый баланс счета.
+     * @param balance Новый баланс счета в единицах валюты.
      */
-    public void setBalance(Double balance) {
+    public void setBalance(double balance) {
+        this.balance = Money.toMinor(balance);
+        this.balanceSpecified = true;
+    }
+
+    /**
+     * Получение баланса счета в минимальных единицах валюты.
+     *
+     * @return Баланс счета в минимальных единицах.
+     */
+    @JsonIgnore
+    public long getBalanceMinor() {
+        return balance;
+    }
+
+    /**
+     * Изменение баланса счета в минимальных единицах валюты.
+     *
+     * @param balance Новый баланс счета в минимальных единицах.
+     */
+    @JsonIgnore
+    public void setBalanceMinor(long balance) {
         this.balance = balance;
+        this.balanceSpecified = true;
+    }
+
+    /**
+     * Проверяет, задан ли баланс явно.
+     *
+     * @return true, если баланс передан в теле запроса или задан конструктором или сеттером.
+     */
+    @JsonIgnore
+    public boolean isBalanceSpecified() {
+        return balanceSpecified;
+    }
+
+    /**
+     * Получение времени создания счета по часам базы данных.
+     *
+     * @return Время создания; null, если запись еще не прочитана из базы данных.
+     */
+    @JsonIgnore
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Изменение времени создания счета. В базу данных значение не записывается.
+     *
+     * @param createdAt Время создания.
+     */
+    @JsonIgnore
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Получение версии записи счета.
+     *
+     * @return Версия записи.
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * Изменение версии записи счета.
+     *
+     * @param version Новая версия записи.
+     */
+    public void setVersion(Long version) {
+        this.version = version;
     }
 
     /**
@@ -177,7 +277,7 @@ public class Account {
         return number.equals(account.number)
                 && user.equals(account.user)
                 && currency.equals(account.currency)
-                && balance.equals(account.balance);
+                && balance == account.balance;
     }
 
     /**
@@ -198,6 +298,6 @@ public class Account {
     @Override
     public String toString() {
         return String.format("Account{number=%d, user=%s, currency='%s', balance=%.2f}",
-                number, user, currency, balance);
+                number, user, currency, getBalance());
     }
 }
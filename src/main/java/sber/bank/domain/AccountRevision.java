@@ -0,0 +1,139 @@
+package sber.bank.domain;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.OptimizableGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import java.time.Instant;
+
+/**
+ * Версия владельца и валюты банковского счета, действующая с указанного момента до следующей версии.
+ * Версии только добавляются и никогда не изменяются; закрытие счета записывается версией без владельца,
+ * поэтому отчеты на прошедший момент строятся без обращения к текущей таблице счетов.
+ */
+@Entity
+@Table(name = "account_revision")
+public class AccountRevision {
+    /**
+     * Идентификатор версии.
+     * Выдается из последовательности account_revision_seq блоками по 50 значений.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_revision_seq")
+    @GenericGenerator(name = "account_revision_seq", type = SequenceStyleGenerator.class, parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "account_revision_seq"),
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50"),
+            @Parameter(name = OptimizableGenerator.OPT_PARAM, value = "pooled-lo")
+    })
+    private Long id;
+
+    /**
+     * Номер счета.
+     */
+    @Column(name = "account_number", nullable = false, updatable = false)
+    private long accountNumber;
+
+    /**
+     * Момент, с которого действует версия.
+     */
+    @Column(name = "valid_from", nullable = false, updatable = false)
+    private Instant validFrom;
+
+    /**
+     * Идентификатор владельца; null для закрытого счета.
+     */
+    @Column(name = "user_id", updatable = false)
+    private Long userId;
+
+    /**
+     * Валюта счета; null для закрытого счета.
+     */
+    @Column(updatable = false)
+    private String currency;
+
+    /**
+     * true, если счет закрыт.
+     */
+    @Column(nullable = false, updatable = false)
+    private boolean closed;
+
+    /**
+     * Конструктор по умолчанию.
+     */
+    protected AccountRevision() {
+
+    }
+
+    /**
+     * Конструктор с параметрами.
+     *
+     * @param accountNumber Номер счета.
+     * @param validFrom     Момент, с которого действует версия.
+     * @param userId        Идентификатор владельца; null для закрытого счета.
+     * @param currency      Валюта счета; null для закрытого счета.
+     * @param closed        true, если счет закрыт.
+     */
+    public AccountRevision(long accountNumber, Instant validFrom, Long userId, String currency, boolean closed) {
+        this.accountNumber = accountNumber;
+        this.validFrom = validFrom;
+        this.userId = userId;
+        this.currency = currency;
+        this.closed = closed;
+    }
+
+    /**
+     * Получение идентификатора версии.
+     *
+     * @return Идентификатор версии.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Получение номера счета.
+     *
+     * @return Номер счета.
+     */
+    public long getAccountNumber() {
+        return accountNumber;
+    }
+
+    /**
+     * Получение момента, с которого действует версия.
+     *
+     * @return Момент начала действия версии.
+     */
+    public Instant getValidFrom() {
+        return validFrom;
+    }
+
+    /**
+     * Получение идентификатора владельца.
+     *
+     * @return Идентификатор владельца; null для закрытого счета.
+     */
+    public Long getUserId() {
+        return userId;
+    }
+
+    /**
+     * Получение валюты счета.
+     *
+     * @return Валюта счета; null для закрытого счета.
+     */
+    public String getCurrency() {
+        return currency;
+    }
+
+    /**
+     * Проверка, закрыт ли счет.
+     *
+     * @return true, если счет закрыт.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+}
@@ -0,0 +1,82 @@
+package sber.bank.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+/**
+ * Снимок баланса счета: сумма всех проводок счета, сделанных до момента снимка.
+ * Чтобы восстановить баланс, достаточно прибавить к снимку проводки, сделанные после него.
+ */
+@Entity
+@Table(name = "balance_snapshot")
+public class BalanceSnapshot {
+    /**
+     * Номер счета.
+     */
+    @Id
+    @Column(name = "account_number")
+    private Long accountNumber;
+
+    /**
+     * Баланс в минимальных единицах валюты.
+     */
+    @Column(nullable = false)
+    private long balance;
+
+    /**
+     * Момент снимка: снимок учитывает проводки, сделанные строго до него.
+     */
+    @Column(name = "taken_at", nullable = false)
+    private Instant takenAt;
+
+    /**
+     * Конструктор по умолчанию.
+     */
+    protected BalanceSnapshot() {
+
+    }
+
+    /**
+     * Конструктор с параметрами.
+     *
+     * @param accountNumber Номер счета.
+     * @param balance       Баланс в минимальных единицах валюты.
+     * @param takenAt       Момент снимка.
+     */
+    public BalanceSnapshot(Long accountNumber, long balance, Instant takenAt) {
+        this.accountNumber = accountNumber;
+        this.balance = balance;
+        this.takenAt = takenAt;
+    }
+
+    /**
+     * Получение номера счета.
+     *
+     * @return Номер счета.
+     */
+    public Long getAccountNumber() {
+        return accountNumber;
+    }
+
+    /**
+     * Получение баланса.
+     *
+     * @return Баланс в минимальных единицах валюты.
+     */
+    public long getBalance() {
+        return balance;
+    }
+
+    /**
+     * Получение момента снимка.
+     *
+     * @return Момент снимка.
+     */
+    public Instant getTakenAt() {
+        return takenAt;
+    }
+}
@@ -1,8 +1,11 @@
 package sber.bank.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 
+import java.time.Instant;
 import java.util.Date;
 import java.util.Objects;
 
@@ -17,7 +20,7 @@ public class Card {
      */
     @Id
     @Column(name = "\"number\"")
-    @Schema(description = "Номер карты", example = "1234567890123456")
+    @Schema(description = "Номер карты", example = "4111111111111111")
     private Long number;
 
     /**
@@ -40,6 +43,21 @@ public class Card {
     @Schema(description = "CVV-код карты", example = "123")
     private Integer cvv;
 
+    /**
+     * Время создания карты по часам базы данных. Заполняется базой данных при вставке и не изменяется.
+     */
+    @Column(name = "created_at", insertable = false, updatable = false)
+    @JsonIgnore
+    private Instant createdAt;
+
+    /**
+     * Версия записи для оптимистической блокировки.
+     */
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Schema(description = "Версия записи карты", example = "0", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
+
     /**
      * Конструктор по умолчанию.
      */
@@ -159,6 +177,44 @@ public class Card {
         this.cvv = cvv;
     }
 
+    /**
+     * Получение времени создания карты по часам базы данных.
+     *
+     * @return Время создания; null, если запись еще не прочитана из базы данных.
+     */
+    @JsonIgnore
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Изменение времени создания карты. В базу данных значение не записывается.
+     *
+     * @param createdAt Время создания.
+     */
+    @JsonIgnore
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Получение версии записи карты.
+     *
+     * @return Версия записи.
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * Изменение версии записи карты.
+     *
+     * @param version Новая версия записи.
+     */
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     /**
      * Проверяет, является ли указанный объект равным текущему объекту.
      *
@@ -0,0 +1,127 @@
+package sber.bank.domain;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.OptimizableGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import java.time.Instant;
+
+/**
+ * Проводка журнала: перемещение суммы со счета списания на счет зачисления.
+ * Проводки только добавляются и никогда не изменяются; баланс счета равен сумме зачислений на него
+ * за вычетом сумм списаний. Пополнения и корректировки балансов проводятся через {@link #EXTERNAL_ACCOUNT}.
+ */
+@Entity
+@Table(name = "ledger_entry")
+public class LedgerEntry {
+    /**
+     * Номер внешнего счета, с которого поступают и на который уходят средства вне банка.
+     */
+    public static final long EXTERNAL_ACCOUNT = 0L;
+
+    /**
+     * Идентификатор проводки.
+     * Выдается из последовательности ledger_entry_seq блоками по 50 значений.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_entry_seq")
+    @GenericGenerator(name = "ledger_entry_seq", type = SequenceStyleGenerator.class, parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "ledger_entry_seq"),
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50"),
+            @Parameter(name = OptimizableGenerator.OPT_PARAM, value = "pooled-lo")
+    })
+    private Long id;
+
+    /**
+     * Номер счета списания.
+     */
+    @Column(name = "debit_account", nullable = false, updatable = false)
+    private long debitAccount;
+
+    /**
+     * Номер счета зачисления.
+     */
+    @Column(name = "credit_account", nullable = false, updatable = false)
+    private long creditAccount;
+
+    /**
+     * Сумма в минимальных единицах валюты; всегда положительна.
+     */
+    @Column(nullable = false, updatable = false)
+    private long amount;
+
+    /**
+     * Время проводки; по нему журнал секционирован.
+     */
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    /**
+     * Конструктор по умолчанию.
+     */
+    protected LedgerEntry() {
+
+    }
+
+    /**
+     * Конструктор с параметрами.
+     *
+     * @param debitAccount  Номер счета списания.
+     * @param creditAccount Номер счета зачисления.
+     * @param amount        Сумма в минимальных единицах валюты.
+     * @param createdAt     Время проводки.
+     */
+    public LedgerEntry(long debitAccount, long creditAccount, long amount, Instant createdAt) {
+        this.debitAccount = debitAccount;
+        this.creditAccount = creditAccount;
+        this.amount = amount;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Получение идентификатора проводки.
+     *
+     * @return Идентификатор проводки.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Получение номера счета списания.
+     *
+     * @return Номер счета списания.
+     */
+    public long getDebitAccount() {
+        return debitAccount;
+    }
+
+    /**
+     * Получение номера счета зачисления.
+     *
+     * @return Номер счета зачисления.
+     */
+    public long getCreditAccount() {
+        return creditAccount;
+    }
+
+    /**
+     * Получение суммы проводки.
+     *
+     * @return Сумма в минимальных единицах валюты.
+     */
+    public long getAmount() {
+        return amount;
+    }
+
+    /**
+     * Получение времени проводки.
+     *
+     * @return Время проводки.
+     */
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
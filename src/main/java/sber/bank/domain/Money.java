@@ -0,0 +1,93 @@
+package sber.bank.domain;
+
+/**
+ * Арифметика денежных сумм в минимальных единицах валюты (копейках, центах).
+ * Суммы хранятся в примитивном {@code long}, поэтому вычисления точны и не создают объектов.
+ */
+public final class Money {
+    /**
+     * Количество минимальных единиц в одной единице валюты.
+     */
+    public static final long SCALE = 100;
+
+    /**
+     * Закрытый конструктор: класс содержит только статические методы.
+     */
+    private Money() {
+
+    }
+
+    /**
+     * Переводит сумму в единицах валюты в минимальные единицы с округлением до ближайшей.
+     *
+     * @param amount Сумма в единицах валюты.
+     * @return Сумма в минимальных единицах.
+     * @throws ArithmeticException Если сумма не помещается в long или не является конечным числом.
+     */
+    public static long toMinor(double amount) {
+        return round(amount * SCALE);
+    }
+
+    /**
+     * Переводит сумму в минимальных единицах в единицы валюты.
+     *
+     * @param minor Сумма в минимальных единицах.
+     * @return Сумма в единицах валюты.
+     */
+    public static double toMajor(long minor) {
+        return (double) minor / SCALE;
+    }
+
+    /**
+     * Складывает две суммы.
+     *
+     * @param a Первая сумма в минимальных единицах.
+     * @param b Вторая сумма в минимальных единицах.
+     * @return Сумма в минимальных единицах.
+     * @throws ArithmeticException При переполнении.
+     */
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    /**
+     * Вычитает одну сумму из другой.
+     *
+     * @param a Уменьшаемое в минимальных единицах.
+     * @param b Вычитаемое в минимальных единицах.
+     * @return Разность в минимальных единицах.
+     * @throws ArithmeticException При переполнении.
+     */
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    /**
+     * Конвертирует сумму в другую валюту по курсу с округлением до ближайшей минимальной единицы.
+     *
+     * @param minor Сумма в минимальных единицах исходной валюты.
+     * @param rate  Курс обмена.
+     * @return Сумма в минимальных единицах целевой валюты.
+     * @throws ArithmeticException Если результат не помещается в long.
+     */
+    public static long convert(long minor, double rate) {
+        return round(minor * rate);
+    }
+
+    /**
+     * Округляет значение до ближайшего целого (половины — к четному).
+     *
+     * @param value Значение в минимальных единицах.
+     * @return Округленное значение.
+     * @throws ArithmeticException Если значение не помещается в long или не является конечным числом.
+     */
+    private static long round(double value) {
+        double rounded = Math.rint(value);
+
+        if (Double.isNaN(rounded) || rounded >= 0x1p63 || rounded < -0x1p63) {
+            throw new ArithmeticException("Некорректная денежная сумма: " + value);
+        }
+
+        return (long) rounded;
+    }
+}
@@ -0,0 +1,179 @@
+package sber.bank.domain;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.OptimizableGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import java.time.Instant;
+
+/**
+ * Исходящее событие об изменении счета или карты.
+ * Событие сохраняется в той же транзакции, что и изменение, поэтому публикуется тогда и только тогда,
+ * когда изменение зафиксировано. После публикации событие удаляется.
+ */
+@Entity
+@Table(name = "outbox_event")
+public class OutboxEvent {
+    /**
+     * Вид измененной записи.
+     */
+    public enum Aggregate {
+        /**
+         * Банковский счет.
+         */
+        ACCOUNT,
+
+        /**
+         * Банковская карта.
+         */
+        CARD
+    }
+
+    /**
+     * Вид изменения.
+     */
+    public enum Type {
+        /**
+         * Запись создана.
+         */
+        CREATED,
+
+        /**
+         * Запись изменена.
+         */
+        UPDATED,
+
+        /**
+         * Запись удалена.
+         */
+        DELETED
+    }
+
+    /**
+     * Идентификатор события; определяет порядок публикации.
+     * Выдается из последовательности outbox_event_seq блоками по 50 значений.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+    @GenericGenerator(name = "outbox_event_seq", type = SequenceStyleGenerator.class, parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "outbox_event_seq"),
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50"),
+            @Parameter(name = OptimizableGenerator.OPT_PARAM, value = "pooled-lo")
+    })
+    private Long id;
+
+    /**
+     * Вид измененной записи.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private Aggregate aggregate;
+
+    /**
+     * Номер измененного счета или карты.
+     */
+    @Column(name = "aggregate_id", nullable = false, updatable = false)
+    private long aggregateId;
+
+    /**
+     * Вид изменения.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private Type type;
+
+    /**
+     * Состояние записи после изменения в формате JSON; null для удаления.
+     */
+    @Column(updatable = false, length = 4000)
+    private String payload;
+
+    /**
+     * Время изменения.
+     */
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    /**
+     * Конструктор по умолчанию.
+     */
+    protected OutboxEvent() {
+
+    }
+
+    /**
+     * Конструктор с параметрами.
+     *
+     * @param aggregate   Вид измененной записи.
+     * @param aggregateId Номер измененного счета или карты.
+     * @param type        Вид изменения.
+     * @param payload     Состояние записи после изменения в формате JSON; null для удаления.
+     * @param createdAt   Время изменения.
+     */
+    public OutboxEvent(Aggregate aggregate, long aggregateId, Type type, String payload, Instant createdAt) {
+        this.aggregate = aggregate;
+        this.aggregateId = aggregateId;
+        this.type = type;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Получение идентификатора события.
+     *
+     * @return Идентификатор события.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Получение вида измененной записи.
+     *
+     * @return Вид измененной записи.
+     */
+    public Aggregate getAggregate() {
+        return aggregate;
+    }
+
+    /**
+     * Получение номера измененной записи.
+     *
+     * @return Номер счета или карты.
+     */
+    public long getAggregateId() {
+        return aggregateId;
+    }
+
+    /**
+     * Получение вида изменения.
+     *
+     * @return Вид изменения.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Получение состояния записи после изменения.
+     * При сериализации события в JSON вставляется как вложенный объект.
+     *
+     * @return Состояние записи в формате JSON; null для удаления.
+     */
+    @JsonRawValue
+    public String getPayload() {
+        return payload;
+    }
+
+    /**
+     * Получение времени изменения.
+     *
+     * @return Время изменения.
+     */
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -1,7 +1,12 @@
 package sber.bank.domain;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.OptimizableGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import java.util.Date;
 import java.util.Objects;
@@ -15,9 +20,17 @@ import java.util.Objects;
 public class User {
     /**
      * Уникальный идентификатор пользователя.
+     * Выдается из последовательности user_seq блоками по 50 значений (шаг последовательности в миграции
+     * должен совпадать), поэтому при массовом создании пользователей к последовательности выполняется
+     * одно обращение на 50 вставок.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @GenericGenerator(name = "user_seq", type = SequenceStyleGenerator.class, parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "user_seq"),
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50"),
+            @Parameter(name = OptimizableGenerator.OPT_PARAM, value = "pooled-lo")
+    })
     @Schema(description = "Уникальный идентификатор пользователя", example = "1")
     private Long id;
 
@@ -40,6 +53,14 @@ public class User {
     @Schema(description = "Адрес пользователя", example = "ул. Пушкина, д. 10")
     private String address;
 
+    /**
+     * Версия записи для оптимистической блокировки.
+     */
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Schema(description = "Версия записи пользователя", example = "0", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
+
     /**
      * Конструктор по умолчанию.
      */
@@ -159,6 +180,24 @@ public class User {
         this.address = address;
     }
 
+    /**
+     * Получение версии записи пользователя.
+     *
+     * @return Версия записи.
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * Изменение версии записи пользователя.
+     *
+     * @param version Новая версия записи.
+     */
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     /**
      * Проверяет, является ли указанный объект равным данному пользователю.
      *
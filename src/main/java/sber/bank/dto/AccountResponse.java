@@ -0,0 +1,45 @@
+package sber.bank.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import sber.bank.domain.Money;
+
+/**
+ * Данные банковского счета в ответе API.
+ * Владелец представлен только идентификатором, поэтому ответ строится без загрузки пользователя.
+ *
+ * @param number       Номер банковского счета.
+ * @param userId       Идентификатор владельца счета.
+ * @param currency     Валюта счета.
+ * @param balanceMinor Баланс счета в минимальных единицах валюты.
+ * @param version      Версия записи счета.
+ */
+@Schema(description = "Банковский счет")
+public record AccountResponse(
+        @Schema(description = "Номер банковского счета", example = "1234567890123456")
+        Long number,
+
+        @Schema(description = "Идентификатор владельца счета", example = "1")
+        Long userId,
+
+        @Schema(description = "Валюта счета", example = "RUB")
+        String currency,
+
+        @JsonIgnore
+        long balanceMinor,
+
+        @Schema(description = "Версия записи счета", example = "0")
+        Long version) {
+
+    /**
+     * Получение баланса счета в единицах валюты.
+     *
+     * @return Баланс счета.
+     */
+    @JsonProperty("balance")
+    @Schema(description = "Баланс счета", example = "1000.0")
+    public double balance() {
+        return Money.toMajor(balanceMinor);
+    }
+}
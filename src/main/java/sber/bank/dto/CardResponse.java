@@ -0,0 +1,33 @@
+package sber.bank.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Date;
+
+/**
+ * Данные банковской карты в ответе API.
+ * Счет представлен только номером, поэтому ответ строится без загрузки счета.
+ *
+ * @param number         Номер карты.
+ * @param accountNumber  Номер банковского счета, к которому привязана карта.
+ * @param expirationDate Дата окончания срока действия карты.
+ * @param cvv            CVV-код карты.
+ * @param version        Версия записи карты.
+ */
+@Schema(description = "Банковская карта")
+public record CardResponse(
+        @Schema(description = "Номер карты", example = "4111111111111111")
+        Long number,
+
+        @Schema(description = "Номер банковского счета, к которому привязана карта", example = "1234567890123456")
+        Long accountNumber,
+
+        @Schema(description = "Дата окончания срока действия карты")
+        Date expirationDate,
+
+        @Schema(description = "CVV-код карты", example = "123")
+        Integer cvv,
+
+        @Schema(description = "Версия записи карты", example = "0")
+        Long version) {
+}
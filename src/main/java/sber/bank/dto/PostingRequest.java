@@ -0,0 +1,14 @@
+package sber.bank.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Запрос на пополнение счета или списание со счета за пределы банка.
+ *
+ * @param amount Сумма в единицах валюты счета.
+ */
+@Schema(description = "Пополнение или списание средств")
+public record PostingRequest(
+        @Schema(description = "Сумма", example = "100.50")
+        Double amount) {
+}
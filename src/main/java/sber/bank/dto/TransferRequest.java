@@ -0,0 +1,22 @@
+package sber.bank.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Запрос на перевод денежных средств между банковскими счетами.
+ *
+ * @param from   Номер счета списания.
+ * @param to     Номер счета зачисления.
+ * @param amount Сумма перевода в единицах валюты счетов.
+ */
+@Schema(description = "Перевод денежных средств между счетами")
+public record TransferRequest(
+        @Schema(description = "Номер счета списания", example = "1001001001001001")
+        Long from,
+
+        @Schema(description = "Номер счета зачисления", example = "2002002002002002")
+        Long to,
+
+        @Schema(description = "Сумма перевода", example = "100.50")
+        Double amount) {
+}
@@ -0,0 +1,32 @@
+package sber.bank.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Date;
+
+/**
+ * Данные пользователя в ответе API.
+ *
+ * @param id        Уникальный идентификатор пользователя.
+ * @param name      ФИО пользователя.
+ * @param birthdate Дата рождения пользователя.
+ * @param address   Адрес пользователя.
+ * @param version   Версия записи пользователя.
+ */
+@Schema(description = "Пользователь банковской системы")
+public record UserResponse(
+        @Schema(description = "Уникальный идентификатор пользователя", example = "1")
+        Long id,
+
+        @Schema(description = "ФИО пользователя", example = "Иванов Иван Иванович")
+        String name,
+
+        @Schema(description = "Дата рождения пользователя")
+        Date birthdate,
+
+        @Schema(description = "Адрес пользователя", example = "ул. Пушкина, д. 10")
+        String address,
+
+        @Schema(description = "Версия записи пользователя", example = "0")
+        Long version) {
+}
@@ -5,10 +5,11 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 
 /**
  * Исключение, которое выбрасывается в случае некорректного аргумента.
- * Наследуется от IllegalArgumentException.
+ * Наследуется от RuntimeException: только его конструктор позволяет не заполнять трассировку стека
+ * и запретить подавленные исключения у экземпляров, выбрасываемых повторно.
  */
 @ResponseStatus(value = HttpStatus.BAD_REQUEST)
-public class BadArgumentException extends IllegalArgumentException {
+public class BadArgumentException extends RuntimeException {
 
     /**
      * Конструктор с параметром.
@@ -18,5 +19,18 @@ public class BadArgumentException extends IllegalArgumentException {
     public BadArgumentException(String message) {
         super(message);
     }
+
+    /**
+     * Конструктор с параметрами.
+     * Исключение без трассировки стека можно создать заранее и выбрасывать повторно: трассировка указывала бы
+     * на место создания, а не выброса, поэтому она не заполняется. Подавленные исключения и причина у такого
+     * экземпляра не сохраняются, поэтому общий экземпляр не изменяется при выбросе из разных потоков.
+     *
+     * @param message            Сообщение об ошибке.
+     * @param writableStackTrace false, если трассировку стека не нужно заполнять.
+     */
+    public BadArgumentException(String message, boolean writableStackTrace) {
+        super(message, null, writableStackTrace, writableStackTrace);
+    }
 }
 
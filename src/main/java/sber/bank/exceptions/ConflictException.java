@@ -0,0 +1,21 @@
+package sber.bank.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Исключение, которое выбрасывается, если ресурс был изменен параллельным запросом.
+ * Наследуется от RuntimeException.
+ */
+@ResponseStatus(value = HttpStatus.CONFLICT)
+public class ConflictException extends RuntimeException {
+
+    /**
+     * Конструктор с параметром.
+     *
+     * @param message Сообщение об ошибке.
+     */
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -18,4 +18,17 @@ public class NotFoundException extends RuntimeException {
     public NotFoundException(String message) {
         super(message);
     }
+
+    /**
+     * Конструктор с параметрами.
+     * Исключение без трассировки стека дешевле в создании; используется там, где ресурс запрашивают
+     * по несуществующим номерам массово и место выброса исключения не представляет интереса.
+     * Подавленные исключения и причина у такого экземпляра не сохраняются.
+     *
+     * @param message            Сообщение об ошибке.
+     * @param writableStackTrace false, если трассировку стека не нужно заполнять.
+     */
+    public NotFoundException(String message, boolean writableStackTrace) {
+        super(message, null, writableStackTrace, writableStackTrace);
+    }
 }
@@ -1,16 +1,78 @@
 package sber.bank.repos;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import sber.bank.domain.Account;
 import sber.bank.domain.User;
+import sber.bank.dto.AccountResponse;
+import sber.bank.repos.projection.AccountBalance;
+import sber.bank.repos.projection.AccountCurrency;
+import sber.bank.repos.projection.CreatedNumber;
+import sber.bank.repos.projection.CurrencyBalance;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_NATIVE_SPACES;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 /**
  * Репозиторий для работы с банковскими счетами.
- * Расширяет интерфейс JpaRepository для осуществления операций с базой данных.
+ * Расширяет интерфейс JpaRepository для осуществления операций с базой данных
+ * и BatchInsertRepository для пакетной вставки.
  */
-public interface AccountRepository extends JpaRepository<Account, Long> {
+public interface AccountRepository extends JpaRepository<Account, Long>, BatchInsertRepository<Account> {
+
+    /**
+     * Возвращает все банковские счета вместе с владельцами одним запросом.
+     * Владелец загружается сразу, так как счета используются вне транзакции, в которой были получены.
+     *
+     * @return Список банковских счетов.
+     */
+    @Override
+    @EntityGraph(attributePaths = "user")
+    List<Account> findAll();
+
+    /**
+     * Возвращает данные банковского счета для ответа API одним запросом, без загрузки владельца.
+     *
+     * @param number Номер банковского счета.
+     * @return Данные счета, если он существует.
+     */
+    @Query("select new sber.bank.dto.AccountResponse(a.number, a.user.id, a.currency, a.balance, a.version) "
+            + "from Account a where a.number = :number")
+    Optional<AccountResponse> findResponseByNumber(@Param("number") Long number);
+
+    /**
+     * Возвращает данные счетов пользователя для ответа API одним запросом, без загрузки владельца.
+     *
+     * @param userId Идентификатор пользователя.
+     * @return Данные счетов пользователя.
+     */
+    @Query("select new sber.bank.dto.AccountResponse(a.number, a.user.id, a.currency, a.balance, a.version) "
+            + "from Account a where a.user.id = :userId")
+    List<AccountResponse> findResponsesByUserId(@Param("userId") Long userId);
+
+    /**
+     * Возвращает данные указанных банковских счетов одним запросом, без загрузки владельцев.
+     *
+     * @param numbers Номера банковских счетов.
+     * @return Данные найденных счетов.
+     */
+    @Query("select new sber.bank.dto.AccountResponse(a.number, a.user.id, a.currency, a.balance, a.version) "
+            + "from Account a where a.number in :numbers order by a.number")
+    List<AccountResponse> findResponsesByNumberIn(@Param("numbers") Collection<Long> numbers);
 
     /**
      * Возвращает список банковских счетов, принадлежащих указанному пользователю.
@@ -19,4 +81,146 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
      * @return Список банковских счетов пользователя.
      */
     List<Account> findByUser(User user);
+
+    /**
+     * Возвращает суммы балансов счетов пользователя, сгруппированные по валюте.
+     * Агрегация выполняется на стороне базы данных, сущности счетов не загружаются.
+     *
+     * @param userId Идентификатор пользователя.
+     * @return Суммарный баланс по каждой валюте.
+     */
+    @Query("select a.currency as currency, sum(a.balance) as total from Account a where a.user.id = :userId group by a.currency")
+    List<CurrencyBalance> sumBalanceByCurrency(@Param("userId") Long userId);
+
+    /**
+     * Возвращает суммы балансов счетов пользователя на указанный момент, сгруппированные по валюте.
+     * Счета пользователя и их валюты выбираются из истории версий счетов, действовавших на момент, а не из текущей
+     * таблицы счетов, поэтому закрытые позже счета и последующая смена владельца не изменяют прошлые отчеты.
+     * Баланс каждого счета вычисляется по последнему снимку из истории, сделанному не позже момента,
+     * и проводкам между снимком и моментом, поэтому журнал не пересчитывается с начала.
+     * Подсказки синхронизации сбрасывают еще не записанные версии счетов и проводки текущей транзакции перед запросом.
+     *
+     * @param userId Идентификатор пользователя.
+     * @param asOf   Момент; учитываются версии счетов и проводки, сделанные строго до него.
+     * @return Суммарный баланс по каждой валюте.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_NATIVE_SPACES, value = "account_revision"),
+            @QueryHint(name = HINT_NATIVE_SPACES, value = "ledger_entry")
+    })
+    @Query(nativeQuery = true, value = """
+            select r.currency as currency,
+                   cast(sum(coalesce(s.balance, 0)
+                       + coalesce((select sum(e.amount) from ledger_entry e where e.credit_account = r.account_number
+                                   and e.created_at >= coalesce(s.taken_at, timestamp with time zone '1970-01-01 00:00:00+00')
+                                   and e.created_at < :asOf), 0)
+                       - coalesce((select sum(e.amount) from ledger_entry e where e.debit_account = r.account_number
+                                   and e.created_at >= coalesce(s.taken_at, timestamp with time zone '1970-01-01 00:00:00+00')
+                                   and e.created_at < :asOf), 0)) as bigint) as total
+            from account_revision r
+            left join balance_snapshot_history s on s.account_number = r.account_number
+                and s.taken_at = (select max(h.taken_at) from balance_snapshot_history h
+                                  where h.account_number = r.account_number and h.taken_at <= :asOf)
+            where r."user_id" = :userId
+              and r.valid_from < :asOf
+              and not exists (select 1 from account_revision n
+                              where n.account_number = r.account_number and n.valid_from < :asOf
+                                and (n.valid_from > r.valid_from or (n.valid_from = r.valid_from and n.id > r.id)))
+            group by r.currency""")
+    List<CurrencyBalance> sumBalanceByCurrencyAsOf(@Param("userId") Long userId, @Param("asOf") Instant asOf);
+
+    /**
+     * Удаляет банковский счет одним запросом, без предварительной загрузки сущности.
+     *
+     * @param number Номер банковского счета.
+     * @return Количество удаленных счетов.
+     */
+    @Modifying
+    @Query("delete from Account a where a.number = :number")
+    int deleteByNumber(@Param("number") Long number);
+
+    /**
+     * Возвращает баланс банковского счета и блокирует его строку до конца транзакции,
+     * чтобы баланс не изменился до удаления счета.
+     *
+     * @param number Номер банковского счета.
+     * @return Номер, баланс и время создания счета, если он существует.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a.number as number, a.balance as balance, a.createdAt as createdAt from Account a where a.number = :number")
+    Optional<AccountBalance> lockBalance(@Param("number") Long number);
+
+    /**
+     * Возвращает балансы всех банковских счетов указанного пользователя и блокирует их строки до конца транзакции.
+     *
+     * @param userId Идентификатор пользователя.
+     * @return Номера, балансы и время создания счетов.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a.number as number, a.balance as balance, a.createdAt as createdAt from Account a where a.user.id = :userId")
+    List<AccountBalance> lockBalancesByUserId(@Param("userId") Long userId);
+
+    /**
+     * Удаляет одним запросом все банковские счета указанного пользователя.
+     *
+     * @param userId Идентификатор пользователя.
+     * @return Количество удаленных счетов.
+     */
+    @Modifying
+    @Query("delete from Account a where a.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    /**
+     * Возвращает номера и валюты указанных банковских счетов без загрузки сущностей.
+     *
+     * @param numbers Номера банковских счетов.
+     * @return Номера и валюты найденных счетов.
+     */
+    List<AccountCurrency> findByNumberIn(Collection<Long> numbers);
+
+    /**
+     * Списывает сумму со счета, если на нем достаточно средств.
+     * Проверка и изменение баланса выполняются одним запросом, поэтому параллельные списания не теряются.
+     *
+     * @param number Номер банковского счета.
+     * @param amount Сумма в минимальных единицах валюты.
+     * @return 1, если сумма списана; 0, если средств недостаточно или счет не найден.
+     */
+    @Modifying
+    @Query("update Account a set a.balance = a.balance - :amount, a.version = a.version + 1 where a.number = :number and a.balance >= :amount")
+    int withdraw(@Param("number") Long number, @Param("amount") long amount);
+
+    /**
+     * Зачисляет сумму на счет.
+     *
+     * @param number Номер банковского счета.
+     * @param amount Сумма в минимальных единицах валюты.
+     * @return 1, если сумма зачислена; 0, если счет не найден.
+     */
+    @Modifying
+    @Query("update Account a set a.balance = a.balance + :amount, a.version = a.version + 1 where a.number = :number")
+    int deposit(@Param("number") Long number, @Param("amount") long amount);
+
+    /**
+     * Возвращает поток номеров всех банковских счетов.
+     * Номера читаются из курсора порциями; поток должен потребляться внутри транзакции и быть закрыт после использования.
+     *
+     * @return Поток номеров банковских счетов.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("select a.number from Account a")
+    Stream<Long> streamAllNumbers();
+
+    /**
+     * Возвращает номера и время создания счетов, созданных позже указанного момента по часам базы данных.
+     *
+     * @param since Момент, после которого созданы счета.
+     * @return Номера счетов и время их создания.
+     */
+    @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
+    @Query("select a.number as number, a.createdAt as createdAt from Account a where a.createdAt > :since")
+    List<CreatedNumber> findNumbersCreatedAfter(@Param("since") Instant since);
 }
@@ -0,0 +1,32 @@
+package sber.bank.repos;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import sber.bank.domain.AccountRevision;
+
+import java.time.Instant;
+
+/**
+ * Репозиторий для работы с историей владельца и валюты банковских счетов.
+ */
+public interface AccountRevisionRepository extends JpaRepository<AccountRevision, Long> {
+
+    /**
+     * Записывает закрытие всех счетов пользователя одним запросом.
+     * Каждой версии выдается отдельное значение последовательности: оно не совпадет ни с одним идентификатором
+     * из блоков, выдаваемых приложению.
+     *
+     * @param userId    Идентификатор пользователя.
+     * @param validFrom Момент закрытия.
+     * @return Количество записанных версий.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            insert into account_revision (id, account_number, valid_from, "user_id", currency, closed)
+            select nextval('account_revision_seq'), a."number", :validFrom, null, null, true
+            from account a
+            where a."user_id" = :userId""")
+    int recordClosedByUserId(@Param("userId") Long userId, @Param("validFrom") Instant validFrom);
+}
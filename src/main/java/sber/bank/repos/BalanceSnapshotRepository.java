@@ -0,0 +1,70 @@
+package sber.bank.repos;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import sber.bank.domain.BalanceSnapshot;
+
+import java.time.Instant;
+
+/**
+ * Репозиторий для работы со снимками балансов счетов.
+ */
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, Long> {
+
+    /**
+     * Переносит снимки счетов, по которым были проводки после предыдущего снимка, на указанный момент.
+     * К каждому снимку прибавляются только проводки между предыдущим и новым моментом снимка.
+     *
+     * @param cutoff Новый момент снимка.
+     * @return Количество перенесенных снимков.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            update balance_snapshot s
+            set balance  = s.balance
+                    + coalesce((select sum(e.amount) from ledger_entry e where e.credit_account = s.account_number
+                                and e.created_at >= s.taken_at and e.created_at < :cutoff), 0)
+                    - coalesce((select sum(e.amount) from ledger_entry e where e.debit_account = s.account_number
+                                and e.created_at >= s.taken_at and e.created_at < :cutoff), 0),
+                taken_at = :cutoff
+            where s.taken_at < :cutoff
+              and exists (select 1 from ledger_entry e where (e.credit_account = s.account_number or e.debit_account = s.account_number)
+                          and e.created_at >= s.taken_at and e.created_at < :cutoff)""")
+    int advance(@Param("cutoff") Instant cutoff);
+
+    /**
+     * Создает снимки для счетов, у которых их еще нет, по всем проводкам до указанного момента.
+     *
+     * @param cutoff Момент снимка.
+     * @return Количество созданных снимков.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            insert into balance_snapshot (account_number, balance, taken_at)
+            select a."number",
+                   coalesce((select sum(e.amount) from ledger_entry e where e.credit_account = a."number" and e.created_at < :cutoff), 0)
+                 - coalesce((select sum(e.amount) from ledger_entry e where e.debit_account = a."number" and e.created_at < :cutoff), 0),
+                   :cutoff
+            from account a
+            where not exists (select 1 from balance_snapshot s where s.account_number = a."number")""")
+    int createMissing(@Param("cutoff") Instant cutoff);
+
+    /**
+     * Добавляет в историю снимки, сделанные в указанный момент.
+     * История позволяет вычислять балансы на прошедшие моменты, не пересчитывая журнал с начала.
+     *
+     * @param takenAt Момент снимка.
+     * @return Количество добавленных в историю снимков.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            insert into balance_snapshot_history (account_number, taken_at, balance)
+            select s.account_number, s.taken_at, s.balance
+            from balance_snapshot s
+            where s.taken_at = :takenAt
+              and not exists (select 1 from balance_snapshot_history h
+                              where h.account_number = s.account_number and h.taken_at = s.taken_at)""")
+    int recordHistory(@Param("takenAt") Instant takenAt);
+}
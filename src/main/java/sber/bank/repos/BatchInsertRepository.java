@@ -0,0 +1,18 @@
+package sber.bank.repos;
+
+/**
+ * Фрагмент репозитория для пакетной вставки новых записей.
+ *
+ * @param <T> Тип записи.
+ */
+public interface BatchInsertRepository<T> {
+    /**
+     * Сохраняет новые записи через persist, без предварительного SELECT, который выполняет merge.
+     * Записи отправляются в базу данных пакетами JDBC, контекст персистентности очищается
+     * после каждого пакета, поэтому потребление памяти не зависит от количества записей.
+     *
+     * @param entities Новые записи.
+     * @return Количество сохраненных записей.
+     */
+    int persistAll(Iterable<? extends T> entities);
+}
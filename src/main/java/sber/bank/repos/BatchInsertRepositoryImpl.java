@@ -0,0 +1,57 @@
+package sber.bank.repos;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Реализация пакетной вставки записей через EntityManager.
+ *
+ * @param <T> Тип записи.
+ */
+public class BatchInsertRepositoryImpl<T> implements BatchInsertRepository<T> {
+    /**
+     * Менеджер сущностей.
+     */
+    private final EntityManager entityManager;
+
+    /**
+     * Количество записей в одном пакете.
+     */
+    private final int batchSize;
+
+    /**
+     * Конструктор с параметрами.
+     *
+     * @param entityManager Менеджер сущностей.
+     * @param batchSize     Количество записей в одном пакете; совпадает с hibernate.jdbc.batch_size.
+     */
+    public BatchInsertRepositoryImpl(EntityManager entityManager,
+                                     @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
+        this.entityManager = entityManager;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public int persistAll(Iterable<? extends T> entities) {
+        int count = 0;
+
+        for (T entity : entities) {
+            entityManager.persist(entity);
+
+            if (++count % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        return count;
+    }
+}
@@ -1,16 +1,51 @@
 package sber.bank.repos;
 
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import sber.bank.domain.Account;
 import sber.bank.domain.Card;
+import sber.bank.dto.CardResponse;
+import sber.bank.repos.projection.CreatedNumber;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 /**
  * Репозиторий для работы с банковскими картами.
- * Расширяет интерфейс JpaRepository для осуществления операций с базой данных.
+ * Расширяет интерфейс JpaRepository для осуществления операций с базой данных
+ * и BatchInsertRepository для пакетной вставки.
  */
-public interface CardRepository extends JpaRepository<Card, Long> {
+public interface CardRepository extends JpaRepository<Card, Long>, BatchInsertRepository<Card> {
+
+    /**
+     * Возвращает все банковские карты вместе со счетами одним запросом.
+     * Счет загружается сразу, так как карты используются вне транзакции, в которой были получены.
+     *
+     * @return Список банковских карт.
+     */
+    @Override
+    @EntityGraph(attributePaths = "account")
+    List<Card> findAll();
+
+    /**
+     * Возвращает данные карты для ответа API одним запросом, без загрузки счета.
+     *
+     * @param number Номер карты.
+     * @return Данные карты, если она существует.
+     */
+    @Query("select new sber.bank.dto.CardResponse(c.number, c.account.number, c.expirationDate, c.cvv, c.version) "
+            + "from Card c where c.number = :number")
+    Optional<CardResponse> findResponseByNumber(@Param("number") Long number);
 
     /**
      * Возвращает список банковских карт, связанных с указанным банковским счетом.
@@ -19,4 +54,67 @@ public interface CardRepository extends JpaRepository<Card, Long> {
      * @return Список банковских карт, связанных с указанным счетом.
      */
     List<Card> findByAccount(Account account);
-}
\ No newline at end of file
+
+    /**
+     * Возвращает список банковских карт, привязанных ко всем счетам указанного пользователя.
+     * Выполняется одним запросом с соединением таблиц карт и счетов.
+     *
+     * @param userId Идентификатор пользователя.
+     * @return Список банковских карт пользователя.
+     */
+    @Query("select c from Card c join c.account a where a.user.id = :userId")
+    List<Card> findByUserId(@Param("userId") Long userId);
+
+    /**
+     * Возвращает данные карт всех счетов пользователя для ответа API одним запросом, без загрузки счетов.
+     *
+     * @param userId Идентификатор пользователя.
+     * @return Данные карт пользователя.
+     */
+    @Query("select new sber.bank.dto.CardResponse(c.number, a.number, c.expirationDate, c.cvv, c.version) "
+            + "from Card c join c.account a where a.user.id = :userId")
+    List<CardResponse> findResponsesByUserId(@Param("userId") Long userId);
+
+    /**
+     * Удаляет одним запросом все банковские карты, привязанные к указанному счету.
+     *
+     * @param number Номер банковского счета.
+     * @return Количество удаленных карт.
+     */
+    @Modifying
+    @Query("delete from Card c where c.account.number = :number")
+    int deleteByAccountNumber(@Param("number") Long number);
+
+    /**
+     * Удаляет одним запросом все банковские карты, привязанные к счетам указанного пользователя.
+     *
+     * @param userId Идентификатор пользователя.
+     * @return Количество удаленных карт.
+     */
+    @Modifying
+    @Query("delete from Card c where c.account.number in (select a.number from Account a where a.user.id = :userId)")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    /**
+     * Возвращает поток номеров всех карт.
+     * Номера читаются из курсора порциями; поток должен потребляться внутри транзакции и быть закрыт после использования.
+     *
+     * @return Поток номеров карт.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("select c.number from Card c")
+    Stream<Long> streamAllNumbers();
+
+    /**
+     * Возвращает номера и время создания карт, созданных позже указанного момента по часам базы данных.
+     *
+     * @param since Момент, после которого созданы карты.
+     * @return Номера карт и время их создания.
+     */
+    @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
+    @Query("select c.number as number, c.createdAt as createdAt from Card c where c.createdAt > :since")
+    List<CreatedNumber> findNumbersCreatedAfter(@Param("since") Instant since);
+}
@@ -0,0 +1,80 @@
+package sber.bank.repos;
+
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import sber.bank.domain.LedgerEntry;
+
+import java.time.Instant;
+
+import static org.hibernate.jpa.HibernateHints.HINT_NATIVE_SPACES;
+
+/**
+ * Репозиторий для работы с журналом проводок.
+ * Расширяет интерфейс JpaRepository для осуществления операций с базой данных
+ * и BatchInsertRepository для пакетной вставки.
+ */
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long>, BatchInsertRepository<LedgerEntry> {
+
+    /**
+     * Возвращает изменение баланса счета по проводкам, сделанным начиная с указанного момента.
+     * Условие по времени проводки позволяет PostgreSQL читать только секции журнала после этого момента.
+     *
+     * @param number Номер счета.
+     * @param since  Момент, начиная с которого учитываются проводки.
+     * @return Сумма зачислений за вычетом суммы списаний в минимальных единицах валюты.
+     */
+    @Query("select coalesce(sum(case when e.creditAccount = :number then e.amount else -e.amount end), 0) from LedgerEntry e "
+            + "where (e.creditAccount = :number or e.debitAccount = :number) and e.createdAt >= :since")
+    long sumSince(@Param("number") long number, @Param("since") Instant since);
+
+    /**
+     * Возвращает баланс счета на указанный момент: последний снимок из истории, сделанный не позже момента,
+     * и проводки между снимком и моментом. Снимки переносятся периодически, поэтому читаются проводки
+     * не более чем за один период снимков. Подсказка синхронизации сбрасывает еще не записанные проводки
+     * текущей транзакции перед запросом.
+     *
+     * @param number Номер счета.
+     * @param asOf   Момент; учитываются проводки, сделанные строго до него.
+     * @return Баланс в минимальных единицах валюты.
+     */
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "ledger_entry"))
+    @Query(nativeQuery = true, value = """
+            select cast(coalesce(s.balance, 0)
+                 + coalesce((select sum(e.amount) from ledger_entry e where e.credit_account = :number
+                             and e.created_at >= coalesce(s.taken_at, timestamp with time zone '1970-01-01 00:00:00+00')
+                             and e.created_at < :asOf), 0)
+                 - coalesce((select sum(e.amount) from ledger_entry e where e.debit_account = :number
+                             and e.created_at >= coalesce(s.taken_at, timestamp with time zone '1970-01-01 00:00:00+00')
+                             and e.created_at < :asOf), 0) as bigint)
+            from (select 1) d
+            left join balance_snapshot_history s on s.account_number = :number
+                and s.taken_at = (select max(h.taken_at) from balance_snapshot_history h
+                                  where h.account_number = :number and h.taken_at <= :asOf)""")
+    long balanceAsOf(@Param("number") long number, @Param("asOf") Instant asOf);
+
+    /**
+     * Списывает остатки всех счетов пользователя на внешний счет одним запросом.
+     * Каждой проводке выдается отдельное значение последовательности: оно не совпадет ни с одним идентификатором
+     * из блоков, выдаваемых приложению.
+     *
+     * @param userId    Идентификатор пользователя.
+     * @param createdAt Время проводок.
+     * @return Количество записанных проводок.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            insert into ledger_entry (id, debit_account, credit_account, amount, created_at)
+            select nextval('ledger_entry_seq'),
+                   case when a.balance > 0 then a."number" else 0 end,
+                   case when a.balance > 0 then 0 else a."number" end,
+                   abs(a.balance),
+                   :createdAt
+            from account a
+            where a."user_id" = :userId
+              and a.balance <> 0""")
+    int postClosingByUserId(@Param("userId") Long userId, @Param("createdAt") Instant createdAt);
+}
@@ -0,0 +1,75 @@
+package sber.bank.repos;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import sber.bank.domain.OutboxEvent;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.hibernate.jpa.SpecHints.HINT_SPEC_LOCK_TIMEOUT;
+
+/**
+ * Репозиторий для работы с исходящими событиями.
+ * Расширяет интерфейс JpaRepository для осуществления операций с базой данных.
+ */
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Выбирает и блокирует до конца транзакции очередную порцию событий в порядке их записи.
+     * Порядок задается временем записи, а не идентификатором: экземпляры приложения выдают идентификаторы
+     * блоками по 50 значений, поэтому более позднее событие одного экземпляра может получить меньший идентификатор.
+     * Время ожидания блокировки -2 (значение Hibernate для пропуска заблокированных строк) превращается диалектом в
+     * {@code FOR UPDATE SKIP LOCKED}: события, уже заблокированные другими ретрансляторами, пропускаются,
+     * поэтому несколько экземпляров приложения разбирают очередь параллельно, не ожидая друг друга
+     * и не публикуя событие дважды. В базах без SKIP LOCKED выполняется обычная блокировка.
+     *
+     * @param page Размер порции (первая страница).
+     * @return Заблокированные события в порядке времени записи.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query("select e from OutboxEvent e order by e.createdAt, e.id")
+    List<OutboxEvent> lockBatch(Pageable page);
+
+    /**
+     * Записывает события об удалении всех карт пользователя одним запросом.
+     * Каждому событию выдается отдельное значение последовательности: оно не совпадет ни с одним идентификатором
+     * из блоков, выдаваемых приложению.
+     *
+     * @param userId    Идентификатор пользователя.
+     * @param createdAt Время записи событий.
+     * @return Количество записанных событий.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            insert into outbox_event (id, aggregate, aggregate_id, type, payload, created_at)
+            select nextval('outbox_event_seq'), 'CARD', c."number", 'DELETED', null, :createdAt
+            from card c
+                     join account a on a."number" = c.account_number
+            where a."user_id" = :userId""")
+    int insertCardsDeletedByUserId(@Param("userId") Long userId, @Param("createdAt") Instant createdAt);
+
+    /**
+     * Записывает события об удалении всех счетов пользователя одним запросом.
+     *
+     * @param userId    Идентификатор пользователя.
+     * @param createdAt Время записи событий.
+     * @return Количество записанных событий.
+     * @see #insertCardsDeletedByUserId(Long, Instant)
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            insert into outbox_event (id, aggregate, aggregate_id, type, payload, created_at)
+            select nextval('outbox_event_seq'), 'ACCOUNT', a."number", 'DELETED', null, :createdAt
+            from account a
+            where a."user_id" = :userId""")
+    int insertAccountsDeletedByUserId(@Param("userId") Long userId, @Param("createdAt") Instant createdAt);
+}
@@ -1,11 +1,79 @@
 package sber.bank.repos;
 
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import sber.bank.domain.User;
+import sber.bank.dto.UserResponse;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 /**
  * Репозиторий для работы с пользователями.
  * Расширяет интерфейс JpaRepository для осуществления операций с базой данных.
  */
 public interface UserRepository extends JpaRepository<User, Long> {
-}
\ No newline at end of file
+
+    /**
+     * Возвращает данные пользователя для ответа API без загрузки сущности.
+     *
+     * @param id Идентификатор пользователя.
+     * @return Данные пользователя, если он существует.
+     */
+    @Query("select new sber.bank.dto.UserResponse(u.id, u.name, u.birthdate, u.address, u.version) from User u where u.id = :id")
+    Optional<UserResponse> findResponseById(@Param("id") Long id);
+
+    /**
+     * Возвращает данные всех пользователей для ответа API.
+     *
+     * @return Данные пользователей, упорядоченные по идентификатору.
+     */
+    @Query("select new sber.bank.dto.UserResponse(u.id, u.name, u.birthdate, u.address, u.version) from User u order by u.id")
+    List<UserResponse> findAllResponses();
+
+    /**
+     * Возвращает страницу данных пользователей для ответа API (keyset-пагинация).
+     * В отличие от постраничной выборки через OFFSET, стоимость запроса не зависит от номера страницы.
+     *
+     * @param id       Идентификатор последнего пользователя предыдущей страницы.
+     * @param pageable Размер страницы.
+     * @return Данные пользователей, упорядоченные по возрастанию идентификатора.
+     */
+    @Query("select new sber.bank.dto.UserResponse(u.id, u.name, u.birthdate, u.address, u.version) "
+            + "from User u where u.id > :id order by u.id")
+    List<UserResponse> findResponsesAfter(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Возвращает поток данных всех пользователей, упорядоченных по идентификатору.
+     * Строки читаются из курсора порциями и не попадают в контекст персистентности,
+     * поэтому таблица целиком в память не загружается.
+     * Поток должен потребляться внутри транзакции и быть закрыт после использования.
+     *
+     * @return Поток данных пользователей.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new sber.bank.dto.UserResponse(u.id, u.name, u.birthdate, u.address, u.version) from User u order by u.id")
+    Stream<UserResponse> streamAllResponses();
+
+    /**
+     * Удаляет пользователя одним запросом, без предварительной загрузки сущности.
+     *
+     * @param id Идентификатор пользователя.
+     * @return Количество удаленных пользователей.
+     */
+    @Modifying
+    @Query("delete from User u where u.id = :id")
+    int deleteUserById(@Param("id") Long id);
+}
@@ -0,0 +1,29 @@
+package sber.bank.repos.projection;
+
+import java.time.Instant;
+
+/**
+ * Номер банковского счета, его баланс и время создания.
+ */
+public interface AccountBalance {
+    /**
+     * Получение номера счета.
+     *
+     * @return Номер счета.
+     */
+    Long getNumber();
+
+    /**
+     * Получение баланса счета.
+     *
+     * @return Баланс в минимальных единицах валюты.
+     */
+    long getBalance();
+
+    /**
+     * Получение времени создания счета.
+     *
+     * @return Время создания по часам базы данных.
+     */
+    Instant getCreatedAt();
+}
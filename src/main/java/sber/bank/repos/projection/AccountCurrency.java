@@ -0,0 +1,20 @@
+package sber.bank.repos.projection;
+
+/**
+ * Номер банковского счета и его валюта.
+ */
+public interface AccountCurrency {
+    /**
+     * Получение номера счета.
+     *
+     * @return Номер счета.
+     */
+    Long getNumber();
+
+    /**
+     * Получение валюты счета.
+     *
+     * @return Код валюты.
+     */
+    String getCurrency();
+}
@@ -0,0 +1,22 @@
+package sber.bank.repos.projection;
+
+import java.time.Instant;
+
+/**
+ * Номер карты или счета и время его создания по часам базы данных.
+ */
+public interface CreatedNumber {
+    /**
+     * Получение номера.
+     *
+     * @return Номер карты или счета.
+     */
+    Long getNumber();
+
+    /**
+     * Получение времени создания записи.
+     *
+     * @return Время создания по часам базы данных.
+     */
+    Instant getCreatedAt();
+}
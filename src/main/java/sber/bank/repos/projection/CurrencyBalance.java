@@ -0,0 +1,20 @@
+package sber.bank.repos.projection;
+
+/**
+ * Суммарный баланс счетов в одной валюте.
+ */
+public interface CurrencyBalance {
+    /**
+     * Получение валюты.
+     *
+     * @return Код валюты.
+     */
+    String getCurrency();
+
+    /**
+     * Получение суммы балансов счетов в данной валюте.
+     *
+     * @return Сумма балансов в минимальных единицах валюты.
+     */
+    Long getTotal();
+}
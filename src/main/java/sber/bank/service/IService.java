@@ -42,5 +42,17 @@ public interface IService<T> {
      * @param pk        Первичный ключ объекта.
      * @param objDetail Обновленные данные объекта.
      */
-    void update(Long pk, T objDetail);
+    default void update(Long pk, T objDetail) {
+        update(pk, objDetail, null);
+    }
+
+    /**
+     * Обновляет данные объекта типа T, если его текущая версия совпадает с ожидаемой.
+     *
+     * @param pk              Первичный ключ объекта.
+     * @param objDetail       Обновленные данные объекта.
+     * @param expectedVersion Ожидаемая версия объекта; null, если версию проверять не нужно.
+     * @return Обновленный объект типа T.
+     */
+    T update(Long pk, T objDetail, Long expectedVersion);
 }
\ No newline at end of file
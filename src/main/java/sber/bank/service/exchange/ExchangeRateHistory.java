@@ -0,0 +1,166 @@
+package sber.bank.service.exchange;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import sber.bank.exceptions.BadArgumentException;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * История курсов валют к рублю по датам (UTC).
+ * Курс действует с даты его установки до даты следующего курса той же валюты. История целиком хранится в памяти
+ * неизменяемым снимком, поэтому курс на дату находится без обращения к базе данных даже при построении отчетов
+ * по всем клиентам. При обновлении новые курсы из {@link ExchangeRateTable} записываются в историю за текущую дату.
+ */
+@Component
+public class ExchangeRateHistory {
+    private static final Logger log = LoggerFactory.getLogger(ExchangeRateHistory.class);
+
+    /**
+     * Шаблон JDBC для чтения и записи истории курсов.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Таблица текущих курсов валют.
+     */
+    private final ExchangeRateTable exchangeRateTable;
+
+    /**
+     * Текущий снимок истории: код валюты и курсы по датам начала действия.
+     */
+    private volatile Map<String, NavigableMap<LocalDate, Double>> history = Map.of();
+
+    /**
+     * Конструктор с параметрами.
+     *
+     * @param jdbcTemplate      Шаблон JDBC.
+     * @param exchangeRateTable Таблица текущих курсов валют.
+     */
+    public ExchangeRateHistory(JdbcTemplate jdbcTemplate, ExchangeRateTable exchangeRateTable) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.exchangeRateTable = exchangeRateTable;
+    }
+
+    /**
+     * Возвращает курс обмена валюты к рублю, действовавший на указанную дату.
+     *
+     * @param currency Код валюты.
+     * @param date     Дата (UTC).
+     * @return Курс обмена к рублю.
+     * @throws BadArgumentException Если история курсов валюты начинается позже указанной даты:
+     *                              подставленный вместо него текущий курс исказил бы отчет.
+     */
+    public double getRate(String currency, LocalDate date) {
+        Double rate = find(currency, date);
+
+        if (rate == null) {
+            throw new BadArgumentException("Нет курса валюты " + currency + " на дату " + date);
+        }
+
+        return rate;
+    }
+
+    /**
+     * Возвращает курс обмена валюты к рублю, действовавший в указанный момент.
+     *
+     * @param currency Код валюты.
+     * @param moment   Момент времени.
+     * @return Курс обмена к рублю на дату момента (UTC).
+     */
+    public double getRate(String currency, Instant moment) {
+        return getRate(currency, LocalDate.ofInstant(moment, ZoneOffset.UTC));
+    }
+
+    /**
+     * Загружает историю курсов после запуска приложения.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+
+    /**
+     * Записывает изменившиеся текущие курсы в историю за текущую дату и перезагружает историю.
+     * Если обновление не удалось, продолжает использоваться предыдущий снимок.
+     */
+    @Scheduled(fixedDelayString = "${bank.exchange-rates.refresh-interval-ms:300000}",
+            initialDelayString = "${bank.exchange-rates.refresh-interval-ms:300000}")
+    public void refresh() {
+        try {
+            history = load();
+
+            LocalDate today = LocalDate.now(ZoneOffset.UTC);
+            boolean changed = false;
+            for (Map.Entry<String, Double> rate : exchangeRateTable.getRates().entrySet()) {
+                if (!rate.getValue().equals(find(rate.getKey(), today))) {
+                    record(rate.getKey(), today, rate.getValue());
+                    changed = true;
+                }
+            }
+
+            if (changed) {
+                history = load();
+            }
+        } catch (DataAccessException e) {
+            log.warn("Не удалось обновить историю курсов валют, используются предыдущие значения", e);
+        }
+    }
+
+    /**
+     * Находит курс обмена валюты к рублю, действовавший на указанную дату.
+     *
+     * @param currency Код валюты.
+     * @param date     Дата (UTC).
+     * @return Курс обмена к рублю или null, если история курсов валюты начинается позже указанной даты.
+     */
+    private Double find(String currency, LocalDate date) {
+        NavigableMap<LocalDate, Double> rates = history.get(currency);
+        Map.Entry<LocalDate, Double> rate = rates != null ? rates.floorEntry(date) : null;
+
+        return rate != null ? rate.getValue() : null;
+    }
+
+    /**
+     * Записывает курс валюты, действующий с указанной даты, заменяя курс, уже записанный за эту дату.
+     *
+     * @param currency  Код валюты.
+     * @param validFrom Дата начала действия курса.
+     * @param rate      Курс обмена к рублю.
+     */
+    private void record(String currency, LocalDate validFrom, double rate) {
+        if (jdbcTemplate.update("update exchange_rate set rate = ? where currency = ? and valid_from = ?",
+                rate, currency, validFrom) == 0) {
+            jdbcTemplate.update("insert into exchange_rate (currency, valid_from, rate) values (?, ?, ?)",
+                    currency, validFrom, rate);
+        }
+    }
+
+    /**
+     * Загружает историю курсов из базы данных.
+     *
+     * @return Неизменяемое отображение кода валюты в курсы по датам начала действия.
+     */
+    private Map<String, NavigableMap<LocalDate, Double>> load() {
+        Map<String, NavigableMap<LocalDate, Double>> loaded = new HashMap<>();
+
+        jdbcTemplate.query("select currency, valid_from, rate from exchange_rate", resultSet -> {
+            loaded.computeIfAbsent(resultSet.getString(1), currency -> new TreeMap<>())
+                    .put(resultSet.getObject(2, LocalDate.class), resultSet.getDouble(3));
+        });
+
+        return Map.copyOf(loaded);
+    }
+}
@@ -0,0 +1,16 @@
+package sber.bank.service.exchange;
+
+import java.util.Map;
+
+/**
+ * Источник курсов валют.
+ * Реализации загружают актуальные курсы из внешнего хранилища (файла, базы данных и т.п.).
+ */
+public interface ExchangeRateProvider {
+    /**
+     * Загружает курсы валют к базовой валюте (рублю).
+     *
+     * @return Отображение кода валюты в курс обмена к рублю.
+     */
+    Map<String, Double> loadRates();
+}
@@ -0,0 +1,80 @@
+package sber.bank.service.exchange;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import sber.bank.exceptions.BadArgumentException;
+
+import java.util.Map;
+
+/**
+ * Таблица курсов валют к рублю.
+ * Хранит неизменяемый снимок курсов, который при обновлении целиком заменяется новым.
+ * Чтение курса не требует блокировок и не создает новых объектов.
+ */
+@Component
+public class ExchangeRateTable {
+    private static final Logger log = LoggerFactory.getLogger(ExchangeRateTable.class);
+
+    /**
+     * Источник курсов валют.
+     */
+    private final ExchangeRateProvider provider;
+
+    /**
+     * Текущий снимок курсов валют.
+     */
+    private volatile Map<String, Double> rates = Map.of();
+
+    /**
+     * Конструктор с параметрами. Сразу загружает курсы валют.
+     *
+     * @param provider Источник курсов валют.
+     */
+    public ExchangeRateTable(ExchangeRateProvider provider) {
+        this.provider = provider;
+        refresh();
+    }
+
+    /**
+     * Возвращает курс обмена указанной валюты к рублю.
+     *
+     * @param currency Код валюты.
+     * @return Курс обмена к рублю.
+     * @throws BadArgumentException Если курса валюты нет в таблице: подставленный вместо него курс исказил бы баланс,
+     *                              как и в {@link ExchangeRateHistory#getRate(String, java.time.LocalDate)}.
+     */
+    public double getRate(String currency) {
+        Double rate = rates.get(currency);
+
+        if (rate == null) {
+            throw new BadArgumentException("Нет курса валюты " + currency);
+        }
+
+        return rate;
+    }
+
+    /**
+     * Возвращает текущий снимок курсов валют.
+     *
+     * @return Неизменяемое отображение кода валюты в курс обмена к рублю.
+     */
+    public Map<String, Double> getRates() {
+        return rates;
+    }
+
+    /**
+     * Перезагружает курсы валют из источника и атомарно подменяет текущий снимок.
+     * Если загрузка не удалась, продолжает использоваться предыдущий снимок.
+     */
+    @Scheduled(fixedDelayString = "${bank.exchange-rates.refresh-interval-ms:300000}",
+            initialDelayString = "${bank.exchange-rates.refresh-interval-ms:300000}")
+    public void refresh() {
+        try {
+            rates = Map.copyOf(provider.loadRates());
+        } catch (RuntimeException e) {
+            log.warn("Не удалось обновить курсы валют, используются предыдущие значения", e);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package sber.bank.service.exchange;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Источник курсов валют, читающий их из properties-файла вида {@code USD=90.0}.
+ * Файл перечитывается при каждой загрузке, поэтому курсы можно менять без перезапуска приложения.
+ */
+@Component
+public class PropertiesExchangeRateProvider implements ExchangeRateProvider {
+    /**
+     * Файл с курсами валют.
+     */
+    private final Resource location;
+
+    /**
+     * Конструктор с параметрами.
+     *
+     * @param location Файл с курсами валют.
+     */
+    public PropertiesExchangeRateProvider(@Value("${bank.exchange-rates.location:classpath:exchange-rates.properties}") Resource location) {
+        this.location = location;
+    }
+
+    /**
+     * Загружает курсы валют из файла.
+     *
+     * @return Отображение кода валюты в курс обмена к рублю.
+     * @throws UncheckedIOException Если файл не удалось прочитать.
+     * @throws NumberFormatException Если курс валюты в файле не является числом.
+     */
+    @Override
+    public Map<String, Double> loadRates() {
+        Properties properties = new Properties();
+
+        try (InputStream inputStream = location.getInputStream()) {
+            properties.load(inputStream);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать курсы валют из " + location, e);
+        }
+
+        Map<String, Double> rates = new HashMap<>();
+        for (String currency : properties.stringPropertyNames()) {
+            rates.put(currency.trim(), Double.parseDouble(properties.getProperty(currency).trim()));
+        }
+
+        return rates;
+    }
+}
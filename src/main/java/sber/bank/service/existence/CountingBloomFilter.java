@@ -0,0 +1,188 @@
+package sber.bank.service.existence;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Потокобезопасный счетный фильтр Блума для номеров типа long.
+ * Каждая ячейка фильтра — 4-битный счетчик, поэтому помимо добавления поддерживается удаление.
+ * Счетчики упакованы по 16 в элементы AtomicLongArray и изменяются через compare-and-set, без блокировок.
+ * Насыщенный счетчик (15) больше не уменьшается, чтобы удаление не могло привести к ложноотрицательному ответу.
+ */
+final class CountingBloomFilter {
+    /**
+     * Количество бит на счетчик.
+     */
+    private static final int COUNTER_BITS = 4;
+
+    /**
+     * Количество счетчиков в одном элементе массива.
+     */
+    private static final int COUNTERS_PER_WORD = Long.SIZE / COUNTER_BITS;
+
+    /**
+     * Максимальное значение счетчика.
+     */
+    private static final long COUNTER_MAX = (1L << COUNTER_BITS) - 1;
+
+    /**
+     * Упакованные счетчики.
+     */
+    private final AtomicLongArray words;
+
+    /**
+     * Количество счетчиков.
+     */
+    private final long size;
+
+    /**
+     * Количество хеш-функций.
+     */
+    private final int hashCount;
+
+    /**
+     * Создает фильтр, рассчитанный на указанное количество элементов и вероятность ложноположительного ответа.
+     *
+     * @param expectedInsertions Ожидаемое количество элементов.
+     * @param falsePositiveRate  Допустимая вероятность ложноположительного ответа, от 0 до 1.
+     */
+    CountingBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        long m = Math.max(COUNTERS_PER_WORD, (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+        int words = Math.toIntExact((m + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD);
+
+        this.words = new AtomicLongArray(words);
+        this.size = (long) words * COUNTERS_PER_WORD;
+        this.hashCount = Math.max(1, (int) Math.round((double) size / n * Math.log(2)));
+    }
+
+    /**
+     * Добавляет элемент в фильтр.
+     *
+     * @param value Элемент.
+     */
+    void put(long value) {
+        long hash1 = mix(value);
+        long hash2 = mix(hash1) | 1;
+
+        for (int i = 0; i < hashCount; i++) {
+            increment(index(hash1 + i * hash2));
+        }
+    }
+
+    /**
+     * Удаляет элемент из фильтра. Элемент должен был быть добавлен ранее, иначе возможны ложноотрицательные ответы.
+     *
+     * @param value Элемент.
+     */
+    void remove(long value) {
+        long hash1 = mix(value);
+        long hash2 = mix(hash1) | 1;
+
+        for (int i = 0; i < hashCount; i++) {
+            decrement(index(hash1 + i * hash2));
+        }
+    }
+
+    /**
+     * Проверяет, мог ли элемент быть добавлен в фильтр.
+     *
+     * @param value Элемент.
+     * @return false, если элемент точно не добавлялся; true, если элемент, возможно, добавлялся.
+     */
+    boolean mightContain(long value) {
+        long hash1 = mix(value);
+        long hash2 = mix(hash1) | 1;
+
+        for (int i = 0; i < hashCount; i++) {
+            if (counter(index(hash1 + i * hash2)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Индекс счетчика по значению хеш-функции.
+     *
+     * @param hash Значение хеш-функции.
+     * @return Индекс счетчика.
+     */
+    private long index(long hash) {
+        return Long.remainderUnsigned(hash, size);
+    }
+
+    /**
+     * Возвращает значение счетчика.
+     *
+     * @param index Индекс счетчика.
+     * @return Значение счетчика.
+     */
+    private long counter(long index) {
+        return (words.get((int) (index / COUNTERS_PER_WORD)) >>> shift(index)) & COUNTER_MAX;
+    }
+
+    /**
+     * Увеличивает счетчик, если он не насыщен.
+     *
+     * @param index Индекс счетчика.
+     */
+    private void increment(long index) {
+        int word = (int) (index / COUNTERS_PER_WORD);
+        int shift = shift(index);
+
+        while (true) {
+            long current = words.get(word);
+            long counter = (current >>> shift) & COUNTER_MAX;
+
+            if (counter == COUNTER_MAX || words.compareAndSet(word, current, current + (1L << shift))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Уменьшает счетчик, если он не равен нулю и не насыщен.
+     *
+     * @param index Индекс счетчика.
+     */
+    private void decrement(long index) {
+        int word = (int) (index / COUNTERS_PER_WORD);
+        int shift = shift(index);
+
+        while (true) {
+            long current = words.get(word);
+            long counter = (current >>> shift) & COUNTER_MAX;
+
+            if (counter == 0 || counter == COUNTER_MAX || words.compareAndSet(word, current, current - (1L << shift))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Смещение счетчика внутри элемента массива.
+     *
+     * @param index Индекс счетчика.
+     * @return Смещение в битах.
+     */
+    private static int shift(long index) {
+        return (int) (index % COUNTERS_PER_WORD) * COUNTER_BITS;
+    }
+
+    /**
+     * Перемешивание бит значения (финализатор MurmurHash3).
+     *
+     * @param value Исходное значение.
+     * @return Перемешанное значение.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+
+        return value;
+    }
+}
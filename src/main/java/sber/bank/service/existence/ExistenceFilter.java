@@ -0,0 +1,344 @@
+package sber.bank.service.existence;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import sber.bank.repos.projection.CreatedNumber;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Фильтр существующих номеров карт и счетов.
+ * Позволяет отклонить запрос к заведомо несуществующему номеру без обращения к базе данных.
+ * Ответ false означает, что номера точно нет; ответ true — что номер, возможно, есть и нужно проверить базу данных.
+ * Пока фильтр не загружен или если он дольше допустимой задержки не синхронизировался с базой данных
+ * (см. {@link ExistenceFilterLoader#catchUp()}), всегда возвращается true. Отрицательный ответ перепроверяется
+ * обработчиком промахов (см. {@link #onMiss(LongConsumer)}), чтобы номер, созданный другим экземпляром приложения
+ * после последней дозагрузки, не считался несуществующим.
+ */
+@Component
+public class ExistenceFilter {
+    /**
+     * Номера банковских карт.
+     */
+    private final NumberSet cards;
+
+    /**
+     * Номера банковских счетов.
+     */
+    private final NumberSet accounts;
+
+    /**
+     * Обработчик промахов; null, если он не задан.
+     */
+    private volatile LongConsumer missHandler;
+
+    /**
+     * Конструктор с параметрами.
+     *
+     * @param falsePositiveRate Допустимая вероятность ложноположительного ответа.
+     * @param maxStalenessMs    Допустимая задержка синхронизации с базой данных, после которой отрицательным
+     *                          ответам фильтра перестают доверять.
+     */
+    public ExistenceFilter(@Value("${bank.existence-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                           @Value("${bank.existence-filter.max-staleness-ms:10000}") long maxStalenessMs) {
+        AtomicLong clock = new AtomicLong();
+        long maxStalenessNanos = TimeUnit.MILLISECONDS.toNanos(maxStalenessMs);
+        this.cards = new NumberSet(clock, falsePositiveRate, maxStalenessNanos);
+        this.accounts = new NumberSet(clock, falsePositiveRate, maxStalenessNanos);
+    }
+
+    /**
+     * Задает обработчик промахов. Обработчик получает показание {@link System#nanoTime()} на момент промаха
+     * и должен синхронизировать фильтр с базой данных, если синхронизация не начиналась после этого момента.
+     *
+     * @param missHandler Обработчик промахов.
+     */
+    public void onMiss(LongConsumer missHandler) {
+        this.missHandler = missHandler;
+    }
+
+    /**
+     * Проверяет, может ли существовать карта с указанным номером.
+     *
+     * @param number Номер карты.
+     * @return false, если карты точно нет, иначе true.
+     */
+    public boolean mightContainCard(long number) {
+        return cards.mightContain(number) || recheck(cards, number);
+    }
+
+    /**
+     * Проверяет, может ли существовать счет с указанным номером.
+     *
+     * @param number Номер счета.
+     * @return false, если счета точно нет, иначе true.
+     */
+    public boolean mightContainAccount(long number) {
+        return accounts.mightContain(number) || recheck(accounts, number);
+    }
+
+    /**
+     * Добавляет номер создаваемой карты.
+     * Номер добавляется сразу, чтобы карта была видна в создающей ее транзакции, и повторно после фиксации
+     * транзакции, чтобы его не потеряло перестроение фильтра, выполняющееся параллельно с транзакцией.
+     * В каждом фильтре номер учитывается один раз, поэтому удаление карты удаляет его из фильтра.
+     *
+     * @param number Номер карты.
+     */
+    public void addCard(long number) {
+        cards.add(number);
+        changes().addCard(number);
+    }
+
+    /**
+     * Добавляет номер создаваемого счета.
+     *
+     * @param number Номер счета.
+     * @see #addCard(long)
+     */
+    public void addAccount(long number) {
+        accounts.add(number);
+        changes().addAccount(number);
+    }
+
+    /**
+     * Удаляет номер карты после фиксации транзакции. Если фильтр не учитывал номер, номер остается в нем
+     * до следующего перестроения.
+     *
+     * @param number    Номер карты.
+     * @param createdAt Время создания карты по часам базы данных; null, если оно неизвестно.
+     */
+    public void removeCard(long number, Instant createdAt) {
+        long tick = cards.tick();
+        changes().remove(() -> cards.remove(number, createdAt, tick));
+    }
+
+    /**
+     * Удаляет номер счета после фиксации транзакции.
+     *
+     * @param number    Номер счета.
+     * @param createdAt Время создания счета по часам базы данных; null, если оно неизвестно.
+     * @see #removeCard(long, Instant)
+     */
+    public void removeAccount(long number, Instant createdAt) {
+        long tick = accounts.tick();
+        changes().remove(() -> accounts.remove(number, createdAt, tick));
+    }
+
+    /**
+     * Добавляет номера карт, созданных с момента предыдущей синхронизации, в том числе другими экземплярами
+     * приложения, и отмечает синхронизацию фильтра карт с базой данных. Уже учтенные номера пропускаются.
+     *
+     * @param numbers       Номера и время создания карт, зафиксированных в базе данных.
+     * @param countedBefore Момент по часам базы данных, начиная с которого созданные карты прочитает
+     *                      следующая дозагрузка; более ранние номера фильтр перестает запоминать.
+     */
+    public void catchUpCards(Collection<CreatedNumber> numbers, Instant countedBefore) {
+        cards.catchUp(numbers, countedBefore);
+    }
+
+    /**
+     * Добавляет номера счетов, созданных с момента предыдущей синхронизации, и отмечает синхронизацию
+     * фильтра счетов с базой данных.
+     *
+     * @param numbers       Номера и время создания счетов, зафиксированных в базе данных.
+     * @param countedBefore Момент по часам базы данных, начиная с которого созданные счета прочитает
+     *                      следующая дозагрузка.
+     * @see #catchUpCards(Collection, Instant)
+     */
+    public void catchUpAccounts(Collection<CreatedNumber> numbers, Instant countedBefore) {
+        accounts.catchUp(numbers, countedBefore);
+    }
+
+    /**
+     * Перестраивает фильтр номеров карт.
+     *
+     * @param expectedCount Ожидаемое количество карт.
+     * @param loader        Загрузчик, передающий номера всех карт в переданный обработчик.
+     * @param recent        Номера карт, созданных позже {@code loadedBefore}; они уже загружены
+     *                      и не должны учитываться повторно.
+     * @param loadedBefore  Момент по часам базы данных, до которого все созданные карты загружены.
+     */
+    public void rebuildCards(long expectedCount, Consumer<LongConsumer> loader,
+                             Supplier<Collection<CreatedNumber>> recent, Instant loadedBefore) {
+        cards.rebuild(expectedCount, loader, recent, loadedBefore);
+    }
+
+    /**
+     * Перестраивает фильтр номеров счетов.
+     *
+     * @param expectedCount Ожидаемое количество счетов.
+     * @param loader        Загрузчик, передающий номера всех счетов в переданный обработчик.
+     * @param recent        Номера счетов, созданных позже {@code loadedBefore}; они уже загружены
+     *                      и не должны учитываться повторно.
+     * @param loadedBefore  Момент по часам базы данных, до которого все созданные счета загружены.
+     */
+    public void rebuildAccounts(long expectedCount, Consumer<LongConsumer> loader,
+                                Supplier<Collection<CreatedNumber>> recent, Instant loadedBefore) {
+        accounts.rebuild(expectedCount, loader, recent, loadedBefore);
+    }
+
+    /**
+     * Перепроверяет отрицательный ответ фильтра после синхронизации обработчиком промахов.
+     *
+     * @param set    Множество номеров.
+     * @param number Номер.
+     * @return true, если после синхронизации номер, возможно, есть; false, если обработчик не задан или номера нет.
+     */
+    private boolean recheck(NumberSet set, long number) {
+        LongConsumer handler = missHandler;
+        if (handler == null) {
+            return false;
+        }
+
+        handler.accept(System.nanoTime());
+        return set.mightContain(number);
+    }
+
+    /**
+     * Возвращает изменения, которые будут применены после фиксации текущей транзакции.
+     * Вне транзакции изменения применяются сразу.
+     *
+     * @return Отложенные изменения.
+     */
+    private Changes changes() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new Changes(false);
+        }
+
+        Changes changes = (Changes) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            changes = new Changes(true);
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(changes);
+        }
+
+        return changes;
+    }
+
+    /**
+     * Изменения фильтра в рамках одной транзакции. Номера хранятся в массивах, а не в коллекциях
+     * объектов, поэтому пакетное создание карт не порождает лишних объектов.
+     */
+    private final class Changes implements TransactionSynchronization {
+        /**
+         * true, если изменения откладываются до фиксации транзакции.
+         */
+        private final boolean deferred;
+        /**
+         * Номера созданных карт.
+         */
+        private long[] cardNumbers = new long[0];
+
+        /**
+         * Количество номеров созданных карт.
+         */
+        private int cardCount;
+
+        /**
+         * Номера созданных счетов.
+         */
+        private long[] accountNumbers = new long[0];
+
+        /**
+         * Количество номеров созданных счетов.
+         */
+        private int accountCount;
+
+        /**
+         * Удаления номеров.
+         */
+        private final List<Runnable> removals = new ArrayList<>();
+
+        /**
+         * Конструктор с параметрами.
+         *
+         * @param deferred true, если изменения откладываются до фиксации транзакции.
+         */
+        Changes(boolean deferred) {
+            this.deferred = deferred;
+        }
+
+        /**
+         * Запоминает номер созданной карты.
+         *
+         * @param number Номер карты.
+         */
+        void addCard(long number) {
+            if (!deferred) {
+                return;
+            }
+
+            if (cardCount == cardNumbers.length) {
+                cardNumbers = Arrays.copyOf(cardNumbers, Math.max(16, cardCount * 2));
+            }
+            cardNumbers[cardCount++] = number;
+        }
+
+        /**
+         * Запоминает номер созданного счета.
+         *
+         * @param number Номер счета.
+         */
+        void addAccount(long number) {
+            if (!deferred) {
+                return;
+            }
+
+            if (accountCount == accountNumbers.length) {
+                accountNumbers = Arrays.copyOf(accountNumbers, Math.max(16, accountCount * 2));
+            }
+            accountNumbers[accountCount++] = number;
+        }
+
+        /**
+         * Запоминает удаление номера; вне транзакции выполняет его сразу.
+         *
+         * @param removal Удаление номера.
+         */
+        void remove(Runnable removal) {
+            if (deferred) {
+                removals.add(removal);
+            } else {
+                removal.run();
+            }
+        }
+
+        /**
+         * Применяет изменения после фиксации транзакции.
+         */
+        @Override
+        public void afterCommit() {
+            for (int i = 0; i < cardCount; i++) {
+                cards.add(cardNumbers[i]);
+            }
+
+            for (int i = 0; i < accountCount; i++) {
+                accounts.add(accountNumbers[i]);
+            }
+
+            removals.forEach(Runnable::run);
+        }
+
+        /**
+         * Отвязывает изменения от завершенной транзакции.
+         *
+         * @param status Статус завершения транзакции.
+         */
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ExistenceFilter.this);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package sber.bank.service.existence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import sber.bank.repos.AccountRepository;
+import sber.bank.repos.CardRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.stream.Stream;
+
+/**
+ * Загрузчик фильтра существующих номеров карт и счетов.
+ * Строит фильтр после запуска приложения и периодически перестраивает его, чтобы избавиться
+ * от номеров, удаленных массово (например, вместе с пользователем), и подстроить размер фильтра.
+ * Между перестроениями часто дозагружает номера, созданные другими экземплярами приложения, а при промахе
+ * фильтра дозагружает их внепланово, поэтому созданная на другом экземпляре запись видна сразу после фиксации.
+ */
+@Component
+public class ExistenceFilterLoader {
+    private static final Logger log = LoggerFactory.getLogger(ExistenceFilterLoader.class);
+
+    /**
+     * Фильтр существующих номеров.
+     */
+    private final ExistenceFilter existenceFilter;
+
+    /**
+     * Репозиторий банковских карт.
+     */
+    private final CardRepository cardRepository;
+
+    /**
+     * Репозиторий банковских счетов.
+     */
+    private final AccountRepository accountRepository;
+
+    /**
+     * Шаблон транзакции, в которой дозагружаются номера.
+     * Транзакция не объявлена только для чтения, чтобы номера читались с основного сервера, а не с отстающей реплики:
+     * иначе из фильтра пропали бы недавно созданные номера. Дозагрузка при промахе выполняется внутри транзакции
+     * сервиса, поэтому для нее всегда открывается новая транзакция.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Шаблон транзакции, в которой перестраивается фильтр. Все номера и номера, созданные в пределах перекрытия,
+     * читаются из одного снимка базы данных, поэтому вторые гарантированно входят в первые.
+     */
+    private final TransactionTemplate rebuildTemplate;
+
+    /**
+     * Шаблон JDBC для чтения текущего времени базы данных.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Перекрытие окон дозагрузки. Время создания записи — это время начала вставившей ее транзакции,
+     * поэтому перекрытие превышает максимальную длительность транзакции, создающей карты или счета
+     * ({@code bank.create.transaction-timeout-s}); пакетное создание фиксируется частями, укладывающимися в нее.
+     */
+    private final Duration catchUpOverlap;
+
+    /**
+     * Время базы данных на момент предыдущей дозагрузки или перестроения; null, пока ни то, ни другое
+     * не выполнялось. Окна дозагрузки перекрываются, но фильтр учитывает каждый номер один раз.
+     */
+    private Instant caughtUpAt;
+
+    /**
+     * Показание {@link System#nanoTime()} на момент начала последней успешной дозагрузки или перестроения;
+     * null, пока ни то, ни другое не удавалось.
+     */
+    private Long syncStartedAt;
+
+    /**
+     * Конструктор с параметрами.
+     *
+     * @param existenceFilter    Фильтр существующих номеров.
+     * @param cardRepository     Репозиторий банковских карт.
+     * @param accountRepository  Репозиторий банковских счетов.
+     * @param transactionManager Менеджер транзакций.
+     * @param jdbcTemplate       Шаблон JDBC.
+     * @param catchUpOverlapMs   Перекрытие окон дозагрузки в миллисекундах.
+     * @param createTimeoutS     Максимальная длительность транзакции, создающей карты или счета, в секундах.
+     * @throws IllegalStateException Если перекрытие не превышает максимальную длительность транзакции:
+     *                               номера из долгой транзакции никогда не попали бы в фильтр других экземпляров.
+     */
+    public ExistenceFilterLoader(ExistenceFilter existenceFilter, CardRepository cardRepository,
+                                 AccountRepository accountRepository, PlatformTransactionManager transactionManager,
+                                 JdbcTemplate jdbcTemplate,
+                                 @Value("${bank.existence-filter.catch-up-overlap-ms:60000}") long catchUpOverlapMs,
+                                 @Value("${bank.create.transaction-timeout-s:20}") long createTimeoutS) {
+        if (Duration.ofMillis(catchUpOverlapMs).compareTo(Duration.ofSeconds(createTimeoutS)) <= 0) {
+            throw new IllegalStateException("Перекрытие окон дозагрузки фильтра (" + catchUpOverlapMs
+                    + " мс) должно превышать длительность транзакции создания записей (" + createTimeoutS + " с)");
+        }
+
+        this.existenceFilter = existenceFilter;
+        this.cardRepository = cardRepository;
+        this.accountRepository = accountRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.rebuildTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.jdbcTemplate = jdbcTemplate;
+        this.catchUpOverlap = Duration.ofMillis(catchUpOverlapMs);
+        existenceFilter.onMiss(this::catchUpAfter);
+    }
+
+    /**
+     * Строит фильтр после запуска приложения.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Перестраивает фильтры номеров карт и счетов.
+     * Номера, созданные в пределах перекрытия окон дозагрузки, отмечаются в новом фильтре как уже учтенные:
+     * следующая дозагрузка получит их снова. Дозагрузка не выполняется параллельно с перестроением.
+     * Если загрузка не удалась, продолжает использоваться предыдущий фильтр.
+     */
+    @Scheduled(fixedDelayString = "${bank.existence-filter.rebuild-interval-ms:3600000}",
+            initialDelayString = "${bank.existence-filter.rebuild-interval-ms:3600000}")
+    public synchronized void rebuild() {
+        long startedAt = System.nanoTime();
+
+        try {
+            rebuildTemplate.executeWithoutResult(status -> {
+                Instant now = now();
+                Instant since = now.minus(catchUpOverlap);
+
+                existenceFilter.rebuildCards(cardRepository.count(), sink -> {
+                    try (Stream<Long> numbers = cardRepository.streamAllNumbers()) {
+                        numbers.forEach(sink::accept);
+                    }
+                }, () -> cardRepository.findNumbersCreatedAfter(since), since);
+                existenceFilter.rebuildAccounts(accountRepository.count(), sink -> {
+                    try (Stream<Long> numbers = accountRepository.streamAllNumbers()) {
+                        numbers.forEach(sink::accept);
+                    }
+                }, () -> accountRepository.findNumbersCreatedAfter(since), since);
+                caughtUpAt = now;
+            });
+            syncStartedAt = startedAt;
+        } catch (RuntimeException e) {
+            log.warn("Не удалось перестроить фильтр существующих номеров, используется предыдущий", e);
+        }
+    }
+
+    /**
+     * Дозагружает в фильтр номера карт и счетов, созданные после предыдущей дозагрузки за вычетом перекрытия,
+     * и отмечает синхронизацию фильтра. Если дозагрузка не удается дольше
+     * {@code bank.existence-filter.max-staleness-ms}, фильтр перестает отвечать отрицательно и существование
+     * номеров проверяется по базе данных.
+     */
+    @Scheduled(fixedDelayString = "${bank.existence-filter.catch-up-interval-ms:1000}",
+            initialDelayString = "${bank.existence-filter.catch-up-interval-ms:1000}")
+    public synchronized void catchUp() {
+        long startedAt = System.nanoTime();
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Instant now = now();
+                Instant since = (caughtUpAt != null ? caughtUpAt : now).minus(catchUpOverlap);
+                Instant next = now.minus(catchUpOverlap);
+
+                existenceFilter.catchUpCards(cardRepository.findNumbersCreatedAfter(since), next);
+                existenceFilter.catchUpAccounts(accountRepository.findNumbersCreatedAfter(since), next);
+                caughtUpAt = now;
+            });
+            syncStartedAt = startedAt;
+        } catch (RuntimeException e) {
+            log.warn("Не удалось дозагрузить фильтр существующих номеров", e);
+        }
+    }
+
+    /**
+     * Дозагружает номера при промахе фильтра, если после промаха не начиналась успешная дозагрузка или
+     * перестроение. Одновременные промахи ожидают одну дозагрузку, а не выполняют каждый свою.
+     *
+     * @param missedAt Показание {@link System#nanoTime()} на момент промаха.
+     */
+    synchronized void catchUpAfter(long missedAt) {
+        if (syncStartedAt == null || syncStartedAt - missedAt < 0) {
+            catchUp();
+        }
+    }
+
+    /**
+     * Возвращает текущее время базы данных.
+     *
+     * @return Текущее время базы данных.
+     */
+    private Instant now() {
+        return jdbcTemplate.queryForObject("select current_timestamp", OffsetDateTime.class).toInstant();
+    }
+}
@@ -0,0 +1,307 @@
+package sber.bank.service.existence;
+
+import sber.bank.repos.projection.CreatedNumber;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Множество существующих номеров одного типа записей на основе счетного фильтра Блума.
+ * Фильтр периодически перестраивается по базе данных; на время перестроения новые номера
+ * добавляются и в текущий, и в строящийся фильтр. Отрицательный ответ фильтра доверяется, только пока
+ * фильтр синхронизировался с базой данных не позднее допустимой задержки назад.
+ * Номер новой записи добавляется несколькими путями (сразу, после фиксации транзакции и дозагрузкой), а повторное
+ * увеличение счетчиков не позволило бы удалить его, поэтому каждый номер учитывается в фильтре один раз.
+ * Счетчики уменьшаются только для номеров, которые фильтр точно учел: уменьшение счетчиков неучтенного номера
+ * скрыло бы существующие номера с теми же счетчиками.
+ */
+final class NumberSet {
+    /**
+     * Минимальная емкость фильтра.
+     */
+    private static final long MIN_CAPACITY = 1024;
+
+    /**
+     * Общие часы для упорядочивания перестроений и удалений.
+     */
+    private final AtomicLong clock;
+
+    /**
+     * Допустимая вероятность ложноположительного ответа.
+     */
+    private final double falsePositiveRate;
+
+    /**
+     * Допустимая задержка синхронизации с базой данных в наносекундах.
+     */
+    private final long maxStalenessNanos;
+
+    /**
+     * Показание {@link System#nanoTime()} на момент последней синхронизации с базой данных.
+     */
+    private volatile long syncedAt;
+
+    /**
+     * Текущий фильтр; null, пока фильтр не построен.
+     */
+    private volatile Snapshot current;
+
+    /**
+     * Строящийся фильтр; null, если перестроение не выполняется.
+     */
+    private volatile Generation pending;
+
+    /**
+     * Конструктор с параметрами.
+     *
+     * @param clock             Общие часы.
+     * @param falsePositiveRate Допустимая вероятность ложноположительного ответа.
+     * @param maxStalenessNanos Допустимая задержка синхронизации с базой данных в наносекундах.
+     */
+    NumberSet(AtomicLong clock, double falsePositiveRate, long maxStalenessNanos) {
+        this.clock = clock;
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxStalenessNanos = maxStalenessNanos;
+    }
+
+    /**
+     * Проверяет, может ли номер существовать.
+     *
+     * @param number Номер.
+     * @return false, если номера точно нет; true, если номер, возможно, есть, а также если фильтр еще не построен
+     * или давно не синхронизировался с базой данных.
+     */
+    boolean mightContain(long number) {
+        Snapshot snapshot = current;
+
+        return snapshot == null || System.nanoTime() - syncedAt >= maxStalenessNanos
+                || snapshot.generation().mightContain(number);
+    }
+
+    /**
+     * Отмечает синхронизацию с базой данных: все номера, зафиксированные в ней к началу синхронизации, добавлены.
+     */
+    void synced() {
+        syncedAt = System.nanoTime();
+    }
+
+    /**
+     * Добавляет номер, если он еще не учтен в фильтре. Строящийся фильтр читается раньше текущего:
+     * если перестроение завершится между двумя чтениями, номер попадет в новый текущий фильтр.
+     *
+     * @param number    Номер.
+     * @param createdAt Время создания записи по часам базы данных; {@link Generation#UNKNOWN}, если оно неизвестно.
+     */
+    void add(long number, Instant createdAt) {
+        Generation building = pending;
+        if (building != null) {
+            building.add(number, createdAt);
+        }
+
+        Snapshot snapshot = current;
+        if (snapshot != null) {
+            snapshot.generation().add(number, createdAt);
+        }
+    }
+
+    /**
+     * Добавляет номер создаваемой записи, время создания которой еще неизвестно.
+     *
+     * @param number Номер.
+     */
+    void add(long number) {
+        add(number, Generation.UNKNOWN);
+    }
+
+    /**
+     * Добавляет номера, зафиксированные в базе данных, и отмечает синхронизацию с ней.
+     * Номера, созданные не позже {@code countedBefore}, следующая дозагрузка уже не прочитает, поэтому
+     * текущий фильтр перестает их запоминать: повторно они могут прийти только после фиксации создавшей их
+     * транзакции, и лишнее увеличение счетчиков даст лишь ложноположительный ответ.
+     *
+     * @param numbers       Номера и время создания записей.
+     * @param countedBefore Момент по часам базы данных, начиная с которого созданные записи прочитает
+     *                      следующая дозагрузка.
+     */
+    void catchUp(Collection<CreatedNumber> numbers, Instant countedBefore) {
+        numbers.forEach(number -> add(number.getNumber(), number.getCreatedAt()));
+
+        Snapshot snapshot = current;
+        if (snapshot != null) {
+            snapshot.generation().forget(countedBefore);
+        }
+
+        synced();
+    }
+
+    /**
+     * Удаляет номер, удаление которого зафиксировано в базе данных.
+     * Номер удаляется только из фильтра, загрузка которого завершилась до начала удаления: фильтр,
+     * загруженный параллельно с удалением, мог номер и не получить, а уменьшение чужих счетчиков
+     * привело бы к ложноотрицательным ответам. Такой фильтр сохраняет номер до следующего перестроения.
+     * Так же сохраняются номера, учет которых фильтр уже не помнит (см. {@link Generation#remove(long, Instant)}).
+     *
+     * @param number    Номер.
+     * @param createdAt Время создания записи по часам базы данных; null, если оно неизвестно.
+     * @param tick      Показание часов {@link #tick()}, полученное до начала удаления.
+     */
+    void remove(long number, Instant createdAt, long tick) {
+        Snapshot snapshot = current;
+
+        if (snapshot != null && snapshot.tick() < tick) {
+            snapshot.generation().remove(number, createdAt);
+        }
+    }
+
+    /**
+     * Строит новый фильтр по всем существующим номерам и атомарно подменяет им текущий.
+     * При ошибке загрузки продолжает использоваться предыдущий фильтр.
+     *
+     * @param expectedCount Ожидаемое количество номеров.
+     * @param loader        Загрузчик, передающий все существующие номера в переданный обработчик.
+     * @param recent        Номера из загруженных, созданные позже {@code loadedBefore}: они могут быть добавлены
+     *                      повторно дозагрузкой или после фиксации создавшей их транзакции; вызывается после загрузки.
+     * @param loadedBefore  Момент по часам базы данных, до которого все созданные записи зафиксированы к началу
+     *                      загрузки и потому загружены.
+     */
+    synchronized void rebuild(long expectedCount, Consumer<LongConsumer> loader,
+                              Supplier<Collection<CreatedNumber>> recent, Instant loadedBefore) {
+        Generation generation = new Generation(new CountingBloomFilter(
+                Math.max(MIN_CAPACITY, expectedCount + expectedCount / 2), falsePositiveRate), loadedBefore);
+        pending = generation;
+
+        try {
+            loader.accept(generation.filter::put);
+            recent.get().forEach(number -> generation.counted(number.getNumber(), number.getCreatedAt()));
+            current = new Snapshot(generation, tick());
+            synced();
+        } finally {
+            pending = null;
+        }
+    }
+
+    /**
+     * Продвигает общие часы.
+     *
+     * @return Новое показание часов.
+     */
+    long tick() {
+        return clock.incrementAndGet();
+    }
+
+    /**
+     * Построенный фильтр вместе с показанием часов на момент завершения его загрузки.
+     *
+     * @param generation Фильтр.
+     * @param tick       Показание часов.
+     */
+    private record Snapshot(Generation generation, long tick) {
+
+    }
+
+    /**
+     * Фильтр одного построения вместе с номерами, которые уже учтены в нем помимо загрузки всех номеров.
+     * Номера хранятся, пока их может прочитать дозагрузка, поэтому их количество ограничено числом записей,
+     * созданных в пределах перекрытия окон дозагрузки.
+     */
+    private static final class Generation {
+        /**
+         * Время создания номера, добавленного создающей его транзакцией, пока его не прочитала дозагрузка.
+         * Такие номера хранятся до следующего перестроения, если дозагрузка их не прочитает.
+         */
+        static final Instant UNKNOWN = Instant.MAX;
+
+        /**
+         * Счетный фильтр Блума.
+         */
+        private final CountingBloomFilter filter;
+
+        /**
+         * Момент по часам базы данных, до которого все созданные записи загружены в фильтр.
+         */
+        private final Instant loadedBefore;
+
+        /**
+         * Номера, добавленные после загрузки или созданные незадолго до нее, и время их создания.
+         */
+        private final Map<Long, Instant> added = new ConcurrentHashMap<>();
+
+        /**
+         * Конструктор с параметрами.
+         *
+         * @param filter       Счетный фильтр Блума.
+         * @param loadedBefore Момент по часам базы данных, до которого все созданные записи загружены в фильтр.
+         */
+        Generation(CountingBloomFilter filter, Instant loadedBefore) {
+            this.filter = filter;
+            this.loadedBefore = loadedBefore;
+        }
+
+        /**
+         * Проверяет, может ли номер присутствовать в фильтре.
+         *
+         * @param number Номер.
+         * @return false, если номера точно нет, иначе true.
+         */
+        boolean mightContain(long number) {
+            return filter.mightContain(number);
+        }
+
+        /**
+         * Добавляет номер, если он еще не учтен.
+         *
+         * @param number    Номер.
+         * @param createdAt Время создания записи; {@link #UNKNOWN}, если оно неизвестно.
+         */
+        synchronized void add(long number, Instant createdAt) {
+            if (counted(number, createdAt)) {
+                filter.put(number);
+            }
+        }
+
+        /**
+         * Запоминает номер как учтенный, не изменяя счетчики; уточняет неизвестное время создания.
+         *
+         * @param number    Номер.
+         * @param createdAt Время создания записи; {@link #UNKNOWN}, если оно неизвестно.
+         * @return true, если номер еще не был учтен.
+         */
+        synchronized boolean counted(long number, Instant createdAt) {
+            Instant previous = added.putIfAbsent(number, createdAt);
+            if (UNKNOWN.equals(previous)) {
+                added.put(number, createdAt);
+            }
+
+            return previous == null;
+        }
+
+        /**
+         * Удаляет номер, если фильтр его учел: номер запомнен или создан до загрузки фильтра.
+         * Иначе счетчики не изменяются, и номер остается ложноположительным до следующего перестроения.
+         * После удаления номер снова может быть добавлен.
+         *
+         * @param number    Номер.
+         * @param createdAt Время создания записи; null, если оно неизвестно.
+         */
+        synchronized void remove(long number, Instant createdAt) {
+            if (added.remove(number) != null || createdAt != null && !createdAt.isAfter(loadedBefore)) {
+                filter.remove(number);
+            }
+        }
+
+        /**
+         * Забывает номера с известным временем создания не позже указанного момента.
+         *
+         * @param before Момент по часам базы данных.
+         */
+        synchronized void forget(Instant before) {
+            added.values().removeIf(createdAt -> !createdAt.isAfter(before));
+        }
+    }
+}
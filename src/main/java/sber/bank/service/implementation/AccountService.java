@@ -1,20 +1,45 @@
 package sber.bank.service.implementation;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import sber.bank.config.CacheConfig;
+import sber.bank.config.MetricsConfig;
 import sber.bank.domain.Account;
 import sber.bank.domain.Card;
+import sber.bank.domain.Money;
+import sber.bank.domain.OutboxEvent;
+import sber.bank.domain.User;
+import sber.bank.dto.AccountResponse;
+import sber.bank.exceptions.BadArgumentException;
+import sber.bank.exceptions.ConflictException;
 import sber.bank.exceptions.NotFoundException;
 import sber.bank.repos.AccountRepository;
 import sber.bank.repos.CardRepository;
+import sber.bank.repos.UserRepository;
+import sber.bank.repos.projection.AccountBalance;
+import sber.bank.repos.projection.AccountCurrency;
 import sber.bank.service.IService;
+import sber.bank.service.existence.ExistenceFilter;
+import sber.bank.service.ledger.Ledger;
+import sber.bank.service.outbox.Outbox;
 
+import java.time.Instant;
 import java.util.List;
 
 /**
  * Реализация сервиса для работы с банковскими счетами.
+ * Методы чтения выполняются в транзакциях только для чтения: Hibernate не отслеживает изменения
+ * загруженных сущностей и не выполняет flush. Изменяющие методы объявляют собственные транзакции.
  */
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+@Transactional(readOnly = true)
 public class AccountService implements IService<Account> {
     /**
      * Репозиторий для доступа к данным о банковских счетах.
@@ -26,16 +51,53 @@ public class AccountService implements IService<Account> {
      */
     private final CardRepository cardRepository;
 
+    /**
+     * Репозиторий для доступа к данным о пользователях.
+     */
+    private final UserRepository userRepository;
+
+    /**
+     * Фильтр существующих номеров счетов.
+     */
+    private final ExistenceFilter existenceFilter;
+
+    /**
+     * Журнал проводок по счетам.
+     */
+    private final Ledger ledger;
+
+    /**
+     * Исходящие события об изменениях счетов.
+     */
+    private final Outbox outbox;
+
+    /**
+     * Выполнение пакетного создания частями.
+     */
+    private final ChunkedTransactions chunkedTransactions;
+
     /**
      * Конструктор с параметрами.
      *
-     * @param accountRepository Репозиторий банковских счетов.
-     * @param cardRepository    Репозиторий банковских карт.
+     * @param accountRepository   Репозиторий банковских счетов.
+     * @param cardRepository      Репозиторий банковских карт.
+     * @param userRepository      Репозиторий пользователей.
+     * @param existenceFilter     Фильтр существующих номеров.
+     * @param ledger              Журнал проводок.
+     * @param outbox              Исходящие события.
+     * @param chunkedTransactions Выполнение пакетного создания частями.
      */
     @Autowired
-    public AccountService(AccountRepository accountRepository, CardRepository cardRepository) {
+    public AccountService(AccountRepository accountRepository, CardRepository cardRepository, UserRepository userRepository,
+                          ExistenceFilter existenceFilter, Ledger ledger, Outbox outbox,
+                          ChunkedTransactions chunkedTransactions) {
         this.accountRepository = accountRepository;
         this.cardRepository = cardRepository;
+        this.userRepository = userRepository;
+        this.existenceFilter = existenceFilter;
+        this.ledger = ledger;
+        this.outbox = outbox;
+        this.chunkedTransactions = chunkedTransactions;
     }
 
     /**
@@ -50,6 +112,7 @@ public class AccountService implements IService<Account> {
 
     /**
      * Получает банковский счет по его номеру.
+     * Заведомо несуществующие номера отклоняются фильтром без чтения записи (см. {@link ExistenceFilter}).
      *
      * @param number Номер банковского счета.
      * @return Банковский счет с указанным номером.
@@ -57,53 +120,259 @@ public class AccountService implements IService<Account> {
      */
     @Override
     public Account getByPk(Long number) {
-        return accountRepository.findById(number)
-                .orElseThrow(() -> new NotFoundException("Не существует банковского счета с номером: " + number));
+        if (!existenceFilter.mightContainAccount(number)) {
+            throw notFound(number);
+        }
+
+        return accountRepository.findById(number).orElseThrow(() -> notFound(number));
+    }
+
+    /**
+     * Получает данные банковского счета для ответа API.
+     * Данные выбираются одним запросом без загрузки владельца и кешируются;
+     * запись кеша сбрасывается при любом изменении счета.
+     * Заведомо несуществующие номера отклоняются фильтром без чтения записи (см. {@link ExistenceFilter}).
+     * Данные читаются с основного сервера, чтобы в кеш не попали устаревшие данные с реплики.
+     *
+     * @param number Номер банковского счета.
+     * @return Данные банковского счета.
+     * @throws NotFoundException Если банковский счет с указанным номером не найден.
+     */
+    @Transactional
+    @Cacheable(CacheConfig.ACCOUNTS)
+    public AccountResponse getResponse(Long number) {
+        if (!existenceFilter.mightContainAccount(number)) {
+            throw notFound(number);
+        }
+
+        return accountRepository.findResponseByNumber(number).orElseThrow(() -> notFound(number));
+    }
+
+    /**
+     * Получает баланс банковского счета на прошедший момент.
+     * Баланс вычисляется по последнему снимку до этого момента и проводкам после снимка.
+     *
+     * @param number Номер банковского счета.
+     * @param asOf   Момент; учитываются проводки, сделанные строго до него.
+     * @return Баланс в валюте счета.
+     * @throws NotFoundException Если банковский счет с указанным номером не найден.
+     */
+    public double getBalance(Long number, Instant asOf) {
+        if (!existenceFilter.mightContainAccount(number) || !accountRepository.existsById(number)) {
+            throw notFound(number);
+        }
+
+        return Money.toMajor(ledger.getBalance(number, asOf));
     }
 
     /**
      * Создает новый банковский счет.
+     * Владелец и валюта записываются в историю версий счетов, начальный баланс — в журнал проводкой с внешнего счета,
+     * в очередь событий — событие о создании. Длительность транзакции ограничена, как и у пакетного создания
+     * (см. {@link ChunkedTransactions}).
      *
      * @param account Данные нового банковского счета.
      * @return Созданный банковский счет.
      */
     @Override
+    @Transactional(timeoutString = "${bank.create.transaction-timeout-s:20}")
     public Account create(Account account) {
-        return accountRepository.save(account);
+        account.setUser(toReference(account.getUser()));
+        addToFilter(account);
+
+        Account created = accountRepository.save(account);
+        ledger.recordAccount(created);
+        ledger.adjust(created.getNumber(), created.getBalanceMinor());
+        outbox.account(OutboxEvent.Type.CREATED, created);
+
+        return created;
     }
 
     /**
-     * Удаляет банковский счет по его номеру.
+     * Создает банковские счета из списка пакетной вставкой в одной транзакции: при ошибке не создается ни один счет.
+     * Версии счетов, начальные балансы и события о создании записываются в тех же пакетах.
+     * Длительность транзакции ограничена, как и у создания одного счета (см. {@link ChunkedTransactions}).
+     *
+     * @param accounts Данные новых банковских счетов.
+     * @return Количество созданных счетов.
+     */
+    @Transactional(timeoutString = "${bank.create.transaction-timeout-s:20}")
+    public int createAll(List<Account> accounts) {
+        return persistAll(accounts);
+    }
+
+    /**
+     * Создает банковские счета из потока пакетной вставкой.
+     * Счета фиксируются частями в отдельных транзакциях ограниченной длительности, чтобы другие экземпляры
+     * приложения успели дозагрузить их номера в фильтр существующих номеров (см. {@link ChunkedTransactions}).
+     * При ошибке откатывается только текущая часть, уже зафиксированные части сохраняются.
+     *
+     * @param accounts Данные новых банковских счетов; читаются по мере создания.
+     * @return Количество созданных счетов.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public int createAllStream(Iterable<Account> accounts) {
+        return persistAll(accounts);
+    }
+
+    /**
+     * Удаляет банковский счет по его номеру вместе со всеми привязанными картами.
+     * Независимо от количества карт выполняется два запроса удаления. Перед удалением строка счета блокируется,
+     * а его остаток списывается в журнал, чтобы журнал счета сходился к нулю. Закрытие счета записывается в историю
+     * версий счетов, а событие — только об удалении счета: получатели считают удаленными и все его карты.
      *
      * @param number Номер банковского счета.
      * @throws NotFoundException Если банковский счет с указанным номером не найден.
      */
     @Override
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.ACCOUNTS, key = "#number"),
+            @CacheEvict(cacheNames = CacheConfig.CARDS, allEntries = true)
+    })
     public void delete(Long number) {
-        Account account = getByPk(number);
+        AccountBalance account = accountRepository.lockBalance(number)
+                .orElseThrow(() -> new NotFoundException("Не существует банковского счета с номером: " + number));
 
-        List<Card> cards = getCards(account);
-        cardRepository.deleteAll(cards);
+        cardRepository.deleteByAccountNumber(number);
+        accountRepository.deleteByNumber(number);
 
-        accountRepository.delete(account);
+        ledger.recordClosed(number, account.getBalance());
+        outbox.deleted(OutboxEvent.Aggregate.ACCOUNT, number);
+        existenceFilter.removeAccount(number, account.getCreatedAt());
     }
 
     /**
      * Обновляет данные банковского счета по его номеру.
+     * Изменяется только владелец: баланс изменяется переводами, пополнениями и списаниями, которые записываются
+     * в журнал, а валюта счета не изменяется. Баланс и валюта проверяются, только если они переданы.
+     * Новый владелец записывается в историю версий счетов, новое состояние счета — в очередь событий.
      *
-     * @param number        Номер банковского счета.
-     * @param accountDetail Обновленные данные банковского счета.
-     * @throws NotFoundException Если банковский счет с указанным номером не найден.
+     * @param number          Номер банковского счета.
+     * @param accountDetail   Обновленные данные банковского счета.
+     * @param expectedVersion Ожидаемая версия счета; null, если версию проверять не нужно.
+     * @return Обновленный банковский счет.
+     * @throws BadArgumentException Если переданы баланс или валюта, отличные от текущих.
+     * @throws NotFoundException    Если банковский счет с указанным номером не найден.
+     * @throws ConflictException    Если счет был изменен параллельно.
      */
     @Override
-    public void update(Long number, Account accountDetail) {
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.ACCOUNTS, key = "#number")
+    public Account update(Long number, Account accountDetail, Long expectedVersion) {
         Account account = getByPk(number);
+        Versions.check(account.getVersion(), expectedVersion, "Банковский счет с номером " + number);
+
+        if (accountDetail.isBalanceSpecified() && accountDetail.getBalanceMinor() != account.getBalanceMinor()) {
+            throw new BadArgumentException("Баланс счета изменяется только переводами, пополнениями и списаниями");
+        }
+
+        if (accountDetail.getCurrency() != null && !accountDetail.getCurrency().equals(account.getCurrency())) {
+            throw new BadArgumentException("Валюту счета нельзя изменить");
+        }
+
+        account.setUser(toReference(accountDetail.getUser()));
+
+        Account updated = Versions.saveAndFlush(accountRepository, account, "Банковский счет с номером " + number);
+        ledger.recordAccount(updated);
+        outbox.account(OutboxEvent.Type.UPDATED, updated);
+
+        return updated;
+    }
+
+    /**
+     * Переводит денежные средства с одного счета на другой.
+     * Баланс изменяется условными UPDATE-запросами без чтения сущностей, поэтому параллельные переводы
+     * не теряют обновлений. Строки счетов блокируются этими запросами в порядке возрастания номеров, что исключает
+     * взаимные блокировки встречных переводов. Если один из счетов удален после проверки валют, запрос не изменяет
+     * ни одной строки и транзакция откатывается. Перевод записывается в журнал проводкой в той же транзакции,
+     * новые состояния обоих счетов — в очередь событий.
+     *
+     * @param from   Номер счета списания.
+     * @param to     Номер счета зачисления.
+     * @param amount Сумма перевода в минимальных единицах валюты.
+     * @throws BadArgumentException Если счета совпадают, сумма не положительна, валюты счетов различаются
+     *                              или на счете списания недостаточно средств.
+     * @throws NotFoundException    Если один из счетов не найден.
+     */
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.ACCOUNTS, key = "#from"),
+            @CacheEvict(cacheNames = CacheConfig.ACCOUNTS, key = "#to")
+    })
+    public void transfer(Long from, Long to, long amount) {
+        if (from.equals(to)) {
+            throw new BadArgumentException("Счета списания и зачисления совпадают");
+        }
+
+        if (amount <= 0) {
+            throw new BadArgumentException("Сумма перевода должна быть положительной");
+        }
+
+        List<AccountCurrency> accounts = accountRepository.findByNumberIn(List.of(from, to));
+        String fromCurrency = findCurrency(accounts, from);
+        String toCurrency = findCurrency(accounts, to);
+
+        if (!fromCurrency.equals(toCurrency)) {
+            throw new BadArgumentException("Валюты счетов списания и зачисления различаются");
+        }
 
-        account.setUser(accountDetail.getUser());
-        account.setCurrency(accountDetail.getCurrency());
-        account.setBalance(accountDetail.getBalance());
+        if (from < to) {
+            debit(from, amount);
+            credit(to, amount);
+        } else {
+            credit(to, amount);
+            debit(from, amount);
+        }
 
-        accountRepository.save(account);
+        ledger.transfer(from, to, amount);
+        recordUpdated(List.of(from, to));
+    }
+
+    /**
+     * Зачисляет на счет сумму извне банка. Пополнение записывается в журнал проводкой с внешнего счета,
+     * новое состояние счета — в очередь событий.
+     *
+     * @param number Номер банковского счета.
+     * @param amount Сумма пополнения в минимальных единицах валюты.
+     * @throws BadArgumentException Если сумма не положительна.
+     * @throws NotFoundException    Если счет не найден.
+     */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.ACCOUNTS, key = "#number")
+    public void deposit(Long number, long amount) {
+        if (amount <= 0) {
+            throw new BadArgumentException("Сумма пополнения должна быть положительной");
+        }
+
+        credit(number, amount);
+        ledger.adjust(number, amount);
+        recordUpdated(List.of(number));
+    }
+
+    /**
+     * Списывает со счета сумму за пределы банка. Списание записывается в журнал проводкой на внешний счет,
+     * новое состояние счета — в очередь событий.
+     *
+     * @param number Номер банковского счета.
+     * @param amount Сумма списания в минимальных единицах валюты.
+     * @throws BadArgumentException Если сумма не положительна или на счете недостаточно средств.
+     * @throws NotFoundException    Если счет не найден.
+     */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.ACCOUNTS, key = "#number")
+    public void withdraw(Long number, long amount) {
+        if (amount <= 0) {
+            throw new BadArgumentException("Сумма списания должна быть положительной");
+        }
+
+        if (!accountRepository.existsById(number)) {
+            throw notFound(number);
+        }
+
+        debit(number, amount);
+        ledger.adjust(number, -amount);
+        recordUpdated(List.of(number));
     }
 
     /**
@@ -115,4 +384,119 @@ public class AccountService implements IService<Account> {
     public List<Card> getCards(Account account) {
         return cardRepository.findByAccount(account);
     }
-}
\ No newline at end of file
+
+    /**
+     * Сохраняет счета пакетными вставками частями (см. {@link ChunkedTransactions}).
+     * Версии счетов, начальные балансы и события о создании записываются в тех же пакетах.
+     *
+     * @param accounts Данные новых банковских счетов.
+     * @return Количество созданных счетов.
+     */
+    private int persistAll(Iterable<Account> accounts) {
+        return chunkedTransactions.execute(accounts, chunk -> accountRepository.persistAll(Batches.map(chunk, account -> {
+            account.setUser(toReference(account.getUser()));
+            addToFilter(account);
+            ledger.recordAccount(account);
+            ledger.adjust(account.getNumber(), account.getBalanceMinor());
+            outbox.account(OutboxEvent.Type.CREATED, account);
+            return account;
+        })));
+    }
+
+    /**
+     * Добавляет номер создаваемого счета в фильтр существующих номеров.
+     *
+     * @param account Создаваемый счет.
+     */
+    private void addToFilter(Account account) {
+        if (account.getNumber() != null) {
+            existenceFilter.addAccount(account.getNumber());
+        }
+    }
+
+    /**
+     * Создает исключение об отсутствии счета без трассировки стека.
+     *
+     * @param number Номер счета.
+     * @return Исключение.
+     */
+    private static NotFoundException notFound(Long number) {
+        return new NotFoundException("Не существует банковского счета с номером: " + number, false);
+    }
+
+    /**
+     * Заменяет переданного в запросе владельца ссылкой на управляемую сущность,
+     * чтобы счет можно было сохранить без загрузки пользователя.
+     *
+     * @param user Владелец счета из запроса.
+     * @return Ссылка на владельца счета или null, если владелец не указан.
+     * @throws BadArgumentException Если не указан идентификатор владельца.
+     */
+    private User toReference(User user) {
+        if (user == null) {
+            return null;
+        }
+
+        if (user.getId() == null) {
+            throw new BadArgumentException("Не указан идентификатор владельца счета");
+        }
+
+        return userRepository.getReferenceById(user.getId());
+    }
+
+    /**
+     * Списывает сумму со счета без записи в журнал.
+     *
+     * @param number Номер банковского счета.
+     * @param amount Сумма в минимальных единицах валюты.
+     * @throws BadArgumentException Если на счете недостаточно средств.
+     */
+    private void debit(Long number, long amount) {
+        if (accountRepository.withdraw(number, amount) == 0) {
+            throw new BadArgumentException("Недостаточно средств на счете с номером: " + number);
+        }
+    }
+
+    /**
+     * Зачисляет сумму на счет без записи в журнал.
+     *
+     * @param number Номер банковского счета.
+     * @param amount Сумма в минимальных единицах валюты.
+     * @throws NotFoundException Если счет не найден.
+     */
+    private void credit(Long number, long amount) {
+        if (accountRepository.deposit(number, amount) == 0) {
+            throw notFound(number);
+        }
+    }
+
+    /**
+     * Записывает в очередь событий новые состояния счетов, баланс которых изменен UPDATE-запросами.
+     * Состояния выбираются одним запросом после изменения.
+     *
+     * @param numbers Номера измененных счетов.
+     */
+    private void recordUpdated(List<Long> numbers) {
+        for (AccountResponse account : accountRepository.findResponsesByNumberIn(numbers)) {
+            outbox.account(OutboxEvent.Type.UPDATED, account);
+        }
+    }
+
+    /**
+     * Находит валюту счета среди загруженных.
+     *
+     * @param accounts Номера и валюты счетов.
+     * @param number   Номер банковского счета.
+     * @return Код валюты счета.
+     * @throws NotFoundException Если счет не найден.
+     */
+    private String findCurrency(List<AccountCurrency> accounts, Long number) {
+        for (AccountCurrency account : accounts) {
+            if (account.getNumber().equals(number)) {
+                return account.getCurrency();
+            }
+        }
+
+        throw new NotFoundException("Не существует банковского счета с номером: " + number);
+    }
+}
@@ -0,0 +1,43 @@
+package sber.bank.service.implementation;
+
+import java.util.Iterator;
+import java.util.function.UnaryOperator;
+
+/**
+ * Вспомогательные методы для пакетной обработки записей в сервисах.
+ */
+final class Batches {
+    /**
+     * Закрытый конструктор: класс содержит только статические методы.
+     */
+    private Batches() {
+
+    }
+
+    /**
+     * Возвращает представление последовательности, в котором к каждому элементу лениво применяется функция.
+     * Исходная последовательность не копируется, поэтому может быть потоковой.
+     *
+     * @param source   Исходная последовательность.
+     * @param function Функция преобразования элемента.
+     * @param <T>      Тип элемента.
+     * @return Преобразованная последовательность.
+     */
+    static <T> Iterable<T> map(Iterable<T> source, UnaryOperator<T> function) {
+        return () -> {
+            Iterator<T> iterator = source.iterator();
+
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    return function.apply(iterator.next());
+                }
+            };
+        };
+    }
+}
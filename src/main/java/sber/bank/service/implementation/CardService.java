@@ -1,30 +1,81 @@
 package sber.bank.service.implementation;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import sber.bank.config.CacheConfig;
+import sber.bank.config.MetricsConfig;
+import sber.bank.domain.Account;
 import sber.bank.domain.Card;
+import sber.bank.domain.OutboxEvent;
+import sber.bank.dto.CardResponse;
+import sber.bank.exceptions.BadArgumentException;
+import sber.bank.exceptions.ConflictException;
 import sber.bank.exceptions.NotFoundException;
+import sber.bank.repos.AccountRepository;
 import sber.bank.repos.CardRepository;
 import sber.bank.service.IService;
+import sber.bank.service.existence.ExistenceFilter;
+import sber.bank.service.outbox.Outbox;
+
+import java.util.List;
 
 /**
  * Реализация сервиса для работы с банковскими картами.
+ * Методы чтения выполняются в транзакциях только для чтения: Hibernate не отслеживает изменения
+ * загруженных сущностей и не выполняет flush. Изменяющие методы объявляют собственные транзакции
+ * и в той же транзакции записывают событие об изменении в очередь исходящих событий.
  */
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+@Transactional(readOnly = true)
 public class CardService implements IService<Card> {
     /**
      * Репозиторий для доступа к данным о банковских картах.
      */
     private final CardRepository cardRepository;
 
+    /**
+     * Репозиторий для доступа к данным о банковских счетах.
+     */
+    private final AccountRepository accountRepository;
+
+    /**
+     * Фильтр существующих номеров карт.
+     */
+    private final ExistenceFilter existenceFilter;
+
+    /**
+     * Исходящие события об изменениях карт.
+     */
+    private final Outbox outbox;
+
+    /**
+     * Выполнение пакетного создания частями.
+     */
+    private final ChunkedTransactions chunkedTransactions;
+
     /**
      * Конструктор с параметрами.
      *
-     * @param cardRepository Репозиторий банковской карты.
+     * @param cardRepository      Репозиторий банковской карты.
+     * @param accountRepository   Репозиторий банковских счетов.
+     * @param existenceFilter     Фильтр существующих номеров.
+     * @param outbox              Исходящие события.
+     * @param chunkedTransactions Выполнение пакетного создания частями.
      */
     @Autowired
-    public CardService(CardRepository cardRepository) {
+    public CardService(CardRepository cardRepository, AccountRepository accountRepository, ExistenceFilter existenceFilter,
+                       Outbox outbox, ChunkedTransactions chunkedTransactions) {
         this.cardRepository = cardRepository;
+        this.accountRepository = accountRepository;
+        this.existenceFilter = existenceFilter;
+        this.outbox = outbox;
+        this.chunkedTransactions = chunkedTransactions;
     }
 
     /**
@@ -39,6 +90,7 @@ public class CardService implements IService<Card> {
 
     /**
      * Получение банковской карты по ее номеру.
+     * Заведомо несуществующие номера отклоняются фильтром без чтения записи (см. {@link ExistenceFilter}).
      *
      * @param number Номер карты.
      * @return Банковская карта с указанным номером.
@@ -46,19 +98,77 @@ public class CardService implements IService<Card> {
      */
     @Override
     public Card getByPk(Long number) {
-        return cardRepository.findById(number)
-                .orElseThrow(() -> new NotFoundException("Не существует карты с номером " + number));
+        if (!existenceFilter.mightContainCard(number)) {
+            throw notFound(number);
+        }
+
+        return cardRepository.findById(number).orElseThrow(() -> notFound(number));
+    }
+
+    /**
+     * Получение данных банковской карты для ответа API.
+     * Данные выбираются одним запросом без загрузки счета и кешируются;
+     * запись кеша сбрасывается при изменении или удалении карты.
+     * Заведомо несуществующие номера отклоняются фильтром без чтения записи (см. {@link ExistenceFilter}).
+     * Данные читаются с основного сервера, чтобы в кеш не попали устаревшие данные с реплики.
+     *
+     * @param number Номер карты.
+     * @return Данные банковской карты.
+     * @throws NotFoundException Если карта с указанным номером не найдена.
+     */
+    @Transactional
+    @Cacheable(CacheConfig.CARDS)
+    public CardResponse getResponse(Long number) {
+        if (!existenceFilter.mightContainCard(number)) {
+            throw notFound(number);
+        }
+
+        return cardRepository.findResponseByNumber(number).orElseThrow(() -> notFound(number));
     }
 
     /**
      * Создание новой банковской карты.
+     * Длительность транзакции ограничена, как и у пакетного создания (см. {@link ChunkedTransactions}).
      *
      * @param card Данные новой карты.
      * @return Созданная банковская карта.
      */
     @Override
+    @Transactional(timeoutString = "${bank.create.transaction-timeout-s:20}")
     public Card create(Card card) {
-        return cardRepository.save(card);
+        card.setAccount(toReference(card.getAccount()));
+        addToFilter(card);
+
+        Card created = cardRepository.save(card);
+        outbox.card(OutboxEvent.Type.CREATED, created);
+
+        return created;
+    }
+
+    /**
+     * Создание банковских карт из списка пакетной вставкой в одной транзакции: при ошибке не создается ни одна карта.
+     * Длительность транзакции ограничена, как и у создания одной карты (см. {@link ChunkedTransactions}).
+     *
+     * @param cards Данные новых карт.
+     * @return Количество созданных карт.
+     */
+    @Transactional(timeoutString = "${bank.create.transaction-timeout-s:20}")
+    public int createAll(List<Card> cards) {
+        return persistAll(cards);
+    }
+
+    /**
+     * Создание банковских карт из потока пакетной вставкой.
+     * Карты фиксируются частями в отдельных транзакциях ограниченной длительности, чтобы другие экземпляры
+     * приложения успели дозагрузить их номера в фильтр существующих номеров (см. {@link ChunkedTransactions}).
+     * При ошибке откатывается только текущая часть, уже зафиксированные части сохраняются.
+     *
+     * @param cards Данные новых карт; читаются по мере создания.
+     * @return Количество созданных карт.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public int createAllStream(Iterable<Card> cards) {
+        return persistAll(cards);
     }
 
     /**
@@ -68,25 +178,97 @@ public class CardService implements IService<Card> {
      * @throws NotFoundException Если карта с указанным номером не найдена.
      */
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.CARDS, key = "#number")
     public void delete(Long number) {
-        cardRepository.delete(getByPk(number));
+        Card card = getByPk(number);
+
+        cardRepository.delete(card);
+        outbox.deleted(OutboxEvent.Aggregate.CARD, number);
+        existenceFilter.removeCard(number, card.getCreatedAt());
     }
 
     /**
      * Обновление данных банковской карты по ее номеру.
      *
-     * @param number     Номер карты.
-     * @param cardDetail Обновленные данные карты.
+     * @param number          Номер карты.
+     * @param cardDetail      Обновленные данные карты.
+     * @param expectedVersion Ожидаемая версия карты; null, если версию проверять не нужно.
+     * @return Обновленная банковская карта.
      * @throws NotFoundException Если карта с указанным номером не найдена.
+     * @throws ConflictException Если карта была изменена параллельно.
      */
     @Override
-    public void update(Long number, Card cardDetail) {
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.CARDS, key = "#number")
+    public Card update(Long number, Card cardDetail, Long expectedVersion) {
         Card card = getByPk(number);
+        Versions.check(card.getVersion(), expectedVersion, "Карта с номером " + number);
 
-        card.setAccount(cardDetail.getAccount());
+        card.setAccount(toReference(cardDetail.getAccount()));
         card.setExpirationDate(cardDetail.getExpirationDate());
         card.setCvv(cardDetail.getCvv());
 
-        cardRepository.save(card);
+        Card updated = Versions.saveAndFlush(cardRepository, card, "Карта с номером " + number);
+        outbox.card(OutboxEvent.Type.UPDATED, updated);
+
+        return updated;
+    }
+
+    /**
+     * Сохраняет карты пакетными вставками частями (см. {@link ChunkedTransactions}).
+     * События о создании записываются в тех же пакетах.
+     *
+     * @param cards Данные новых карт.
+     * @return Количество созданных карт.
+     */
+    private int persistAll(Iterable<Card> cards) {
+        return chunkedTransactions.execute(cards, chunk -> cardRepository.persistAll(Batches.map(chunk, card -> {
+            card.setAccount(toReference(card.getAccount()));
+            addToFilter(card);
+            outbox.card(OutboxEvent.Type.CREATED, card);
+            return card;
+        })));
+    }
+
+    /**
+     * Добавляет номер создаваемой карты в фильтр существующих номеров.
+     *
+     * @param card Создаваемая карта.
+     */
+    private void addToFilter(Card card) {
+        if (card.getNumber() != null) {
+            existenceFilter.addCard(card.getNumber());
+        }
+    }
+
+    /**
+     * Создает исключение об отсутствии карты без трассировки стека.
+     *
+     * @param number Номер карты.
+     * @return Исключение.
+     */
+    private static NotFoundException notFound(Long number) {
+        return new NotFoundException("Не существует карты с номером " + number, false);
+    }
+
+    /**
+     * Заменяет переданный в запросе счет ссылкой на управляемую сущность,
+     * чтобы карту можно было сохранить без загрузки счета.
+     *
+     * @param account Счет из запроса.
+     * @return Ссылка на счет или null, если счет не указан.
+     * @throws BadArgumentException Если не указан номер счета.
+     */
+    private Account toReference(Account account) {
+        if (account == null) {
+            return null;
+        }
+
+        if (account.getNumber() == null) {
+            throw new BadArgumentException("Не указан номер счета, к которому привязана карта");
+        }
+
+        return accountRepository.getReferenceById(account.getNumber());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,89 @@
+package sber.bank.service.implementation;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Выполнение пакетного создания записей частями в отдельных транзакциях ограниченной длительности.
+ * Время создания записи — это время начала вставившей ее транзакции, а другие экземпляры приложения
+ * дозагружают номера в фильтр существующих номеров по этому времени с перекрытием окон, поэтому
+ * ни одна транзакция, создающая карты или счета, не должна длиться дольше перекрытия.
+ * Элементы очередной части читаются из источника до начала транзакции: медленный клиент не удерживает транзакцию.
+ */
+@Component
+public class ChunkedTransactions {
+    /**
+     * Шаблон транзакции одной части.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Максимальное количество записей в одной части.
+     */
+    private final int chunkSize;
+
+    /**
+     * Конструктор с параметрами.
+     *
+     * @param transactionManager Менеджер транзакций.
+     * @param chunkSize          Максимальное количество записей в одной части.
+     * @param timeoutSeconds     Максимальная длительность транзакции одной части в секундах.
+     */
+    public ChunkedTransactions(PlatformTransactionManager transactionManager,
+                               @Value("${bank.create.chunk-size:1000}") int chunkSize,
+                               @Value("${bank.create.transaction-timeout-s:20}") int timeoutSeconds) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setTimeout(timeoutSeconds);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Передает элементы источника в обработчик частями, каждую часть — в отдельной транзакции.
+     * Если вызов выполняется внутри уже открытой транзакции, части выполняются в ней.
+     * При ошибке откатывается только текущая часть; уже зафиксированные части сохраняются.
+     *
+     * @param items  Источник элементов; может быть потоковым.
+     * @param action Обработчик части; возвращает количество обработанных элементов.
+     * @param <T>    Тип элемента.
+     * @return Общее количество обработанных элементов.
+     */
+    public <T> int execute(Iterable<T> items, ToIntFunction<List<T>> action) {
+        int total = 0;
+        List<T> chunk = new ArrayList<>(chunkSize);
+
+        for (T item : items) {
+            chunk.add(item);
+
+            if (chunk.size() == chunkSize) {
+                total += executeChunk(chunk, action);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            total += executeChunk(chunk, action);
+        }
+
+        return total;
+    }
+
+    /**
+     * Обрабатывает одну часть в транзакции.
+     *
+     * @param chunk  Элементы части.
+     * @param action Обработчик части.
+     * @param <T>    Тип элемента.
+     * @return Количество обработанных элементов.
+     */
+    private <T> int executeChunk(List<T> chunk, ToIntFunction<List<T>> action) {
+        Integer processed = transactionTemplate.execute(status -> action.applyAsInt(chunk));
+
+        return processed != null ? processed : 0;
+    }
+}
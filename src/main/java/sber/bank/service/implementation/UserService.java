@@ -1,24 +1,46 @@
 package sber.bank.service.implementation;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import sber.bank.domain.Account;
-import sber.bank.domain.Card;
+import org.springframework.transaction.annotation.Transactional;
+import sber.bank.config.CacheConfig;
+import sber.bank.config.MetricsConfig;
+import sber.bank.domain.Money;
 import sber.bank.domain.User;
+import sber.bank.dto.AccountResponse;
+import sber.bank.dto.CardResponse;
+import sber.bank.dto.UserResponse;
+import sber.bank.exceptions.BadArgumentException;
+import sber.bank.exceptions.ConflictException;
 import sber.bank.exceptions.NotFoundException;
 import sber.bank.repos.AccountRepository;
 import sber.bank.repos.CardRepository;
 import sber.bank.repos.UserRepository;
+import sber.bank.repos.projection.CurrencyBalance;
 import sber.bank.service.IService;
+import sber.bank.service.exchange.ExchangeRateHistory;
+import sber.bank.service.exchange.ExchangeRateTable;
+import sber.bank.service.ledger.Ledger;
+import sber.bank.service.outbox.Outbox;
 
-import java.util.Currency;
+import java.time.Instant;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
 
 /**
  * Реализация сервиса для работы с пользователями банковской системы.
+ * Методы чтения выполняются в транзакциях только для чтения: Hibernate не отслеживает изменения
+ * загруженных сущностей и не выполняет flush. Изменяющие методы объявляют собственные транзакции.
  */
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+@Transactional(readOnly = true)
 public class UserService implements IService<User> {
     /**
      * Репозиторий для доступа к данным о пользователях.
@@ -35,22 +57,48 @@ public class UserService implements IService<User> {
      */
     private final CardRepository cardRepository;
 
-    private final AccountService accountService;
+    /**
+     * Таблица курсов валют к рублю.
+     */
+    private final ExchangeRateTable exchangeRateTable;
+
+    /**
+     * История курсов валют к рублю.
+     */
+    private final ExchangeRateHistory exchangeRateHistory;
+
+    /**
+     * Журнал проводок и истории версий счетов.
+     */
+    private final Ledger ledger;
+
+    /**
+     * Исходящие события об удалении счетов и карт.
+     */
+    private final Outbox outbox;
 
     /**
      * Конструктор с параметрами.
      *
-     * @param userRepository    Репозиторий пользователя.
-     * @param accountRepository Репозиторий банковского счёта.
-     * @param cardRepository    Репозиторий банковской карты.
-     * @param accountService    Сервис банковских счетов.
+     * @param userRepository      Репозиторий пользователя.
+     * @param accountRepository   Репозиторий банковского счёта.
+     * @param cardRepository      Репозиторий банковской карты.
+     * @param exchangeRateTable   Таблица курсов валют.
+     * @param exchangeRateHistory История курсов валют.
+     * @param ledger              Журнал проводок.
+     * @param outbox              Исходящие события.
      */
     @Autowired
-    public UserService(UserRepository userRepository, AccountRepository accountRepository, CardRepository cardRepository, AccountService accountService) {
+    public UserService(UserRepository userRepository, AccountRepository accountRepository, CardRepository cardRepository,
+                       ExchangeRateTable exchangeRateTable, ExchangeRateHistory exchangeRateHistory, Ledger ledger,
+                       Outbox outbox) {
         this.userRepository = userRepository;
         this.accountRepository = accountRepository;
         this.cardRepository = cardRepository;
-        this.accountService = accountService;
+        this.exchangeRateTable = exchangeRateTable;
+        this.exchangeRateHistory = exchangeRateHistory;
+        this.ledger = ledger;
+        this.outbox = outbox;
     }
 
     /**
@@ -63,6 +111,50 @@ public class UserService implements IService<User> {
         return userRepository.findAll();
     }
 
+    /**
+     * Возвращает данные пользователя для ответа API.
+     *
+     * @param id Идентификатор пользователя.
+     * @return Данные пользователя.
+     * @throws NotFoundException Если пользователь не найден.
+     */
+    public UserResponse getResponse(Long id) {
+        return userRepository.findResponseById(id)
+                .orElseThrow(() -> new NotFoundException("Не существует пользователя с ID " + id));
+    }
+
+    /**
+     * Возвращает данные всех пользователей для ответа API.
+     *
+     * @return Данные пользователей, упорядоченные по идентификатору.
+     */
+    public List<UserResponse> getAllResponses() {
+        return userRepository.findAllResponses();
+    }
+
+    /**
+     * Возвращает страницу пользователей, следующих за указанным идентификатором.
+     *
+     * @param afterId Идентификатор последнего пользователя предыдущей страницы.
+     * @param limit   Максимальное количество пользователей на странице.
+     * @return Данные пользователей, упорядоченные по возрастанию идентификатора.
+     */
+    public List<UserResponse> getPage(Long afterId, int limit) {
+        return userRepository.findResponsesAfter(afterId, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Последовательно передает данные всех пользователей в указанный обработчик.
+     * Данные не попадают в контекст персистентности, поэтому потребление памяти не зависит от размера таблицы.
+     *
+     * @param action Обработчик данных пользователя.
+     */
+    public void forEach(Consumer<UserResponse> action) {
+        try (Stream<UserResponse> users = userRepository.streamAllResponses()) {
+            users.forEach(action);
+        }
+    }
+
     /**
      * Возвращает пользователя по его идентификатору.
      *
@@ -83,110 +175,159 @@ public class UserService implements IService<User> {
      * @return Созданный пользователь.
      */
     @Override
+    @Transactional
     public User create(User user) {
         return userRepository.save(user);
     }
 
     /**
-     * Удаляет пользователя по его идентификатору.
+     * Удаляет пользователя по его идентификатору вместе со всеми его счетами и картами.
+     * Строки счетов блокируются одним запросом, после чего остатки счетов списываются в журнал, закрытия счетов
+     * записываются в историю версий счетов, а удаление счетов и карт — в очередь событий запросами INSERT ... SELECT
+     * по идентификатору пользователя; сами записи удаляются тремя запросами. Количество запросов не зависит
+     * от количества счетов и карт. Кеши счетов и карт сбрасываются целиком, так как номера удаленных карт неизвестны.
      *
      * @param id Идентификатор пользователя.
+     * @throws NotFoundException Если пользователь не найден.
      */
     @Override
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.ACCOUNTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.CARDS, allEntries = true)
+    })
     public void delete(Long id) {
-        List<Account> accounts = getAccounts(id);
+        if (!accountRepository.lockBalancesByUserId(id).isEmpty()) {
+            ledger.recordClosedByUserId(id);
+            outbox.deletedByUserId(id);
 
-        for (Account account : accounts) {
-            accountService.delete(account.getNumber());
+            cardRepository.deleteByUserId(id);
+            accountRepository.deleteByUserId(id);
         }
 
-        userRepository.delete(getByPk(id));
+        if (userRepository.deleteUserById(id) == 0) {
+            throw new NotFoundException("Не существует пользователя с ID " + id);
+        }
     }
 
     /**
      * Обновляет данные пользователя.
      *
-     * @param id         Идентификатор пользователя.
-     * @param userDetail Обновленные данные пользователя.
+     * @param id              Идентификатор пользователя.
+     * @param userDetail      Обновленные данные пользователя.
+     * @param expectedVersion Ожидаемая версия пользователя; null, если версию проверять не нужно.
+     * @return Обновленный пользователь.
+     * @throws NotFoundException Если пользователь не найден.
+     * @throws ConflictException Если пользователь был изменен параллельно.
      */
     @Override
-    public void update(Long id, User userDetail) {
+    @Transactional
+    public User update(Long id, User userDetail, Long expectedVersion) {
         User user = getByPk(id);
+        Versions.check(user.getVersion(), expectedVersion, "Пользователь с ID " + id);
 
         user.setName(userDetail.getName());
         user.setBirthdate(userDetail.getBirthdate());
         user.setAddress(userDetail.getAddress());
 
-        userRepository.save(user);
+        return Versions.saveAndFlush(userRepository, user, "Пользователь с ID " + id);
     }
 
     /**
-     * Возвращает список банковских счетов пользователя.
+     * Возвращает данные банковских счетов пользователя.
+     * Счета выбираются одним запросом; существование пользователя
+     * проверяется дополнительно только в случае, если счетов не найдено.
      *
      * @param id Идентификатор пользователя.
-     * @return Список банковских счетов пользователя.
+     * @return Данные банковских счетов пользователя.
+     * @throws NotFoundException Если пользователь не найден.
      */
-    public List<Account> getAccounts(Long id) {
-        return accountRepository.findByUser(getByPk(id));
+    public List<AccountResponse> getAccounts(Long id) {
+        List<AccountResponse> accounts = accountRepository.findResponsesByUserId(id);
+
+        if (accounts.isEmpty() && !userRepository.existsById(id)) {
+            throw new NotFoundException("Не существует пользователя с ID " + id);
+        }
+
+        return accounts;
     }
 
     /**
-     * Возвращает список банковских карт пользователя.
+     * Возвращает данные банковских карт пользователя.
+     * Карты всех счетов выбираются одним запросом; существование пользователя
+     * проверяется дополнительно только в случае, если карт не найдено.
      *
      * @param id Идентификатор пользователя.
-     * @return Список банковских карт пользователя.
+     * @return Данные банковских карт пользователя.
+     * @throws NotFoundException Если пользователь не найден.
      */
-    public List<Card> getCards(Long id) {
-        List<Account> userAccounts = getAccounts(id);
+    public List<CardResponse> getCards(Long id) {
+        List<CardResponse> cards = cardRepository.findResponsesByUserId(id);
+
+        if (cards.isEmpty() && !userRepository.existsById(id)) {
+            throw new NotFoundException("Не существует пользователя с ID " + id);
+        }
 
-        return userAccounts.stream()
-                .flatMap(account -> cardRepository.findByAccount(account).stream())
-                .collect(Collectors.toList());
+        return cards;
     }
 
     /**
      * Возвращает общий баланс пользователя (сумму балансов всех его счетов в рублях).
+     * Балансы суммируются в базе данных по каждой валюте, конвертация выполняется один раз на валюту.
      *
      * @param id Идентификатор пользователя.
      * @return Общий баланс пользователя в рублях.
+     * @throws NotFoundException    Если пользователь не найден.
+     * @throws BadArgumentException Если нет курса валюты одного из счетов пользователя.
      */
     public double getOverallBalance(Long id) {
-        List<Account> accounts = getAccounts(id);
-        double totalBalance = 0.0;
+        List<CurrencyBalance> balances = accountRepository.sumBalanceByCurrency(id);
 
-        for (Account account : accounts) {
-            String currencyCode = account.getCurrency();
-            double accountBalance = account.getBalance();
+        if (balances.isEmpty() && !userRepository.existsById(id)) {
+            throw new NotFoundException("Не существует пользователя с ID " + id);
+        }
 
-            if (!currencyCode.equals("RUB")) {
-                Currency accountCurrency = Currency.getInstance(currencyCode);
-                double exchangeRate = getExchangeRate(accountCurrency, Currency.getInstance("RUB"));
-                accountBalance *= exchangeRate;
-            }
+        return sumInRubles(balances, exchangeRateTable::getRate);
+    }
 
-            totalBalance += accountBalance;
+    /**
+     * Возвращает общий баланс пользователя на прошедший момент по курсам валют на дату этого момента.
+     * Баланс каждого счета вычисляется по последнему снимку до момента и проводкам после снимка,
+     * курсы выбираются из истории в памяти, поэтому отчеты по всем пользователям не пересчитывают журнал с начала.
+     *
+     * @param id   Идентификатор пользователя.
+     * @param asOf Момент; учитываются проводки, сделанные строго до него.
+     * @return Общий баланс пользователя в рублях.
+     * @throws NotFoundException    Если пользователь не найден.
+     * @throws BadArgumentException Если нет курса валюты одного из счетов пользователя на дату момента.
+     */
+    public double getOverallBalance(Long id, Instant asOf) {
+        List<CurrencyBalance> balances = accountRepository.sumBalanceByCurrencyAsOf(id, asOf);
+
+        if (balances.isEmpty() && !userRepository.existsById(id)) {
+            throw new NotFoundException("Не существует пользователя с ID " + id);
         }
 
-        return totalBalance;
+        return sumInRubles(balances, currency -> exchangeRateHistory.getRate(currency, asOf));
     }
 
     /**
-     * Возвращает текущий курс обмена между двумя валютами.
-     * Курс валют захардкожен. При большом желании можно реализовать конвертер валют, но времени уже не было.
+     * Суммирует балансы по валютам в рублях, конвертируя каждую валюту один раз.
      *
-     * @param sourceCurrency Исходная валюта.
-     * @param targetCurrency Целевая валюта.
-     * @return Курс обмена между исходной и целевой валютами.
+     * @param balances Суммарные балансы по валютам.
+     * @param rates    Курс обмена валюты к рублю.
+     * @return Общий баланс в рублях.
      */
-    private double getExchangeRate(Currency sourceCurrency, Currency targetCurrency) {
-        if (sourceCurrency.getCurrencyCode().equals("USD") && targetCurrency.getCurrencyCode().equals("RUB")) {
-            return 90.0;
-        }
+    private static double sumInRubles(List<CurrencyBalance> balances, ToDoubleFunction<String> rates) {
+        long totalBalance = 0;
 
-        if (sourceCurrency.getCurrencyCode().equals("EUR") && targetCurrency.getCurrencyCode().equals("RUB")) {
-            return 100.0;
+        for (CurrencyBalance balance : balances) {
+            if (balance.getTotal() != null) {
+                long converted = Money.convert(balance.getTotal(), rates.applyAsDouble(balance.getCurrency()));
+                totalBalance = Money.add(totalBalance, converted);
+            }
         }
 
-        return 1.0;
+        return Money.toMajor(totalBalance);
     }
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+package sber.bank.service.implementation;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.jpa.repository.JpaRepository;
+import sber.bank.exceptions.ConflictException;
+
+/**
+ * Вспомогательные методы оптимистической блокировки для сервисов.
+ */
+final class Versions {
+    /**
+     * Закрытый конструктор: класс содержит только статические методы.
+     */
+    private Versions() {
+
+    }
+
+    /**
+     * Проверяет, что текущая версия записи совпадает с ожидаемой клиентом.
+     *
+     * @param actual      Текущая версия записи.
+     * @param expected    Ожидаемая версия записи; null, если версию проверять не нужно.
+     * @param description Описание записи для сообщения об ошибке.
+     * @throws ConflictException Если версии не совпадают.
+     */
+    static void check(Long actual, Long expected, String description) {
+        if (expected != null && !expected.equals(actual)) {
+            throw new ConflictException("Конфликт версий (" + description + "): ожидалась версия " + expected + ", текущая " + actual);
+        }
+    }
+
+    /**
+     * Сохраняет запись и сразу сбрасывает изменения в базу данных, чтобы конфликт версий
+     * был обнаружен внутри сервиса, а новая версия записи стала известна до возврата.
+     *
+     * @param repository  Репозиторий записи.
+     * @param entity      Запись.
+     * @param description Описание записи для сообщения об ошибке.
+     * @param <T>         Тип записи.
+     * @return Сохраненная запись.
+     * @throws ConflictException Если запись была изменена параллельной транзакцией.
+     */
+    static <T> T saveAndFlush(JpaRepository<T, Long> repository, T entity, String description) {
+        try {
+            return repository.saveAndFlush(entity);
+        } catch (OptimisticLockingFailureException e) {
+            throw new ConflictException("Конфликт версий (" + description + "): запись изменена параллельным запросом");
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package sber.bank.service.ledger;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import sber.bank.domain.Account;
+import sber.bank.domain.AccountRevision;
+import sber.bank.domain.BalanceSnapshot;
+import sber.bank.domain.LedgerEntry;
+import sber.bank.repos.AccountRevisionRepository;
+import sber.bank.repos.BalanceSnapshotRepository;
+import sber.bank.repos.LedgerEntryRepository;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+/**
+ * Журнал проводок по счетам.
+ * Каждое изменение баланса счета записывается проводкой в той же транзакции, что и изменение баланса,
+ * поэтому баланс в таблице счетов остается кешем суммы проводок и может быть проверен по журналу.
+ * Периодические снимки балансов ограничивают пересчет баланса проводками, сделанными после последнего снимка.
+ * Владелец и валюта счетов записываются в историю версий счетов, поэтому отчеты на прошедший момент
+ * не зависят от текущего состояния таблицы счетов.
+ */
+@Component
+public class Ledger {
+    /**
+     * Точность хранения времени в журнале (timestamp(6)).
+     */
+    private static final ChronoUnit PRECISION = ChronoUnit.MICROS;
+
+    /**
+     * Репозиторий проводок.
+     */
+    private final LedgerEntryRepository entryRepository;
+
+    /**
+     * Репозиторий снимков балансов.
+     */
+    private final BalanceSnapshotRepository snapshotRepository;
+
+    /**
+     * Репозиторий истории версий счетов.
+     */
+    private final AccountRevisionRepository revisionRepository;
+
+    /**
+     * Конструктор с параметрами.
+     *
+     * @param entryRepository    Репозиторий проводок.
+     * @param snapshotRepository Репозиторий снимков балансов.
+     * @param revisionRepository Репозиторий истории версий счетов.
+     */
+    public Ledger(LedgerEntryRepository entryRepository, BalanceSnapshotRepository snapshotRepository,
+                  AccountRevisionRepository revisionRepository) {
+        this.entryRepository = entryRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.revisionRepository = revisionRepository;
+    }
+
+    /**
+     * Записывает перевод между счетами банка.
+     *
+     * @param from   Номер счета списания.
+     * @param to     Номер счета зачисления.
+     * @param amount Сумма в минимальных единицах валюты.
+     */
+    @Transactional
+    public void transfer(long from, long to, long amount) {
+        post(from, to, amount);
+    }
+
+    /**
+     * Записывает изменение баланса счета извне банка: начальный баланс, пополнение или корректировку.
+     * Положительная сумма зачисляется на счет с внешнего счета, отрицательная списывается на внешний счет.
+     *
+     * @param number Номер счета.
+     * @param delta  Изменение баланса в минимальных единицах валюты.
+     */
+    @Transactional
+    public void adjust(long number, long delta) {
+        if (delta > 0) {
+            post(LedgerEntry.EXTERNAL_ACCOUNT, number, delta);
+        } else if (delta < 0) {
+            post(number, LedgerEntry.EXTERNAL_ACCOUNT, -delta);
+        }
+    }
+
+    /**
+     * Записывает владельца и валюту счета, действующие с текущего момента: при открытии счета и смене владельца.
+     *
+     * @param account Открытый или измененный счет.
+     */
+    @Transactional
+    public void recordAccount(Account account) {
+        Long userId = account.getUser() != null ? account.getUser().getId() : null;
+        revisionRepository.save(new AccountRevision(account.getNumber(), now(), userId, account.getCurrency(), false));
+    }
+
+    /**
+     * Записывает закрытие счета: остаток списывается на внешний счет, и с текущего момента счет не входит в отчеты.
+     * После списания остатка сумма проводок счета равна нулю, поэтому счет, открытый позже с тем же номером,
+     * не наследует баланс закрытого.
+     *
+     * @param number  Номер счета.
+     * @param balance Баланс счета на момент закрытия в минимальных единицах валюты.
+     */
+    @Transactional
+    public void recordClosed(long number, long balance) {
+        adjust(number, -balance);
+        revisionRepository.save(new AccountRevision(number, now(), null, null, true));
+    }
+
+    /**
+     * Записывает закрытие всех счетов пользователя так же, как {@link #recordClosed(long, long)}, но двумя запросами
+     * независимо от количества счетов. Вызывается до удаления счетов, строки которых уже заблокированы.
+     *
+     * @param userId Идентификатор пользователя.
+     */
+    @Transactional
+    public void recordClosedByUserId(long userId) {
+        Instant now = now();
+        entryRepository.postClosingByUserId(userId, now);
+        revisionRepository.recordClosedByUserId(userId, now);
+    }
+
+    /**
+     * Вычисляет баланс счета по журналу: последний снимок и проводки, сделанные после него.
+     *
+     * @param number Номер счета.
+     * @return Баланс в минимальных единицах валюты.
+     */
+    @Transactional(readOnly = true)
+    public long getBalance(long number) {
+        Optional<BalanceSnapshot> snapshot = snapshotRepository.findById(number);
+        long base = snapshot.map(BalanceSnapshot::getBalance).orElse(0L);
+        Instant since = snapshot.map(BalanceSnapshot::getTakenAt).orElse(Instant.EPOCH);
+
+        return base + entryRepository.sumSince(number, since);
+    }
+
+    /**
+     * Вычисляет баланс счета на прошедший момент по истории снимков и проводкам после снимка.
+     *
+     * @param number Номер счета.
+     * @param asOf   Момент; учитываются проводки, сделанные строго до него.
+     * @return Баланс в минимальных единицах валюты.
+     */
+    @Transactional(readOnly = true)
+    public long getBalance(long number, Instant asOf) {
+        return entryRepository.balanceAsOf(number, asOf);
+    }
+
+    /**
+     * Переносит снимки балансов на указанный момент и добавляет перенесенные снимки в историю.
+     * Момент должен отставать от текущего времени больше, чем длится самая долгая транзакция:
+     * иначе проводка, сделанная до момента снимка, но зафиксированная после него, не попадет ни в снимок,
+     * ни в пересчет.
+     *
+     * @param cutoff Момент снимка; округляется вниз до точности хранения времени.
+     * @return Количество созданных и перенесенных снимков.
+     */
+    @Transactional
+    public int takeSnapshots(Instant cutoff) {
+        Instant takenAt = cutoff.truncatedTo(PRECISION);
+        int count = snapshotRepository.advance(takenAt) + snapshotRepository.createMissing(takenAt);
+        snapshotRepository.recordHistory(takenAt);
+
+        return count;
+    }
+
+    /**
+     * Сохраняет проводку.
+     *
+     * @param debit  Номер счета списания.
+     * @param credit Номер счета зачисления.
+     * @param amount Сумма в минимальных единицах валюты.
+     */
+    private void post(long debit, long credit, long amount) {
+        entryRepository.save(new LedgerEntry(debit, credit, amount, now()));
+    }
+
+    /**
+     * Возвращает текущее время с точностью хранения времени в журнале.
+     *
+     * @return Текущее время.
+     */
+    private static Instant now() {
+        return Instant.now().truncatedTo(PRECISION);
+    }
+}
@@ -0,0 +1,116 @@
+package sber.bank.service.ledger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+
+/**
+ * Периодическое обслуживание журнала проводок: снимки балансов и создание секций журнала на PostgreSQL.
+ */
+@Component
+public class LedgerMaintenance {
+    private static final Logger log = LoggerFactory.getLogger(LedgerMaintenance.class);
+
+    /**
+     * Количество месяцев вперед, на которые создаются секции журнала.
+     */
+    private static final int MONTHS_AHEAD = 12;
+
+    /**
+     * Журнал проводок.
+     */
+    private final Ledger ledger;
+
+    /**
+     * Шаблон JDBC для создания секций.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Отставание момента снимка от текущего времени в миллисекундах.
+     */
+    private final long snapshotGraceMs;
+
+    /**
+     * Конструктор с параметрами.
+     *
+     * @param ledger          Журнал проводок.
+     * @param jdbcTemplate    Шаблон JDBC.
+     * @param snapshotGraceMs Отставание момента снимка от текущего времени в миллисекундах;
+     *                        должно превышать длительность самой долгой транзакции.
+     */
+    public LedgerMaintenance(Ledger ledger, JdbcTemplate jdbcTemplate,
+                             @Value("${bank.ledger.snapshot-grace-ms:60000}") long snapshotGraceMs) {
+        this.ledger = ledger;
+        this.jdbcTemplate = jdbcTemplate;
+        this.snapshotGraceMs = snapshotGraceMs;
+    }
+
+    /**
+     * Переносит снимки балансов счетов с новыми проводками и создает снимки для новых счетов.
+     */
+    @Scheduled(fixedDelayString = "${bank.ledger.snapshot-interval-ms:3600000}",
+            initialDelayString = "${bank.ledger.snapshot-interval-ms:3600000}")
+    public void takeSnapshots() {
+        try {
+            int count = ledger.takeSnapshots(Instant.now().minusMillis(snapshotGraceMs));
+            log.info("Обновлено снимков балансов: {}", count);
+        } catch (DataAccessException e) {
+            log.warn("Не удалось обновить снимки балансов", e);
+        }
+    }
+
+    /**
+     * Создает недостающие секции журнала после запуска приложения.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        createPartitions();
+    }
+
+    /**
+     * Создает на PostgreSQL секции журнала на год вперед, чтобы проводки не попадали в секцию по умолчанию.
+     */
+    @Scheduled(fixedDelayString = "${bank.ledger.partition-check-interval-ms:86400000}",
+            initialDelayString = "${bank.ledger.partition-check-interval-ms:86400000}")
+    public void createPartitions() {
+        Boolean postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()));
+        if (!Boolean.TRUE.equals(postgres)) {
+            return;
+        }
+
+        YearMonth month = YearMonth.now(ZoneOffset.UTC);
+        for (int i = 0; i <= MONTHS_AHEAD; i++, month = month.plusMonths(1)) {
+            try {
+                jdbcTemplate.execute(partitionDdl(month));
+            } catch (DataAccessException e) {
+                log.warn("Не удалось создать секцию журнала за {}", month, e);
+            }
+        }
+    }
+
+    /**
+     * Возвращает команду создания секции журнала за месяц, если ее еще нет.
+     *
+     * @param month Месяц.
+     * @return Команда создания секции.
+     */
+    private static String partitionDdl(YearMonth month) {
+        return "create table if not exists ledger_entry_y%dm%02d partition of ledger_entry for values from ('%s') to ('%s')"
+                .formatted(month.getYear(), month.getMonthValue(),
+                        month.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC),
+                        month.plusMonths(1).atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,49 @@
+package sber.bank.service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sber.bank.domain.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Получатель событий по умолчанию, записывающий их в журнал приложения по одному JSON-объекту на строку.
+ * Используется ретранслятором, если ни одного бина {@link OutboxSink} не настроено: иначе опубликованные события
+ * не удалялись бы и таблица outbox_event росла бы без ограничений.
+ */
+public class LoggingOutboxSink implements OutboxSink {
+    private static final Logger log = LoggerFactory.getLogger(LoggingOutboxSink.class);
+
+    /**
+     * Сериализатор JSON.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Конструктор с параметрами.
+     *
+     * @param objectMapper Сериализатор JSON.
+     */
+    public LoggingOutboxSink(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Записывает события в журнал приложения.
+     *
+     * @param events События в порядке записи.
+     * @throws IllegalStateException Если событие не удалось сериализовать.
+     */
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            try {
+                log.info(objectMapper.writeValueAsString(event));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Не удалось сериализовать исходящее событие " + event.getId(), e);
+            }
+        }
+    }
+}
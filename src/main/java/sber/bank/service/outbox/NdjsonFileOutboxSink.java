@@ -0,0 +1,64 @@
+package sber.bank.service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import sber.bank.domain.OutboxEvent;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Получатель событий, дописывающий их в файл по одному JSON-объекту на строку.
+ * Включается параметром bank.outbox.file; подходит для локальной разработки и передачи событий сборщику логов.
+ */
+@Component
+@ConditionalOnProperty(name = "bank.outbox.file")
+public class NdjsonFileOutboxSink implements OutboxSink {
+    /**
+     * Файл событий.
+     */
+    private final Path file;
+
+    /**
+     * Сериализатор JSON.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Конструктор с параметрами.
+     *
+     * @param file         Файл событий; создается при первой публикации.
+     * @param objectMapper Сериализатор JSON.
+     */
+    public NdjsonFileOutboxSink(@Value("${bank.outbox.file}") Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Дописывает события в файл.
+     *
+     * @param events События в порядке записи.
+     * @throws UncheckedIOException Если файл не удалось записать.
+     */
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (OutboxEvent event : events) {
+                writer.write(objectMapper.writeValueAsString(event));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать исходящие события в " + file, e);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package sber.bank.service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import sber.bank.domain.Account;
+import sber.bank.domain.Card;
+import sber.bank.domain.OutboxEvent;
+import sber.bank.dto.AccountResponse;
+import sber.bank.repos.OutboxEventRepository;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Запись исходящих событий об изменениях счетов и карт.
+ * Методы требуют уже открытой транзакции: событие должно быть зафиксировано вместе с изменением
+ * или отменено вместе с ним. Публикацию событий выполняет {@link OutboxRelay}.
+ */
+@Component
+public class Outbox {
+    /**
+     * Репозиторий исходящих событий.
+     */
+    private final OutboxEventRepository repository;
+
+    /**
+     * Сериализатор состояния записей в JSON.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Конструктор с параметрами.
+     *
+     * @param repository   Репозиторий исходящих событий.
+     * @param objectMapper Сериализатор JSON.
+     */
+    public Outbox(OutboxEventRepository repository, ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Записывает событие о создании или изменении счета с его новым состоянием.
+     *
+     * @param type    Вид изменения.
+     * @param account Счет после изменения.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void account(OutboxEvent.Type type, Account account) {
+        account(type, account.getNumber(), account.getUser() != null ? account.getUser().getId() : null,
+                account.getCurrency(), account.getBalance());
+    }
+
+    /**
+     * Записывает событие об изменении счета по данным, выбранным без загрузки сущности
+     * (после изменения баланса UPDATE-запросом).
+     *
+     * @param type    Вид изменения.
+     * @param account Данные счета после изменения.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void account(OutboxEvent.Type type, AccountResponse account) {
+        account(type, account.number(), account.userId(), account.currency(), account.balance());
+    }
+
+    /**
+     * Записывает событие о создании или изменении карты с ее новым состоянием.
+     * CVV-код в событие не включается.
+     *
+     * @param type Вид изменения.
+     * @param card Карта после изменения.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void card(OutboxEvent.Type type, Card card) {
+        ObjectNode payload = objectMapper.createObjectNode()
+                .put("number", card.getNumber())
+                .put("accountNumber", card.getAccount() != null ? card.getAccount().getNumber() : null)
+                .putPOJO("expirationDate", card.getExpirationDate());
+
+        save(OutboxEvent.Aggregate.CARD, card.getNumber(), type, payload);
+    }
+
+    /**
+     * Записывает событие об удалении счета или карты.
+     *
+     * @param aggregate Вид удаленной записи.
+     * @param number    Номер удаленного счета или карты.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deleted(OutboxEvent.Aggregate aggregate, long number) {
+        repository.save(new OutboxEvent(aggregate, number, OutboxEvent.Type.DELETED, null, now()));
+    }
+
+    /**
+     * Записывает события об удалении всех карт и счетов пользователя двумя запросами независимо от их количества.
+     * Вызывается до удаления карт и счетов.
+     *
+     * @param userId Идентификатор пользователя.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deletedByUserId(long userId) {
+        Instant now = now();
+        repository.insertCardsDeletedByUserId(userId, now);
+        repository.insertAccountsDeletedByUserId(userId, now);
+    }
+
+    /**
+     * Сохраняет событие с состоянием счета.
+     *
+     * @param type     Вид изменения.
+     * @param number   Номер счета.
+     * @param userId   Идентификатор владельца счета.
+     * @param currency Валюта счета.
+     * @param balance  Баланс счета.
+     */
+    private void account(OutboxEvent.Type type, long number, Long userId, String currency, double balance) {
+        ObjectNode payload = objectMapper.createObjectNode()
+                .put("number", number)
+                .put("userId", userId)
+                .put("currency", currency)
+                .put("balance", balance);
+
+        save(OutboxEvent.Aggregate.ACCOUNT, number, type, payload);
+    }
+
+    /**
+     * Сохраняет событие с состоянием записи.
+     *
+     * @param aggregate Вид записи.
+     * @param number    Номер записи.
+     * @param type      Вид изменения.
+     * @param payload   Состояние записи.
+     */
+    private void save(OutboxEvent.Aggregate aggregate, long number, OutboxEvent.Type type, ObjectNode payload) {
+        try {
+            repository.save(new OutboxEvent(aggregate, number, type, objectMapper.writeValueAsString(payload), now()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать событие об изменении записи " + number, e);
+        }
+    }
+
+    /**
+     * Возвращает текущее время с точностью хранения (timestamp(6)).
+     *
+     * @return Текущее время.
+     */
+    private static Instant now() {
+        return Instant.now().truncatedTo(ChronoUnit.MICROS);
+    }
+}
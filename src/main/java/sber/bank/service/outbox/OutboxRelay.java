@@ -0,0 +1,121 @@
+package sber.bank.service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import sber.bank.domain.OutboxEvent;
+import sber.bank.repos.OutboxEventRepository;
+
+import java.util.List;
+
+/**
+ * Ретранслятор исходящих событий.
+ * Разбирает очередь порциями: каждая порция блокируется с пропуском уже заблокированных строк,
+ * передается всем получателям и удаляется в одной транзакции. Если получатель не принял порцию,
+ * транзакция откатывается и порция публикуется повторно при следующем запуске (доставка «хотя бы один раз»).
+ * Если ни одного получателя не настроено, события записываются в журнал приложения ({@link LoggingOutboxSink}).
+ */
+@Component
+public class OutboxRelay {
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    /**
+     * Репозиторий исходящих событий.
+     */
+    private final OutboxEventRepository repository;
+
+    /**
+     * Получатели событий.
+     */
+    private final ObjectProvider<OutboxSink> sinks;
+
+    /**
+     * Получатель событий на случай, если ни одного получателя не настроено.
+     */
+    private final OutboxSink defaultSink;
+
+    /**
+     * Шаблон транзакции одной порции; выполняется на основном сервере.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Максимальное количество событий в порции.
+     */
+    private final int batchSize;
+
+    /**
+     * Конструктор с параметрами.
+     *
+     * @param repository         Репозиторий исходящих событий.
+     * @param sinks              Получатели событий.
+     * @param objectMapper       Сериализатор JSON для получателя по умолчанию.
+     * @param transactionManager Менеджер транзакций.
+     * @param batchSize          Максимальное количество событий в порции.
+     */
+    public OutboxRelay(OutboxEventRepository repository, ObjectProvider<OutboxSink> sinks, ObjectMapper objectMapper,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${bank.outbox.batch-size:500}") int batchSize) {
+        this.repository = repository;
+        this.sinks = sinks;
+        this.defaultSink = new LoggingOutboxSink(objectMapper);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Публикует накопившиеся события, пока очередь не опустеет.
+     * Если получатели не настроены, события передаются получателю по умолчанию, чтобы очередь не росла.
+     *
+     * @return Количество опубликованных событий.
+     */
+    @Scheduled(fixedDelayString = "${bank.outbox.relay-interval-ms:1000}",
+            initialDelayString = "${bank.outbox.relay-interval-ms:1000}")
+    public int relay() {
+        List<OutboxSink> targets = sinks.orderedStream().toList();
+        if (targets.isEmpty()) {
+            targets = List.of(defaultSink);
+        }
+
+        int total = 0;
+        try {
+            int published;
+            do {
+                published = relayBatch(targets);
+                total += published;
+            } while (published == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Не удалось опубликовать исходящие события, публикация будет повторена", e);
+        }
+
+        return total;
+    }
+
+    /**
+     * Публикует и удаляет одну порцию событий в одной транзакции.
+     *
+     * @param targets Получатели событий.
+     * @return Количество опубликованных событий.
+     */
+    private int relayBatch(List<OutboxSink> targets) {
+        Integer published = transactionTemplate.execute(status -> {
+            List<OutboxEvent> events = repository.lockBatch(PageRequest.of(0, batchSize));
+
+            if (!events.isEmpty()) {
+                targets.forEach(sink -> sink.publish(events));
+                repository.deleteAllInBatch(events);
+            }
+
+            return events.size();
+        });
+
+        return published != null ? published : 0;
+    }
+}
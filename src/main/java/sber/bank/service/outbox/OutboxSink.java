@@ -0,0 +1,20 @@
+package sber.bank.service.outbox;
+
+import sber.bank.domain.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Получатель исходящих событий: брокер сообщений, файл, внешняя система.
+ * Реализации регистрируются как бины; ретранслятор передает каждую порцию событий всем получателям.
+ */
+public interface OutboxSink {
+    /**
+     * Публикует порцию событий в порядке их записи.
+     * Если метод завершился исключением, порция остается в очереди и будет передана повторно,
+     * поэтому получатели должны быть готовы к повторной доставке (по идентификатору события).
+     *
+     * @param events События в порядке записи.
+     */
+    void publish(List<OutboxEvent> events);
+}
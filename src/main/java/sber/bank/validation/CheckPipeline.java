@@ -0,0 +1,182 @@
+package sber.bank.validation;
+
+import sber.bank.exceptions.BadArgumentException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Набор правил проверки объектов одного типа, собранный в плоский неизменяемый список условий.
+ * Проверка выполняется за один проход и отмечает все нарушенные правила в битовой маске;
+ * для каждой встретившейся комбинации нарушений один раз создается исключение без трассировки стека,
+ * которое затем выбрасывается повторно. Поэтому поток некорректных запросов не создает новых объектов.
+ *
+ * @param <T> Тип проверяемых объектов.
+ */
+public final class CheckPipeline<T> {
+    /**
+     * Максимальное количество правил: нарушения отмечаются битами значения long.
+     */
+    private static final int MAX_RULES = Long.SIZE;
+
+    /**
+     * Тип проверяемых объектов.
+     */
+    private final Class<T> type;
+
+    /**
+     * Условия, которым должен удовлетворять корректный объект.
+     */
+    private final List<Predicate<? super T>> conditions;
+
+    /**
+     * Сообщения об ошибке для каждого условия.
+     */
+    private final String[] messages;
+
+    /**
+     * Исключение для отсутствующего объекта.
+     */
+    private final BadArgumentException missing;
+
+    /**
+     * Исключения по комбинациям нарушенных правил.
+     */
+    private final Map<Long, BadArgumentException> failures = new ConcurrentHashMap<>();
+
+    /**
+     * Конструктор с параметрами.
+     *
+     * @param type       Тип проверяемых объектов.
+     * @param conditions Условия.
+     * @param messages   Сообщения об ошибке.
+     * @param missing    Сообщение об ошибке для отсутствующего объекта.
+     */
+    private CheckPipeline(Class<T> type, List<Predicate<? super T>> conditions, String[] messages, String missing) {
+        this.type = type;
+        this.conditions = conditions;
+        this.messages = messages;
+        this.missing = new BadArgumentException(missing, false);
+    }
+
+    /**
+     * Начинает описание правил для указанного типа.
+     *
+     * @param type    Тип проверяемых объектов.
+     * @param missing Сообщение об ошибке, если объект не передан.
+     * @param <T>     Тип проверяемых объектов.
+     * @return Построитель набора правил.
+     */
+    public static <T> Builder<T> of(Class<T> type, String missing) {
+        return new Builder<>(type, missing);
+    }
+
+    /**
+     * Получение типа проверяемых объектов.
+     *
+     * @return Тип проверяемых объектов.
+     */
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * Проверяет объект по всем правилам.
+     *
+     * @param target Проверяемый объект.
+     * @throws BadArgumentException Если объект не передан или нарушено хотя бы одно правило;
+     *                              сообщение перечисляет все нарушения через точку с запятой.
+     */
+    public void validate(T target) {
+        if (target == null) {
+            throw missing;
+        }
+
+        long violations = 0;
+        for (int i = 0; i < conditions.size(); i++) {
+            if (!conditions.get(i).test(target)) {
+                violations |= 1L << i;
+            }
+        }
+
+        if (violations != 0) {
+            throw failures.computeIfAbsent(violations, this::failure);
+        }
+    }
+
+    /**
+     * Создает исключение для комбинации нарушенных правил.
+     *
+     * @param violations Битовая маска нарушенных правил.
+     * @return Исключение без трассировки стека.
+     */
+    private BadArgumentException failure(long violations) {
+        StringBuilder message = new StringBuilder();
+        for (int i = 0; i < messages.length; i++) {
+            if ((violations & 1L << i) != 0) {
+                if (message.length() > 0) {
+                    message.append("; ");
+                }
+                message.append(messages[i]);
+            }
+        }
+
+        return new BadArgumentException(message.toString(), false);
+    }
+
+    /**
+     * Построитель набора правил.
+     *
+     * @param <T> Тип проверяемых объектов.
+     */
+    public static final class Builder<T> {
+        private final Class<T> type;
+
+        private final String missing;
+
+        private final List<Predicate<? super T>> conditions = new ArrayList<>();
+
+        private final List<String> messages = new ArrayList<>();
+
+        /**
+         * Конструктор с параметрами.
+         *
+         * @param type    Тип проверяемых объектов.
+         * @param missing Сообщение об ошибке, если объект не передан.
+         */
+        private Builder(Class<T> type, String missing) {
+            this.type = type;
+            this.missing = missing;
+        }
+
+        /**
+         * Добавляет правило.
+         *
+         * @param condition Условие, которому должен удовлетворять корректный объект.
+         * @param message   Сообщение об ошибке при нарушении условия.
+         * @return Этот построитель.
+         * @throws IllegalStateException Если правил больше 64.
+         */
+        public Builder<T> require(Predicate<? super T> condition, String message) {
+            if (conditions.size() == MAX_RULES) {
+                throw new IllegalStateException("Не более " + MAX_RULES + " правил для типа " + type.getName());
+            }
+
+            conditions.add(condition);
+            messages.add(message);
+            return this;
+        }
+
+        /**
+         * Собирает набор правил.
+         *
+         * @return Набор правил.
+         */
+        public CheckPipeline<T> build() {
+            return new CheckPipeline<>(type, List.copyOf(conditions), messages.toArray(new String[0]), missing);
+        }
+    }
+}
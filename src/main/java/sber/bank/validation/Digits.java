@@ -0,0 +1,57 @@
+package sber.bank.validation;
+
+/**
+ * Арифметические проверки десятичной записи чисел.
+ * Методы работают непосредственно со значением long и не создают объектов.
+ */
+final class Digits {
+    /**
+     * Закрытый конструктор: класс содержит только статические методы.
+     */
+    private Digits() {
+
+    }
+
+    /**
+     * Подсчитывает количество цифр в десятичной записи положительного числа.
+     *
+     * @param value Положительное число.
+     * @return Количество цифр.
+     */
+    static int count(long value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+
+        return digits;
+    }
+
+    /**
+     * Проверяет контрольную цифру числа по алгоритму Луна.
+     * Контрольной считается последняя цифра; каждая вторая цифра, начиная с предпоследней, удваивается.
+     *
+     * @param value Положительное число.
+     * @return true, если контрольная сумма кратна 10.
+     */
+    static boolean isLuhnValid(long value) {
+        int sum = 0;
+        boolean doubled = false;
+
+        while (value > 0) {
+            int digit = (int) (value % 10);
+            if (doubled) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubled = !doubled;
+            value /= 10;
+        }
+
+        return sum % 10 == 0;
+    }
+}
@@ -0,0 +1,101 @@
+package sber.bank.validation;
+
+import sber.bank.domain.Account;
+import sber.bank.domain.Card;
+import sber.bank.domain.User;
+import sber.bank.dto.PostingRequest;
+import sber.bank.dto.TransferRequest;
+
+import java.util.Map;
+
+/**
+ * Правила проверки тел запросов, по одному набору на тип.
+ * Наборы собираются один раз при загрузке класса и применяются ко всем контроллерам
+ * через {@link PipelineValidator}.
+ */
+public final class DomainRules {
+    /**
+     * Правила проверки данных пользователя.
+     */
+    public static final CheckPipeline<User> USER = CheckPipeline.of(User.class, "Данные пользователя не могут быть пустыми")
+            .require(user -> isPresent(user.getName()), "Не указано имя пользователя")
+            .require(user -> user.getBirthdate() != null, "Не указана дата рождения пользователя")
+            .require(user -> isPresent(user.getAddress()), "Не указан адрес проживания пользователя")
+            .build();
+
+    /**
+     * Правила проверки данных счета.
+     */
+    public static final CheckPipeline<Account> ACCOUNT = CheckPipeline.of(Account.class, "Данные счета не могут быть пустыми")
+            .require(account -> account.getUser() != null, "Не указан владелец счета")
+            .require(account -> isPresent(account.getCurrency()), "Не указана валюта счета")
+            .build();
+
+    /**
+     * Правила проверки данных карты.
+     */
+    public static final CheckPipeline<Card> CARD = CheckPipeline.of(Card.class, "Данные карты не могут быть пустыми")
+            .require(card -> card.getAccount() != null, "Не указан счет, к которому привязана карта")
+            .require(card -> card.getExpirationDate() != null, "Не указан срок действия карты")
+            .require(card -> card.getCvv() != null, "Не указан CVV код карты")
+            .build();
+
+    /**
+     * Правила проверки запроса на перевод.
+     */
+    public static final CheckPipeline<TransferRequest> TRANSFER =
+            CheckPipeline.of(TransferRequest.class, "Данные перевода не могут быть пустыми")
+                    .require(transfer -> Validation.isAccountNumber(transfer.from()), "Некорректный номер счета списания")
+                    .require(transfer -> Validation.isAccountNumber(transfer.to()), "Некорректный номер счета зачисления")
+                    .require(transfer -> transfer.amount() != null && Double.isFinite(transfer.amount()) && transfer.amount() > 0,
+                            "Некорректная сумма перевода")
+                    .build();
+
+    /**
+     * Правила проверки запроса на пополнение или списание.
+     */
+    public static final CheckPipeline<PostingRequest> POSTING =
+            CheckPipeline.of(PostingRequest.class, "Данные операции не могут быть пустыми")
+                    .require(posting -> posting.amount() != null && Double.isFinite(posting.amount()) && posting.amount() > 0,
+                            "Некорректная сумма операции")
+                    .build();
+
+    /**
+     * Наборы правил по типу проверяемых объектов.
+     */
+    private static final Map<Class<?>, CheckPipeline<?>> BY_TYPE = Map.of(
+            USER.getType(), USER,
+            ACCOUNT.getType(), ACCOUNT,
+            CARD.getType(), CARD,
+            TRANSFER.getType(), TRANSFER,
+            POSTING.getType(), POSTING);
+
+    /**
+     * Закрытый конструктор: класс содержит только статические поля и методы.
+     */
+    private DomainRules() {
+
+    }
+
+    /**
+     * Возвращает набор правил для типа.
+     *
+     * @param type Тип проверяемых объектов.
+     * @param <T>  Тип проверяемых объектов.
+     * @return Набор правил или null, если для типа правила не описаны.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> CheckPipeline<T> forType(Class<T> type) {
+        return (CheckPipeline<T>) BY_TYPE.get(type);
+    }
+
+    /**
+     * Проверяет, что строка указана и не пуста.
+     *
+     * @param value Строка.
+     * @return true, если строка не null и не пуста.
+     */
+    private static boolean isPresent(String value) {
+        return value != null && !value.isEmpty();
+    }
+}
@@ -0,0 +1,64 @@
+package sber.bank.validation;
+
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+import sber.bank.exceptions.BadArgumentException;
+
+/**
+ * Подключает наборы правил {@link DomainRules} к проверке аргументов контроллеров, отмеченных @Validated.
+ * Списки проверяются поэлементно.
+ * <p>
+ * При нарушении правил выбрасывается заранее созданное {@link BadArgumentException} вместо заполнения Errors:
+ * так ответ 400 формируется без построения BindingResult и MethodArgumentNotValidException.
+ */
+public class PipelineValidator implements Validator {
+    /**
+     * Ошибка пустого элемента списка.
+     */
+    private static final BadArgumentException MISSING_ITEM = new BadArgumentException("Элемент списка не может быть пустым", false);
+
+    /**
+     * Проверяет, описаны ли правила для типа.
+     *
+     * @param type Тип аргумента.
+     * @return true, если для типа описаны правила или тип является списком.
+     */
+    @Override
+    public boolean supports(Class<?> type) {
+        return DomainRules.forType(type) != null || Iterable.class.isAssignableFrom(type);
+    }
+
+    /**
+     * Проверяет аргумент.
+     *
+     * @param target Аргумент.
+     * @param errors Не используется.
+     * @throws BadArgumentException Если аргумент нарушает правила.
+     */
+    @Override
+    public void validate(Object target, Errors errors) {
+        if (target instanceof Iterable<?> items) {
+            for (Object item : items) {
+                if (item == null) {
+                    throw MISSING_ITEM;
+                }
+                validate(item);
+            }
+        } else {
+            validate(target);
+        }
+    }
+
+    /**
+     * Проверяет объект по правилам его типа; объекты без описанных правил не проверяются.
+     *
+     * @param target Объект.
+     */
+    @SuppressWarnings("unchecked")
+    private static void validate(Object target) {
+        CheckPipeline<Object> pipeline = (CheckPipeline<Object>) DomainRules.forType(target.getClass());
+        if (pipeline != null) {
+            pipeline.validate(target);
+        }
+    }
+}
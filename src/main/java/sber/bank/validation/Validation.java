@@ -1,33 +1,32 @@
 package sber.bank.validation;
 
-import sber.bank.domain.Account;
-import sber.bank.domain.Card;
-import sber.bank.domain.User;
 import sber.bank.exceptions.BadArgumentException;
 
+import java.time.Instant;
+import java.util.List;
+
 /**
- * Валидация.
+ * Валидация параметров запросов: номеров, идентификаторов, размеров страниц и моментов времени.
+ * Правила для тел запросов описаны в {@link DomainRules}.
  */
 public class Validation {
     /**
-     * Проверяет корректность данных счета.
-     *
-     * @param account Данные счета.
-     * @throws BadArgumentException Если данные счета некорректны.
+     * Минимальное количество цифр в номере счета.
      */
-    public static void validateAccount(Account account) {
-        if (account == null) {
-            throw new BadArgumentException("Данные счета не могут быть пустыми");
-        }
+    private static final int MIN_ACCOUNT_NUMBER_DIGITS = 15;
 
-        if (account.getUser() == null) {
-            throw new BadArgumentException("Не указан владелец счета");
-        }
+    /**
+     * Ошибка некорректного номера счета. Создается один раз: номера проверяются на каждом запросе,
+     * и место выброса исключения не представляет интереса.
+     */
+    private static final BadArgumentException INVALID_ACCOUNT_NUMBER =
+            new BadArgumentException("Некорректный номер счета", false);
 
-        if (account.getCurrency() == null || account.getCurrency().isEmpty()) {
-            throw new BadArgumentException("Не указана валюта счета");
-        }
-    }
+    /**
+     * Ошибка некорректного номера карты. Создается один раз по той же причине.
+     */
+    private static final BadArgumentException INVALID_CARD_NUMBER =
+            new BadArgumentException("Некорректный номер карты", false);
 
     /**
      * Проверяет корректность номера счета.
@@ -36,74 +35,49 @@ public class Validation {
      * @throws BadArgumentException Если номер счета некорректен.
      */
     public static void validateAccountNumber(Long number) {
-        if (number == null || String.valueOf(number).length() < 15) {
-            throw new BadArgumentException("Некорректный номер счета");
+        if (!isAccountNumber(number)) {
+            throw INVALID_ACCOUNT_NUMBER;
         }
     }
 
     /**
-     * Проверяет корректность данных карты.
+     * Проверяет, является ли число корректным номером счета.
      *
-     * @param card Карта для проверки.
-     * @throws BadArgumentException Если данные карты некорректны.
+     * @param number Номер счета.
+     * @return true, если номер положителен и содержит не менее 15 цифр.
      */
-    public static void validateCard(Card card) {
-        if (card == null) {
-            throw new BadArgumentException("Данные карты не могут быть пустыми");
-        }
-
-        if (card.getAccount() == null) {
-            throw new BadArgumentException("Не указан счет, к которому привязана карта");
-        }
-
-        if (card.getExpirationDate() == null) {
-            throw new BadArgumentException("Не указан срок действия карты");
-        }
-
-        if (card.getCvv() == null) {
-            throw new BadArgumentException("Не указан CVV код карты");
-        }
+    public static boolean isAccountNumber(Long number) {
+        return number != null && number > 0 && Digits.count(number) >= MIN_ACCOUNT_NUMBER_DIGITS;
     }
 
     /**
-     * Проверяет корректность номера карты.
+     * Проверяет корректность номера карты: номер должен состоять из 13, 15, 16, 18 или 19 цифр
+     * и иметь верную контрольную цифру по алгоритму Луна.
      *
      * @param number Номер карты для проверки.
      * @throws BadArgumentException Если номер карты некорректен.
      */
     public static void validateCardNumber(Long number) {
-        if (number == null
-            || String.valueOf(number).length() != 13
-            || String.valueOf(number).length() != 15
-            || String.valueOf(number).length() != 16
-            || String.valueOf(number).length() != 18
-            || String.valueOf(number).length() != 19) {
-            throw new BadArgumentException("Некорректный номер карты");
+        if (!isCardNumber(number)) {
+            throw INVALID_CARD_NUMBER;
         }
     }
 
     /**
-     * Проверяет корректность данных пользователя.
+     * Проверяет, является ли число корректным номером карты.
      *
-     * @param user Пользователь для проверки.
-     * @throws BadArgumentException Если данные пользователя некорректны.
+     * @param number Номер карты.
+     * @return true, если номер положителен, содержит 13, 15, 16, 18 или 19 цифр и проходит проверку Луна.
      */
-    public static void validateUser(User user) {
-        if (user == null) {
-            throw new BadArgumentException("Данные пользователя не могут быть пустыми");
-        }
-
-        if (user.getName() == null || user.getName().isEmpty()) {
-            throw new BadArgumentException("Не указано имя пользователя");
+    public static boolean isCardNumber(Long number) {
+        if (number == null || number <= 0) {
+            return false;
         }
 
-        if (user.getBirthdate() == null) {
-            throw new BadArgumentException("Не указана дата рождения пользователя");
-        }
+        int digits = Digits.count(number);
 
-        if (user.getAddress() == null || user.getAddress().isEmpty()) {
-            throw new BadArgumentException("Не указан адрес проживания пользователя");
-        }
+        return (digits == 13 || digits == 15 || digits == 16 || digits == 18 || digits == 19)
+                && Digits.isLuhnValid(number);
     }
 
     /**
@@ -117,4 +91,42 @@ public class Validation {
             throw new BadArgumentException("Некорректный идентификационный номер пользователя");
         }
     }
+
+    /**
+     * Проверяет корректность размера страницы.
+     *
+     * @param limit    Размер страницы для проверки.
+     * @param maxLimit Максимально допустимый размер страницы.
+     * @throws BadArgumentException Если размер страницы некорректен.
+     */
+    public static void validatePageLimit(Integer limit, int maxLimit) {
+        if (limit == null || limit < 1 || limit > maxLimit) {
+            throw new BadArgumentException("Размер страницы должен быть в диапазоне от 1 до " + maxLimit);
+        }
+    }
+
+    /**
+     * Проверяет, что момент, на который запрашиваются данные, не находится в будущем.
+     *
+     * @param asOf Момент для проверки.
+     * @throws BadArgumentException Если момент не указан или находится в будущем.
+     */
+    public static void validatePastMoment(Instant asOf) {
+        if (asOf == null || asOf.isAfter(Instant.now())) {
+            throw new BadArgumentException("Момент не может находиться в будущем");
+        }
+    }
+
+    /**
+     * Проверяет, что список для пакетной обработки не пуст.
+     *
+     * @param items       Список для проверки.
+     * @param description Описание списка для сообщения об ошибке.
+     * @throws BadArgumentException Если список пуст.
+     */
+    public static void validateBatch(List<?> items, String description) {
+        if (items == null || items.isEmpty()) {
+            throw new BadArgumentException(description + " не может быть пустым");
+        }
+    }
 }
@@ -0,0 +1,8 @@
+-- Время создания счетов и карт по часам базы данных. Заполняется значением по умолчанию, поэтому приложение
+-- не передает его при вставке; по нему каждый экземпляр приложения дозагружает в фильтр существующих номеров
+-- номера, созданные другими экземплярами.
+alter table account add column created_at timestamp(6) with time zone default current_timestamp not null;
+alter table card add column created_at timestamp(6) with time zone default current_timestamp not null;
+
+create index idx_account_created_at on account (created_at);
+create index idx_card_created_at on card (created_at);
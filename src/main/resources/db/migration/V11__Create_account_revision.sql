@@ -0,0 +1,23 @@
+-- История владельца и валюты счетов: строка добавляется при открытии счета, смене владельца и закрытии счета.
+-- Вместе с журналом проводок и историей снимков она позволяет строить отчеты на прошедший момент,
+-- не обращаясь к текущей таблице account: закрытые позже счета и смена владельца не изменяют прошлые отчеты.
+create sequence account_revision_seq start with 1 increment by 50;
+
+create table account_revision
+(
+    id             bigint                      not null,
+    account_number bigint                      not null,
+    valid_from     timestamp(6) with time zone not null,
+    "user_id"      bigint,
+    currency       varchar(255),
+    closed         boolean                     not null,
+    primary key (id)
+);
+
+create index idx_account_revision_number on account_revision (account_number, valid_from);
+create index idx_account_revision_user on account_revision ("user_id");
+
+-- Существующие счета считаются открытыми с начала времен: их балансы до миграции уже записаны в журнал.
+insert into account_revision (id, account_number, valid_from, "user_id", currency, closed)
+select nextval('account_revision_seq'), "number", timestamp with time zone '1970-01-01 00:00:00+00', "user_id", currency, false
+from account;
@@ -0,0 +1,4 @@
+-- Ретранслятор разбирает очередь событий в порядке их записи. Идентификаторы выдаются каждым экземпляром
+-- приложения блоками по 50 значений и не упорядочены по времени между экземплярами, поэтому порядок задается
+-- временем записи события, а идентификатор лишь упорядочивает события, записанные в одну микросекунду.
+create index idx_outbox_event_created_at on outbox_event (created_at, id);
@@ -0,0 +1,12 @@
+-- Перевод балансов счетов из float в целое число копеек (минимальных единиц валюты).
+alter table account
+    add column balance_minor bigint not null default 0;
+
+update account
+set balance_minor = round(balance * 100);
+
+alter table account
+    drop column balance;
+
+alter table account
+    rename column balance_minor to balance;
@@ -0,0 +1,9 @@
+-- Добавление столбцов версии для оптимистической блокировки.
+alter table account
+    add column version bigint not null default 0;
+
+alter table card
+    add column version bigint not null default 0;
+
+alter table "user"
+    add column version bigint not null default 0;
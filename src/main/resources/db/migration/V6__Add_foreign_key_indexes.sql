@@ -0,0 +1,6 @@
+-- Индекс по внешнему ключу карты: выборка карт счета и удаление карт при удалении счета.
+create index idx_card_account_number on card (account_number);
+
+-- Индекс по внешнему ключу счета. Валюта и баланс включены в индекс, чтобы суммирование
+-- балансов пользователя по валютам выполнялось только по индексу, без чтения таблицы.
+create index idx_account_user_currency_balance on account ("user_id", currency, balance);
@@ -0,0 +1,27 @@
+-- История снимков балансов: каждый перенос снимка добавляет строку, поэтому баланс на любой момент
+-- вычисляется по последнему снимку до этого момента и проводкам между снимком и моментом.
+create table balance_snapshot_history
+(
+    account_number bigint                      not null,
+    taken_at       timestamp(6) with time zone not null,
+    balance        bigint                      not null,
+    primary key (account_number, taken_at)
+);
+
+insert into balance_snapshot_history (account_number, taken_at, balance)
+select account_number, taken_at, balance
+from balance_snapshot;
+
+-- История курсов валют к рублю: курс действует с даты valid_from (UTC) до даты следующего курса.
+create table exchange_rate
+(
+    currency   varchar(255)     not null,
+    valid_from date             not null,
+    rate       double precision not null,
+    primary key (currency, valid_from)
+);
+
+insert into exchange_rate (currency, valid_from, rate)
+values ('RUB', date '2000-01-01', 1.0),
+       ('USD', date '2000-01-01', 90.0),
+       ('EUR', date '2000-01-01', 100.0);
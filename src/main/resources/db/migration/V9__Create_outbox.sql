@@ -0,0 +1,14 @@
+-- Исходящие события об изменениях счетов и карт. Событие записывается в той же транзакции, что и изменение,
+-- и удаляется после публикации ретранслятором.
+create sequence outbox_event_seq start with 1 increment by 50;
+
+create table outbox_event
+(
+    id           bigint                      not null,
+    aggregate    varchar(255)                not null,
+    aggregate_id bigint                      not null,
+    type         varchar(255)                not null,
+    payload      varchar(4000),
+    created_at   timestamp(6) with time zone not null,
+    primary key (id)
+);
@@ -0,0 +1,76 @@
+package sber.bank.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет настройку пула соединений, его метрики и выбор модели потоков.
+ */
+@SpringBootTest(properties = "bank.bulkhead.max-concurrent-requests=8")
+@ActiveProfiles("test")
+public class ConcurrencyConfigTest {
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private FilterRegistrationBean<?> bulkheadFilter;
+
+    @Test
+    public void testDataSource_IsSizedFixedPool() {
+        HikariDataSource hikari = assertInstanceOf(HikariDataSource.class, dataSource);
+
+        assertEquals("bank", hikari.getPoolName());
+        assertEquals(hikari.getMaximumPoolSize(), hikari.getMinimumIdle());
+    }
+
+    @Test
+    public void testDataSource_PublishesWaitTimeAndActiveConnections() throws Exception {
+        long acquired = meterRegistry.get("hikaricp.connections.acquire").tag("pool", "bank").timer().count();
+
+        Connection connection = dataSource.getConnection();
+        try {
+            assertFalse(connection.isClosed());
+            assertTrue(meterRegistry.get("hikaricp.connections.active").tag("pool", "bank").gauge().value() >= 1);
+        } finally {
+            connection.close();
+        }
+
+        assertTrue(meterRegistry.get("hikaricp.connections.acquire").tag("pool", "bank").timer().count() > acquired);
+    }
+
+    @Test
+    public void testBulkheadFilter_CoversApiOnly() {
+        assertTrue(bulkheadFilter.getUrlPatterns().contains("/api/*"));
+        assertNotNull(meterRegistry.find("bank.bulkhead.available").gauge());
+    }
+
+    @Test
+    public void testNewVirtualThreadPerTaskExecutor_RequiresJava21() throws Exception {
+        if (Runtime.version().feature() < 21) {
+            assertThrows(IllegalStateException.class, ConcurrencyConfig::newVirtualThreadPerTaskExecutor);
+            return;
+        }
+
+        ExecutorService executor = ConcurrencyConfig.newVirtualThreadPerTaskExecutor();
+        try {
+            Object virtual = executor.submit(() -> Thread.class.getMethod("isVirtual").invoke(Thread.currentThread())).get();
+            assertEquals(Boolean.TRUE, virtual);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package sber.bank.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Проверяет публикацию метрик сервисов и количества SQL-запросов на HTTP-запрос.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class MetricsIntegrationTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void testRequest_RecordsServiceTimerAndStatementCount() throws Exception {
+        mockMvc.perform(get("/api/user/1/accounts")).andExpect(status().isOk());
+
+        Timer timer = meterRegistry.get(MetricsConfig.SERVICE_TIMER)
+                .tag("class", "sber.bank.service.implementation.UserService")
+                .tag("method", "getAccounts")
+                .timer();
+        DistributionSummary statements = meterRegistry.get("bank.http.jdbc.statements")
+                .tag("method", "GET")
+                .tag("uri", "/api/user/{id}/accounts")
+                .summary();
+
+        assertTrue(timer.count() >= 1);
+        assertTrue(statements.count() >= 1);
+        assertTrue(statements.max() >= 1);
+    }
+
+    @Test
+    public void testStreamingRequest_CountsStatementsOfAsyncThread() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/user/all-users/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+        DistributionSummary statements = meterRegistry.get("bank.http.jdbc.statements")
+                .tag("method", "GET")
+                .tag("uri", "/api/user/all-users/stream")
+                .summary();
+
+        assertTrue(statements.count() >= 1);
+        assertTrue(statements.max() >= 1);
+    }
+}
@@ -0,0 +1,68 @@
+package sber.bank.config;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import sber.bank.domain.User;
+import sber.bank.dto.UserResponse;
+import sber.bank.service.implementation.UserService;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет маршрутизацию запросов между двумя базами H2: основной и репликой.
+ * Реплика заполняется теми же миграциями, после чего имя пользователя в ней изменяется,
+ * чтобы по результату было видно, с какого сервера прочитаны данные.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReadReplicaRoutingIntegrationTest.PRIMARY_URL,
+        "bank.datasource.replica-urls=" + ReadReplicaRoutingIntegrationTest.REPLICA_URL,
+        "bank.datasource.replica-lag-query=select 0"
+})
+@ActiveProfiles("test")
+public class ReadReplicaRoutingIntegrationTest {
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private static final String SELECT_NAME = "select \"name\" from \"user\" where id = 1";
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    public static void prepareReplica() {
+        DriverManagerDataSource replica = new DriverManagerDataSource(REPLICA_URL, "sa", "");
+        Flyway.configure().dataSource(replica).load().migrate();
+        new JdbcTemplate(replica).update("update \"user\" set \"name\" = 'Реплика' where id = 1");
+    }
+
+    @Test
+    public void testReadOnlyTransactions_AreServedByReplica() {
+        UserResponse user = userService.getAllResponses().stream()
+                .filter(response -> response.id() == 1L)
+                .findFirst()
+                .orElseThrow();
+
+        assertEquals("Реплика", user.name());
+    }
+
+    @Test
+    public void testWrites_GoToPrimary() {
+        userService.update(1L, new User(1L, "Основной", new Date(0), "ул. Пушкина, д. 10"), null);
+
+        assertEquals("Основной", jdbcTemplate.queryForObject(SELECT_NAME, String.class));
+        assertEquals("Реплика", new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""))
+                .queryForObject(SELECT_NAME, String.class));
+    }
+}
@@ -0,0 +1,122 @@
+package sber.bank.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ReplicaRoutingDataSourceTest {
+    private static final String LAG_QUERY = "select lag";
+
+    private final DataSource primary = mock(DataSource.class, RETURNS_DEEP_STUBS);
+
+    private final DataSource first = mock(DataSource.class, RETURNS_DEEP_STUBS);
+
+    private final DataSource second = mock(DataSource.class, RETURNS_DEEP_STUBS);
+
+    private MeterRegistry meterRegistry;
+
+    private ReplicaRoutingDataSource dataSource;
+
+    @BeforeEach
+    public void setup() throws SQLException {
+        meterRegistry = new SimpleMeterRegistry();
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("first", first);
+        replicas.put("second", second);
+        dataSource = new ReplicaRoutingDataSource(primary, replicas, 1000, LAG_QUERY, meterRegistry);
+        dataSource.afterPropertiesSet();
+
+        givenLag(first, 0);
+        givenLag(second, 0);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    public void testRouting_SendsWritesToPrimary() throws SQLException {
+        assertSame(primary.getConnection(), dataSource.getConnection());
+        assertEquals(1.0, meterRegistry.get("bank.datasource.route").tag("target", "primary").counter().count());
+    }
+
+    @Test
+    public void testRouting_DistributesReadOnlyTransactionsAcrossReplicas() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(first.getConnection(), dataSource.getConnection());
+        assertSame(second.getConnection(), dataSource.getConnection());
+        assertSame(first.getConnection(), dataSource.getConnection());
+        assertEquals(2.0, meterRegistry.get("bank.datasource.route").tag("target", "first").counter().count());
+    }
+
+    @Test
+    public void testRouting_SkipsLaggingReplica() throws SQLException {
+        givenLag(first, 5000);
+        dataSource.checkReplicas();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(second.getConnection(), dataSource.getConnection());
+        assertSame(second.getConnection(), dataSource.getConnection());
+        assertEquals(5000.0, meterRegistry.get("bank.datasource.replica.lag").tag("replica", "first").gauge().value());
+    }
+
+    @Test
+    public void testRouting_FallsBackToPrimaryWhenNoReplicaIsUsable() throws SQLException {
+        givenLag(first, 5000);
+        when(second.getConnection()).thenThrow(new SQLException("Connection refused"));
+        dataSource.checkReplicas();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(primary.getConnection(), dataSource.getConnection());
+        assertTrue(Double.isNaN(meterRegistry.get("bank.datasource.replica.lag").tag("replica", "second").gauge().value()));
+    }
+
+    @Test
+    public void testRouting_ReturnsReplicaAfterItCatchesUp() throws SQLException {
+        givenLag(first, 5000);
+        givenLag(second, 5000);
+        dataSource.checkReplicas();
+        givenLag(second, 10);
+        dataSource.checkReplicas();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(second.getConnection(), dataSource.getConnection());
+    }
+
+    @Test
+    public void testClose_ClosesEveryReplicaPoolEvenIfOneFails() throws Exception {
+        DataSource failing = mock(DataSource.class, withSettings().extraInterfaces(Closeable.class));
+        DataSource closing = mock(DataSource.class, withSettings().extraInterfaces(Closeable.class));
+        doThrow(new IOException("Pool is busy")).when((Closeable) failing).close();
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("failing", failing);
+        replicas.put("closing", closing);
+
+        try (ReplicaRoutingDataSource closeable = new ReplicaRoutingDataSource(primary, replicas, 1000, LAG_QUERY, meterRegistry)) {
+            assertNotNull(closeable);
+        }
+
+        verify((Closeable) failing).close();
+        verify((Closeable) closing).close();
+    }
+
+    private static void givenLag(DataSource replica, long lagMs) throws SQLException {
+        when(replica.getConnection().createStatement().executeQuery(LAG_QUERY).next()).thenReturn(true);
+        when(replica.getConnection().createStatement().executeQuery(LAG_QUERY).getLong(1)).thenReturn(lagMs);
+    }
+}
@@ -0,0 +1,49 @@
+package sber.bank.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatementCounterTest {
+    private final StatementCounter statementCounter = new StatementCounter();
+
+    @Test
+    public void testInspect_CountsOnlyBetweenStartAndStop() {
+        statementCounter.inspect("select 1");
+
+        statementCounter.start();
+        assertEquals("select 1", statementCounter.inspect("select 1"));
+        statementCounter.inspect("select 2");
+
+        assertEquals(2, statementCounter.stop());
+        assertEquals(0, statementCounter.stop());
+    }
+
+    @Test
+    public void testStart_CountsPerThread() throws Exception {
+        statementCounter.start();
+
+        Thread other = new Thread(() -> statementCounter.inspect("select 1"));
+        other.start();
+        other.join();
+
+        assertEquals(0, statementCounter.stop());
+    }
+
+    @Test
+    public void testResume_CountsInAnotherThread() throws Exception {
+        AtomicInteger count = statementCounter.start();
+
+        Thread other = new Thread(() -> {
+            statementCounter.resume(count);
+            statementCounter.inspect("select 1");
+            statementCounter.suspend();
+        });
+        other.start();
+        other.join();
+
+        assertEquals(1, statementCounter.stop());
+    }
+}
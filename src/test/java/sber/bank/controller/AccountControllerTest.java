@@ -1,30 +1,83 @@
 package sber.bank.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import sber.bank.domain.Account;
 import sber.bank.domain.User;
+import sber.bank.dto.AccountResponse;
+import sber.bank.dto.TransferRequest;
 import sber.bank.exceptions.BadArgumentException;
 import sber.bank.exceptions.NotFoundException;
 import sber.bank.service.implementation.AccountService;
+import sber.bank.validation.PipelineValidator;
 import sber.bank.validation.Validation;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 class AccountControllerTest {
     @Mock
     private AccountService accountService;
 
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     @InjectMocks
     private AccountController accountController;
 
+    private MockMvc mockMvc;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        mockMvc = MockMvcBuilders.standaloneSetup(accountController).setValidator(new PipelineValidator()).build();
+    }
+
+    @Test
+    void getBalance_AsOf_ReturnsBalanceAtMoment() throws Exception {
+        Instant asOf = Instant.parse("2024-01-01T00:00:00Z");
+        when(accountService.getBalance(1001001001001001L, asOf)).thenReturn(250.5);
+
+        mockMvc.perform(get("/api/account/1001001001001001/balance").param("asOf", "2024-01-01T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("250.5"));
+    }
+
+    @Test
+    void getBalance_FutureAsOf_ThrowsBadArgumentException() {
+        Instant asOf = Instant.now().plusSeconds(3600);
+
+        assertThrows(BadArgumentException.class, () -> accountController.getBalance(1001001001001001L, asOf));
+        verify(accountService, never()).getBalance(any(), any());
+    }
+
+    @Test
+    void getBalance_MissingAsOf_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/account/1001001001001001/balance"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -42,12 +95,10 @@ class AccountControllerTest {
     }
 
     @Test
-    void createAccount_InvalidAccount_ThrowsBadArgumentException() {
-        // Arrange
-        Account account = new Account();
-
+    void createAccount_InvalidAccount_ReturnsBadRequest() throws Exception {
         // Act & Assert
-        assertThrows(BadArgumentException.class, () -> accountController.createAccount(account));
+        mockMvc.perform(post("/api/account/create").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isBadRequest());
         verifyNoInteractions(accountService);
     }
 
@@ -78,8 +129,35 @@ class AccountControllerTest {
         Account account = new Account(1234567890L, new User(), "USD", 1000.0);;
 
         // Act & Assert
-        assertDoesNotThrow(() -> accountController.updateAccount(number, account));
-        verify(accountService, times(1)).update(number, account);
+        account.setVersion(1L);
+        when(accountService.update(number, account, null)).thenReturn(account);
+
+        ResponseEntity<Void> response = assertDoesNotThrow(() -> accountController.updateAccount(number, null, account));
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        assertEquals("\"1\"", response.getHeaders().getETag());
+        verify(accountService, times(1)).update(number, account, null);
+    }
+
+    @Test
+    void updateAccount_IfMatchHeader_PassesExpectedVersion() {
+        Long number = 1001001001001001L;
+        Account account = new Account(1234567890L, new User(), "USD", 1000.0);
+        account.setVersion(8L);
+        when(accountService.update(number, account, 7L)).thenReturn(account);
+
+        ResponseEntity<Void> response = accountController.updateAccount(number, "\"7\"", account);
+
+        assertEquals("\"8\"", response.getHeaders().getETag());
+        verify(accountService, times(1)).update(number, account, 7L);
+    }
+
+    @Test
+    void updateAccount_MalformedIfMatchHeader_ThrowsBadArgumentException() {
+        Long number = 1001001001001001L;
+        Account account = new Account(1234567890L, new User(), "USD", 1000.0);
+
+        assertThrows(BadArgumentException.class, () -> accountController.updateAccount(number, "\"abc\"", account));
+        verifyNoInteractions(accountService);
     }
 
     @Test
@@ -89,18 +167,184 @@ class AccountControllerTest {
         Account account = new Account();
 
         // Act & Assert
-        assertThrows(BadArgumentException.class, () -> accountController.updateAccount(number, account));
+        assertThrows(BadArgumentException.class, () -> accountController.updateAccount(number, null, account));
+        verifyNoInteractions(accountService);
+    }
+
+    @Test
+    void updateAccount_InvalidAccount_ReturnsBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(put("/api/account/update/1001001001001001").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isBadRequest());
         verifyNoInteractions(accountService);
     }
 
     @Test
-    void updateAccount_InvalidAccount_ThrowsBadArgumentException() {
+    void updateAccount_BodyWithoutBalance_PassesBalanceAsNotSpecified() throws Exception {
         // Arrange
-        Long number = 123L;
-        Account account = new Account();
+        Account updated = new Account(1001001001001001L, new User(2L, null, null, null), "USD", 1000.0);
+        updated.setVersion(1L);
+        when(accountService.update(eq(1001001001001001L), any(), isNull())).thenReturn(updated);
 
-        // Act & Assert
-        assertThrows(BadArgumentException.class, () -> accountController.updateAccount(number, account));
+        // Act
+        mockMvc.perform(put("/api/account/update/1001001001001001").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"user\":{\"id\":2},\"currency\":\"USD\"}"))
+                .andExpect(status().isNoContent());
+
+        // Assert
+        ArgumentCaptor<Account> detail = ArgumentCaptor.forClass(Account.class);
+        verify(accountService).update(eq(1001001001001001L), detail.capture(), isNull());
+        assertFalse(detail.getValue().isBalanceSpecified());
+    }
+
+    @Test
+    void getAccount_ReturnsETag_AcceptedAsIfMatchOnUpdate() throws Exception {
+        // Arrange
+        when(accountService.getResponse(1001001001001001L))
+                .thenReturn(new AccountResponse(1001001001001001L, 2L, "USD", 100000L, 3L));
+        Account updated = new Account(1001001001001001L, new User(2L, null, null, null), "USD", 1000.0);
+        updated.setVersion(4L);
+        when(accountService.update(eq(1001001001001001L), any(), eq(3L))).thenReturn(updated);
+
+        // Act
+        String eTag = mockMvc.perform(get("/api/account/1001001001001001"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Assert
+        assertEquals("\"3\"", eTag);
+        mockMvc.perform(put("/api/account/update/1001001001001001").header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"user\":{\"id\":2},\"currency\":\"USD\"}"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+        verify(accountService).update(eq(1001001001001001L), any(), eq(3L));
+    }
+
+    @Test
+    void transfer_ValidRequest_PassesAmountInMinorUnits() {
+        TransferRequest transfer = new TransferRequest(1001001001001001L, 2002002002002002L, 100.5);
+
+        assertDoesNotThrow(() -> accountController.transfer(transfer));
+        verify(accountService, times(1)).transfer(1001001001001001L, 2002002002002002L, 10050L);
+    }
+
+    @Test
+    void transfer_InvalidAmount_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/account/transfer").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"from\":1001001001001001,\"to\":2002002002002002,\"amount\":-1.0}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/account/transfer").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"from\":1001001001001001,\"to\":2002002002002002}"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(accountService);
+    }
+
+    @Test
+    void transfer_InvalidAccountNumber_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/account/transfer").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"to\":2002002002002002,\"amount\":1.0}"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(accountService);
+    }
+
+    @Test
+    void deposit_ValidRequest_PassesAmountInMinorUnits() throws Exception {
+        mockMvc.perform(post("/api/account/1001001001001001/deposit").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":100.5}"))
+                .andExpect(status().isOk());
+
+        verify(accountService, times(1)).deposit(1001001001001001L, 10050L);
+    }
+
+    @Test
+    void withdraw_InvalidAmount_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/account/1001001001001001/withdrawal").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":0}"))
+                .andExpect(status().isBadRequest());
         verifyNoInteractions(accountService);
     }
-}
\ No newline at end of file
+
+    @Test
+    void createAccounts_ValidAccounts_ReturnsCount() {
+        // Arrange
+        List<Account> accounts = List.of(
+                new Account(1234567890123456L, new User(), "USD", 1000.0),
+                new Account(1234567890123457L, new User(), "EUR", 500.0));
+        when(accountService.createAll(accounts)).thenReturn(2);
+
+        // Act
+        int result = accountController.createAccounts(accounts);
+
+        // Assert
+        assertEquals(2, result);
+        verify(accountService, times(1)).createAll(accounts);
+    }
+
+    @Test
+    void createAccounts_InvalidAccount_ReturnsBadRequest() throws Exception {
+        // Arrange
+        String accounts = "[{\"number\":1234567890123456,\"user\":{\"id\":1},\"currency\":\"USD\"},"
+                          + "{\"number\":1234567890123457,\"currency\":\"EUR\"}]";
+
+        // Act & Assert
+        mockMvc.perform(post("/api/account/batch").contentType(MediaType.APPLICATION_JSON).content(accounts))
+                .andExpect(status().isBadRequest());
+        verify(accountService, never()).createAll(any());
+    }
+
+    @Test
+    void createAccounts_EmptyList_ThrowsBadArgumentException() {
+        // Act & Assert
+        assertThrows(BadArgumentException.class, () -> accountController.createAccounts(List.of()));
+        verify(accountService, never()).createAll(any());
+    }
+
+    @Test
+    void createAccountsStream_ValidLines_ReturnsCount() {
+        // Arrange
+        String body = """
+                {"number":1234567890123456,"user":{"id":1},"currency":"USD","balance":10.5}
+                {"number":1234567890123457,"user":{"id":2},"currency":"EUR","balance":0}
+                """;
+        when(accountService.createAllStream(any())).thenAnswer(invocation -> consume(invocation.getArgument(0)));
+
+        // Act
+        int result = accountController.createAccountsStream(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        // Assert
+        assertEquals(2, result);
+    }
+
+    @Test
+    void createAccountsStream_InvalidLine_ThrowsBadArgumentException() {
+        // Arrange
+        String body = """
+                {"number":1234567890123456,"user":{"id":1},"currency":"USD","balance":10.5}
+                {"number":1234567890123457,"currency":"EUR","balance":0}
+                """;
+        when(accountService.createAllStream(any())).thenAnswer(invocation -> consume(invocation.getArgument(0)));
+
+        // Act & Assert
+        assertThrows(BadArgumentException.class,
+                () -> accountController.createAccountsStream(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    void createAccountsStream_MalformedJson_ThrowsBadArgumentException() {
+        // Arrange
+        String body = "{\"number\":1234567890123456,\n";
+        when(accountService.createAllStream(any())).thenAnswer(invocation -> consume(invocation.getArgument(0)));
+
+        // Act & Assert
+        assertThrows(BadArgumentException.class,
+                () -> accountController.createAccountsStream(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private static int consume(Iterable<Account> accounts) {
+        int count = 0;
+        for (Account ignored : accounts) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,96 @@
+package sber.bank.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkheadFilterTest {
+    private MeterRegistry meterRegistry;
+
+    private BulkheadFilter filter;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new BulkheadFilter(1, 0, meterRegistry);
+    }
+
+    @Test
+    public void testDoFilter_PassesRequestWithinLimit() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest(), response, chain);
+
+        assertNotNull(chain.getRequest());
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertEquals(1.0, meterRegistry.get("bank.bulkhead.available").gauge().value());
+    }
+
+    @Test
+    public void testDoFilter_RejectsRequestOverLimit() throws Exception {
+        MockHttpServletResponse rejectedResponse = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain(new MockFilterServlet(), (request, response, next) -> {
+            assertEquals(0.0, meterRegistry.get("bank.bulkhead.available").gauge().value());
+            filter.doFilter(new MockHttpServletRequest(), rejectedResponse, new MockFilterChain());
+        });
+
+        filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), chain);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), rejectedResponse.getStatus());
+        assertEquals("1", rejectedResponse.getHeader("Retry-After"));
+        assertEquals(1.0, meterRegistry.get("bank.bulkhead.rejected").counter().count());
+        assertEquals(1.0, meterRegistry.get("bank.bulkhead.available").gauge().value());
+    }
+
+    @Test
+    public void testDoFilter_ReleasesPermitWhenChainFails() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        MockFilterChain failingChain = new MockFilterChain(new MockFilterServlet(), (request, response, next) -> {
+            calls.incrementAndGet();
+            throw new ServletException("Ошибка обработки");
+        });
+
+        assertThrows(ServletException.class,
+                () -> filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), failingChain));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(), response, new MockFilterChain());
+
+        assertEquals(1, calls.get());
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+    }
+
+    @Test
+    public void testDoFilter_HoldsPermitUntilAsyncProcessingCompletes() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+        MockFilterChain asyncChain = new MockFilterChain(new MockFilterServlet(),
+                (req, res, next) -> req.startAsync());
+
+        filter.doFilter(request, new MockHttpServletResponse(), asyncChain);
+
+        assertEquals(0.0, meterRegistry.get("bank.bulkhead.available").gauge().value());
+
+        request.getAsyncContext().complete();
+
+        assertEquals(1.0, meterRegistry.get("bank.bulkhead.available").gauge().value());
+    }
+
+    /**
+     * Сервлет-заглушка, завершающая цепочку фильтров.
+     */
+    private static class MockFilterServlet extends HttpServlet {
+    }
+}
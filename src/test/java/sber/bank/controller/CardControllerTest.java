@@ -1,33 +1,55 @@
 package sber.bank.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import sber.bank.domain.Account;
 import sber.bank.domain.Card;
 import sber.bank.domain.User;
+import sber.bank.dto.CardResponse;
 import sber.bank.exceptions.BadArgumentException;
 import sber.bank.exceptions.NotFoundException;
 import sber.bank.service.implementation.CardService;
+import sber.bank.validation.PipelineValidator;
 import sber.bank.validation.Validation;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class CardControllerTest {
     @Mock
     private CardService cardService;
 
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     @InjectMocks
     private CardController cardController;
 
+    private MockMvc mockMvc;
+
     @BeforeEach
     public void setup() {
         MockitoAnnotations.openMocks(this);
+        mockMvc = MockMvcBuilders.standaloneSetup(cardController).setValidator(new PipelineValidator()).build();
     }
 
     @Test
@@ -43,18 +65,27 @@ public class CardControllerTest {
     }
 
     @Test
-    public void testCreateCard_ShouldThrowBadArgumentException_WhenCardDataIsInvalid() {
-        Card card = new Card(null, null, null, null);
-
-        assertThrows(BadArgumentException.class, () -> cardController.createCard(card));
-        verify(cardService, never()).create(card);
+    public void testCreateCard_ShouldReturnBadRequest_WhenCardDataIsInvalid() throws Exception {
+        mockMvc.perform(post("/api/card/create").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isBadRequest());
+        verify(cardService, never()).create(any());
     }
 
     @Test
     public void testDeleteCard_ShouldCallCardServiceDeleteMethod_WhenCardNumberIsValid() {
-        Long cardNumber = 123456789012345L;
+        Long cardNumber = 4111111111111111L;
+
+        cardController.deleteCard(cardNumber);
+
+        verify(cardService, times(1)).delete(cardNumber);
+    }
 
-        assertThrows(BadArgumentException.class, ()-> cardController.deleteCard(cardNumber));
+    @Test
+    public void testDeleteCard_ShouldThrowBadArgumentException_WhenChecksumIsInvalid() {
+        Long cardNumber = 4111111111111112L;
+
+        assertThrows(BadArgumentException.class, () -> cardController.deleteCard(cardNumber));
+        verify(cardService, never()).delete(cardNumber);
     }
 
     @Test
@@ -66,10 +97,14 @@ public class CardControllerTest {
 
     @Test
     public void testUpdateCard_ShouldCallCardServiceUpdateMethod_WhenCardNumberAndCardDetailsAreValid() {
-        Long cardNumber = 123456789012345L;
-        Card cardDetail = new Card(123456789012345L, null, new Date(), 123);
+        Long cardNumber = 4111111111111111L;
+        Card cardDetail = new Card(cardNumber, new Account(1234567890123456L, null, null, 0.0), new Date(), 123);
+        cardDetail.setVersion(1L);
 
-        assertThrows(BadArgumentException.class, () -> cardController.updateCard(cardNumber, cardDetail));
+        when(cardService.update(cardNumber, cardDetail, null)).thenReturn(cardDetail);
+
+        assertEquals("\"1\"", cardController.updateCard(cardNumber, null, cardDetail).getHeaders().getETag());
+        verify(cardService, times(1)).update(cardNumber, cardDetail, null);
     }
 
     @Test
@@ -77,16 +112,79 @@ public class CardControllerTest {
         Long cardNumber = -1L;
         Card cardDetail = new Card(1234567890123456L, null, new Date(), 123);
 
-        assertThrows(BadArgumentException.class, () -> cardController.updateCard(cardNumber, cardDetail));
-        verify(cardService, never()).update(cardNumber, cardDetail);
+        assertThrows(BadArgumentException.class, () -> cardController.updateCard(cardNumber, null, cardDetail));
+        verify(cardService, never()).update(cardNumber, cardDetail, null);
+    }
+
+    @Test
+    public void testUpdateCard_ShouldReturnBadRequest_WhenCardDetailsAreInvalid() throws Exception {
+        mockMvc.perform(put("/api/card/update/4111111111111111").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isBadRequest());
+        verify(cardService, never()).update(any(), any(), any());
+    }
+
+    @Test
+    public void testGetCard_ShouldReturnETag_AcceptedAsIfMatchOnUpdate() throws Exception {
+        when(cardService.getResponse(4111111111111111L))
+                .thenReturn(new CardResponse(4111111111111111L, 1001001001001001L, new Date(), 123, 3L));
+        Card updated = new Card(4111111111111111L, new Account(1001001001001001L, new User(), "USD", 0.0), new Date(), 123);
+        updated.setVersion(4L);
+        when(cardService.update(eq(4111111111111111L), any(), eq(3L))).thenReturn(updated);
+
+        String eTag = mockMvc.perform(get("/api/card/4111111111111111"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertEquals("\"3\"", eTag);
+        mockMvc.perform(put("/api/card/update/4111111111111111").header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"account\":{\"number\":1001001001001001},\"expirationDate\":\"2030-01-01\",\"cvv\":123}"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+        verify(cardService).update(eq(4111111111111111L), any(), eq(3L));
+    }
+
+    @Test
+    public void testCreateCards_ShouldReturnCount_WhenCardsAreValid() {
+        Account account = new Account(1234567890123456L, new User(), "USD", 1000.0);
+        List<Card> cards = List.of(
+                new Card(1234567890123456L, account, new Date(), 123),
+                new Card(1234567890123457L, account, new Date(), 456));
+
+        when(cardService.createAll(cards)).thenReturn(2);
+
+        assertEquals(2, cardController.createCards(cards));
+        verify(cardService, times(1)).createAll(cards);
     }
 
     @Test
-    public void testUpdateCard_ShouldThrowBadArgumentException_WhenCardDetailsAreInvalid() {
-        Long cardNumber = 1234567890123456L;
-        Card cardDetail = new Card(null, null, null, null);
+    public void testCreateCards_ShouldReturnBadRequest_WhenOneCardIsInvalid() throws Exception {
+        String cards = "[{\"number\":4111111111111111,\"account\":{\"number\":1234567890123456},"
+                       + "\"expirationDate\":0,\"cvv\":123},{}]";
 
-        assertThrows(BadArgumentException.class, () -> cardController.updateCard(cardNumber, cardDetail));
-        verify(cardService, never()).update(cardNumber, cardDetail);
+        mockMvc.perform(post("/api/card/batch").contentType(MediaType.APPLICATION_JSON).content(cards))
+                .andExpect(status().isBadRequest());
+        verify(cardService, never()).createAll(any());
+    }
+
+    @Test
+    public void testCreateCardsStream_ShouldReadEveryLine() {
+        String body = """
+                {"number":1234567890123456,"account":{"number":1001001001001001},"expirationDate":"2030-01-01","cvv":123}
+                {"number":1234567890123457,"account":{"number":1001001001001001},"expirationDate":"2030-01-01","cvv":456}
+                {"number":1234567890123458,"account":{"number":1001001001001001},"expirationDate":"2030-01-01","cvv":789}
+                """;
+
+        when(cardService.createAllStream(any())).thenAnswer(invocation -> {
+            int count = 0;
+            for (Card ignored : invocation.<Iterable<Card>>getArgument(0)) {
+                count++;
+            }
+            return count;
+        });
+
+        int result = cardController.createCardsStream(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(3, result);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,33 @@
+package sber.bank.controller;
+
+import org.junit.jupiter.api.Test;
+import sber.bank.exceptions.BadArgumentException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ETagsTest {
+
+    @Test
+    void of_ReturnsQuotedVersion() {
+        assertEquals("\"3\"", ETags.of(3L));
+    }
+
+    @Test
+    void parseVersion_AcceptsStrongWeakAndBareValues() {
+        assertEquals(3L, ETags.parseVersion("\"3\""));
+        assertEquals(3L, ETags.parseVersion("W/\"3\""));
+        assertEquals(3L, ETags.parseVersion(" 3 "));
+    }
+
+    @Test
+    void parseVersion_MissingOrWildcard_ReturnsNull() {
+        assertNull(ETags.parseVersion(null));
+        assertNull(ETags.parseVersion(""));
+        assertNull(ETags.parseVersion("*"));
+    }
+
+    @Test
+    void parseVersion_Malformed_ThrowsBadArgumentException() {
+        assertThrows(BadArgumentException.class, () -> ETags.parseVersion("\"v1\""));
+    }
+}
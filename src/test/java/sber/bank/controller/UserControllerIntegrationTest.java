@@ -0,0 +1,60 @@
+package sber.bank.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import sber.bank.dto.UserResponse;
+import sber.bank.service.implementation.UserService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Проверяет запросы к пользователям на собранном приложении, без транзакции теста вокруг запроса:
+ * данные, записанные запросом, должны быть зафиксированы в базе.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class UserControllerIntegrationTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    public void testCreateUser_IsCommitted() throws Exception {
+        String name = "Созданный Запросом Пользователь";
+
+        mockMvc.perform(post("/api/user/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"" + name + "\",\"birthdate\":\"2000-01-01\",\"address\":\"ул. Ленина, д. 1\"}"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("true"));
+
+        UserResponse created = userService.getAllResponses().stream()
+                .filter(user -> name.equals(user.name()))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Созданный пользователь не сохранен"));
+
+        try {
+            assertEquals("ул. Ленина, д. 1", created.address());
+            assertEquals(0L, created.version());
+            mockMvc.perform(get("/api/user/" + created.id()))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+        } finally {
+            userService.delete(created.id());
+        }
+    }
+}
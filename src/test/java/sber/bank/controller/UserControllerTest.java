@@ -1,52 +1,121 @@
 package sber.bank.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import sber.bank.domain.Account;
+import org.mockito.Spy;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import sber.bank.domain.User;
+import sber.bank.dto.AccountResponse;
+import sber.bank.dto.UserResponse;
 import sber.bank.exceptions.BadArgumentException;
 import sber.bank.exceptions.NotFoundException;
 import sber.bank.service.implementation.UserService;
+import sber.bank.validation.PipelineValidator;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class UserControllerTest {
     @Mock
     private UserService userService;
 
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     @InjectMocks
     private UserController userController;
 
+    private MockMvc mockMvc;
+
     @BeforeEach
     public void setup() {
         MockitoAnnotations.openMocks(this);
+        mockMvc = MockMvcBuilders.standaloneSetup(userController).setValidator(new PipelineValidator()).build();
     }
 
     @Test
     public void testGetAllUsers() {
-        List<User> expectedUsers = getAllUsers();
-        when(userService.getAll()).thenReturn(expectedUsers);
+        List<UserResponse> expectedUsers = getAllUsers();
+        when(userService.getAllResponses()).thenReturn(expectedUsers);
+
+        List<UserResponse> actualUsers = userController.getAllUsers();
+
+        assertEquals(expectedUsers, actualUsers);
+        verify(userService, times(1)).getAllResponses();
+    }
+
+    @Test
+    public void testGetUsersPage_ValidParameters_ReturnsPage() {
+        List<UserResponse> expectedUsers = getAllUsers();
+        when(userService.getPage(0L, 2)).thenReturn(expectedUsers);
 
-        Iterable<User> actualUsers = userController.getAllUsers();
+        List<UserResponse> actualUsers = userController.getUsersPage(0L, 2);
 
-        assertIterableEquals(expectedUsers, actualUsers);
-        verify(userService, times(1)).getAll();
+        assertEquals(expectedUsers, actualUsers);
+        verify(userService, times(1)).getPage(0L, 2);
+    }
+
+    @Test
+    public void testGetUsersPage_InvalidLimit_ThrowsBadArgumentException() {
+        assertThrows(BadArgumentException.class, () -> userController.getUsersPage(0L, 0));
+        assertThrows(BadArgumentException.class, () -> userController.getUsersPage(0L, 100_000));
+        verify(userService, never()).getPage(anyLong(), anyInt());
+    }
+
+    @Test
+    public void testGetUsersPage_InvalidAfterId_ThrowsBadArgumentException() {
+        assertThrows(BadArgumentException.class, () -> userController.getUsersPage(-1L, 10));
+        verify(userService, never()).getPage(anyLong(), anyInt());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStreamAllUsers_WritesOneJsonObjectPerLine() throws Exception {
+        List<UserResponse> expectedUsers = getAllUsers();
+        doAnswer(invocation -> {
+            expectedUsers.forEach(invocation.getArgument(0, Consumer.class));
+            return null;
+        }).when(userService).forEach(any());
+
+        ResponseEntity<StreamingResponseBody> response = userController.streamAllUsers();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        response.getBody().writeTo(outputStream);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(expectedUsers.size(), lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            assertEquals(expectedUsers.get(i).id(), objectMapper.readValue(lines[i], User.class).getId());
+        }
     }
 
     @Test
     public void testGetUserAccounts_ValidId_ReturnsListOfAccounts() {
         Long userId = 1L;
-        List<Account> expectedAccounts = getAllAccounts();
+        List<AccountResponse> expectedAccounts = getAllAccounts();
         when(userService.getAccounts(userId)).thenReturn(expectedAccounts);
 
-        List<Account> actualAccounts = userController.getUserAccounts(userId);
+        List<AccountResponse> actualAccounts = userController.getUserAccounts(userId);
 
         assertEquals(expectedAccounts, actualAccounts);
         verify(userService, times(1)).getAccounts(userId);
@@ -92,7 +161,7 @@ public class UserControllerTest {
         double expectedOverallBalance = 5000.0;
         when(userService.getOverallBalance(userId)).thenReturn(expectedOverallBalance);
 
-        double actualOverallBalance = userController.getOverallBalance(userId);
+        double actualOverallBalance = userController.getOverallBalance(userId, null);
 
         assertEquals(expectedOverallBalance, actualOverallBalance);
         verify(userService, times(1)).getOverallBalance(userId);
@@ -102,16 +171,35 @@ public class UserControllerTest {
     public void testGetOverallBalance_InvalidId_ThrowsBadArgumentException() {
         Long userId = -1L;
 
-        assertThrows(BadArgumentException.class, () -> userController.getOverallBalance(userId));
+        assertThrows(BadArgumentException.class, () -> userController.getOverallBalance(userId, null));
         verify(userService, never()).getOverallBalance(userId);
     }
 
+    @Test
+    public void testGetOverallBalance_AsOf_ReturnsBalanceAtMoment() throws Exception {
+        Instant asOf = Instant.parse("2024-01-01T00:00:00Z");
+        when(userService.getOverallBalance(1L, asOf)).thenReturn(1500.0);
+
+        mockMvc.perform(get("/api/user/1/balance").param("asOf", "2024-01-01T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("1500.0"));
+        verify(userService, never()).getOverallBalance(1L);
+    }
+
+    @Test
+    public void testGetOverallBalance_FutureAsOf_ThrowsBadArgumentException() {
+        Instant asOf = Instant.now().plusSeconds(3600);
+
+        assertThrows(BadArgumentException.class, () -> userController.getOverallBalance(1L, asOf));
+        verify(userService, never()).getOverallBalance(1L, asOf);
+    }
+
     @Test
     public void testGetOverallBalance_UserNotFound_ThrowsNotFoundException() {
         Long userId = 1L;
         when(userService.getOverallBalance(userId)).thenThrow(NotFoundException.class);
 
-        assertThrows(NotFoundException.class, () -> userController.getOverallBalance(userId));
+        assertThrows(NotFoundException.class, () -> userController.getOverallBalance(userId, null));
         verify(userService, times(1)).getOverallBalance(userId);
     }
 
@@ -145,24 +233,48 @@ public class UserControllerTest {
         Long userId = -1L;
         User userDetail = new User(1L, "John Doe", null, "456 Elm St, Town");
 
-        assertThrows(BadArgumentException.class, () -> userController.updateUser(userId, userDetail));
-        verify(userService, never()).update(userId, userDetail);
+        assertThrows(BadArgumentException.class, () -> userController.updateUser(userId, null, userDetail));
+        verify(userService, never()).update(userId, userDetail, null);
     }
 
     @Test
-    void updateUser_ShouldThrowBadArgumentException_WhenUserDetailsAreInvalid() {
-        Long userId = 1L;
-        User userDetail = new User(1L, null, null, null);
+    void updateUser_ShouldReturnBadRequest_WhenUserDetailsAreInvalid() throws Exception {
+        mockMvc.perform(put("/api/user/update/1").contentType(MediaType.APPLICATION_JSON).content("{\"id\":1}"))
+                .andExpect(status().isBadRequest());
+        verify(userService, never()).update(any(), any(), any());
+    }
 
-        assertThrows(BadArgumentException.class, () -> userController.updateUser(userId, userDetail));
-        verify(userService, never()).update(userId, userDetail);
+    @Test
+    void getUser_ShouldReturnETag_AcceptedAsIfMatchOnUpdate() throws Exception {
+        when(userService.getResponse(1L)).thenReturn(new UserResponse(1L, "John Smith", null, "123 Main St, City", 3L));
+        User updated = new User(1L, "John Smith", null, "456 Elm St, Town");
+        updated.setVersion(4L);
+        when(userService.update(eq(1L), any(), eq(3L))).thenReturn(updated);
+
+        String eTag = mockMvc.perform(get("/api/user/1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertEquals("\"3\"", eTag);
+        mockMvc.perform(put("/api/user/update/1").header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"John Smith\",\"birthdate\":\"2000-01-01\",\"address\":\"ул. Ленина, д. 1\"}"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+        verify(userService).update(eq(1L), any(), eq(3L));
+    }
+
+    @Test
+    void getUser_ShouldThrowBadArgumentException_WhenUserIdIsInvalid() {
+        assertThrows(BadArgumentException.class, () -> userController.getUser(-1L));
+        verify(userService, never()).getResponse(any());
     }
 
-    private List<User> getAllUsers() {
-        List<User> users = new ArrayList<>();
+    private List<UserResponse> getAllUsers() {
+        List<UserResponse> users = new ArrayList<>();
 
-        User user1 = new User(1L, "John Smith", null, "123 Main St, City");
-        User user2 = new User(2L, "Jane Doe", null, "456 Elm St, Town");
+        UserResponse user1 = new UserResponse(1L, "John Smith", null, "123 Main St, City", 0L);
+        UserResponse user2 = new UserResponse(2L, "Jane Doe", null, "456 Elm St, Town", 0L);
 
         users.add(user1);
         users.add(user2);
@@ -170,15 +282,15 @@ public class UserControllerTest {
         return users;
     }
 
-    private List<Account> getAllAccounts() {
-        List<Account> accounts = new ArrayList<>();
+    private List<AccountResponse> getAllAccounts() {
+        List<AccountResponse> accounts = new ArrayList<>();
 
-        Account account1 = new Account(1001001001001001L, new User(1L, "John Smith", null, "123 Main St, City"), "USD", 5000.0);
-        Account account2 = new Account(2002002002002002L, new User(1L, "John Smith", null, "123 Main St, City"), "EUR", 3000.0);
+        AccountResponse account1 = new AccountResponse(1001001001001001L, 1L, "USD", 500000L, 0L);
+        AccountResponse account2 = new AccountResponse(2002002002002002L, 1L, "EUR", 300000L, 0L);
 
         accounts.add(account1);
         accounts.add(account2);
 
         return accounts;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,51 @@
+package sber.bank.domain;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoneyTest {
+
+    @Test
+    public void testToMinor_RoundsToNearestMinorUnit() {
+        assertEquals(500000L, Money.toMinor(5000.0));
+        assertEquals(10L, Money.toMinor(0.1));
+        assertEquals(30L, Money.toMinor(0.1 + 0.2));
+        assertEquals(-1999L, Money.toMinor(-19.99));
+    }
+
+    @Test
+    public void testToMinor_NotFinite_ThrowsArithmeticException() {
+        assertThrows(ArithmeticException.class, () -> Money.toMinor(Double.NaN));
+        assertThrows(ArithmeticException.class, () -> Money.toMinor(Double.POSITIVE_INFINITY));
+        assertThrows(ArithmeticException.class, () -> Money.toMinor(1e300));
+    }
+
+    @Test
+    public void testToMajor_ReturnsAmountInCurrencyUnits() {
+        assertEquals(5000.0, Money.toMajor(500000L));
+        assertEquals(0.01, Money.toMajor(1L));
+    }
+
+    @Test
+    public void testAdd_IsExact() {
+        long total = 0;
+        for (int i = 0; i < 1000; i++) {
+            total = Money.add(total, Money.toMinor(0.1));
+        }
+
+        assertEquals(10000L, total);
+    }
+
+    @Test
+    public void testAddAndSubtract_Overflow_ThrowsArithmeticException() {
+        assertThrows(ArithmeticException.class, () -> Money.add(Long.MAX_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> Money.subtract(Long.MIN_VALUE, 1));
+    }
+
+    @Test
+    public void testConvert_AppliesRateAndRounds() {
+        assertEquals(9000L, Money.convert(100L, 90.0));
+        assertEquals(33L, Money.convert(100L, 1.0 / 3.0));
+    }
+}
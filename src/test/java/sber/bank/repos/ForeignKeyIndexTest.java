@@ -0,0 +1,67 @@
+package sber.bank.repos;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет по плану выполнения (EXPLAIN), что частые запросы по внешним ключам используют индексы из миграции.
+ * H2 сам создает индексы для внешних ключей, а PostgreSQL нет, поэтому проверяется не только отсутствие
+ * полного просмотра таблицы, но и то, что индексы из миграции существуют и построены по нужным столбцам.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class ForeignKeyIndexTest {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testFindCardsByAccount_UsesMigrationIndex() {
+        String plan = explain("select * from card where account_number = 1001001001001001");
+
+        assertTrue(plan.contains("idx_card_account_number"), plan);
+    }
+
+    @Test
+    public void testFindAccountsByUser_UsesIndex() {
+        String plan = explain("select * from account where user_id = 1");
+
+        // H2 выбирает собственный индекс внешнего ключа; в PostgreSQL запрос обслуживает индекс из миграции.
+        assertFalse(plan.contains("tableScan"), plan);
+        assertTrue(indexExists("idx_account_user_currency_balance"));
+    }
+
+    @Test
+    public void testSumBalanceByCurrency_UsesCoveringIndex() {
+        String plan = explain("select currency, sum(balance) from account where user_id = 1 group by currency");
+
+        assertTrue(plan.contains("idx_account_user_currency_balance"), plan);
+    }
+
+    @Test
+    public void testMigrationIndexes_CoverForeignKeyColumns() {
+        assertEquals(List.of("account_number"), indexColumns("idx_card_account_number"));
+        assertEquals(List.of("user_id", "currency", "balance"), indexColumns("idx_account_user_currency_balance"));
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("explain " + sql, String.class);
+    }
+
+    private boolean indexExists(String index) {
+        return jdbcTemplate.queryForObject("select count(*) from information_schema.indexes where index_name = ?",
+                Integer.class, index) > 0;
+    }
+
+    private List<String> indexColumns(String index) {
+        return jdbcTemplate.queryForList(
+                "select column_name from information_schema.index_columns where index_name = ? order by ordinal_position",
+                String.class, index);
+    }
+}
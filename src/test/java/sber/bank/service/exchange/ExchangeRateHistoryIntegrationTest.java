@@ -0,0 +1,64 @@
+package sber.bank.service.exchange;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.annotation.Transactional;
+import sber.bank.exceptions.BadArgumentException;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет выбор курса по дате и запись изменившихся текущих курсов в историю.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class ExchangeRateHistoryIntegrationTest {
+    @Autowired
+    private ExchangeRateHistory exchangeRateHistory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterTransaction
+    public void reload() {
+        exchangeRateHistory.refresh();
+    }
+
+    @Test
+    public void testGetRate_ReturnsRateInEffectOnDate() {
+        jdbcTemplate.update("insert into exchange_rate (currency, valid_from, rate) values ('USD', date '2024-01-01', 70.0)");
+
+        exchangeRateHistory.refresh();
+
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        assertEquals(90.0, exchangeRateHistory.getRate("USD", LocalDate.of(2023, 12, 31)));
+        assertEquals(70.0, exchangeRateHistory.getRate("USD", LocalDate.of(2024, 1, 1)));
+        assertEquals(70.0, exchangeRateHistory.getRate("USD", LocalDate.of(2024, 6, 30)));
+        assertEquals(90.0, exchangeRateHistory.getRate("USD", today));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "select count(*) from exchange_rate where currency = 'USD' and valid_from = ?", Integer.class, today));
+    }
+
+    @Test
+    public void testRefresh_UnchangedRates_RecordsNothing() {
+        Integer before = jdbcTemplate.queryForObject("select count(*) from exchange_rate", Integer.class);
+
+        exchangeRateHistory.refresh();
+
+        assertEquals(before, jdbcTemplate.queryForObject("select count(*) from exchange_rate", Integer.class));
+    }
+
+    @Test
+    public void testGetRate_DateBeforeHistory_ThrowsBadArgumentException() {
+        assertThrows(BadArgumentException.class, () -> exchangeRateHistory.getRate("EUR", LocalDate.of(1999, 1, 1)));
+        assertThrows(BadArgumentException.class, () -> exchangeRateHistory.getRate("GBP", LocalDate.of(2024, 1, 1)));
+    }
+}
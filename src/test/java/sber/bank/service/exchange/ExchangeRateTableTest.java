@@ -0,0 +1,55 @@
+package sber.bank.service.exchange;
+
+import org.junit.jupiter.api.Test;
+import sber.bank.exceptions.BadArgumentException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExchangeRateTableTest {
+
+    @Test
+    public void testGetRate_KnownCurrency_ReturnsLoadedRate() {
+        ExchangeRateTable table = new ExchangeRateTable(() -> Map.of("USD", 90.0, "EUR", 100.0));
+
+        assertEquals(90.0, table.getRate("USD"));
+        assertEquals(100.0, table.getRate("EUR"));
+    }
+
+    @Test
+    public void testGetRate_UnknownCurrency_ThrowsBadArgumentException() {
+        ExchangeRateTable table = new ExchangeRateTable(() -> Map.of("RUB", 1.0, "USD", 90.0));
+
+        assertEquals(1.0, table.getRate("RUB"));
+        assertThrows(BadArgumentException.class, () -> table.getRate("GBP"));
+    }
+
+    @Test
+    public void testRefresh_ReplacesRatesWithoutRestart() {
+        Map<String, Double> source = new HashMap<>(Map.of("USD", 90.0));
+        ExchangeRateTable table = new ExchangeRateTable(() -> source);
+
+        source.put("USD", 95.0);
+        assertEquals(90.0, table.getRate("USD"));
+
+        table.refresh();
+        assertEquals(95.0, table.getRate("USD"));
+    }
+
+    @Test
+    public void testRefresh_ProviderFails_KeepsPreviousRates() {
+        AtomicInteger calls = new AtomicInteger();
+        ExchangeRateTable table = new ExchangeRateTable(() -> {
+            if (calls.getAndIncrement() > 0) {
+                throw new IllegalStateException("Источник недоступен");
+            }
+            return Map.of("USD", 90.0);
+        });
+
+        assertDoesNotThrow(table::refresh);
+        assertEquals(90.0, table.getRate("USD"));
+    }
+}
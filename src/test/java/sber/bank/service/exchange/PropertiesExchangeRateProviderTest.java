@@ -0,0 +1,36 @@
+package sber.bank.service.exchange;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PropertiesExchangeRateProviderTest {
+
+    @Test
+    public void testLoadRates_ParsesCurrencyRates() {
+        byte[] content = "USD = 91.5\nEUR=99.25\n".getBytes(StandardCharsets.ISO_8859_1);
+        PropertiesExchangeRateProvider provider = new PropertiesExchangeRateProvider(new ByteArrayResource(content));
+
+        assertEquals(Map.of("USD", 91.5, "EUR", 99.25), provider.loadRates());
+    }
+
+    @Test
+    public void testLoadRates_DefaultFile_ContainsBaseCurrency() {
+        PropertiesExchangeRateProvider provider = new PropertiesExchangeRateProvider(new ClassPathResource("exchange-rates.properties"));
+
+        assertEquals(1.0, provider.loadRates().get("RUB"));
+    }
+
+    @Test
+    public void testLoadRates_MissingFile_ThrowsUncheckedIOException() {
+        PropertiesExchangeRateProvider provider = new PropertiesExchangeRateProvider(new ClassPathResource("missing-rates.properties"));
+
+        assertThrows(UncheckedIOException.class, provider::loadRates);
+    }
+}
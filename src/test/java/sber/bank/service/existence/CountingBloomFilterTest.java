@@ -0,0 +1,91 @@
+package sber.bank.service.existence;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CountingBloomFilterTest {
+    private static final int COUNT = 100_000;
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    @Test
+    public void testMightContain_NoFalseNegatives() {
+        CountingBloomFilter filter = new CountingBloomFilter(COUNT, FALSE_POSITIVE_RATE);
+
+        for (long i = 0; i < COUNT; i++) {
+            filter.put(1_000_000_000_000_000L + i);
+        }
+
+        for (long i = 0; i < COUNT; i++) {
+            assertTrue(filter.mightContain(1_000_000_000_000_000L + i));
+        }
+    }
+
+    @Test
+    public void testMightContain_FalsePositiveRateIsBounded() {
+        CountingBloomFilter filter = new CountingBloomFilter(COUNT, FALSE_POSITIVE_RATE);
+        for (long i = 0; i < COUNT; i++) {
+            filter.put(1_000_000_000_000_000L + i);
+        }
+
+        Random random = new Random(42);
+        int falsePositives = 0;
+        for (int i = 0; i < COUNT; i++) {
+            if (filter.mightContain(2_000_000_000_000_000L + random.nextInt(Integer.MAX_VALUE))) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < COUNT * FALSE_POSITIVE_RATE * 2, "Ложноположительных ответов: " + falsePositives);
+    }
+
+    @Test
+    public void testRemove_ForgetsRemovedAndKeepsOthers() {
+        CountingBloomFilter filter = new CountingBloomFilter(1000, FALSE_POSITIVE_RATE);
+        for (long i = 0; i < 1000; i++) {
+            filter.put(i);
+        }
+
+        for (long i = 0; i < 500; i++) {
+            filter.remove(i);
+        }
+
+        for (long i = 500; i < 1000; i++) {
+            assertTrue(filter.mightContain(i));
+        }
+        long remaining = 0;
+        for (long i = 0; i < 500; i++) {
+            if (filter.mightContain(i)) {
+                remaining++;
+            }
+        }
+        assertTrue(remaining < 50, "Не удалено номеров: " + remaining);
+    }
+
+    @Test
+    public void testPut_ConcurrentWritersLoseNothing() throws InterruptedException {
+        CountingBloomFilter filter = new CountingBloomFilter(COUNT, FALSE_POSITIVE_RATE);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            long offset = (long) t * COUNT;
+            threads[t] = new Thread(() -> {
+                for (long i = 0; i < COUNT / 4; i++) {
+                    filter.put(offset + i);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (int t = 0; t < threads.length; t++) {
+            for (long i = 0; i < COUNT / 4; i++) {
+                assertTrue(filter.mightContain((long) t * COUNT + i));
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package sber.bank.service.existence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import sber.bank.domain.Account;
+import sber.bank.domain.User;
+import sber.bank.repos.AccountRepository;
+import sber.bank.repos.CardRepository;
+import sber.bank.service.implementation.AccountService;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет, что счет, созданный в обход фильтра (как другим экземпляром приложения),
+ * становится виден сразу, не дожидаясь плановой дозагрузки или перестроения фильтра.
+ */
+@SpringBootTest(properties = "bank.create.chunk-size=1")
+@ActiveProfiles("test")
+public class ExistenceFilterLoaderIntegrationTest {
+    private static final long NUMBER = 9700000000000000L;
+
+    private static final int BATCH = 3;
+
+    private static final long OVERLAP_MS = 1500;
+
+    @Autowired
+    private ExistenceFilter existenceFilter;
+
+    @Autowired
+    private ExistenceFilterLoader existenceFilterLoader;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    public void cleanup() {
+        for (long number = NUMBER; number <= NUMBER + BATCH; number++) {
+            if (accountRepository.existsById(number)) {
+                accountService.delete(number);
+            }
+        }
+    }
+
+    @Test
+    public void testMightContain_AccountCreatedByAnotherInstance_VisibleWithoutScheduledCatchUp() {
+        existenceFilterLoader.rebuild();
+        existenceFilterLoader.catchUp();
+        jdbcTemplate.update("insert into account (\"number\", balance, \"user_id\", currency, version) " +
+                "values (?, 0, 1, 'RUB', 0)", NUMBER);
+
+        assertTrue(existenceFilter.mightContainAccount(NUMBER));
+        assertFalse(existenceFilter.mightContainAccount(NUMBER - 1));
+    }
+
+    @Test
+    public void testDelete_AfterCreateAndCatchUp_RemovesNumber() {
+        existenceFilterLoader.rebuild();
+        existenceFilterLoader.catchUp();
+
+        accountService.create(new Account(NUMBER, new User(1L, null, null, null), "RUB", 0.0));
+        existenceFilterLoader.catchUp();
+        existenceFilterLoader.catchUp();
+        accountService.delete(NUMBER);
+
+        assertFalse(existenceFilter.mightContainAccount(NUMBER));
+    }
+
+    @Test
+    public void testDelete_AfterRebuildAndCatchUp_RemovesRecentlyCreatedNumber() {
+        accountService.create(new Account(NUMBER, new User(1L, null, null, null), "RUB", 0.0));
+        existenceFilterLoader.rebuild();
+        existenceFilterLoader.catchUp();
+        accountService.delete(NUMBER);
+
+        assertFalse(existenceFilter.mightContainAccount(NUMBER));
+    }
+
+    @Test
+    public void testCatchUp_BatchLongerThanOverlap_AddsAllAccounts() {
+        // Фильтр и загрузчик другого экземпляра приложения, дозагружающий номера во время пакетного создания.
+        ExistenceFilter otherFilter = new ExistenceFilter(0.01, 60000);
+        ExistenceFilterLoader otherLoader = new ExistenceFilterLoader(otherFilter, cardRepository, accountRepository,
+                transactionManager, jdbcTemplate, OVERLAP_MS, 1);
+        otherLoader.rebuild();
+        otherLoader.catchUp();
+
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 1; i <= BATCH; i++) {
+            accounts.add(new Account(NUMBER + i, new User(1L, null, null, null), "RUB", 0.0));
+        }
+
+        // Запрос длится дольше перекрытия окон: одной транзакцией первый счет получил бы время создания,
+        // выпадающее из окна дозагрузки к моменту фиксации.
+        long started = System.nanoTime();
+        assertEquals(BATCH, accountService.createAllStream(slowly(accounts, otherLoader)));
+        assertTrue(System.nanoTime() - started > OVERLAP_MS * 1_000_000);
+
+        otherLoader.catchUp();
+
+        for (Account account : accounts) {
+            assertTrue(otherFilter.mightContainAccount(account.getNumber()));
+        }
+    }
+
+    @Test
+    public void testConstructor_OverlapNotLongerThanCreateTimeout_Throws() {
+        assertThrows(IllegalStateException.class, () -> new ExistenceFilterLoader(new ExistenceFilter(0.01, 60000),
+                cardRepository, accountRepository, transactionManager, jdbcTemplate, 20000, 20));
+    }
+
+    /**
+     * Возвращает последовательность, которая перед выдачей каждого элемента дозагружает фильтр другого экземпляра
+     * и делает паузу, так что вся последовательность читается дольше перекрытия окон дозагрузки.
+     */
+    private static <T> Iterable<T> slowly(List<T> items, ExistenceFilterLoader loader) {
+        return () -> {
+            Iterator<T> iterator = items.iterator();
+
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    loader.catchUp();
+                    try {
+                        Thread.sleep(OVERLAP_MS / 2 + 100);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return iterator.next();
+                }
+            };
+        };
+    }
+}
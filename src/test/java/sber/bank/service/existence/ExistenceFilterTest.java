@@ -0,0 +1,189 @@
+package sber.bank.service.existence;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import sber.bank.repos.projection.CreatedNumber;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExistenceFilterTest {
+    private static final Instant LOADED_BEFORE = Instant.parse("2026-01-01T00:00:00Z");
+    private static final Instant OLD = LOADED_BEFORE.minusSeconds(60);
+    private static final Instant RECENT = LOADED_BEFORE.plusSeconds(1);
+
+    private final ExistenceFilter existenceFilter = new ExistenceFilter(0.01, 60000);
+
+    @Test
+    public void testMightContain_TrueUntilLoaded() {
+        assertTrue(existenceFilter.mightContainCard(1111222233334444L));
+        assertTrue(existenceFilter.mightContainAccount(1001001001001001L));
+    }
+
+    @Test
+    public void testMightContain_FalseForUnknownNumbersAfterLoad() {
+        existenceFilter.rebuildCards(1, sink -> sink.accept(1111222233334444L), List::of, LOADED_BEFORE);
+
+        assertTrue(existenceFilter.mightContainCard(1111222233334444L));
+        assertFalse(existenceFilter.mightContainCard(4444333322221111L));
+        assertTrue(existenceFilter.mightContainAccount(4444333322221111L));
+    }
+
+    @Test
+    public void testAdd_DuringRebuildReachesNewFilter() {
+        existenceFilter.rebuildCards(1, sink -> { }, List::of, LOADED_BEFORE);
+
+        existenceFilter.rebuildCards(1, sink -> existenceFilter.addCard(1111222233334444L), List::of, LOADED_BEFORE);
+
+        assertTrue(existenceFilter.mightContainCard(1111222233334444L));
+    }
+
+    @Test
+    public void testRemove_SkippedForFilterLoadedAfterDeleteStarted() {
+        existenceFilter.rebuildCards(1, sink -> sink.accept(1111222233334444L), List::of, LOADED_BEFORE);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            existenceFilter.removeCard(1111222233334444L, OLD);
+            existenceFilter.rebuildCards(1, sink -> sink.accept(1111222233334444L), List::of, LOADED_BEFORE);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.getSynchronizations().forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(existenceFilter.mightContainCard(1111222233334444L));
+    }
+
+    @Test
+    public void testRemove_AppliedAfterCommitOnly() {
+        existenceFilter.rebuildAccounts(1, sink -> sink.accept(1001001001001001L), List::of, LOADED_BEFORE);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            existenceFilter.removeAccount(1001001001001001L, OLD);
+            assertTrue(existenceFilter.mightContainAccount(1001001001001001L));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertFalse(existenceFilter.mightContainAccount(1001001001001001L));
+        } finally {
+            TransactionSynchronizationManager.getSynchronizations().forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testCatchUp_AddsNumbersCreatedElsewhere() {
+        existenceFilter.rebuildAccounts(1, sink -> { }, List::of, LOADED_BEFORE);
+
+        existenceFilter.catchUpAccounts(List.of(created(1001001001001001L, RECENT)), LOADED_BEFORE);
+
+        assertTrue(existenceFilter.mightContainAccount(1001001001001001L));
+    }
+
+    @Test
+    public void testRemove_ClearsNumberAddedByCreateCommitAndCatchUp() {
+        existenceFilter.rebuildCards(1, sink -> { }, List::of, LOADED_BEFORE);
+
+        inCommittedTransaction(() -> existenceFilter.addCard(1111222233334444L));
+        existenceFilter.catchUpCards(List.of(created(1111222233334444L, RECENT)), LOADED_BEFORE);
+        existenceFilter.catchUpCards(List.of(created(1111222233334444L, RECENT)), LOADED_BEFORE);
+        inCommittedTransaction(() -> existenceFilter.removeCard(1111222233334444L, RECENT));
+
+        assertFalse(existenceFilter.mightContainCard(1111222233334444L));
+    }
+
+    @Test
+    public void testRemove_ClearsRecentNumberLoadedByRebuildAndCaughtUpAgain() {
+        existenceFilter.rebuildAccounts(1, sink -> sink.accept(1001001001001001L),
+                () -> List.of(created(1001001001001001L, RECENT)), LOADED_BEFORE);
+
+        existenceFilter.catchUpAccounts(List.of(created(1001001001001001L, RECENT)), LOADED_BEFORE);
+        existenceFilter.removeAccount(1001001001001001L, RECENT);
+
+        assertFalse(existenceFilter.mightContainAccount(1001001001001001L));
+    }
+
+    @Test
+    public void testRemove_UncountedNumberKeepsCollidingNumber() {
+        ExistenceFilter coarseFilter = new ExistenceFilter(0.5, 60000);
+        coarseFilter.rebuildAccounts(1, sink -> sink.accept(1001001001001001L), List::of, LOADED_BEFORE);
+
+        long colliding = 1001001001001002L;
+        while (!coarseFilter.mightContainAccount(colliding)) {
+            colliding++;
+        }
+        coarseFilter.removeAccount(colliding, RECENT);
+        coarseFilter.removeAccount(colliding, null);
+
+        assertTrue(coarseFilter.mightContainAccount(1001001001001001L));
+    }
+
+    @Test
+    public void testCatchUp_ForgetsNumbersNoLongerReadAndKeepsThemOnRemove() {
+        existenceFilter.rebuildCards(1, sink -> { }, List::of, LOADED_BEFORE);
+
+        existenceFilter.catchUpCards(List.of(created(1111222233334444L, RECENT)), LOADED_BEFORE);
+        existenceFilter.catchUpCards(List.of(), RECENT);
+        existenceFilter.removeCard(1111222233334444L, RECENT);
+
+        assertTrue(existenceFilter.mightContainCard(1111222233334444L));
+    }
+
+    @Test
+    public void testRemove_ClearsNumberAddedBeforeCreateTimeKnown() {
+        existenceFilter.rebuildCards(1, sink -> { }, List::of, LOADED_BEFORE);
+
+        existenceFilter.addCard(1111222233334444L);
+        existenceFilter.catchUpCards(List.of(), RECENT);
+        existenceFilter.removeCard(1111222233334444L, null);
+
+        assertFalse(existenceFilter.mightContainCard(1111222233334444L));
+    }
+
+    @Test
+    public void testMightContain_RechecksMissAfterMissHandler() {
+        existenceFilter.rebuildAccounts(1, sink -> { }, List::of, LOADED_BEFORE);
+        existenceFilter.onMiss(missedAt ->
+                existenceFilter.catchUpAccounts(List.of(created(1001001001001001L, RECENT)), LOADED_BEFORE));
+
+        assertTrue(existenceFilter.mightContainAccount(1001001001001001L));
+        assertFalse(existenceFilter.mightContainAccount(2002002002002002L));
+    }
+
+    @Test
+    public void testMightContain_TrueWhenNotSyncedWithinMaxStaleness() {
+        ExistenceFilter staleFilter = new ExistenceFilter(0.01, 0);
+        staleFilter.rebuildCards(1, sink -> sink.accept(1111222233334444L), List::of, LOADED_BEFORE);
+
+        assertTrue(staleFilter.mightContainCard(4444333322221111L));
+    }
+
+    private static CreatedNumber created(long number, Instant createdAt) {
+        return new CreatedNumber() {
+            @Override
+            public Long getNumber() {
+                return number;
+            }
+
+            @Override
+            public Instant getCreatedAt() {
+                return createdAt;
+            }
+        };
+    }
+
+    private static void inCommittedTransaction(Runnable action) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            action.run();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.getSynchronizations().forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
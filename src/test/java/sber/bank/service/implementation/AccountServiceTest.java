@@ -2,14 +2,29 @@ package sber.bank.service.implementation;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
 import sber.bank.domain.Account;
+import sber.bank.domain.OutboxEvent;
 import sber.bank.domain.User;
+import sber.bank.exceptions.BadArgumentException;
+import sber.bank.exceptions.ConflictException;
 import sber.bank.exceptions.NotFoundException;
 import sber.bank.repos.AccountRepository;
-
+import sber.bank.repos.CardRepository;
+import sber.bank.repos.UserRepository;
+import sber.bank.repos.projection.AccountBalance;
+import sber.bank.repos.projection.AccountCurrency;
+import sber.bank.service.existence.ExistenceFilter;
+import sber.bank.service.ledger.Ledger;
+import sber.bank.service.outbox.Outbox;
+
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -21,6 +36,24 @@ public class AccountServiceTest {
     @Mock
     private AccountRepository accountRepository;
 
+    @Mock
+    private CardRepository cardRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Spy
+    private ExistenceFilter existenceFilter = new ExistenceFilter(0.01, 60000);
+
+    @Mock
+    private Ledger ledger;
+
+    @Mock
+    private Outbox outbox;
+
+    @Spy
+    private ChunkedTransactions chunkedTransactions = new ChunkedTransactions(mock(PlatformTransactionManager.class), 1000, 20);
+
     @InjectMocks
     private AccountService accountService;
 
@@ -69,6 +102,7 @@ public class AccountServiceTest {
         account.setCurrency("USD");
         account.setBalance(5000.0);
 
+        when(userRepository.getReferenceById(1L)).thenReturn(account.getUser());
         when(accountRepository.save(account)).thenReturn(account);
 
         Account createdAccount = accountService.create(account);
@@ -78,27 +112,29 @@ public class AccountServiceTest {
     }
 
     @Test
-    void delete_ShouldDeleteAccount_WhenAccountExists() {
-        Account account = new Account();
-        account.setNumber(1001001001001001L);
-        account.setUser(new User(1L, "John Smith", null, "123 Main St, City"));
-        account.setCurrency("USD");
-        account.setBalance(5000.0);
+    void delete_ShouldDeleteAccountAndCards_WhenAccountExists() {
+        Long accountNumber = 1001001001001001L;
 
-        when(accountRepository.findById(account.getNumber())).thenReturn(Optional.of(account));
+        when(accountRepository.lockBalance(accountNumber)).thenReturn(Optional.of(balance(accountNumber, 500000L)));
 
-        assertDoesNotThrow(() -> accountService.delete(account.getNumber()));
-        verify(accountRepository, times(1)).delete(account);
+        assertDoesNotThrow(() -> accountService.delete(accountNumber));
+        verify(cardRepository, times(1)).deleteByAccountNumber(accountNumber);
+        verify(accountRepository, times(1)).deleteByNumber(accountNumber);
+        verify(accountRepository, never()).findById(any());
+        verify(ledger).recordClosed(accountNumber, 500000L);
+        verify(outbox).deleted(OutboxEvent.Aggregate.ACCOUNT, accountNumber);
     }
 
     @Test
     void delete_ShouldThrowNotFoundException_WhenAccountDoesNotExist() {
         Long accountNumber = 1001001001001001L;
 
-        when(accountRepository.findById(accountNumber)).thenReturn(Optional.empty());
+        when(accountRepository.lockBalance(accountNumber)).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> accountService.delete(accountNumber));
-        verify(accountRepository, never()).delete(any());
+        verify(accountRepository, never()).deleteByNumber(any());
+        verify(cardRepository, never()).deleteByAccountNumber(any());
+        verify(outbox, never()).deleted(any(), anyLong());
     }
 
     @Test
@@ -111,19 +147,69 @@ public class AccountServiceTest {
 
         Account updatedAccount = new Account();
         updatedAccount.setNumber(1001001001001001L);
-        updatedAccount.setUser(new User(1L, "John Doe", null, "456 Elm St, Town"));
-        updatedAccount.setCurrency("EUR");
-        updatedAccount.setBalance(2000.0);
+        updatedAccount.setUser(new User(2L, "John Doe", null, "456 Elm St, Town"));
+        updatedAccount.setCurrency("USD");
+        updatedAccount.setBalance(5000.0);
 
         when(accountRepository.findById(existingAccount.getNumber())).thenReturn(Optional.of(existingAccount));
-        when(accountRepository.save(existingAccount)).thenReturn(existingAccount);
+        when(userRepository.getReferenceById(2L)).thenReturn(updatedAccount.getUser());
+        when(accountRepository.saveAndFlush(existingAccount)).thenReturn(existingAccount);
 
         assertDoesNotThrow(() -> accountService.update(existingAccount.getNumber(), updatedAccount));
         assertEquals(updatedAccount.getUser().getName(), existingAccount.getUser().getName());
-        assertEquals(updatedAccount.getCurrency(), existingAccount.getCurrency());
-        assertEquals(updatedAccount.getBalance(), existingAccount.getBalance());
         verify(accountRepository, times(1)).findById(existingAccount.getNumber());
-        verify(accountRepository, times(1)).save(existingAccount);
+        verify(accountRepository, times(1)).saveAndFlush(existingAccount);
+        verify(ledger, never()).adjust(anyLong(), anyLong());
+        verify(outbox).account(OutboxEvent.Type.UPDATED, existingAccount);
+    }
+
+    @Test
+    void update_ShouldThrowBadArgumentException_WhenBalanceOrCurrencyChanges() {
+        Account existingAccount = new Account(1001001001001001L, new User(1L, null, null, null), "USD", 5000.0);
+        when(accountRepository.findById(existingAccount.getNumber())).thenReturn(Optional.of(existingAccount));
+
+        assertThrows(BadArgumentException.class, () -> accountService.update(existingAccount.getNumber(),
+                new Account(null, existingAccount.getUser(), "USD", 0.0)));
+        assertThrows(BadArgumentException.class, () -> accountService.update(existingAccount.getNumber(),
+                new Account(null, existingAccount.getUser(), "EUR", 5000.0)));
+        assertEquals(500000L, existingAccount.getBalanceMinor());
+        assertEquals("USD", existingAccount.getCurrency());
+        verify(accountRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void update_ShouldChangeOwner_WhenBalanceAndCurrencyAreOmitted() {
+        Account existingAccount = new Account(1001001001001001L, new User(1L, null, null, null), "USD", 5000.0);
+        User newOwner = new User(2L, null, null, null);
+        Account ownerOnly = new Account();
+        ownerOnly.setUser(newOwner);
+        when(accountRepository.findById(existingAccount.getNumber())).thenReturn(Optional.of(existingAccount));
+        when(userRepository.getReferenceById(2L)).thenReturn(newOwner);
+        when(accountRepository.saveAndFlush(existingAccount)).thenReturn(existingAccount);
+
+        accountService.update(existingAccount.getNumber(), ownerOnly);
+
+        assertSame(newOwner, existingAccount.getUser());
+        assertEquals(500000L, existingAccount.getBalanceMinor());
+        assertEquals("USD", existingAccount.getCurrency());
+    }
+
+    @Test
+    void deposit_ShouldPostAdjustment_WhenAccountExists() {
+        when(accountRepository.deposit(1001001001001001L, 150L)).thenReturn(1);
+
+        accountService.deposit(1001001001001001L, 150L);
+
+        verify(ledger).adjust(1001001001001001L, 150L);
+    }
+
+    @Test
+    void withdraw_ShouldThrowBadArgumentException_WhenFundsAreInsufficient() {
+        when(accountRepository.existsById(1001001001001001L)).thenReturn(true);
+        when(accountRepository.withdraw(1001001001001001L, 150L)).thenReturn(0);
+
+        assertThrows(BadArgumentException.class, () -> accountService.withdraw(1001001001001001L, 150L));
+        verify(ledger, never()).adjust(anyLong(), anyLong());
     }
 
     @Test
@@ -138,9 +224,130 @@ public class AccountServiceTest {
         when(accountRepository.findById(accountNumber)).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> accountService.update(accountNumber, updatedAccount));
+        verify(accountRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void create_ShouldThrowBadArgumentException_WhenOwnerIdIsMissing() {
+        Account account = new Account(1001001001001001L, new User(), "USD", 5000.0);
+
+        assertThrows(BadArgumentException.class, () -> accountService.create(account));
         verify(accountRepository, never()).save(any());
     }
 
+    @Test
+    void update_ShouldThrowConflictException_WhenVersionDoesNotMatch() {
+        Account existingAccount = new Account(getAllAccounts().get(0));
+        existingAccount.setVersion(3L);
+
+        when(accountRepository.findById(existingAccount.getNumber())).thenReturn(Optional.of(existingAccount));
+
+        assertThrows(ConflictException.class,
+                () -> accountService.update(existingAccount.getNumber(), new Account(existingAccount), 2L));
+        verify(accountRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void update_ShouldThrowConflictException_WhenConcurrentUpdateWins() {
+        Account existingAccount = new Account(getAllAccounts().get(0));
+        existingAccount.setVersion(3L);
+
+        when(accountRepository.findById(existingAccount.getNumber())).thenReturn(Optional.of(existingAccount));
+        when(userRepository.getReferenceById(1L)).thenReturn(existingAccount.getUser());
+        when(accountRepository.saveAndFlush(existingAccount)).thenThrow(new OptimisticLockingFailureException("stale"));
+
+        assertThrows(ConflictException.class,
+                () -> accountService.update(existingAccount.getNumber(), new Account(existingAccount), 3L));
+    }
+
+    @Test
+    void transfer_ShouldLockLowerAccountNumberFirst() {
+        Long lower = 1001001001001001L;
+        Long higher = 2002002002002002L;
+        when(accountRepository.findByNumberIn(any())).thenReturn(List.of(
+                accountCurrency(lower, "USD"), accountCurrency(higher, "USD")));
+        when(accountRepository.withdraw(anyLong(), anyLong())).thenReturn(1);
+        when(accountRepository.deposit(anyLong(), anyLong())).thenReturn(1);
+
+        accountService.transfer(lower, higher, 100L);
+        accountService.transfer(higher, lower, 100L);
+
+        InOrder inOrder = inOrder(accountRepository);
+        inOrder.verify(accountRepository).withdraw(lower, 100L);
+        inOrder.verify(accountRepository).deposit(higher, 100L);
+        inOrder.verify(accountRepository).deposit(lower, 100L);
+        inOrder.verify(accountRepository).withdraw(higher, 100L);
+    }
+
+    @Test
+    void transfer_ShouldThrowBadArgumentException_WhenFundsAreInsufficient() {
+        Long from = 1001001001001001L;
+        Long to = 2002002002002002L;
+        when(accountRepository.findByNumberIn(any())).thenReturn(List.of(
+                accountCurrency(from, "USD"), accountCurrency(to, "USD")));
+        when(accountRepository.withdraw(from, 100L)).thenReturn(0);
+
+        assertThrows(BadArgumentException.class, () -> accountService.transfer(from, to, 100L));
+        verify(accountRepository, never()).deposit(anyLong(), anyLong());
+    }
+
+    @Test
+    void transfer_ShouldThrowBadArgumentException_WhenCurrenciesDiffer() {
+        Long from = 1001001001001001L;
+        Long to = 2002002002002002L;
+        when(accountRepository.findByNumberIn(any())).thenReturn(List.of(
+                accountCurrency(from, "USD"), accountCurrency(to, "EUR")));
+
+        assertThrows(BadArgumentException.class, () -> accountService.transfer(from, to, 100L));
+        verify(accountRepository, never()).withdraw(anyLong(), anyLong());
+    }
+
+    @Test
+    void transfer_ShouldThrowNotFoundException_WhenAccountDoesNotExist() {
+        Long from = 1001001001001001L;
+        Long to = 2002002002002002L;
+        when(accountRepository.findByNumberIn(any())).thenReturn(List.of(accountCurrency(from, "USD")));
+
+        assertThrows(NotFoundException.class, () -> accountService.transfer(from, to, 100L));
+        verify(accountRepository, never()).withdraw(anyLong(), anyLong());
+    }
+
+    @Test
+    void transfer_ShouldThrowNotFoundException_WhenTargetAccountIsDeletedConcurrently() {
+        Long from = 1001001001001001L;
+        Long to = 2002002002002002L;
+        when(accountRepository.findByNumberIn(any())).thenReturn(List.of(
+                accountCurrency(from, "USD"), accountCurrency(to, "USD")));
+        when(accountRepository.withdraw(from, 100L)).thenReturn(1);
+        when(accountRepository.deposit(to, 100L)).thenReturn(0);
+
+        assertThrows(NotFoundException.class, () -> accountService.transfer(from, to, 100L));
+        verifyNoInteractions(ledger, outbox);
+    }
+
+    @Test
+    void transfer_ShouldThrowBadArgumentException_WhenAccountsAreTheSameOrAmountIsNotPositive() {
+        Long number = 1001001001001001L;
+
+        assertThrows(BadArgumentException.class, () -> accountService.transfer(number, number, 100L));
+        assertThrows(BadArgumentException.class, () -> accountService.transfer(number, 2002002002002002L, 0L));
+        verifyNoInteractions(accountRepository);
+    }
+
+    private AccountCurrency accountCurrency(Long number, String currency) {
+        return new AccountCurrency() {
+            @Override
+            public Long getNumber() {
+                return number;
+            }
+
+            @Override
+            public String getCurrency() {
+                return currency;
+            }
+        };
+    }
+
     private List<Account> getAllAccounts() {
         List<Account> accounts = new ArrayList<>();
 
@@ -156,4 +363,44 @@ public class AccountServiceTest {
 
         return accounts;
     }
-}
\ No newline at end of file
+
+    @Test
+    void getByPk_ShouldNotQueryDatabase_WhenFilterRejectsNumber() {
+        existenceFilter.rebuildAccounts(1, sink -> sink.accept(1234567890123456L), List::of, Instant.now());
+
+        NotFoundException exception = assertThrows(NotFoundException.class, () -> accountService.getByPk(6543210987654321L));
+
+        assertEquals(0, exception.getStackTrace().length);
+        verify(accountRepository, never()).findById(any());
+    }
+
+    @Test
+    void create_ShouldAddNumberToFilter() {
+        existenceFilter.rebuildAccounts(1, sink -> { }, List::of, Instant.now());
+        Account account = new Account(1234567890123456L, null, "USD", 0.0);
+        when(accountRepository.save(account)).thenReturn(account);
+
+        accountService.create(account);
+
+        assertTrue(existenceFilter.mightContainAccount(1234567890123456L));
+    }
+
+    static AccountBalance balance(long number, long balance) {
+        return new AccountBalance() {
+            @Override
+            public Long getNumber() {
+                return number;
+            }
+
+            @Override
+            public long getBalance() {
+                return balance;
+            }
+
+            @Override
+            public Instant getCreatedAt() {
+                return Instant.EPOCH;
+            }
+        };
+    }
+}
@@ -0,0 +1,123 @@
+package sber.bank.service.implementation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import sber.bank.domain.Account;
+import sber.bank.domain.User;
+import sber.bank.exceptions.BadArgumentException;
+import sber.bank.repos.AccountRepository;
+import sber.bank.repos.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверка переводов: параллельные встречные переводы между небольшим числом счетов
+ * не должны терять обновлений, приводить к отрицательным балансам или взаимным блокировкам.
+ * Пропускная способность переводов измеряется бенчмарком TransferBenchmark (профиль benchmarks).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class AccountTransferConcurrencyTest {
+    private static final int ACCOUNTS = 10;
+
+    private static final int THREADS = 4;
+
+    private static final int TRANSFERS_PER_THREAD = 50;
+
+    private static final long FIRST_NUMBER = 7000000000000000L;
+
+    private static final long INITIAL_BALANCE = 1_000_00L;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<Long> numbers = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        User user = userRepository.findById(1L).orElseThrow();
+
+        for (int i = 0; i < ACCOUNTS; i++) {
+            Account account = new Account(FIRST_NUMBER + i, user, "USD", 0.0);
+            account.setBalanceMinor(INITIAL_BALANCE);
+            numbers.add(accountRepository.save(account).getNumber());
+        }
+    }
+
+    @AfterEach
+    public void cleanup() {
+        accountRepository.deleteAllById(numbers);
+    }
+
+    @Test
+    public void testConcurrentTransfers_NoLostUpdates() throws Exception {
+        long[][] deltas = new long[THREADS][ACCOUNTS];
+        int[] succeeded = new int[THREADS];
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    int from = random.nextInt(ACCOUNTS);
+                    int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+                    long amount = 1 + random.nextInt(100_00);
+                    try {
+                        accountService.transfer(numbers.get(from), numbers.get(to), amount);
+                        deltas[thread][from] -= amount;
+                        deltas[thread][to] += amount;
+                        succeeded[thread]++;
+                    } catch (BadArgumentException e) {
+                        // Недостаточно средств: перевод отклонен целиком.
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        int total = 0;
+        for (int count : succeeded) {
+            total += count;
+        }
+
+        long sum = 0;
+        for (int i = 0; i < ACCOUNTS; i++) {
+            long expected = INITIAL_BALANCE;
+            for (int t = 0; t < THREADS; t++) {
+                expected += deltas[t][i];
+            }
+            long actual = accountRepository.findById(numbers.get(i)).orElseThrow().getBalanceMinor();
+
+            assertEquals(expected, actual, "Потеряно обновление баланса счета " + numbers.get(i));
+            assertTrue(actual >= 0, "Отрицательный баланс счета " + numbers.get(i));
+            sum += actual;
+        }
+        assertEquals(ACCOUNTS * INITIAL_BALANCE, sum);
+        assertTrue(total > 0);
+    }
+}
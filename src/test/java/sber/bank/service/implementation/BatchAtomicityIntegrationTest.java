@@ -0,0 +1,60 @@
+package sber.bank.service.implementation;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import sber.bank.domain.Account;
+import sber.bank.domain.Card;
+import sber.bank.exceptions.BadArgumentException;
+import sber.bank.repos.CardRepository;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет, что пакет из JSON-массива создается целиком или не создается вовсе,
+ * а поток фиксируется частями, даже если ошибка обнаружена в одной из следующих частей.
+ */
+@SpringBootTest(properties = "bank.create.chunk-size=2")
+@ActiveProfiles("test")
+public class BatchAtomicityIntegrationTest {
+    private static final long SEEDED_ACCOUNT = 1001001001001001L;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Test
+    public void testCreateAll_InvalidCardInLaterChunk_CreatesNothing() {
+        List<Card> cards = cards(7300000000000000L);
+
+        assertThrows(BadArgumentException.class, () -> cardService.createAll(cards));
+        assertTrue(cardRepository.findAllById(List.of(7300000000000000L, 7300000000000001L)).isEmpty());
+    }
+
+    @Test
+    public void testCreateAllStream_InvalidCardInLaterChunk_KeepsCommittedChunks() {
+        List<Card> cards = cards(7400000000000000L);
+
+        assertThrows(BadArgumentException.class, () -> cardService.createAllStream(cards));
+        assertEquals(2, cardRepository.findAllById(List.of(7400000000000000L, 7400000000000001L)).size());
+
+        cardService.delete(7400000000000000L);
+        cardService.delete(7400000000000001L);
+    }
+
+    /**
+     * Возвращает три карты, последняя из которых (в третьей части) не указывает номер счета.
+     */
+    private static List<Card> cards(long firstNumber) {
+        return List.of(
+                new Card(firstNumber, new Account(SEEDED_ACCOUNT, null, null, 0.0), new Date(), 123),
+                new Card(firstNumber + 1, new Account(SEEDED_ACCOUNT, null, null, 0.0), new Date(), 123),
+                new Card(firstNumber + 2, new Account(null, null, null, 0.0), new Date(), 123));
+    }
+}
@@ -0,0 +1,100 @@
+package sber.bank.service.implementation;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import sber.bank.domain.Account;
+import sber.bank.domain.Card;
+import sber.bank.domain.User;
+import sber.bank.repos.CardRepository;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет, что пакетное создание счетов и карт отправляет записи в базу данных пакетами JDBC,
+ * без SELECT-запросов перед вставкой.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class BatchInsertIntegrationTest {
+    private static final int COUNT = 120;
+
+    private static final int BATCH_SIZE = 50;
+
+    private static final long SEEDED_ACCOUNT = 1001001001001001L;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void testCreateAll_Accounts_InsertsInBatches() {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < COUNT; i++) {
+            accounts.add(new Account(7100000000000000L + i, new User(1L, null, null, null), "RUB", i));
+        }
+
+        // Для каждого счета записывается версия с владельцем и валютой, для каждого счета, кроме счета с нулевым
+        // балансом, в журнал записывается начальная проводка, и для каждого счета в очередь записывается событие
+        // о создании.
+        // Идентификаторы проводок и событий выдаются последовательностями блоками по размеру пакета; часть блока
+        // может остаться от предыдущих тестов, поэтому обращений к последовательности не больше числа пакетов.
+        int entries = COUNT - 1;
+
+        assertEquals(COUNT, accountService.createAll(accounts));
+        assertEquals(COUNT + COUNT + entries + COUNT, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertTrue(statistics.getPrepareStatementCount()
+                <= batches(COUNT) + 2 * batches(COUNT) + 2 * batches(entries) + 2 * batches(COUNT));
+    }
+
+    @Test
+    public void testCreateAll_Cards_InsertsInBatches() {
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < COUNT; i++) {
+            cards.add(new Card(7200000000000000L + i, new Account(SEEDED_ACCOUNT, null, null, 0.0), new Date(), 123));
+        }
+
+        // Для каждой карты в очередь записывается событие о создании.
+        assertEquals(COUNT, cardService.createAll(cards));
+        assertEquals(COUNT + COUNT, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertTrue(statistics.getPrepareStatementCount() <= batches(COUNT) + 2 * batches(COUNT));
+
+        List<Long> numbers = cards.stream().map(Card::getNumber).toList();
+        List<Card> saved = cardRepository.findAllById(numbers);
+        assertEquals(COUNT, saved.size());
+        saved.forEach(card -> assertEquals(SEEDED_ACCOUNT, card.getAccount().getNumber()));
+    }
+
+    private static int batches(int count) {
+        return (count + BATCH_SIZE - 1) / BATCH_SIZE;
+    }
+}
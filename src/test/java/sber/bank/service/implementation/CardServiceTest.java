@@ -4,11 +4,22 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.transaction.PlatformTransactionManager;
+import sber.bank.domain.Account;
 import sber.bank.domain.Card;
+import sber.bank.domain.OutboxEvent;
+import sber.bank.exceptions.ConflictException;
 import sber.bank.exceptions.NotFoundException;
+import sber.bank.repos.AccountRepository;
 import sber.bank.repos.CardRepository;
+import sber.bank.service.existence.ExistenceFilter;
+import sber.bank.service.outbox.Outbox;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -18,6 +29,18 @@ public class CardServiceTest {
     @Mock
     private CardRepository cardRepository;
 
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Spy
+    private ExistenceFilter existenceFilter = new ExistenceFilter(0.01, 60000);
+
+    @Mock
+    private Outbox outbox;
+
+    @Spy
+    private ChunkedTransactions chunkedTransactions = new ChunkedTransactions(mock(PlatformTransactionManager.class), 1000, 20);
+
     @InjectMocks
     private CardService cardService;
 
@@ -66,6 +89,21 @@ public class CardServiceTest {
 
         assertEquals(card, createdCard);
         verify(cardRepository, times(1)).save(card);
+        verify(outbox).card(OutboxEvent.Type.CREATED, card);
+    }
+
+    @Test
+    public void testCreate_ShouldReferenceAccountByNumber() {
+        Account account = new Account(1001001001001001L, null, "USD", 0.0);
+        Account reference = new Account(account);
+        Card card = new Card(1111222233334444L, account, new Date(), 123);
+
+        when(accountRepository.getReferenceById(account.getNumber())).thenReturn(reference);
+        when(cardRepository.save(card)).thenReturn(card);
+
+        cardService.create(card);
+
+        assertSame(reference, card.getAccount());
     }
 
     @Test
@@ -81,6 +119,7 @@ public class CardServiceTest {
 
         assertDoesNotThrow(() -> cardService.delete(cardNumber));
         verify(cardRepository, times(1)).delete(card);
+        verify(outbox).deleted(OutboxEvent.Aggregate.CARD, cardNumber);
     }
 
     @Test
@@ -91,6 +130,7 @@ public class CardServiceTest {
 
         assertThrows(NotFoundException.class, () -> cardService.delete(cardNumber));
         verify(cardRepository, never()).delete(any());
+        verify(outbox, never()).deleted(any(), anyLong());
     }
 
     @Test
@@ -109,13 +149,37 @@ public class CardServiceTest {
         updatedCard.setCvv(456);
 
         when(cardRepository.findById(cardNumber)).thenReturn(Optional.of(existingCard));
-        when(cardRepository.save(existingCard)).thenReturn(existingCard);
+        when(cardRepository.saveAndFlush(existingCard)).thenReturn(existingCard);
 
         assertDoesNotThrow(() -> cardService.update(cardNumber, updatedCard));
         assertEquals(updatedCard.getExpirationDate(), existingCard.getExpirationDate());
         assertEquals(updatedCard.getCvv(), existingCard.getCvv());
         verify(cardRepository, times(1)).findById(cardNumber);
-        verify(cardRepository, times(1)).save(existingCard);
+        verify(cardRepository, times(1)).saveAndFlush(existingCard);
+    }
+
+    @Test
+    public void testUpdate_ShouldReturnUpdatedCard_WhenVersionMatches() {
+        Long cardNumber = 1111222233334444L;
+        Card existingCard = new Card(cardNumber, null, new Date(), 123);
+        existingCard.setVersion(1L);
+
+        when(cardRepository.findById(cardNumber)).thenReturn(Optional.of(existingCard));
+        when(cardRepository.saveAndFlush(existingCard)).thenReturn(existingCard);
+
+        assertSame(existingCard, cardService.update(cardNumber, new Card(cardNumber, null, new Date(), 456), 1L));
+    }
+
+    @Test
+    public void testUpdate_ShouldThrowConflictException_WhenVersionDoesNotMatch() {
+        Long cardNumber = 1111222233334444L;
+        Card existingCard = new Card(cardNumber, null, new Date(), 123);
+        existingCard.setVersion(1L);
+
+        when(cardRepository.findById(cardNumber)).thenReturn(Optional.of(existingCard));
+
+        assertThrows(ConflictException.class, () -> cardService.update(cardNumber, new Card(existingCard), 0L));
+        verify(cardRepository, never()).saveAndFlush(any());
     }
 
     @Test
@@ -130,6 +194,53 @@ public class CardServiceTest {
         when(cardRepository.findById(cardNumber)).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> cardService.update(cardNumber, updatedCard));
+        verify(cardRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    public void testCreateAll_ShouldPersistCardsWithAccountReferences() {
+        Account account = new Account(1234567890123456L, null, null, 0.0);
+        Account reference = new Account(1234567890123456L, null, "RUB", 0.0);
+        List<Card> cards = List.of(
+                new Card(1111222233334444L, account, new Date(), 123),
+                new Card(1111222233334445L, account, new Date(), 456));
+        List<Card> persisted = new ArrayList<>();
+
+        when(accountRepository.getReferenceById(account.getNumber())).thenReturn(reference);
+        when(cardRepository.persistAll(any())).thenAnswer(invocation -> {
+            invocation.<Iterable<Card>>getArgument(0).forEach(persisted::add);
+            return persisted.size();
+        });
+
+        int result = cardService.createAll(cards);
+
+        assertEquals(2, result);
+        assertEquals(cards, persisted);
+        persisted.forEach(card -> assertSame(reference, card.getAccount()));
         verify(cardRepository, never()).save(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetByPk_FilteredNumber_ThrowsWithoutQueryingDatabase() {
+        existenceFilter.rebuildCards(1, sink -> sink.accept(1111222233334444L), List::of, Instant.now());
+
+        NotFoundException exception = assertThrows(NotFoundException.class, () -> cardService.getByPk(4444333322221111L));
+
+        assertEquals(0, exception.getStackTrace().length);
+        verify(cardRepository, never()).findById(any());
+    }
+
+    @Test
+    public void testDelete_ShouldRemoveNumberFromFilter() {
+        Long cardNumber = 1111222233334444L;
+        Card card = new Card(cardNumber, null, new Date(), 123);
+        card.setCreatedAt(Instant.EPOCH);
+        existenceFilter.rebuildCards(1, sink -> sink.accept(cardNumber), List::of, Instant.now());
+
+        when(cardRepository.findById(cardNumber)).thenReturn(Optional.of(card));
+
+        cardService.delete(cardNumber);
+
+        assertFalse(existenceFilter.mightContainCard(cardNumber));
+    }
+}
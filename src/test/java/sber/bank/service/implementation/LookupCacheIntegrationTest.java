@@ -0,0 +1,115 @@
+package sber.bank.service.implementation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import sber.bank.config.CacheConfig;
+import sber.bank.domain.Account;
+import sber.bank.domain.Card;
+import sber.bank.domain.User;
+import sber.bank.dto.CardResponse;
+import sber.bank.exceptions.NotFoundException;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет кеширование карт и счетов и сброс кеша при изменениях.
+ * Сброс кеша откладывается до фиксации транзакции, поэтому тест не выполняется в откатываемой транзакции
+ * и удаляет созданные записи сам.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class LookupCacheIntegrationTest {
+    private static final long ACCOUNT_NUMBER = 9300000000000000L;
+
+    private static final long CARD_NUMBER = 9400000000000000L;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setup() {
+        accountService.create(new Account(ACCOUNT_NUMBER, new User(1L, null, null, null), "RUB", 100.0));
+        cardService.create(new Card(CARD_NUMBER, new Account(ACCOUNT_NUMBER, null, null, 0.0), new Date(), 123));
+        cacheManager.getCache(CacheConfig.ACCOUNTS).clear();
+        cacheManager.getCache(CacheConfig.CARDS).clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        try {
+            accountService.delete(ACCOUNT_NUMBER);
+        } catch (NotFoundException ignored) {
+            // Счет уже удален тестом.
+        }
+    }
+
+    @Test
+    public void testGetResponse_RepeatedCardLookupsDoNotReachDatabase() {
+        double hits = cacheGets(CacheConfig.CARDS, "hit");
+
+        CardResponse first = cardService.getResponse(CARD_NUMBER);
+        for (int i = 0; i < 10; i++) {
+            assertSame(first, cardService.getResponse(CARD_NUMBER));
+        }
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(ACCOUNT_NUMBER, first.accountNumber());
+        assertEquals(hits + 10, cacheGets(CacheConfig.CARDS, "hit"));
+    }
+
+    @Test
+    public void testUpdate_EvictsCardAndAccount() {
+        assertEquals(123, cardService.getResponse(CARD_NUMBER).cvv());
+        assertEquals(100.0, accountService.getResponse(ACCOUNT_NUMBER).balance());
+
+        cardService.update(CARD_NUMBER, new Card(null, new Account(ACCOUNT_NUMBER, null, null, 0.0), new Date(), 456), null);
+        accountService.update(ACCOUNT_NUMBER, new Account(null, new User(2L, null, null, null), "RUB", 100.0), null);
+        accountService.deposit(ACCOUNT_NUMBER, 15000L);
+
+        assertEquals(456, cardService.getResponse(CARD_NUMBER).cvv());
+        assertEquals(2L, accountService.getResponse(ACCOUNT_NUMBER).userId());
+        assertEquals(250.0, accountService.getResponse(ACCOUNT_NUMBER).balance());
+    }
+
+    @Test
+    public void testDelete_EvictsCard() {
+        cardService.getResponse(CARD_NUMBER);
+
+        cardService.delete(CARD_NUMBER);
+
+        assertThrows(NotFoundException.class, () -> cardService.getResponse(CARD_NUMBER));
+    }
+
+    private double cacheGets(String cache, String result) {
+        return meterRegistry.get("cache.gets").tag("cache", cache).tag("result", result).functionCounter().count();
+    }
+}
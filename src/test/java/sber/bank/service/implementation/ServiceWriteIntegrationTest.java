@@ -0,0 +1,48 @@
+package sber.bank.service.implementation;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import sber.bank.domain.Account;
+import sber.bank.domain.Card;
+import sber.bank.domain.User;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет создание и обновление записей, ссылающихся на связанные сущности так,
+ * как они приходят в теле запроса: только с идентификатором и без версии.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class ServiceWriteIntegrationTest {
+    private static final long ACCOUNT_NUMBER = 9100000000000000L;
+
+    private static final long CARD_NUMBER = 9200000000000000L;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private CardService cardService;
+
+    @Test
+    public void testCreateAndUpdate_WithDetachedAssociations() {
+        User owner = new User(1L, null, null, null);
+        accountService.create(new Account(ACCOUNT_NUMBER, owner, "RUB", 10.0));
+
+        Account accountReference = new Account(ACCOUNT_NUMBER, null, null, 0.0);
+        cardService.create(new Card(CARD_NUMBER, accountReference, new Date(), 123));
+
+        Account updated = accountService.update(ACCOUNT_NUMBER, new Account(null, new User(2L, null, null, null), "RUB", 10.0), 0L);
+
+        assertEquals(2L, updated.getUser().getId());
+        assertEquals(1L, updated.getVersion());
+        assertEquals(ACCOUNT_NUMBER, cardService.getByPk(CARD_NUMBER).getAccount().getNumber());
+    }
+}
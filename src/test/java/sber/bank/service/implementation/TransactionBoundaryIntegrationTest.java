@@ -0,0 +1,46 @@
+package sber.bank.service.implementation;
+
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.test.context.ActiveProfiles;
+import sber.bank.domain.Account;
+import sber.bank.domain.Card;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет, что сессия Hibernate не удерживается до конца запроса,
+ * а сущности, возвращаемые из сервисов, не требуют ленивой загрузки после завершения транзакции.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class TransactionBoundaryIntegrationTest {
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private CardService cardService;
+
+    @Test
+    public void testOpenInView_IsDisabled() {
+        assertTrue(context.getBeansOfType(OpenEntityManagerInViewInterceptor.class).isEmpty());
+    }
+
+    @Test
+    public void testGetAll_LoadsAssociationsBeforeTransactionEnds() {
+        Iterable<Account> accounts = accountService.getAll();
+        Iterable<Card> cards = cardService.getAll();
+
+        assertTrue(accounts.iterator().hasNext());
+        assertTrue(cards.iterator().hasNext());
+        accounts.forEach(account -> assertTrue(Hibernate.isInitialized(account.getUser())));
+        cards.forEach(card -> assertTrue(Hibernate.isInitialized(card.getAccount())));
+    }
+}
@@ -0,0 +1,61 @@
+package sber.bank.service.implementation;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import sber.bank.domain.User;
+import sber.bank.repos.UserRepository;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет выдачу идентификаторов пользователей из последовательности блоками.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class UserIdGenerationTest {
+    private static final int COUNT = 100;
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void testSaveAll_AllocatesIdsInBlocksPastSeededUsers() {
+        long seededMaxId = userRepository.findAll().stream().mapToLong(User::getId).max().orElse(0);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < COUNT; i++) {
+            users.add(new User("Пользователь " + i, new Date(), "Адрес " + i));
+        }
+        userRepository.saveAll(users);
+        userRepository.flush();
+
+        // По одному обращению к последовательности и одному пакету вставок на блок; еще одно обращение возможно,
+        // если часть текущего блока уже израсходована другими тестами в общем контексте.
+        int blocks = COUNT / ALLOCATION_SIZE;
+        assertTrue(statistics.getPrepareStatementCount() <= blocks + blocks + 1);
+        assertEquals(COUNT, statistics.getEntityInsertCount());
+
+        for (User user : users) {
+            assertTrue(user.getId() > seededMaxId);
+        }
+        assertEquals(COUNT, users.stream().map(User::getId).distinct().count());
+    }
+}
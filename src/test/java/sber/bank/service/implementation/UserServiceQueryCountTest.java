@@ -0,0 +1,135 @@
+package sber.bank.service.implementation;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import sber.bank.domain.Account;
+import sber.bank.domain.Card;
+import sber.bank.domain.User;
+import sber.bank.dto.CardResponse;
+import sber.bank.repos.AccountRepository;
+import sber.bank.repos.CardRepository;
+import sber.bank.repos.UserRepository;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет количество SQL-запросов, выполняемых сервисом пользователей при работе со счетами и картами.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class UserServiceQueryCountTest {
+    private static final int ACCOUNTS = 20;
+
+    private static final int CARDS_PER_ACCOUNT = 3;
+
+    private static final String CLOSING_ENTRIES = "select count(*) from ledger_entry where credit_account = 0";
+
+    private static final String CLOSED_REVISIONS = "select count(*) from account_revision where closed";
+
+    private static final String DELETED_CARDS =
+            "select count(*) from outbox_event where aggregate = 'CARD' and type = 'DELETED'";
+
+    private static final String DELETED_ACCOUNTS =
+            "select count(*) from outbox_event where aggregate = 'ACCOUNT' and type = 'DELETED'";
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+
+    private User user;
+
+    private int expectedCards;
+
+    private int expectedAccounts;
+
+    @BeforeEach
+    public void setup() {
+        user = userRepository.findById(1L).orElseThrow();
+        int existingCards = cardRepository.findByUserId(user.getId()).size();
+
+        long cardNumber = 4000000000000000L;
+        for (int i = 0; i < ACCOUNTS; i++) {
+            Account account = accountRepository.save(new Account(5000000000000000L + i, user, "RUB", 100.0));
+            for (int j = 0; j < CARDS_PER_ACCOUNT; j++) {
+                cardRepository.save(new Card(cardNumber++, account, new Date(), 123));
+            }
+        }
+        cardRepository.flush();
+        expectedCards = existingCards + ACCOUNTS * CARDS_PER_ACCOUNT;
+        expectedAccounts = accountRepository.lockBalancesByUserId(user.getId()).size();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void testGetCards_UsesSingleQueryRegardlessOfAccountCount() {
+        List<CardResponse> cards = userService.getCards(user.getId());
+
+        assertEquals(expectedCards, cards.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    public void testGetOverallBalance_UsesSingleAggregateQuery() {
+        double overallBalance = userService.getOverallBalance(user.getId());
+
+        assertEquals(5000.0 * 90.0 + ACCOUNTS * 100.0, overallBalance, 1e-6);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    public void testDelete_UsesConstantNumberOfStatements() {
+        long closingEntries = count(CLOSING_ENTRIES);
+        long closedRevisions = count(CLOSED_REVISIONS);
+        long deletedCards = count(DELETED_CARDS);
+        long deletedAccounts = count(DELETED_ACCOUNTS);
+        statistics.clear();
+
+        userService.delete(user.getId());
+
+        // Строки счетов блокируются одним запросом; списания остатков, закрытия счетов и события об удалении карт
+        // и счетов вставляются четырьмя запросами INSERT ... SELECT; записи удаляются тремя.
+        assertEquals(8, statistics.getPrepareStatementCount());
+        assertFalse(userRepository.existsById(user.getId()));
+        assertTrue(cardRepository.findByUserId(user.getId()).isEmpty());
+        assertEquals(closingEntries + expectedAccounts, count(CLOSING_ENTRIES));
+        assertEquals(closedRevisions + expectedAccounts, count(CLOSED_REVISIONS));
+        assertEquals(deletedCards + expectedCards, count(DELETED_CARDS));
+        assertEquals(deletedAccounts + expectedAccounts, count(DELETED_ACCOUNTS));
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
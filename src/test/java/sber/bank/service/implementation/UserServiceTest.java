@@ -5,19 +5,31 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import sber.bank.domain.Account;
-import sber.bank.domain.Card;
+import org.mockito.Spy;
+import org.springframework.data.domain.PageRequest;
 import sber.bank.domain.User;
+import sber.bank.dto.AccountResponse;
+import sber.bank.dto.CardResponse;
+import sber.bank.dto.UserResponse;
+import sber.bank.exceptions.BadArgumentException;
+import sber.bank.exceptions.ConflictException;
 import sber.bank.exceptions.NotFoundException;
 import sber.bank.repos.AccountRepository;
 import sber.bank.repos.CardRepository;
 import sber.bank.repos.UserRepository;
+import sber.bank.repos.projection.CurrencyBalance;
+import sber.bank.service.exchange.ExchangeRateHistory;
+import sber.bank.service.exchange.ExchangeRateTable;
+import sber.bank.service.ledger.Ledger;
+import sber.bank.service.outbox.Outbox;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -33,6 +45,18 @@ public class UserServiceTest {
     @Mock
     private CardRepository cardRepository;
 
+    @Spy
+    private ExchangeRateTable exchangeRateTable = new ExchangeRateTable(() -> Map.of("RUB", 1.0, "USD", 90.0, "EUR", 100.0));
+
+    @Mock
+    private ExchangeRateHistory exchangeRateHistory;
+
+    @Mock
+    private Ledger ledger;
+
+    @Mock
+    private Outbox outbox;
+
     @InjectMocks
     private UserService userService;
 
@@ -52,6 +76,37 @@ public class UserServiceTest {
         verify(userRepository, times(1)).findAll();
     }
 
+    @Test
+    public void testGetAllResponses_ReturnsProjection() {
+        List<UserResponse> expectedUsers = getAllUserResponses();
+        when(userRepository.findAllResponses()).thenReturn(expectedUsers);
+
+        assertEquals(expectedUsers, userService.getAllResponses());
+        verify(userRepository, never()).findAll();
+    }
+
+    @Test
+    public void testGetPage_ReturnsUsersAfterId() {
+        List<UserResponse> expectedUsers = getAllUserResponses().subList(1, 3);
+        when(userRepository.findResponsesAfter(1L, PageRequest.of(0, 2))).thenReturn(expectedUsers);
+
+        List<UserResponse> actualUsers = userService.getPage(1L, 2);
+
+        assertEquals(expectedUsers, actualUsers);
+        verify(userRepository, times(1)).findResponsesAfter(1L, PageRequest.of(0, 2));
+    }
+
+    @Test
+    public void testForEach_VisitsEveryUser() {
+        List<UserResponse> expectedUsers = getAllUserResponses();
+        when(userRepository.streamAllResponses()).thenReturn(expectedUsers.stream());
+
+        List<UserResponse> visitedUsers = new ArrayList<>();
+        userService.forEach(visitedUsers::add);
+
+        assertEquals(expectedUsers, visitedUsers);
+    }
+
     @Test
     public void testGetUserById_ValidId_ReturnsUser() {
         Long userId = 1L;
@@ -73,6 +128,109 @@ public class UserServiceTest {
         verify(userRepository, times(1)).findById(userId);
     }
 
+    @Test
+    public void testGetCards_ReturnsCardsFromSingleQuery() {
+        Long userId = 1L;
+        List<CardResponse> expectedCards = List.of(new CardResponse(1111222233334444L, 1001001001001001L, new Date(), 123, 0L));
+        when(cardRepository.findResponsesByUserId(userId)).thenReturn(expectedCards);
+
+        List<CardResponse> actualCards = userService.getCards(userId);
+
+        assertEquals(expectedCards, actualCards);
+        verify(cardRepository, times(1)).findResponsesByUserId(userId);
+        verify(cardRepository, never()).findByAccount(any());
+        verify(userRepository, never()).existsById(any());
+    }
+
+    @Test
+    public void testGetCards_UserNotFound_ThrowsNotFoundException() {
+        Long userId = 1L;
+        when(cardRepository.findResponsesByUserId(userId)).thenReturn(List.of());
+        when(userRepository.existsById(userId)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> userService.getCards(userId));
+    }
+
+    @Test
+    public void testGetCards_UserWithoutCards_ReturnsEmptyList() {
+        Long userId = 1L;
+        when(cardRepository.findResponsesByUserId(userId)).thenReturn(List.of());
+        when(userRepository.existsById(userId)).thenReturn(true);
+
+        assertTrue(userService.getCards(userId).isEmpty());
+    }
+
+    @Test
+    public void testGetOverallBalance_ConvertsEachCurrencyOnce() {
+        Long userId = 1L;
+        when(accountRepository.sumBalanceByCurrency(userId)).thenReturn(List.of(
+                currencyBalance("RUB", 100_000L),
+                currencyBalance("USD", 1_000L),
+                currencyBalance("EUR", 2_000L)));
+
+        double overallBalance = userService.getOverallBalance(userId);
+
+        assertEquals(1000.0 + 10.0 * 90.0 + 20.0 * 100.0, overallBalance, 1e-9);
+        verify(exchangeRateTable, times(3)).getRate(anyString());
+        verify(accountRepository, never()).findByUser(any());
+        verify(userRepository, never()).existsById(any());
+    }
+
+    @Test
+    public void testGetOverallBalance_ThrowsBadArgumentException_WhenCurrencyRateIsUnknown() {
+        Long userId = 1L;
+        when(accountRepository.sumBalanceByCurrency(userId)).thenReturn(List.of(
+                currencyBalance("RUB", 100_000L),
+                currencyBalance("GBP", 1_000L)));
+
+        assertThrows(BadArgumentException.class, () -> userService.getOverallBalance(userId));
+    }
+
+    @Test
+    public void testGetOverallBalanceAsOf_UsesHistoricalRates() {
+        Long userId = 1L;
+        Instant asOf = Instant.parse("2024-01-01T00:00:00Z");
+        when(accountRepository.sumBalanceByCurrencyAsOf(userId, asOf)).thenReturn(List.of(
+                currencyBalance("RUB", 100_000L),
+                currencyBalance("USD", 1_000L)));
+        when(exchangeRateHistory.getRate("RUB", asOf)).thenReturn(1.0);
+        when(exchangeRateHistory.getRate("USD", asOf)).thenReturn(70.0);
+
+        double overallBalance = userService.getOverallBalance(userId, asOf);
+
+        assertEquals(1000.0 + 10.0 * 70.0, overallBalance, 1e-9);
+        verify(accountRepository, never()).sumBalanceByCurrency(any());
+        verify(exchangeRateTable, never()).getRate(anyString());
+    }
+
+    @Test
+    public void testGetOverallBalanceAsOf_UserNotFound_ThrowsNotFoundException() {
+        Long userId = 1L;
+        Instant asOf = Instant.parse("2024-01-01T00:00:00Z");
+        when(accountRepository.sumBalanceByCurrencyAsOf(userId, asOf)).thenReturn(List.of());
+        when(userRepository.existsById(userId)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> userService.getOverallBalance(userId, asOf));
+    }
+
+    @Test
+    public void testGetOverallBalance_UserNotFound_ThrowsNotFoundException() {
+        Long userId = 1L;
+        when(accountRepository.sumBalanceByCurrency(userId)).thenReturn(List.of());
+        when(userRepository.existsById(userId)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> userService.getOverallBalance(userId));
+    }
+
+    @Test
+    public void testGetOverallBalance_UserWithoutAccounts_ReturnsZero() {
+        Long userId = 1L;
+        when(accountRepository.sumBalanceByCurrency(userId)).thenReturn(List.of());
+        when(userRepository.existsById(userId)).thenReturn(true);
+
+        assertEquals(0.0, userService.getOverallBalance(userId));
+    }
+
     @Test
     void create_ShouldCreateUser() {
         User user = new User(1L, "John Smith", null, "123 Main St, City");
@@ -86,20 +244,27 @@ public class UserServiceTest {
     }
 
     @Test
-    void delete_ShouldDeleteUser_WhenUserExists() {
-        User user = new User(1L, "John Smith", null, "123 Main St, City");
-
-        when(userRepository.findById(user.getId())).thenReturn(java.util.Optional.of(user));
+    void delete_ShouldDeleteUserWithAccountsAndCards_WhenUserExists() {
+        Long userId = 1L;
 
-        assertDoesNotThrow(() -> userService.delete(user.getId()));
-        verify(userRepository, times(1)).delete(user);
+        when(userRepository.deleteUserById(userId)).thenReturn(1);
+        when(accountRepository.lockBalancesByUserId(userId))
+                .thenReturn(List.of(AccountServiceTest.balance(1001001001001001L, 500000L)));
+
+        assertDoesNotThrow(() -> userService.delete(userId));
+        verify(cardRepository, times(1)).deleteByUserId(userId);
+        verify(accountRepository, times(1)).deleteByUserId(userId);
+        verify(ledger).recordClosedByUserId(userId);
+        verify(outbox).deletedByUserId(userId);
+        verify(userRepository, times(1)).deleteUserById(userId);
+        verify(cardRepository, never()).deleteAll(any());
     }
 
     @Test
     void delete_ShouldThrowNotFoundException_WhenUserDoesNotExist() {
         Long userId = 1L;
 
-        when(userRepository.findById(userId)).thenReturn(java.util.Optional.empty());
+        when(userRepository.deleteUserById(userId)).thenReturn(0);
 
         assertThrows(NotFoundException.class, () -> userService.delete(userId));
         verify(userRepository, never()).delete(any());
@@ -111,12 +276,23 @@ public class UserServiceTest {
         User updatedUser = new User(1L, "John Doe", null, "456 Elm St, Town");
 
         when(userRepository.findById(existingUser.getId())).thenReturn(java.util.Optional.of(existingUser));
-        when(userRepository.save(existingUser)).thenReturn(existingUser);
+        when(userRepository.saveAndFlush(existingUser)).thenReturn(existingUser);
 
         assertDoesNotThrow(() -> userService.update(existingUser.getId(), updatedUser));
         assertEquals(updatedUser.getName(), existingUser.getName());
         verify(userRepository, times(1)).findById(existingUser.getId());
-        verify(userRepository, times(1)).save(existingUser);
+        verify(userRepository, times(1)).saveAndFlush(existingUser);
+    }
+
+    @Test
+    void update_ShouldThrowConflictException_WhenVersionDoesNotMatch() {
+        User existingUser = new User(1L, "John Smith", null, "123 Main St, City");
+        existingUser.setVersion(5L);
+
+        when(userRepository.findById(existingUser.getId())).thenReturn(Optional.of(existingUser));
+
+        assertThrows(ConflictException.class, () -> userService.update(existingUser.getId(), new User(existingUser), 4L));
+        verify(userRepository, never()).saveAndFlush(any());
     }
 
     @Test
@@ -127,7 +303,36 @@ public class UserServiceTest {
         when(userRepository.findById(userId)).thenReturn(java.util.Optional.empty());
 
         assertThrows(NotFoundException.class, () -> userService.update(userId, updatedUser));
-        verify(userRepository, never()).save(any());
+        verify(userRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    public void testGetAccounts_ReturnsAccountsFromSingleQuery() {
+        Long userId = 1L;
+        List<AccountResponse> expectedAccounts = List.of(new AccountResponse(1001001001001001L, userId, "USD", 500_000L, 0L));
+        when(accountRepository.findResponsesByUserId(userId)).thenReturn(expectedAccounts);
+
+        List<AccountResponse> actualAccounts = userService.getAccounts(userId);
+
+        assertEquals(expectedAccounts, actualAccounts);
+        assertEquals(5000.0, actualAccounts.get(0).balance());
+        verify(userRepository, never()).findById(any());
+        verify(userRepository, never()).existsById(any());
+    }
+
+    @Test
+    public void testGetAccounts_UserNotFound_ThrowsNotFoundException() {
+        Long userId = 1L;
+        when(accountRepository.findResponsesByUserId(userId)).thenReturn(List.of());
+        when(userRepository.existsById(userId)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> userService.getAccounts(userId));
+    }
+
+    private List<UserResponse> getAllUserResponses() {
+        return getAllUsers().stream()
+                .map(user -> new UserResponse(user.getId(), user.getName(), user.getBirthdate(), user.getAddress(), 0L))
+                .toList();
     }
 
     private List<User> getAllUsers() {
@@ -153,4 +358,18 @@ public class UserServiceTest {
 
         return userList;
     }
-}
\ No newline at end of file
+
+    private CurrencyBalance currencyBalance(String currency, Long total) {
+        return new CurrencyBalance() {
+            @Override
+            public String getCurrency() {
+                return currency;
+            }
+
+            @Override
+            public Long getTotal() {
+                return total;
+            }
+        };
+    }
+}
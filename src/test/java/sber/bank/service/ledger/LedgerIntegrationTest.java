@@ -0,0 +1,193 @@
+package sber.bank.service.ledger;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import sber.bank.domain.Account;
+import sber.bank.domain.BalanceSnapshot;
+import sber.bank.domain.Money;
+import sber.bank.domain.User;
+import sber.bank.repos.AccountRepository;
+import sber.bank.exceptions.NotFoundException;
+import sber.bank.repos.BalanceSnapshotRepository;
+import sber.bank.service.implementation.AccountService;
+import sber.bank.service.implementation.UserService;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет, что баланс в таблице счетов совпадает с балансом, вычисленным по журналу проводок,
+ * после каждого способа изменения баланса и после снимков балансов, а также балансы на прошедшие моменты.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class LedgerIntegrationTest {
+    private static final long FROM = 1001001001001001L;
+
+    private static final long TO = 9500000000000001L;
+
+    private static final long NEW_ACCOUNT = 9500000000000000L;
+
+    @Autowired
+    private Ledger ledger;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private BalanceSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    public void setup() {
+        accountService.create(new Account(TO, new User(2L, null, null, null), "USD", 0.0));
+    }
+
+    @Test
+    public void testMigratedBalances_MatchLedger() {
+        for (Account account : accountRepository.findAll()) {
+            assertEquals(account.getBalanceMinor(), ledger.getBalance(account.getNumber()));
+        }
+    }
+
+    @Test
+    public void testTransfer_PostsEntry() {
+        long from = ledger.getBalance(FROM);
+        long to = ledger.getBalance(TO);
+
+        accountService.transfer(FROM, TO, 150L);
+
+        assertEquals(from - 150L, ledger.getBalance(FROM));
+        assertEquals(to + 150L, ledger.getBalance(TO));
+        assertBalanceMatchesLedger(FROM);
+        assertBalanceMatchesLedger(TO);
+    }
+
+    @Test
+    public void testCreateDepositAndWithdraw_PostAdjustments() {
+        accountService.create(new Account(NEW_ACCOUNT, new User(1L, null, null, null), "RUB", 10.0));
+        assertEquals(1000L, ledger.getBalance(NEW_ACCOUNT));
+
+        accountService.deposit(NEW_ACCOUNT, 500L);
+        accountService.withdraw(NEW_ACCOUNT, 1250L);
+        assertEquals(250L, ledger.getBalance(NEW_ACCOUNT));
+        assertBalanceMatchesLedger(NEW_ACCOUNT);
+    }
+
+    @Test
+    public void testSnapshots_CoverEntriesBeforeCutoff() {
+        assertTrue(ledger.takeSnapshots(Instant.now()) > 0);
+        long snapshotted = snapshotRepository.findById(FROM).map(BalanceSnapshot::getBalance).orElseThrow();
+        assertEquals(accountRepository.findById(FROM).orElseThrow().getBalanceMinor(), snapshotted);
+
+        accountService.transfer(FROM, TO, 100L);
+        assertEquals(snapshotted - 100L, ledger.getBalance(FROM));
+
+        Instant cutoff = Instant.now().plusSeconds(1).truncatedTo(ChronoUnit.MICROS);
+        ledger.takeSnapshots(cutoff);
+        entityManager.clear();
+        BalanceSnapshot advanced = snapshotRepository.findById(FROM).orElseThrow();
+        assertEquals(cutoff, advanced.getTakenAt());
+        assertEquals(snapshotted - 100L, advanced.getBalance());
+        assertEquals(snapshotted - 100L, ledger.getBalance(FROM));
+    }
+
+    @Test
+    public void testBalanceAsOf_UsesSnapshotHistory() {
+        long before = ledger.getBalance(FROM);
+        Instant first = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        ledger.takeSnapshots(first);
+
+        accountService.transfer(FROM, TO, 100L);
+        // Момент снимка не должен опережать время следующих проводок.
+        Instant second = Instant.now().truncatedTo(ChronoUnit.MICROS).plus(1, ChronoUnit.MICROS);
+        ledger.takeSnapshots(second);
+
+        accountService.transfer(FROM, TO, 50L);
+        Instant now = Instant.now().plusSeconds(2);
+
+        assertEquals(0L, ledger.getBalance(FROM, Instant.EPOCH));
+        assertEquals(before, ledger.getBalance(FROM, first));
+        assertEquals(before - 100L, ledger.getBalance(FROM, second));
+        assertEquals(before - 150L, ledger.getBalance(FROM, now));
+        assertEquals(Money.toMajor(before - 100L), accountService.getBalance(FROM, second));
+    }
+
+    @Test
+    public void testOverallBalanceAsOf_MatchesBalanceAtMoment() {
+        double before = userService.getOverallBalance(1L);
+        Instant asOf = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        ledger.takeSnapshots(asOf);
+
+        accountService.transfer(FROM, TO, 100L);
+        double after = userService.getOverallBalance(1L);
+
+        assertEquals(before, userService.getOverallBalance(1L, asOf), 1e-9);
+        assertEquals(after, userService.getOverallBalance(1L, Instant.now().plusSeconds(1)), 1e-9);
+        assertEquals(before - 90.0, after, 1e-9);
+    }
+
+    @Test
+    public void testOverallBalanceAsOf_IgnoresLaterOwnerChangeAndClose() {
+        accountService.create(new Account(NEW_ACCOUNT, new User(1L, null, null, null), "RUB", 10.0));
+        Instant asOf = Instant.now().truncatedTo(ChronoUnit.MICROS).plus(1, ChronoUnit.MICROS);
+        double owner = userService.getOverallBalance(1L, asOf);
+        double other = userService.getOverallBalance(2L, asOf);
+
+        accountService.update(NEW_ACCOUNT, new Account(null, new User(2L, null, null, null), "RUB", 10.0), null);
+        accountService.delete(NEW_ACCOUNT);
+
+        assertEquals(owner, userService.getOverallBalance(1L, asOf), 1e-9);
+        assertEquals(other, userService.getOverallBalance(2L, asOf), 1e-9);
+        assertEquals(owner - 10.0, userService.getOverallBalance(1L, Instant.now().plusSeconds(1)), 1e-9);
+        assertEquals(other, userService.getOverallBalance(2L, Instant.now().plusSeconds(1)), 1e-9);
+    }
+
+    @Test
+    public void testDeleteAndRecreate_NewAccountDoesNotInheritBalance() {
+        accountService.create(new Account(NEW_ACCOUNT, new User(1L, null, null, null), "RUB", 10.0));
+        accountService.deposit(NEW_ACCOUNT, 500L);
+        ledger.takeSnapshots(Instant.now().truncatedTo(ChronoUnit.MICROS));
+        accountService.delete(NEW_ACCOUNT);
+        assertEquals(0L, ledger.getBalance(NEW_ACCOUNT));
+        // Счет удален DELETE-запросом, минуя контекст персистентности общей транзакции теста.
+        entityManager.clear();
+
+        accountService.create(new Account(NEW_ACCOUNT, new User(1L, null, null, null), "RUB", 3.0));
+        assertEquals(300L, ledger.getBalance(NEW_ACCOUNT));
+        assertBalanceMatchesLedger(NEW_ACCOUNT);
+
+        Instant cutoff = Instant.now().plusSeconds(1).truncatedTo(ChronoUnit.MICROS);
+        ledger.takeSnapshots(cutoff);
+        entityManager.clear();
+        assertEquals(300L, snapshotRepository.findById(NEW_ACCOUNT).map(BalanceSnapshot::getBalance).orElseThrow());
+        assertEquals(userService.getOverallBalance(1L), userService.getOverallBalance(1L, cutoff), 1e-9);
+    }
+
+    @Test
+    public void testBalanceAsOf_UnknownAccount_ThrowsNotFoundException() {
+        assertThrows(NotFoundException.class, () -> accountService.getBalance(9500000000000002L, Instant.now()));
+    }
+
+    private void assertBalanceMatchesLedger(long number) {
+        // Переводы изменяют баланс UPDATE-запросом, минуя контекст персистентности.
+        entityManager.clear();
+        assertEquals(accountRepository.findById(number).orElseThrow().getBalanceMinor(), ledger.getBalance(number));
+    }
+}
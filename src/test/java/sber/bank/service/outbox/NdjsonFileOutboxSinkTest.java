@@ -0,0 +1,45 @@
+package sber.bank.service.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import sber.bank.domain.OutboxEvent;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NdjsonFileOutboxSinkTest {
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    public void testPublish_AppendsOneJsonObjectPerLine(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("outbox.ndjson");
+        NdjsonFileOutboxSink sink = new NdjsonFileOutboxSink(file, objectMapper);
+        Instant createdAt = Instant.parse("2024-01-01T00:00:00Z");
+
+        sink.publish(List.of(new OutboxEvent(OutboxEvent.Aggregate.ACCOUNT, 1001001001001001L, OutboxEvent.Type.UPDATED,
+                "{\"currency\":\"USD\",\"balance\":10.5}", createdAt)));
+        sink.publish(List.of(new OutboxEvent(OutboxEvent.Aggregate.CARD, 4111111111111111L, OutboxEvent.Type.DELETED,
+                null, createdAt)));
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+
+        JsonNode updated = objectMapper.readTree(lines.get(0));
+        assertEquals("ACCOUNT", updated.get("aggregate").asText());
+        assertEquals("UPDATED", updated.get("type").asText());
+        assertEquals(10.5, updated.get("payload").get("balance").asDouble());
+        assertEquals("2024-01-01T00:00:00Z", updated.get("createdAt").asText());
+
+        JsonNode deleted = objectMapper.readTree(lines.get(1));
+        assertEquals(4111111111111111L, deleted.get("aggregateId").asLong());
+        assertTrue(deleted.get("payload").isNull());
+    }
+}
@@ -0,0 +1,154 @@
+package sber.bank.service.outbox;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import sber.bank.domain.Account;
+import sber.bank.domain.OutboxEvent;
+import sber.bank.domain.User;
+import sber.bank.repos.AccountRepository;
+import sber.bank.repos.OutboxEventRepository;
+import sber.bank.service.implementation.AccountService;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет, что изменения счетов записывают события в той же транзакции,
+ * а ретранслятор публикует их порциями и повторяет публикацию после сбоя получателя.
+ * Пропуск заблокированных строк (SKIP LOCKED) здесь не проверяется: H2 2.1 его не поддерживает.
+ */
+@SpringBootTest(properties = {"bank.outbox.relay-interval-ms=3600000", "bank.outbox.batch-size=2"})
+@ActiveProfiles("test")
+public class OutboxIntegrationTest {
+    private static final long NUMBER = 9600000000000000L;
+
+    private static final long OTHER_NUMBER = 9600000000000001L;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxRelay relay;
+
+    @Autowired
+    private InMemoryOutboxSink sink;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    public void setup() {
+        relay.relay();
+        sink.events.clear();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        sink.failing = false;
+        for (long number : List.of(NUMBER, OTHER_NUMBER)) {
+            if (accountRepository.existsById(number)) {
+                accountService.delete(number);
+            }
+        }
+        relay.relay();
+    }
+
+    @Test
+    public void testAccountChanges_PublishedInOrder() {
+        accountService.create(new Account(NUMBER, new User(1L, null, null, null), "RUB", 10.0));
+        accountService.update(NUMBER, new Account(null, new User(2L, null, null, null), "RUB", 10.0), null);
+        accountService.delete(NUMBER);
+
+        assertEquals(3, relay.relay());
+
+        List<OutboxEvent> events = published(NUMBER);
+        assertEquals(List.of(OutboxEvent.Type.CREATED, OutboxEvent.Type.UPDATED, OutboxEvent.Type.DELETED),
+                events.stream().map(OutboxEvent::getType).toList());
+        assertTrue(events.get(1).getPayload().contains("\"userId\":2"));
+        assertNull(events.get(2).getPayload());
+        assertEquals(0, outboxEventRepository.count());
+    }
+
+    @Test
+    public void testTransfer_PublishesBothAccounts() {
+        accountService.create(new Account(NUMBER, new User(1L, null, null, null), "RUB", 10.0));
+        accountService.create(new Account(OTHER_NUMBER, new User(1L, null, null, null), "RUB", 0.0));
+        relay.relay();
+
+        accountService.transfer(NUMBER, OTHER_NUMBER, 400L);
+        assertEquals(2, relay.relay());
+
+        assertEquals(List.of(OutboxEvent.Type.CREATED, OutboxEvent.Type.UPDATED),
+                published(NUMBER).stream().map(OutboxEvent::getType).toList());
+        assertTrue(published(NUMBER).get(1).getPayload().contains("\"balance\":6.0"));
+        assertTrue(published(OTHER_NUMBER).get(1).getPayload().contains("\"balance\":4.0"));
+    }
+
+    @Test
+    public void testRolledBackChange_RecordsNoEvent() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            accountService.create(new Account(NUMBER, new User(1L, null, null, null), "RUB", 10.0));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, relay.relay());
+        assertTrue(published(NUMBER).isEmpty());
+    }
+
+    @Test
+    public void testSinkFailure_RetriesEvents() {
+        accountService.create(new Account(NUMBER, new User(1L, null, null, null), "RUB", 10.0));
+        sink.failing = true;
+
+        assertEquals(0, relay.relay());
+        assertEquals(1, outboxEventRepository.count());
+
+        sink.failing = false;
+        assertEquals(1, relay.relay());
+        assertEquals(1, published(NUMBER).size());
+    }
+
+    private List<OutboxEvent> published(long number) {
+        return sink.events.stream()
+                .filter(event -> event.getAggregate() == OutboxEvent.Aggregate.ACCOUNT && event.getAggregateId() == number)
+                .toList();
+    }
+
+    @TestConfiguration
+    static class SinkConfig {
+        @Bean
+        public InMemoryOutboxSink inMemoryOutboxSink() {
+            return new InMemoryOutboxSink();
+        }
+    }
+
+    static class InMemoryOutboxSink implements OutboxSink {
+        private final List<OutboxEvent> events = new CopyOnWriteArrayList<>();
+
+        private volatile boolean failing;
+
+        @Override
+        public void publish(List<OutboxEvent> batch) {
+            if (failing) {
+                throw new IllegalStateException("Получатель недоступен");
+            }
+            events.addAll(batch);
+        }
+    }
+}
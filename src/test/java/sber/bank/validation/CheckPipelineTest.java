@@ -0,0 +1,68 @@
+package sber.bank.validation;
+
+import org.junit.jupiter.api.Test;
+import sber.bank.domain.User;
+import sber.bank.dto.TransferRequest;
+import sber.bank.exceptions.BadArgumentException;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CheckPipelineTest {
+    @Test
+    public void testValidate_AcceptsValidObject() {
+        assertDoesNotThrow(() -> DomainRules.USER.validate(new User(1L, "Иванов Иван", new Date(0), "ул. Пушкина")));
+        assertDoesNotThrow(() -> DomainRules.TRANSFER.validate(new TransferRequest(1001001001001001L, 2002002002002002L, 1.0)));
+    }
+
+    @Test
+    public void testValidate_ReportsEveryViolatedRule() {
+        BadArgumentException exception = assertThrows(BadArgumentException.class,
+                () -> DomainRules.USER.validate(new User(1L, "", null, "ул. Пушкина")));
+
+        assertEquals("Не указано имя пользователя; Не указана дата рождения пользователя", exception.getMessage());
+    }
+
+    @Test
+    public void testValidate_ThrowsSharedStacklessExceptionPerViolationSet() {
+        BadArgumentException first = assertThrows(BadArgumentException.class,
+                () -> DomainRules.TRANSFER.validate(new TransferRequest(null, 2002002002002002L, 1.0)));
+        BadArgumentException second = assertThrows(BadArgumentException.class,
+                () -> DomainRules.TRANSFER.validate(new TransferRequest(123L, 2002002002002002L, 5.0)));
+        BadArgumentException other = assertThrows(BadArgumentException.class,
+                () -> DomainRules.TRANSFER.validate(new TransferRequest(123L, 2002002002002002L, -5.0)));
+
+        assertSame(first, second);
+        assertNotSame(first, other);
+        assertEquals(0, first.getStackTrace().length);
+    }
+
+    @Test
+    public void testValidate_ThrowsMissingMessageForNull() {
+        BadArgumentException exception = assertThrows(BadArgumentException.class, () -> DomainRules.CARD.validate(null));
+
+        assertEquals("Данные карты не могут быть пустыми", exception.getMessage());
+    }
+
+    @Test
+    public void testPipelineValidator_ChecksEveryListItem() {
+        PipelineValidator validator = new PipelineValidator();
+        List<User> users = List.of(new User(1L, "Иванов Иван", new Date(0), "ул. Пушкина"), new User());
+
+        assertTrue(validator.supports(User.class));
+        assertFalse(validator.supports(String.class));
+        assertThrows(BadArgumentException.class, () -> validator.validate(users, null));
+    }
+
+    @Test
+    public void testBuilder_RejectsMoreThan64Rules() {
+        CheckPipeline.Builder<Object> builder = CheckPipeline.of(Object.class, "Пусто");
+        for (int i = 0; i < 64; i++) {
+            builder.require(value -> true, "Правило " + i);
+        }
+
+        assertThrows(IllegalStateException.class, () -> builder.require(value -> true, "Лишнее правило"));
+    }
+}
@@ -0,0 +1,30 @@
+package sber.bank.validation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DigitsTest {
+    @Test
+    public void testCount_MatchesDecimalLength() {
+        long[] values = {1, 9, 10, 99, 100, 123456789012345L, 1234567890123456789L, Long.MAX_VALUE};
+
+        for (long value : values) {
+            assertEquals(String.valueOf(value).length(), Digits.count(value), String.valueOf(value));
+        }
+    }
+
+    @Test
+    public void testIsLuhnValid_AcceptsValidNumbers() {
+        assertTrue(Digits.isLuhnValid(4111111111111111L));
+        assertTrue(Digits.isLuhnValid(5555555555554444L));
+        assertTrue(Digits.isLuhnValid(378282246310005L));
+        assertTrue(Digits.isLuhnValid(79927398713L));
+    }
+
+    @Test
+    public void testIsLuhnValid_RejectsChangedDigit() {
+        assertFalse(Digits.isLuhnValid(4111111111111112L));
+        assertFalse(Digits.isLuhnValid(79927398710L));
+    }
+}
@@ -0,0 +1,56 @@
+package sber.bank.validation;
+
+import org.junit.jupiter.api.Test;
+import sber.bank.exceptions.BadArgumentException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ValidationTest {
+    @Test
+    public void testValidateCardNumber_AcceptsSupportedLengthsWithValidChecksum() {
+        assertDoesNotThrow(() -> Validation.validateCardNumber(4222222222222L));
+        assertDoesNotThrow(() -> Validation.validateCardNumber(378282246310005L));
+        assertDoesNotThrow(() -> Validation.validateCardNumber(4111111111111111L));
+        assertDoesNotThrow(() -> Validation.validateCardNumber(411111111111111118L));
+        assertDoesNotThrow(() -> Validation.validateCardNumber(6011111111111111110L));
+    }
+
+    @Test
+    public void testValidateCardNumber_RejectsInvalidNumbers() {
+        assertThrows(BadArgumentException.class, () -> Validation.validateCardNumber(null));
+        assertThrows(BadArgumentException.class, () -> Validation.validateCardNumber(-4111111111111111L));
+        assertThrows(BadArgumentException.class, () -> Validation.validateCardNumber(4111111111111112L));
+        assertThrows(BadArgumentException.class, () -> Validation.validateCardNumber(41111111111111113L));
+        assertThrows(BadArgumentException.class, () -> Validation.validateCardNumber(79927398713L));
+    }
+
+    @Test
+    public void testValidateCardNumber_ThrowsSharedStacklessException() {
+        BadArgumentException first = assertThrows(BadArgumentException.class, () -> Validation.validateCardNumber(1L));
+        BadArgumentException second = assertThrows(BadArgumentException.class, () -> Validation.validateCardNumber(2L));
+
+        assertSame(first, second);
+        assertEquals("Некорректный номер карты", first.getMessage());
+        assertEquals(0, first.getStackTrace().length);
+    }
+
+    @Test
+    public void testValidateCardNumber_SharedExceptionIsNotModified() {
+        BadArgumentException shared = assertThrows(BadArgumentException.class, () -> Validation.validateCardNumber(1L));
+
+        shared.addSuppressed(new IllegalStateException());
+        shared.setStackTrace(new Throwable().getStackTrace());
+
+        assertEquals(0, shared.getSuppressed().length);
+        assertEquals(0, shared.getStackTrace().length);
+        assertThrows(IllegalStateException.class, () -> shared.initCause(new IllegalStateException()));
+    }
+
+    @Test
+    public void testValidateAccountNumber_RequiresFifteenDigits() {
+        assertDoesNotThrow(() -> Validation.validateAccountNumber(100000000000000L));
+        assertThrows(BadArgumentException.class, () -> Validation.validateAccountNumber(99999999999999L));
+        assertThrows(BadArgumentException.class, () -> Validation.validateAccountNumber(-100000000000000L));
+        assertThrows(BadArgumentException.class, () -> Validation.validateAccountNumber(null));
+    }
+}